@@ -0,0 +1,187 @@
+package com.calculator.benchmark;
+
+import com.calculator.core.CalculatorEngine;
+import com.calculator.core.NumberFormatter;
+import com.calculator.core.NumberSyntax;
+import com.calculator.core.PrecisionMath;
+import com.calculator.programmer.BaseConverter;
+import com.calculator.units.UnitRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the engine's standalone functions: factorial, 500-digit exp, sin and atan,
+ * unit and number system conversion of small and multi-kilobit values, bitwise operations,
+ * result formatting and number parsing, compared with the JDK's parser.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class EngineFunctionsBenchmark {
+
+    private CalculatorEngine engine;
+
+    // Fields rather than literals so the JIT cannot constant-fold the inputs
+    private double integerArgument = 15;
+    private double fractionalArgument = 7.5;
+    private double length = 12.5;
+    private String hexValue = "7f3a9c";
+    private String largeDecimal;
+    private ByteBuffer registerDump;
+    private ByteBuffer convertedDump = ByteBuffer.allocate(1 << 20);
+    private BaseConverter hexToBinary = new BaseConverter(16, 2);
+    private double result = 2.0 / 3.0;
+    private byte[] formatted = new byte[NumberFormatter.MAX_LENGTH];
+    private StringBuilder display = new StringBuilder();
+    private NumberFormatter displayFormat = new NumberFormatter(15, NumberFormatter.Notation.PLAIN);
+    private String literal = "2718.2818284590452";
+    private String groupedLiteral = "1.234.567,891";
+    private NumberSyntax german = NumberSyntax.forLocale(Locale.GERMANY);
+    private long left = 0x5a5a5a5aL;
+    private long right = 0x0ff0L;
+    private BigDecimal precisionArgument = new BigDecimal("1.2345678901234567");
+    private BigDecimal precisionFraction = new BigDecimal("0.6180339887498949");
+    private MathContext fiveHundredDigits = new MathContext(500);
+
+    private UnitRegistry units;
+    private int metre;
+    private int foot;
+    private double[] lengths = new double[4096];
+    private double[] converted = new double[4096];
+
+    @Setup
+    public void setUp() {
+        engine = new CalculatorEngine();
+        units = engine.getUnitRegistry();
+        metre = units.idOf("m");
+        foot = units.idOf("ft");
+        for (int i = 0; i < lengths.length; i++) {
+            lengths[i] = i * 0.25;
+        }
+        largeDecimal = new BigInteger(4096, new Random(1)).toString();
+        StringBuilder dump = new StringBuilder();
+        Random random = new Random(2);
+        for (int i = 0; i < 4096; i++) {
+            dump.append("0x").append(Long.toHexString(random.nextLong())).append('\n');
+        }
+        registerDump = ByteBuffer.wrap(dump.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Benchmark
+    public double factorialInteger() {
+        return engine.factorial(integerArgument);
+    }
+
+    @Benchmark
+    public double factorialGamma() {
+        return engine.factorial(fractionalArgument);
+    }
+
+    @Benchmark
+    public BigDecimal precisionExp() {
+        return PrecisionMath.exp(precisionArgument, fiveHundredDigits);
+    }
+
+    @Benchmark
+    public BigDecimal precisionSin() {
+        return PrecisionMath.sin(precisionArgument, fiveHundredDigits);
+    }
+
+    @Benchmark
+    public BigDecimal precisionAtan() {
+        return PrecisionMath.atan(precisionFraction, fiveHundredDigits);
+    }
+
+    @Benchmark
+    public double convertLength() {
+        return engine.convert(length, "m", "ft");
+    }
+
+    @Benchmark
+    public double convertTemperature() {
+        return engine.convert(length, "K", "C");
+    }
+
+    @Benchmark
+    public double convertById() {
+        return units.convert(length, metre, foot);
+    }
+
+    @Benchmark
+    public double[] convertColumn() {
+        engine.convert(lengths, "m", "ft", converted);
+        return converted;
+    }
+
+    @Benchmark
+    public String convertNumberSystem() {
+        return engine.convertNumberSystem(hexValue, 16, 2);
+    }
+
+    @Benchmark
+    public String convertLargeNumberSystem() {
+        return engine.convertNumberSystem(largeDecimal, 10, 16);
+    }
+    
+    @Benchmark
+    public int convertRegisterDump() {
+        registerDump.rewind();
+        convertedDump.clear();
+        return hexToBinary.convert(registerDump, convertedDump, true);
+    }
+    
+    @Benchmark
+    public int formatShortest() {
+        return NumberFormatter.SHORTEST.format(result, formatted, 0);
+    }
+
+    @Benchmark
+    public int formatSignificantDigits() {
+        display.setLength(0);
+        return displayFormat.format(result, display).length();
+    }
+
+    @Benchmark
+    public double parseLiteral() {
+        return NumberSyntax.STANDARD.parse(literal);
+    }
+
+    @Benchmark
+    public double parseLiteralJdk() {
+        return Double.parseDouble(literal);
+    }
+
+    @Benchmark
+    public double parseGroupedLiteral() {
+        return german.parse(groupedLiteral);
+    }
+
+    @Benchmark
+    public long bitwiseAnd() {
+        return engine.bitwiseOperation(left, right, CalculatorEngine.BitwiseOperation.AND);
+    }
+
+    @Benchmark
+    public long bitwiseShift() {
+        return engine.bitwiseOperation(left, 3, CalculatorEngine.BitwiseOperation.LEFT_SHIFT);
+    }
+}
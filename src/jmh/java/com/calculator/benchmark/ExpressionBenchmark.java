@@ -0,0 +1,111 @@
+package com.calculator.benchmark;
+
+import com.calculator.core.CalculatorEngine;
+import com.calculator.core.CompiledExpression;
+import com.calculator.core.EvaluationContext;
+import com.calculator.core.ExpressionCompiler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for expression evaluation through {@link CalculatorEngine#evaluate(String)}.
+ * The cold variants compile on every call; the repeated variants hit the expression cache.
+ * The precompiled variants compare an optimized program with the same program as written.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class ExpressionBenchmark {
+
+    @Param({"short", "long", "literals", "generated"})
+    public String length;
+
+    private CalculatorEngine engine;
+    private EvaluationContext context;
+    private ExpressionCompiler compiler;
+    private String constantExpression;
+    private String variableExpression;
+    private CompiledExpression optimized;
+    private CompiledExpression unoptimized;
+    private double[] optimizedValues;
+    private double[] unoptimizedValues;
+
+    @Setup
+    public void setUp() {
+        engine = new CalculatorEngine();
+        context = engine.newContext();
+        context.setVariable("x", 3.5);
+        context.setVariable("y", 1.25);
+        compiler = new ExpressionCompiler();
+
+        if (length.equals("short")) {
+            constantExpression = "2+3×4";
+            variableExpression = "x×y+1";
+        } else if (length.equals("literals")) {
+            constantExpression = "3.14159265358979×2.71828182845905+1.41421356237310÷0.57721566490153-1234.5678e-3+0x7f3a+0.000123456789";
+            variableExpression = "x×3.14159265358979+y÷2.71828182845905-1.41421356237310×x+0.57721566490153e2×y";
+        } else if (length.equals("generated")) {
+            // Machine-written formulas repeat subterms and spell out constant factors
+            constantExpression = "sqrt(3^2+4^2)×2×pi/sqrt(4^2+3^2)+sqrt(3^2+4^2)";
+            variableExpression = "sqrt(x^2+y^2)×2×pi+sin(x×y)/sqrt(x^2+y^2)-cos(x×y)×sqrt(x^2+y^2)×e";
+        } else {
+            constantExpression = "(12.5×3-4÷2)^2+sqrt(144)×sin(π/6)-log10(1000)+(7-2)×(3+4)÷5+cos(0)×2.75";
+            variableExpression = "(x×3-y÷2)^2+sqrt(x×x+y×y)×sin(π/6)-log10(x×1000)+(x-y)×(x+y)÷5+cos(y)×2.75";
+        }
+        optimized = engine.compile(variableExpression);
+        unoptimized = optimized.getUnoptimized();
+        optimizedValues = bind(optimized);
+        unoptimizedValues = bind(unoptimized);
+    }
+
+    @Benchmark
+    public double evaluateRepeated() {
+        return engine.evaluate(constantExpression, context);
+    }
+
+    @Benchmark
+    public double evaluateRepeatedWithVariables() {
+        return engine.evaluate(variableExpression, context);
+    }
+
+    @Benchmark
+    public double evaluateOptimized() {
+        return optimized.evaluate(optimizedValues);
+    }
+
+    @Benchmark
+    public double evaluateUnoptimized() {
+        return unoptimized.evaluate(unoptimizedValues);
+    }
+
+    @Benchmark
+    public double evaluateCold() {
+        return compiler.compile(constantExpression).evaluate(context.getVariables());
+    }
+
+    @Benchmark
+    public double evaluateColdWithVariables() {
+        return compiler.compile(variableExpression).evaluate(context.getVariables());
+    }
+
+    private double[] bind(CompiledExpression expression) {
+        double[] values = new double[expression.getVariableNames().size()];
+        for (int slot = 0; slot < values.length; slot++) {
+            values[slot] = context.getVariable(expression.getVariableNames().get(slot));
+        }
+        return values;
+    }
+}
@@ -1,13 +1,26 @@
 package com.calculator;
 
+import com.calculator.cli.StreamingEvaluator;
+import com.calculator.server.EvaluationServer;
 import com.calculator.ui.CalculatorApp;
 import javafx.application.Application;
+import java.io.IOException;
+import java.util.Arrays;
 
 /**
  * Main entry point for the Advanced Calculator application.
+ * Starts the JavaFX desktop app, or one of the headless modes in which no JavaFX classes
+ * are loaded: {@code --server} for the evaluation server and {@code --cli [file]} for
+ * streaming evaluation of an expression file or standard input.
  */
 public class Main {
-    public static void main(String[] args) {
-        Application.launch(CalculatorApp.class, args);
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("--server")) {
+            EvaluationServer.main(Arrays.copyOfRange(args, 1, args.length));
+        } else if (args.length > 0 && args[0].equals("--cli")) {
+            StreamingEvaluator.main(Arrays.copyOfRange(args, 1, args.length));
+        } else {
+            Application.launch(CalculatorApp.class, args);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,229 @@
+package com.calculator.cli;
+
+import com.calculator.core.CalculatorEngine;
+import com.calculator.core.EvaluationContext;
+import com.calculator.core.NumberFormatter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Evaluates a stream of expressions, one per line, writing one result line per input line.
+ * Lines that fail to evaluate produce {@code ERR <message>} instead of aborting the run, e.g.
+ * {@code ERR Invalid expression: 1/0: Division by zero!}, and blank lines are echoed as blank lines so output stays aligned with input.
+ * <p>
+ * Memory use is bounded by the buffer sizes regardless of input size: files are read through
+ * a sliding memory-mapped window, other streams through a fixed buffer, and output goes
+ * through a reusable byte buffer.
+ */
+public class StreamingEvaluator {
+
+    /** Longest accepted input line in bytes. */
+    static final int MAX_LINE_LENGTH = 1024 * 1024;
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final long DEFAULT_MAP_WINDOW = 256L * 1024 * 1024;
+    private static final byte[] ERROR_PREFIX = "ERR ".getBytes(StandardCharsets.US_ASCII);
+
+    private final CalculatorEngine engine;
+    private final EvaluationContext context;
+    private final OutputStream output;
+    private final long mapWindow;
+
+    // Carry-over of a line split across two input chunks
+    private byte[] lineBuffer = new byte[256];
+    private int lineLength;
+    private boolean discardingLine;
+
+    private final byte[] writeBuffer = new byte[WRITE_BUFFER_SIZE];
+    private int writeLength;
+
+    private long lineCount;
+    private long errorCount;
+
+    /**
+     * Creates an evaluator writing results to the given stream.
+     *
+     * @param engine The engine evaluating each line
+     * @param output The stream receiving result lines
+     */
+    public StreamingEvaluator(CalculatorEngine engine, OutputStream output) {
+        this(engine, output, DEFAULT_MAP_WINDOW);
+    }
+
+    StreamingEvaluator(CalculatorEngine engine, OutputStream output, long mapWindow) {
+        this.engine = engine;
+        this.context = engine.newContext();
+        this.output = output;
+        this.mapWindow = mapWindow;
+    }
+
+    /**
+     * Evaluates every line of a file, mapping it into memory one window at a time.
+     *
+     * @param file The file to read
+     * @throws IOException if the file cannot be read or output cannot be written
+     */
+    public void evaluate(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += mapWindow) {
+                feed(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(mapWindow, size - position)));
+            }
+        }
+        finish();
+    }
+
+    /**
+     * Evaluates every line of a stream.
+     *
+     * @param input The stream to read
+     * @throws IOException if the stream cannot be read or output cannot be written
+     */
+    public void evaluate(InputStream input) throws IOException {
+        ReadableByteChannel channel = Channels.newChannel(input);
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        while (channel.read(buffer) >= 0) {
+            buffer.flip();
+            feed(buffer);
+            buffer.clear();
+        }
+        finish();
+    }
+
+    /**
+     * Returns the number of lines evaluated so far.
+     *
+     * @return The line count
+     */
+    public long getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Returns the number of lines that failed to evaluate.
+     *
+     * @return The error count
+     */
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Evaluates every complete line in a chunk and keeps any trailing partial line for the next chunk.
+     */
+    private void feed(ByteBuffer chunk) throws IOException {
+        while (chunk.hasRemaining()) {
+            byte b = chunk.get();
+            if (b == '\n') {
+                endLine();
+            } else if (!discardingLine) {
+                if (lineLength == MAX_LINE_LENGTH) {
+                    discardingLine = true;
+                } else {
+                    if (lineLength == lineBuffer.length) {
+                        lineBuffer = Arrays.copyOf(lineBuffer, Math.min(lineLength * 2, MAX_LINE_LENGTH));
+                    }
+                    lineBuffer[lineLength++] = b;
+                }
+            }
+        }
+    }
+
+    /**
+     * Evaluates a final unterminated line and flushes all pending output.
+     */
+    private void finish() throws IOException {
+        if (lineLength > 0 || discardingLine) {
+            endLine();
+        }
+        flush();
+    }
+
+    private void endLine() throws IOException {
+        lineCount++;
+        if (discardingLine) {
+            discardingLine = false;
+            writeError("Line exceeds " + MAX_LINE_LENGTH + " bytes");
+        } else {
+            int length = lineLength > 0 && lineBuffer[lineLength - 1] == '\r' ? lineLength - 1 : lineLength;
+            String expression = new String(lineBuffer, 0, length, StandardCharsets.UTF_8);
+            if (expression.isBlank()) {
+                write((byte) '\n');
+            } else {
+                evaluateLine(expression);
+            }
+        }
+        lineLength = 0;
+    }
+
+    private void evaluateLine(String expression) throws IOException {
+        double result;
+        try {
+            result = engine.evaluate(expression, context);
+        } catch (RuntimeException e) {
+            writeError(e.getMessage());
+            return;
+        } catch (StackOverflowError e) {
+            // One bad line must not end the run
+            writeError("Expression nested too deeply");
+            return;
+        }
+        if (writeBuffer.length - writeLength <= NumberFormatter.MAX_LENGTH) {
+            flush();
+        }
+        writeLength = NumberFormatter.SHORTEST.format(result, writeBuffer, writeLength);
+        write((byte) '\n');
+    }
+
+    private void writeError(String message) throws IOException {
+        errorCount++;
+        for (byte b : ERROR_PREFIX) {
+            write(b);
+        }
+        for (byte b : String.valueOf(message).replace('\n', ' ').getBytes(StandardCharsets.UTF_8)) {
+            write(b);
+        }
+        write((byte) '\n');
+    }
+
+    private void write(byte b) throws IOException {
+        if (writeLength == writeBuffer.length) {
+            flush();
+        }
+        writeBuffer[writeLength++] = b;
+    }
+
+    private void flush() throws IOException {
+        output.write(writeBuffer, 0, writeLength);
+        output.flush();
+        writeLength = 0;
+    }
+
+    /**
+     * Evaluates the file named by the first argument, or standard input if there is none or it is {@code -}.
+     * A summary is printed to standard error.
+     *
+     * @param args The command line arguments
+     * @throws IOException if input cannot be read or output cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        StreamingEvaluator evaluator = new StreamingEvaluator(new CalculatorEngine(), System.out);
+        if (args.length == 0 || args[0].equals("-")) {
+            evaluator.evaluate(System.in);
+        } else {
+            evaluator.evaluate(Paths.get(args[0]));
+        }
+        System.err.println(evaluator.getLineCount() + " lines evaluated, " + evaluator.getErrorCount() + " errors");
+    }
+}
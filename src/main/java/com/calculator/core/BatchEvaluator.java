@@ -0,0 +1,186 @@
+package com.calculator.core;
+
+import java.util.Arrays;
+
+/**
+ * Evaluates a compiled expression over columns of inputs.
+ * The postfix program is interpreted once per block of rows rather than once per row,
+ * with each instruction running as a tight loop over the block.
+ */
+public final class BatchEvaluator {
+
+    /** Number of rows processed by each instruction at a time. */
+    static final int BLOCK_SIZE = 1024;
+
+    // Per-thread operand stack of blocks
+    private static final ThreadLocal<double[][]> STACK = ThreadLocal.withInitial(() -> new double[0][]);
+
+    private final BatchKernels kernels;
+
+    /**
+     * Creates a batch evaluator using the Vector API when available.
+     */
+    public BatchEvaluator() {
+        this(BatchKernels.create());
+    }
+
+    BatchEvaluator(BatchKernels kernels) {
+        this.kernels = kernels;
+    }
+
+    /**
+     * Returns whether this evaluator uses the JDK Vector API.
+     *
+     * @return true if SIMD kernels are in use
+     */
+    public boolean isVectorized() {
+        return !(kernels instanceof ScalarBatchKernels);
+    }
+
+    /**
+     * Evaluates an expression for every row of the given columns.
+     *
+     * @param expression The compiled expression
+     * @param columns The input column of each variable slot, or null where the slot takes a scalar
+     * @param scalars The value of each variable slot that has no column; may be null if every slot has a column
+     * @param results The output column; its length is the number of rows
+     * @throws IllegalArgumentException if the inputs do not match the expression or the number of rows
+     */
+    public void evaluate(CompiledExpression expression, double[][] columns, double[] scalars, double[] results) {
+        validate(expression, columns, scalars, results.length);
+        evaluateRange(expression, columns, scalars, results, 0, results.length);
+    }
+
+    /**
+     * Checks that every variable slot of the expression is bound to a column of the right length or a scalar.
+     */
+    static void validate(CompiledExpression expression, double[][] columns, double[] scalars, int rows) {
+        int slots = expression.variableNames().length;
+        if (columns.length < slots) {
+            throw new IllegalArgumentException("Expected " + slots + " input columns but got " + columns.length);
+        }
+        for (int slot = 0; slot < slots; slot++) {
+            if (columns[slot] == null) {
+                if (scalars == null || scalars.length <= slot) {
+                    throw new IllegalArgumentException("No value for variable: " + expression.variableNames()[slot]);
+                }
+            } else if (columns[slot].length != rows) {
+                throw new IllegalArgumentException("Column " + expression.variableNames()[slot]
+                        + " has " + columns[slot].length + " rows but " + rows + " are expected");
+            }
+        }
+    }
+
+    /**
+     * Evaluates rows {@code [from, to)} of an already validated batch.
+     */
+    void evaluateRange(CompiledExpression expression, double[][] columns, double[] scalars,
+                       double[] results, int from, int to) {
+        double[][] stack = stack(expression.getMaxStackDepth());
+        for (int start = from; start < to; start += BLOCK_SIZE) {
+            int length = Math.min(BLOCK_SIZE, to - start);
+            evaluateBlock(expression, columns, scalars, stack, start, length);
+            System.arraycopy(stack[0], 0, results, start, length);
+        }
+    }
+
+    private void evaluateBlock(CompiledExpression expression, double[][] columns, double[] scalars,
+                               double[][] stack, int start, int length) {
+        final int[] code = expression.code();
+        final double[] constants = expression.constants();
+        // Blocks of shared subexpressions follow the operand stack
+        final int temporaries = expression.getMaxStackDepth() - expression.temporaryCount();
+        int sp = -1;
+        int pc = 0;
+        while (pc < code.length) {
+            int op = code[pc++];
+            switch (op) {
+                case Opcodes.CONST:
+                    Arrays.fill(stack[++sp], 0, length, constants[code[pc++]]);
+                    break;
+                case Opcodes.LOAD: {
+                    int slot = code[pc++];
+                    double[] column = columns[slot];
+                    if (column != null) {
+                        System.arraycopy(column, start, stack[++sp], 0, length);
+                    } else {
+                        Arrays.fill(stack[++sp], 0, length, scalars[slot]);
+                    }
+                    break;
+                }
+                case Opcodes.STORE:
+                    System.arraycopy(stack[sp], 0, stack[temporaries + code[pc++]], 0, length);
+                    break;
+                case Opcodes.TEMP:
+                    System.arraycopy(stack[temporaries + code[pc++]], 0, stack[++sp], 0, length);
+                    break;
+                case Opcodes.ADD:
+                    sp--;
+                    kernels.add(stack[sp], stack[sp + 1], length);
+                    break;
+                case Opcodes.SUB:
+                    sp--;
+                    kernels.subtract(stack[sp], stack[sp + 1], length);
+                    break;
+                case Opcodes.MUL:
+                    sp--;
+                    kernels.multiply(stack[sp], stack[sp + 1], length);
+                    break;
+                case Opcodes.DIV:
+                    sp--;
+                    kernels.divide(stack[sp], stack[sp + 1], length);
+                    break;
+                case Opcodes.MOD:
+                case Opcodes.POW:
+                case Opcodes.NCR:
+                case Opcodes.NPR:
+                    sp--;
+                    kernels.apply(op, stack[sp], stack[sp + 1], length);
+                    break;
+                case Opcodes.SUM:
+                case Opcodes.MEAN:
+                case Opcodes.VARIANCE:
+                case Opcodes.STDDEV:
+                case Opcodes.MIN:
+                case Opcodes.MAX: {
+                    int count = code[pc++];
+                    sp -= count - 1;
+                    variadic(op, stack, sp, count, length);
+                    break;
+                }
+                case Opcodes.NEG:
+                    kernels.negate(stack[sp], length);
+                    break;
+                case Opcodes.SQRT:
+                    kernels.sqrt(stack[sp], length);
+                    break;
+                default:
+                    kernels.apply(op, stack[sp], length);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Applies a variadic function row by row, gathering each row's arguments from the stacked blocks.
+     */
+    private static void variadic(int op, double[][] stack, int base, int count, int length) {
+        double[] arguments = Opcodes.arguments();
+        double[] result = stack[base];
+        for (int row = 0; row < length; row++) {
+            for (int i = 0; i < count; i++) {
+                arguments[i] = stack[base + i][row];
+            }
+            result[row] = Opcodes.variadic(op, arguments, 0, count);
+        }
+    }
+
+    private static double[][] stack(int depth) {
+        double[][] stack = STACK.get();
+        if (stack.length < depth) {
+            stack = new double[depth][BLOCK_SIZE];
+            STACK.set(stack);
+        }
+        return stack;
+    }
+}
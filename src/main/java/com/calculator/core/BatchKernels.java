@@ -0,0 +1,60 @@
+package com.calculator.core;
+
+/**
+ * Element-wise operations over blocks of a batch evaluation.
+ * Binary operations write their result into the first array.
+ */
+interface BatchKernels {
+
+    void add(double[] a, double[] b, int length);
+
+    void subtract(double[] a, double[] b, int length);
+
+    void multiply(double[] a, double[] b, int length);
+
+    /**
+     * Divides element-wise.
+     *
+     * @throws ArithmeticException if any divisor is zero
+     */
+    void divide(double[] a, double[] b, int length);
+
+    void negate(double[] a, int length);
+
+    void sqrt(double[] a, int length);
+
+    /**
+     * Applies any other two-argument operation element-wise.
+     */
+    default void apply(int opcode, double[] a, double[] b, int length) {
+        for (int i = 0; i < length; i++) {
+            a[i] = Opcodes.binary(opcode, a[i], b[i]);
+        }
+    }
+
+    /**
+     * Applies any other single-argument operation element-wise.
+     */
+    default void apply(int opcode, double[] a, int length) {
+        for (int i = 0; i < length; i++) {
+            a[i] = Opcodes.unary(opcode, a[i]);
+        }
+    }
+
+    /**
+     * Returns the fastest kernels supported by the running JVM: the Vector API
+     * implementation when the {@code jdk.incubator.vector} module is resolved
+     * (run with {@code --add-modules jdk.incubator.vector}), scalar loops otherwise.
+     */
+    static BatchKernels create() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (BatchKernels) Class.forName("com.calculator.core.VectorBatchKernels")
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Fall through to the scalar kernels
+            }
+        }
+        return new ScalarBatchKernels();
+    }
+}
@@ -1,13 +1,30 @@
 package com.calculator.core;
 
-import net.objecthunter.exp4j.Expression;
-import net.objecthunter.exp4j.ExpressionBuilder;
+import com.calculator.programmer.BaseConverter;
+import com.calculator.programmer.BitVector;
+import com.calculator.programmer.ProgrammerCalculator;
+import com.calculator.programmer.WordSize;
+import com.calculator.units.Quantity;
+import com.calculator.units.UnitRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 /**
  * Core calculation engine for the calculator application.
  * Handles all mathematical operations and expression evaluation.
+ * <p>
+ * The engine itself is thread-safe and can be shared: compiled expressions are immutable
+ * and cached, and per-session state lives in an {@link EvaluationContext}. Methods without
+ * a context argument use the engine's default context, which is meant for a single
+ * owner such as the desktop UI.
  */
 public class CalculatorEngine {
     
@@ -15,17 +32,72 @@ public class CalculatorEngine {
     private static final double PI = Math.PI;
     private static final double E = Math.E;
     
-    // Memory storage
-    private double memoryValue = 0.0;
-    private final Map<String, Double> variables = new HashMap<>();
+    // Constants bound in every context; never modified after construction
+    private final Map<String, Double> constants = new HashMap<>();
+    
+    // Memory and variables of single-owner callers
+    private final EvaluationContext defaultContext;
+    
+    // Compiled expressions keyed by normalized source text
+    private final NumberSyntax syntax;
+    private final ExpressionCompiler compiler;
+    private final ExpressionCache<CompiledExpression> expressionCache = new ExpressionCache<>();
+    private final ExpressionCache<QuantityExpression> quantityCache = new ExpressionCache<>();
+    private final BatchEvaluator batchEvaluator = new BatchEvaluator();
+    private final ParallelBatchEvaluator parallelEvaluator = new ParallelBatchEvaluator();
+    private final UnitRegistry units = UnitRegistry.standard();
     
     /**
      * Constructor initializes the calculator engine.
      */
     public CalculatorEngine() {
+        this(NumberSyntax.STANDARD);
+    }
+    
+    /**
+     * Creates an engine that reads number literals with the separators of a locale,
+     * e.g. {@code 1.234,5} in German.
+     *
+     * @param locale The locale whose number syntax expressions use
+     */
+    public CalculatorEngine(Locale locale) {
+        this(NumberSyntax.forLocale(locale));
+    }
+    
+    private CalculatorEngine(NumberSyntax syntax) {
+        this.syntax = syntax;
+        this.compiler = new ExpressionCompiler(syntax);
         // Initialize variables with constants
-        variables.put("pi", PI);
-        variables.put("e", E);
+        constants.put("pi", PI);
+        constants.put("e", E);
+        defaultContext = new EvaluationContext(constants);
+    }
+    
+    /**
+     * Creates a new context holding its own memory and variables, with the engine constants bound.
+     *
+     * @return A fresh evaluation context
+     */
+    public EvaluationContext newContext() {
+        return new EvaluationContext(constants);
+    }
+    
+    /**
+     * Returns the syntax of number literals in expressions.
+     *
+     * @return The number syntax
+     */
+    public NumberSyntax getNumberSyntax() {
+        return syntax;
+    }
+    
+    /**
+     * Returns the context used by the methods that do not take one.
+     *
+     * @return The default evaluation context
+     */
+    public EvaluationContext getDefaultContext() {
+        return defaultContext;
     }
     
     /**
@@ -36,75 +108,311 @@ public class CalculatorEngine {
      * @throws IllegalArgumentException if the expression is invalid
      */
     public double evaluate(String expression) {
-        // Replace UI symbols with operators that exp4j understands
-        expression = expression.replace("×", "*")
-                              .replace("÷", "/")
-                              .replace("π", "pi")
-                              .replace("^2", "^2")
-                              .replace("√", "sqrt");
+        return evaluate(expression, defaultContext);
+    }
+    
+    /**
+     * Evaluates a mathematical expression with the variables of the given context.
+     *
+     * @param expression The expression to evaluate
+     * @param context The context supplying variable values
+     * @return The result of the evaluation
+     * @throws IllegalArgumentException if the expression is invalid
+     */
+    public double evaluate(String expression, EvaluationContext context) {
+        CompiledExpression compiled = compile(expression);
         
         try {
-            // Build and evaluate the expression
-            Expression exp = new ExpressionBuilder(expression)
-                    .variables(variables.keySet())
-                    .build()
-                    .setVariables(variables);
-            
-            return exp.evaluate();
+            return compiled.evaluate(context.variables());
         } catch (Exception e) {
-            throw new IllegalArgumentException("Invalid expression: " + expression, e);
+            throw invalid(compiled.getSource(), e);
         }
     }
     
     /**
-     * Calculates the factorial of a number.
+     * Evaluates a mathematical expression in arbitrary precision.
      *
-     * @param n The number to calculate factorial for
-     * @return The factorial result
-     * @throws IllegalArgumentException if n is negative
+     * @param expression The expression to evaluate
+     * @param mathContext The precision and rounding of the result
+     * @return The result of the evaluation
+     * @throws IllegalArgumentException if the expression is invalid
      */
-    public double factorial(double n) {
-        if (n < 0) {
-            throw new IllegalArgumentException("Factorial is not defined for negative numbers");
+    public BigDecimal evaluate(String expression, MathContext mathContext) {
+        return evaluate(expression, mathContext, defaultContext);
+    }
+    
+    /**
+     * Evaluates a mathematical expression in arbitrary precision with the variables of the given context.
+     * Number literals are used exactly as written, and the engine constants pi and e are computed
+     * to the requested precision unless the context has rebound them.
+     *
+     * @param expression The expression to evaluate
+     * @param mathContext The precision and rounding of the result
+     * @param context The context supplying variable values
+     * @return The result of the evaluation
+     * @throws IllegalArgumentException if the expression is invalid or the precision is unlimited
+     */
+    public BigDecimal evaluate(String expression, MathContext mathContext, EvaluationContext context) {
+        if (mathContext.getPrecision() <= 0) {
+            throw new IllegalArgumentException("Precision must be positive");
         }
+        // Folding and rewriting are exact in double arithmetic only, so use the program as written
+        CompiledExpression compiled = compile(expression).getUnoptimized();
         
-        // Check if n is an integer
-        if (n == Math.floor(n)) {
-            long result = 1;
-            for (int i = 2; i <= (int) n; i++) {
-                result *= i;
+        try {
+            List<String> names = compiled.getVariableNames();
+            BigDecimal[] values = new BigDecimal[names.size()];
+            for (int slot = 0; slot < values.length; slot++) {
+                values[slot] = preciseValue(names.get(slot), context, mathContext);
+            }
+            return PrecisionEvaluator.evaluate(compiled, values, mathContext);
+        } catch (Exception e) {
+            throw invalid(compiled.getSource(), e);
+        }
+    }
+    
+    /**
+     * Returns a variable as a BigDecimal, computing the engine constants to full precision.
+     */
+    /**
+     * Reports a failed expression. The message names the expression and ends with the cause's
+     * message, such as {@code Invalid expression: 1/0: Division by zero!}, so callers that show
+     * only the message still say what was wrong.
+     */
+    private static IllegalArgumentException invalid(String expression, Throwable cause) {
+        String reason = cause instanceof StackOverflowError ? "Expression nested too deeply" : cause.getMessage();
+        String message = "Invalid expression: " + expression;
+        return new IllegalArgumentException(reason != null ? message + ": " + reason : message, cause);
+    }
+    
+    private BigDecimal preciseValue(String name, EvaluationContext context, MathContext mathContext) {
+        double value = context.getVariable(name);
+        Double constant = constants.get(name);
+        if (constant != null && constant == value) {
+            MathContext work = new MathContext(mathContext.getPrecision() + 5);
+            return name.equals("pi") ? PrecisionMath.pi(work) : PrecisionMath.exp(BigDecimal.ONE, work);
+        }
+        return BigDecimal.valueOf(value);
+    }
+    
+    /**
+     * Evaluates a compiled expression for every row of a set of input columns.
+     * Variables without a column take their current value in the engine.
+     *
+     * @param expression The compiled expression, as returned by {@link #compile(String)}
+     * @param columns The input column of each variable, keyed by variable name
+     * @param results The output column; its length is the number of rows
+     * @throws IllegalArgumentException if a variable has no value or a column has the wrong length
+     */
+    public void evaluate(CompiledExpression expression, Map<String, double[]> columns, double[] results) {
+        evaluate(expression, columns, results, defaultContext);
+    }
+    
+    /**
+     * Evaluates a compiled expression for every row of a set of input columns.
+     * Variables without a column take their value in the given context.
+     *
+     * @param expression The compiled expression, as returned by {@link #compile(String)}
+     * @param columns The input column of each variable, keyed by variable name
+     * @param results The output column; its length is the number of rows
+     * @param context The context supplying values for variables without a column
+     * @throws IllegalArgumentException if a variable has no value or a column has the wrong length
+     */
+    public void evaluate(CompiledExpression expression, Map<String, double[]> columns, double[] results,
+                         EvaluationContext context) {
+        expression = expression.forBindings(context.variables(), columns);
+        double[] scalars = new double[expression.getVariableNames().size()];
+        batchEvaluator.evaluate(expression, bindColumns(expression, columns, context, scalars), scalars, results);
+    }
+    
+    /**
+     * Evaluates a compiled expression for every row of a set of input columns using all available cores.
+     * Variables without a column take their current value in the engine, read once before any work starts.
+     *
+     * @param expression The compiled expression, as returned by {@link #compile(String)}
+     * @param columns The input column of each variable, keyed by variable name
+     * @param results The output column; its length is the number of rows
+     * @throws IllegalArgumentException if a variable has no value or a column has the wrong length
+     */
+    public void evaluateParallel(CompiledExpression expression, Map<String, double[]> columns, double[] results) {
+        evaluateParallel(expression, columns, results, defaultContext);
+    }
+    
+    /**
+     * Evaluates a compiled expression for every row of a set of input columns using all available cores.
+     * Variables without a column take their value in the given context, read once before any work starts.
+     *
+     * @param expression The compiled expression, as returned by {@link #compile(String)}
+     * @param columns The input column of each variable, keyed by variable name
+     * @param results The output column; its length is the number of rows
+     * @param context The context supplying values for variables without a column
+     * @throws IllegalArgumentException if a variable has no value or a column has the wrong length
+     */
+    public void evaluateParallel(CompiledExpression expression, Map<String, double[]> columns, double[] results,
+                                 EvaluationContext context) {
+        expression = expression.forBindings(context.variables(), columns);
+        double[] scalars = new double[expression.getVariableNames().size()];
+        parallelEvaluator.evaluate(expression, bindColumns(expression, columns, context, scalars), scalars, results);
+    }
+    
+    /**
+     * Resolves each variable slot to its input column, copying the engine value into scalars when there is none.
+     */
+    private double[][] bindColumns(CompiledExpression expression, Map<String, double[]> columns,
+                                   EvaluationContext context, double[] scalars) {
+        List<String> names = expression.getVariableNames();
+        double[][] inputs = new double[names.size()][];
+        for (int slot = 0; slot < names.size(); slot++) {
+            String name = names.get(slot);
+            inputs[slot] = columns.get(name);
+            if (inputs[slot] == null) {
+                Double value = context.variables().get(name);
+                if (value == null) {
+                    throw new IllegalArgumentException("Unknown variable: " + name);
+                }
+                scalars[slot] = value;
             }
-            return result;
-        } else {
-            // For non-integer values, use Gamma function approximation
-            return Math.exp(logGamma(n + 1));
         }
+        return inputs;
     }
     
     /**
-     * Calculates the natural logarithm of the Gamma function.
-     * Used for factorial calculation of non-integer values.
+     * Compiles an expression, reusing a previously compiled form of the same text.
+     * The program is optimized: the engine constants pi and e are folded in, constant
+     * subexpressions are computed once here, and repeated subexpressions are shared.
+     * {@link CompiledExpression#getUnoptimized()} returns the program as written.
      *
-     * @param x The input value
-     * @return The log-gamma result
-     */
-    private double logGamma(double x) {
-        // Lanczos approximation coefficients
-        double[] p = {
-            676.5203681218851, -1259.1392167224028, 771.32342877765313,
-            -176.61502916214059, 12.507343278686905, -0.13857109526572012,
-            9.9843695780195716e-6, 1.5056327351493116e-7
-        };
-        
-        double result = 0.99999999999980993;
-        double t = x - 1;
-        
-        for (int i = 0; i < p.length; i++) {
-            result += p[i] / (t + i + 1);
+     * @param expression The expression to compile
+     * @return The compiled expression
+     * @throws IllegalArgumentException if the expression is invalid
+     */
+    public CompiledExpression compile(String expression) {
+        String key = expression.trim();
+        try {
+            return expressionCache.get(key, source -> ExpressionOptimizer.optimize(compiler.compile(source), constants));
+        } catch (Exception | StackOverflowError e) {
+            throw invalid(key, e);
         }
+    }
+    
+    /**
+     * Creates an evaluator that previews an expression as it is typed, reading variables
+     * from the default context.
+     *
+     * @return A new incremental evaluator with empty text
+     */
+    public IncrementalEvaluator newIncrementalEvaluator() {
+        return newIncrementalEvaluator(defaultContext);
+    }
+    
+    /**
+     * Creates an evaluator that previews an expression as it is typed.
+     *
+     * @param context The context supplying variable values
+     * @return A new incremental evaluator with empty text
+     */
+    public IncrementalEvaluator newIncrementalEvaluator(EvaluationContext context) {
+        return new IncrementalEvaluator(context, syntax);
+    }
+    
+    /**
+     * Compiles an expression with units, such as {@code 60 mph to km/h}, checking its dimensions.
+     * A previously compiled form of the same text is reused.
+     *
+     * @param expression The expression to compile
+     * @return The compiled expression
+     * @throws IllegalArgumentException if the expression is invalid or dimensionally inconsistent
+     */
+    public QuantityExpression compileQuantity(String expression) {
+        String key = expression.trim();
+        try {
+            return quantityCache.get(key, source -> compiler.compileQuantity(source, units));
+        } catch (Exception | StackOverflowError e) {
+            throw invalid(key, e);
+        }
+    }
+    
+    /**
+     * Evaluates an expression with units and returns the result with its unit.
+     *
+     * @param expression The expression to evaluate
+     * @return The result of the evaluation
+     * @throws IllegalArgumentException if the expression is invalid or dimensionally inconsistent
+     */
+    public Quantity evaluateQuantity(String expression) {
+        return evaluateQuantity(expression, defaultContext);
+    }
+    
+    /**
+     * Evaluates an expression with units using the variables of the given context.
+     *
+     * @param expression The expression to evaluate
+     * @param context The context supplying variable values
+     * @return The result of the evaluation
+     * @throws IllegalArgumentException if the expression is invalid or dimensionally inconsistent
+     */
+    public Quantity evaluateQuantity(String expression, EvaluationContext context) {
+        QuantityExpression compiled = compileQuantity(expression);
         
-        double c = 7.5;
-        return Math.log(Math.sqrt(2 * Math.PI)) + Math.log(result) - (x + 0.5) * Math.log(t + c + 0.5) + (t + 0.5);
+        try {
+            return compiled.evaluateQuantity(context.variables());
+        } catch (Exception e) {
+            throw invalid(expression.trim(), e);
+        }
+    }
+    
+    /**
+     * Returns the cache of compiled expressions used by {@link #evaluate(String)}.
+     *
+     * @return The expression cache
+     */
+    public ExpressionCache<CompiledExpression> getExpressionCache() {
+        return expressionCache;
+    }
+    
+    /**
+     * Calculates the factorial of a number.
+     * Integer results are looked up in a precomputed table; other values use the Gamma function.
+     *
+     * @param n The number to calculate factorial for
+     * @return The factorial result, or positive infinity if it exceeds the double range
+     * @throws IllegalArgumentException if n is negative
+     */
+    public double factorial(double n) {
+        return SpecialFunctions.factorial(n);
+    }
+    
+    /**
+     * Calculates the exact factorial of a non-negative integer.
+     *
+     * @param n The number to calculate factorial for
+     * @return The exact factorial
+     * @throws IllegalArgumentException if n is negative
+     */
+    public BigInteger factorialExact(int n) {
+        return PrecisionMath.factorial(n);
+    }
+    
+    /**
+     * Calculates the natural logarithm of the factorial of a number.
+     * Unlike {@link #factorial(double)} this does not overflow for large n.
+     *
+     * @param n The number to calculate the log-factorial for
+     * @return ln(n!)
+     * @throws IllegalArgumentException if n is negative
+     */
+    public double logFactorial(double n) {
+        return SpecialFunctions.logFactorial(n);
+    }
+    
+    /**
+     * Calculates the natural logarithm of the absolute value of the Gamma function.
+     *
+     * @param x The input value
+     * @return ln|Γ(x)|
+     */
+    public double lnGamma(double x) {
+        return SpecialFunctions.lnGamma(x);
     }
     
     /**
@@ -205,7 +513,7 @@ public class CalculatorEngine {
      * @param value The value to store
      */
     public void setMemory(double value) {
-        memoryValue = value;
+        defaultContext.setMemory(value);
     }
     
     /**
@@ -214,7 +522,7 @@ public class CalculatorEngine {
      * @return The memory value
      */
     public double getMemory() {
-        return memoryValue;
+        return defaultContext.getMemory();
     }
     
     /**
@@ -223,7 +531,7 @@ public class CalculatorEngine {
      * @param value The value to add
      */
     public void addToMemory(double value) {
-        memoryValue += value;
+        defaultContext.addToMemory(value);
     }
     
     /**
@@ -232,14 +540,14 @@ public class CalculatorEngine {
      * @param value The value to subtract
      */
     public void subtractFromMemory(double value) {
-        memoryValue -= value;
+        defaultContext.subtractFromMemory(value);
     }
     
     /**
      * Clears the memory value.
      */
     public void clearMemory() {
-        memoryValue = 0.0;
+        defaultContext.clearMemory();
     }
     
     /**
@@ -249,46 +557,33 @@ public class CalculatorEngine {
      * @param fromUnit The source unit
      * @param toUnit The target unit
      * @return The converted value
+     * @throws IllegalArgumentException if a unit is unknown or the conversion is not supported
      */
     public double convert(double value, String fromUnit, String toUnit) {
-        // Implementation for various unit conversions
-        // This is a simplified version that handles a few common conversions
-        
-        // Length conversions
-        if (fromUnit.equals("m") && toUnit.equals("cm")) {
-            return value * 100;
-        } else if (fromUnit.equals("cm") && toUnit.equals("m")) {
-            return value / 100;
-        } else if (fromUnit.equals("m") && toUnit.equals("ft")) {
-            return value * 3.28084;
-        } else if (fromUnit.equals("ft") && toUnit.equals("m")) {
-            return value / 3.28084;
-        }
-        
-        // Weight conversions
-        else if (fromUnit.equals("kg") && toUnit.equals("lb")) {
-            return value * 2.20462;
-        } else if (fromUnit.equals("lb") && toUnit.equals("kg")) {
-            return value / 2.20462;
-        }
-        
-        // Temperature conversions
-        else if (fromUnit.equals("C") && toUnit.equals("F")) {
-            return (value * 9/5) + 32;
-        } else if (fromUnit.equals("F") && toUnit.equals("C")) {
-            return (value - 32) * 5/9;
-        } else if (fromUnit.equals("C") && toUnit.equals("K")) {
-            return value + 273.15;
-        } else if (fromUnit.equals("K") && toUnit.equals("C")) {
-            return value - 273.15;
-        }
-        
-        // If units are the same or conversion not supported
-        else if (fromUnit.equals(toUnit)) {
-            return value;
-        } else {
-            throw new IllegalArgumentException("Conversion from " + fromUnit + " to " + toUnit + " is not supported");
-        }
+        return units.convert(value, fromUnit, toUnit);
+    }
+    
+    /**
+     * Converts a column of values from one unit to another.
+     * The unit pair is resolved once for the whole column.
+     *
+     * @param values The values to convert
+     * @param fromUnit The source unit
+     * @param toUnit The target unit
+     * @param results The array receiving the converted values; may be the values array itself
+     * @throws IllegalArgumentException if a unit is unknown or the conversion is not supported
+     */
+    public void convert(double[] values, String fromUnit, String toUnit, double[] results) {
+        units.convert(values, units.idOf(fromUnit), units.idOf(toUnit), results);
+    }
+    
+    /**
+     * Returns the units known to {@link #convert(double, String, String)}.
+     *
+     * @return The unit registry
+     */
+    public UnitRegistry getUnitRegistry() {
+        return units;
     }
     
     /**
@@ -298,41 +593,97 @@ public class CalculatorEngine {
      * @param b The second operand
      * @param operation The bitwise operation to perform
      * @return The result of the bitwise operation
+     * @throws IllegalArgumentException if a shift distance is negative
      */
     public long bitwiseOperation(long a, long b, BitwiseOperation operation) {
+        return bitwiseOperation(a, b, operation, WordSize.QWORD, true);
+    }
+    
+    /**
+     * Performs bitwise operations for programmer mode on a fixed word size.
+     * Results wrap around to the word; right shifts are arithmetic for signed words and
+     * logical for unsigned ones. Shifting by the word size or more shifts every bit out, so
+     * {@code 1 << 64} is 0 on a 64-bit word rather than Java's {@code 1 << (64 % 64)}.
+     *
+     * @param a The first operand
+     * @param b The second operand, or the distance for shifts and rotates
+     * @param operation The bitwise operation to perform
+     * @param wordSize The word size
+     * @param signed Whether words are read as two's complement
+     * @return The result of the bitwise operation
+     * @throws IllegalArgumentException if a shift distance is negative
+     */
+    public long bitwiseOperation(long a, long b, BitwiseOperation operation, WordSize wordSize, boolean signed) {
+        ProgrammerCalculator word = new ProgrammerCalculator(wordSize, signed);
         switch (operation) {
             case AND:
-                return a & b;
+                return word.and(a, b);
             case OR:
-                return a | b;
+                return word.or(a, b);
             case XOR:
-                return a ^ b;
+                return word.xor(a, b);
             case NOT:
-                return ~a;
+                return word.not(a);
             case LEFT_SHIFT:
-                return a << b;
+                return word.shiftLeft(a, distance(b));
             case RIGHT_SHIFT:
-                return a >> b;
+                return word.shiftRight(a, distance(b));
+            case ROTATE_LEFT:
+                return word.rotateLeft(a, (int) b);
+            case ROTATE_RIGHT:
+                return word.rotateRight(a, (int) b);
             default:
                 throw new IllegalArgumentException("Unsupported bitwise operation");
         }
     }
     
+    private static int distance(long b) {
+        if (b < 0) {
+            throw new IllegalArgumentException("Shift distance must not be negative: " + b);
+        }
+        return (int) Math.min(b, Integer.MAX_VALUE);
+    }
+    
     /**
      * Converts a number between different number systems.
+     * Values of any size are accepted; conversion between bases splits large values
+     * recursively instead of dividing once per digit.
      *
-     * @param value The value to convert
+     * @param value The value to convert, optionally with a leading minus or plus sign
      * @param fromBase The source base (2 for binary, 8 for octal, 10 for decimal, 16 for hex)
      * @param toBase The target base
      * @return The converted value as a string
      */
     public String convertNumberSystem(String value, int fromBase, int toBase) {
         try {
-            // Parse the input value according to the source base
-            long decimalValue = Long.parseLong(value, fromBase);
+            // Parse the magnitude according to the source base
+            boolean negative = value.startsWith("-");
+            boolean signed = negative || value.startsWith("+");
+            BitVector magnitude = BitVector.parse(signed ? value.substring(1) : value, fromBase);
             
             // Convert to the target base
-            return Long.toString(decimalValue, toBase);
+            String digits = magnitude.toString(toBase);
+            return negative && !magnitude.isZero() ? "-" + digits : digits;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number format for the specified base", e);
+        }
+    }
+    
+    /**
+     * Converts every number in a stream between number systems, e.g. a dump of hex register values.
+     * Numbers are separated by whitespace, commas or semicolons, which are copied unchanged.
+     *
+     * @param in The input, as ASCII text
+     * @param out The output, receiving the converted numbers
+     * @param fromBase The source base
+     * @param toBase The target base
+     * @return The number of values converted
+     * @throws IOException if reading or writing fails
+     * @throws IllegalArgumentException if a number is invalid for the source base
+     */
+    public long convertNumberSystem(InputStream in, OutputStream out, int fromBase, int toBase) throws IOException {
+        try {
+            return new BaseConverter(fromBase, toBase).convert(in, out);
         } catch (NumberFormatException e) {
             throw new IllegalArgumentException("Invalid number format for the specified base", e);
         }
@@ -342,6 +693,6 @@ public class CalculatorEngine {
      * Enum for bitwise operations in programmer mode.
      */
     public enum BitwiseOperation {
-        AND, OR, XOR, NOT, LEFT_SHIFT, RIGHT_SHIFT
+        AND, OR, XOR, NOT, LEFT_SHIFT, RIGHT_SHIFT, ROTATE_LEFT, ROTATE_RIGHT
     }
 }
\ No newline at end of file
@@ -0,0 +1,386 @@
+package com.calculator.core;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable expression compiled to a flat postfix program.
+ * Evaluation runs a stack machine over primitive arrays and allocates nothing.
+ * Once an expression has been evaluated {@link ExpressionJit#THRESHOLD} times it is
+ * translated to JVM bytecode and later evaluations call the generated class instead.
+ * <p>
+ * Expressions compiled by {@link CalculatorEngine} are optimized by {@link ExpressionOptimizer}:
+ * such a program may have engine constants folded into it, and keeps subexpressions it uses
+ * more than once in temporaries above the operand stack.
+ */
+public final class CompiledExpression {
+
+    // Per-thread scratch space so that evaluation does not allocate
+    private static final ThreadLocal<double[]> STACK = ThreadLocal.withInitial(() -> new double[32]);
+    private static final ThreadLocal<double[]> BINDINGS = ThreadLocal.withInitial(() -> new double[8]);
+
+    private final String source;
+    private final int[] code;
+    private final double[] constants;
+    private final String[] constantText;
+    private final String[] variableNames;
+    private final int maxStackDepth;
+    private final int temporaryCount;
+
+    // Set on optimized programs: the program they were derived from, and the engine constants
+    // folded into them, which make them valid only while those names keep their values
+    private final CompiledExpression unoptimized;
+    private final String[] foldedNames;
+    private final double[] foldedValues;
+
+    // Tiered execution state; the counter is deliberately unsynchronized since an
+    // occasional lost increment only delays compilation slightly
+    private int evaluationCount;
+    private volatile ExpressionFunction function;
+    private volatile boolean jitFailed;
+
+    CompiledExpression(String source, int[] code, double[] constants, String[] constantText,
+                       String[] variableNames, int maxStackDepth) {
+        this(source, code, constants, constantText, variableNames, maxStackDepth, 0, null,
+                new String[0], new double[0]);
+    }
+
+    CompiledExpression(String source, int[] code, double[] constants, String[] constantText,
+                       String[] variableNames, int maxStackDepth, int temporaryCount,
+                       CompiledExpression unoptimized, String[] foldedNames, double[] foldedValues) {
+        this.source = source;
+        this.code = code;
+        this.constants = constants;
+        this.constantText = constantText;
+        this.variableNames = variableNames;
+        this.maxStackDepth = maxStackDepth;
+        this.temporaryCount = temporaryCount;
+        this.unoptimized = unoptimized;
+        this.foldedNames = foldedNames;
+        this.foldedValues = foldedValues;
+    }
+
+    /**
+     * Evaluates the expression with variables bound by name. If the bindings give a constant
+     * folded into an optimized program another value, the unoptimized program is evaluated instead.
+     *
+     * @param variables The variable values
+     * @return The result of the evaluation
+     * @throws IllegalArgumentException if a referenced variable has no value
+     */
+    public double evaluate(Map<String, Double> variables) {
+        if (!foldedConstantsMatch(variables, null)) {
+            return unoptimized.evaluate(variables);
+        }
+        double[] values = bindings();
+        for (int i = 0; i < variableNames.length; i++) {
+            Double value = variables.get(variableNames[i]);
+            if (value == null) {
+                throw new IllegalArgumentException("Unknown variable: " + variableNames[i]);
+            }
+            values[i] = value;
+        }
+        return evaluate(values);
+    }
+
+    /**
+     * Evaluates the expression with variables bound by slot, in the order of {@link #getVariableNames()}.
+     *
+     * @param variableValues The variable values
+     * @return The result of the evaluation
+     */
+    public double evaluate(double[] variableValues) {
+        ExpressionFunction compiled = function;
+        if (compiled != null) {
+            return compiled.applyAsDouble(variableValues);
+        }
+        if (++evaluationCount >= ExpressionJit.THRESHOLD && !jitFailed) {
+            compiled = compileToBytecode();
+            if (compiled != null) {
+                return compiled.applyAsDouble(variableValues);
+            }
+        }
+        double[] stack = STACK.get();
+        int depth = getMaxStackDepth();
+        if (stack.length < depth) {
+            stack = new double[depth];
+            STACK.set(stack);
+        }
+        return evaluate(variableValues, stack);
+    }
+
+    /**
+     * Returns the expression as a primitive function, generating bytecode for it now
+     * if it has not been compiled yet. Falls back to the interpreter if generation fails.
+     *
+     * @return The expression as a function of its variable slots
+     */
+    public ExpressionFunction toFunction() {
+        ExpressionFunction compiled = function;
+        if (compiled == null && !jitFailed) {
+            compiled = compileToBytecode();
+        }
+        return compiled != null ? compiled : this::evaluate;
+    }
+
+    /**
+     * Returns whether the expression is currently evaluated through generated bytecode.
+     *
+     * @return true if the expression has been compiled to bytecode
+     */
+    public boolean isBytecodeCompiled() {
+        return function != null;
+    }
+
+    private synchronized ExpressionFunction compileToBytecode() {
+        if (function == null && !jitFailed) {
+            try {
+                function = ExpressionJit.generate(this);
+            } catch (IllegalStateException e) {
+                // Keep interpreting; the expression still evaluates correctly
+                jitFailed = true;
+            }
+        }
+        return function;
+    }
+
+    /**
+     * Evaluates the expression using a caller-supplied operand stack.
+     *
+     * @param variableValues The variable values, in the order of {@link #getVariableNames()}
+     * @param stack The operand stack, at least {@link #getMaxStackDepth()} long
+     * @return The result of the evaluation
+     */
+    public double evaluate(double[] variableValues, double[] stack) {
+        final int[] code = this.code;
+        // Temporaries live in the slots above the operand stack
+        final int temporaries = maxStackDepth;
+        int sp = -1;
+        int pc = 0;
+        while (pc < code.length) {
+            int op = code[pc++];
+            switch (op) {
+                case Opcodes.CONST:
+                    stack[++sp] = constants[code[pc++]];
+                    break;
+                case Opcodes.LOAD:
+                    stack[++sp] = variableValues[code[pc++]];
+                    break;
+                case Opcodes.ADD:
+                    sp--;
+                    stack[sp] += stack[sp + 1];
+                    break;
+                case Opcodes.SUB:
+                    sp--;
+                    stack[sp] -= stack[sp + 1];
+                    break;
+                case Opcodes.MUL:
+                    sp--;
+                    stack[sp] *= stack[sp + 1];
+                    break;
+                case Opcodes.DIV:
+                    sp--;
+                    stack[sp] = Opcodes.divide(stack[sp], stack[sp + 1]);
+                    break;
+                case Opcodes.MOD:
+                case Opcodes.POW:
+                case Opcodes.NCR:
+                case Opcodes.NPR:
+                    sp--;
+                    stack[sp] = Opcodes.binary(op, stack[sp], stack[sp + 1]);
+                    break;
+                case Opcodes.NEG:
+                    stack[sp] = -stack[sp];
+                    break;
+                case Opcodes.STORE:
+                    stack[temporaries + code[pc++]] = stack[sp];
+                    break;
+                case Opcodes.TEMP:
+                    stack[++sp] = stack[temporaries + code[pc++]];
+                    break;
+                case Opcodes.SUM:
+                case Opcodes.MEAN:
+                case Opcodes.VARIANCE:
+                case Opcodes.STDDEV:
+                case Opcodes.MIN:
+                case Opcodes.MAX: {
+                    // The arguments are already contiguous on the stack
+                    int count = code[pc++];
+                    sp -= count - 1;
+                    stack[sp] = Opcodes.variadic(op, stack, sp, count);
+                    break;
+                }
+                default:
+                    stack[sp] = Opcodes.unary(op, stack[sp]);
+                    break;
+            }
+        }
+        return stack[0];
+    }
+
+    /**
+     * Returns the original source text of the expression.
+     *
+     * @return The source text
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Returns the names of the variables referenced by the expression, in slot order.
+     *
+     * @return The variable names
+     */
+    public List<String> getVariableNames() {
+        return Collections.unmodifiableList(Arrays.asList(variableNames));
+    }
+
+    /**
+     * Returns the slot of a variable, or -1 if the expression does not reference it.
+     *
+     * @param name The variable name
+     * @return The variable slot
+     */
+    public int getVariableIndex(String name) {
+        for (int i = 0; i < variableNames.length; i++) {
+            if (variableNames[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the number of stack slots evaluation needs, including those holding shared subexpressions.
+     *
+     * @return The maximum stack depth
+     */
+    public int getMaxStackDepth() {
+        return maxStackDepth + temporaryCount;
+    }
+
+    /**
+     * Returns the number of instructions in the postfix program.
+     *
+     * @return The instruction count
+     */
+    public int getInstructionCount() {
+        int count = 0;
+        for (int pc = 0; pc < code.length; pc += 1 + Opcodes.operandCount(code[pc])) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of operations that compute a value, such as additions and function calls,
+     * leaving out those that only load constants and variables or reuse a shared subexpression.
+     * This is the work each evaluation does.
+     *
+     * @return The operation count
+     */
+    public int getOperationCount() {
+        int count = 0;
+        for (int pc = 0; pc < code.length; pc += 1 + Opcodes.operandCount(code[pc])) {
+            if (Opcodes.computes(code[pc])) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the expression as it was compiled, before optimization. Comparing the
+     * {@link #getOperationCount() operation counts} of the two shows what optimization saved.
+     *
+     * @return The unoptimized expression, or this expression if it was not optimized
+     */
+    public CompiledExpression getUnoptimized() {
+        return unoptimized != null ? unoptimized : this;
+    }
+
+    /**
+     * Returns a readable listing of the postfix program.
+     *
+     * @return The disassembled program
+     */
+    public String disassemble() {
+        StringBuilder sb = new StringBuilder();
+        for (int pc = 0; pc < code.length; pc++) {
+            int op = code[pc];
+            sb.append(Opcodes.name(op));
+            if (op == Opcodes.CONST) {
+                sb.append(' ').append(constants[code[++pc]]);
+            } else if (op == Opcodes.LOAD) {
+                sb.append(' ').append(variableNames[code[++pc]]);
+            } else if (op == Opcodes.STORE || op == Opcodes.TEMP || Opcodes.variadic(op)) {
+                sb.append(' ').append(code[++pc]);
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns this expression if the constants folded into it keep their values in the given
+     * bindings and are not replaced by columns, or the unoptimized expression otherwise.
+     */
+    CompiledExpression forBindings(Map<String, Double> variables, Map<String, ?> columns) {
+        return foldedConstantsMatch(variables, columns) ? this : unoptimized;
+    }
+
+    private boolean foldedConstantsMatch(Map<String, Double> variables, Map<String, ?> columns) {
+        for (int i = 0; i < foldedNames.length; i++) {
+            Double value = variables.get(foldedNames[i]);
+            if (value == null || Double.doubleToLongBits(value) != Double.doubleToLongBits(foldedValues[i])
+                    || (columns != null && columns.containsKey(foldedNames[i]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of temporaries holding shared subexpressions, stored from
+     * {@link #getMaxStackDepth()} minus this count onwards.
+     */
+    int temporaryCount() {
+        return temporaryCount;
+    }
+
+    int[] code() {
+        return code;
+    }
+
+    double[] constants() {
+        return constants;
+    }
+
+    /**
+     * Returns the source text of each constant, for evaluation modes that need the exact decimal literal.
+     */
+    String[] constantText() {
+        return constantText;
+    }
+
+    String[] variableNames() {
+        return variableNames;
+    }
+
+    private double[] bindings() {
+        double[] values = BINDINGS.get();
+        if (values.length < variableNames.length) {
+            values = new double[variableNames.length];
+            BINDINGS.set(values);
+        }
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
@@ -0,0 +1,187 @@
+package com.calculator.core;
+
+import com.calculator.units.Dimension;
+import com.calculator.units.Unit;
+import java.util.Arrays;
+
+/**
+ * Tracks the dimension of every operand stack slot while an expression is compiled, so that
+ * dimensional errors such as {@code 3 m + 2 kg} are reported at compile time. Quantities are
+ * compiled as plain doubles in coherent base units; this class only checks them.
+ * <p>
+ * Values on offset scales such as degrees Celsius are converted to kelvin when they are
+ * read and may not take part in arithmetic, since adding or scaling absolute temperatures
+ * on those scales has no physical meaning.
+ */
+final class DimensionAnalyzer {
+
+    private Dimension[] dimensions = new Dimension[16];
+    // Value of each slot if it is a compile-time constant, otherwise NaN
+    private double[] constants = new double[16];
+    private boolean[] affine = new boolean[16];
+    private int depth;
+
+    private Unit firstUnit;
+
+    /**
+     * Records a number literal.
+     */
+    void pushConstant(double value) {
+        push(Dimension.NONE, value, false);
+    }
+
+    /**
+     * Records a variable; variables are pure numbers.
+     */
+    void pushVariable() {
+        push(Dimension.NONE, Double.NaN, false);
+    }
+
+    /**
+     * Records a unit or a quantity literal such as {@code 20 C}, already converted to base units.
+     */
+    void pushUnit(Unit unit, Dimension dimension, boolean offsetScale) {
+        if (firstUnit == null) {
+            firstUnit = unit;
+        }
+        push(dimension, Double.NaN, offsetScale);
+    }
+
+    /**
+     * Checks an operation and records the dimension of its result.
+     *
+     * @param opcode The operation
+     * @param count The number of operands it consumes
+     * @throws IllegalArgumentException if the operand dimensions are incompatible
+     */
+    void apply(int opcode, int count) {
+        int base = depth - count;
+        for (int i = base; i < depth; i++) {
+            if (affine[i] && count > 0) {
+                throw new IllegalArgumentException("Temperatures on an offset scale cannot be used in "
+                        + Opcodes.name(opcode) + "; use K for temperature differences");
+            }
+        }
+        Dimension first = dimensions[base];
+        double a = constants[base];
+        double b = count > 1 ? constants[base + 1] : Double.NaN;
+        Dimension result;
+        double constant = Double.NaN;
+        switch (opcode) {
+            case Opcodes.ADD:
+            case Opcodes.SUB:
+            case Opcodes.MOD:
+                result = requireSame(opcode, base, count);
+                constant = opcode == Opcodes.ADD ? a + b : opcode == Opcodes.SUB ? a - b : Double.NaN;
+                break;
+            case Opcodes.MUL:
+                result = first.multiply(dimensions[base + 1]);
+                constant = a * b;
+                break;
+            case Opcodes.DIV:
+                result = first.divide(dimensions[base + 1]);
+                constant = a / b;
+                break;
+            case Opcodes.NEG:
+                result = first;
+                constant = -a;
+                break;
+            case Opcodes.POW:
+                result = power(first, dimensions[base + 1], b);
+                break;
+            case Opcodes.SQRT:
+                result = first.root(2);
+                break;
+            case Opcodes.CBRT:
+                result = first.root(3);
+                break;
+            case Opcodes.ABS:
+            case Opcodes.CEIL:
+            case Opcodes.FLOOR:
+                result = first;
+                break;
+            case Opcodes.SIGNUM:
+                result = Dimension.NONE;
+                break;
+            case Opcodes.SUM:
+            case Opcodes.MEAN:
+            case Opcodes.STDDEV:
+            case Opcodes.MIN:
+            case Opcodes.MAX:
+                result = requireSame(opcode, base, count);
+                break;
+            case Opcodes.VARIANCE:
+                result = requireSame(opcode, base, count).power(2);
+                break;
+            default:
+                for (int i = base; i < depth; i++) {
+                    if (!dimensions[i].isDimensionless()) {
+                        throw new IllegalArgumentException("Function " + Opcodes.name(opcode)
+                                + " needs dimensionless arguments but got " + dimensions[i]);
+                    }
+                }
+                result = Dimension.NONE;
+                break;
+        }
+        depth = base;
+        push(result, constant, false);
+    }
+
+    /**
+     * Returns the dimension of the complete expression.
+     */
+    Dimension result() {
+        return dimensions[0];
+    }
+
+    /**
+     * Returns whether the complete expression is a single temperature on an offset scale.
+     */
+    boolean isOffsetScale() {
+        return affine[0];
+    }
+
+    /**
+     * Returns the first unit written in the expression, or null if there is none.
+     */
+    Unit firstUnit() {
+        return firstUnit;
+    }
+
+    private Dimension requireSame(int opcode, int base, int count) {
+        Dimension dimension = dimensions[base];
+        for (int i = base + 1; i < base + count; i++) {
+            if (!dimensions[i].equals(dimension)) {
+                throw new IllegalArgumentException("Incompatible dimensions in " + Opcodes.name(opcode)
+                        + ": " + dimension + " and " + dimensions[i]);
+            }
+        }
+        return dimension;
+    }
+
+    private static Dimension power(Dimension base, Dimension exponentDimension, double exponent) {
+        if (!exponentDimension.isDimensionless()) {
+            throw new IllegalArgumentException("Exponent must be dimensionless but got " + exponentDimension);
+        }
+        if (base.isDimensionless()) {
+            return base;
+        }
+        if (Double.isNaN(exponent) || exponent != Math.rint(exponent) || Math.abs(exponent) > 64) {
+            throw new IllegalArgumentException("Exponent of a value with dimension " + base
+                    + " must be a constant integer");
+        }
+        return base.power((int) exponent);
+    }
+
+    private void push(Dimension dimension, double constant, boolean offsetScale) {
+        if (depth == dimensions.length) {
+            dimensions = Arrays.copyOf(dimensions, depth * 2);
+            constants = Arrays.copyOf(constants, depth * 2);
+            affine = Arrays.copyOf(affine, depth * 2);
+        }
+        dimensions[depth] = dimension;
+        constants[depth] = constant;
+        affine[depth] = offsetScale;
+        depth++;
+    }
+}
@@ -0,0 +1,119 @@
+package com.calculator.core;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-session state for a {@link CalculatorEngine}: the memory register and variable bindings.
+ * A context is cheap to create and is not thread-safe; use one per session or request and
+ * share the engine itself between threads.
+ */
+public class EvaluationContext {
+
+    private final Map<String, Double> constants;
+    private final Map<String, Double> variables;
+    private double memoryValue = 0.0;
+
+    /**
+     * Creates a context with the given constants bound as variables.
+     *
+     * @param constants The constants every context starts with
+     */
+    EvaluationContext(Map<String, Double> constants) {
+        this.constants = constants;
+        this.variables = new HashMap<>(constants);
+    }
+
+    /**
+     * Binds a variable for use in expressions.
+     *
+     * @param name The variable name
+     * @param value The variable value
+     */
+    public void setVariable(String name, double value) {
+        variables.put(name, value);
+    }
+
+    /**
+     * Returns the value of a variable.
+     *
+     * @param name The variable name
+     * @return The variable value
+     * @throws IllegalArgumentException if the variable is not bound
+     */
+    public double getVariable(String name) {
+        Double value = variables.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Unknown variable: " + name);
+        }
+        return value;
+    }
+
+    /**
+     * Removes all variable bindings except the engine constants.
+     */
+    public void clearVariables() {
+        variables.clear();
+        variables.putAll(constants);
+    }
+
+    /**
+     * Returns an unmodifiable view of the variable bindings.
+     *
+     * @return The variables keyed by name
+     */
+    public Map<String, Double> getVariables() {
+        return Collections.unmodifiableMap(variables);
+    }
+
+    /**
+     * Stores a value in memory.
+     *
+     * @param value The value to store
+     */
+    public void setMemory(double value) {
+        memoryValue = value;
+    }
+
+    /**
+     * Retrieves the value stored in memory.
+     *
+     * @return The memory value
+     */
+    public double getMemory() {
+        return memoryValue;
+    }
+
+    /**
+     * Adds a value to the memory.
+     *
+     * @param value The value to add
+     */
+    public void addToMemory(double value) {
+        memoryValue += value;
+    }
+
+    /**
+     * Subtracts a value from the memory.
+     *
+     * @param value The value to subtract
+     */
+    public void subtractFromMemory(double value) {
+        memoryValue -= value;
+    }
+
+    /**
+     * Clears the memory value.
+     */
+    public void clearMemory() {
+        memoryValue = 0.0;
+    }
+
+    /**
+     * Returns the live variable map used for binding compiled expressions.
+     */
+    Map<String, Double> variables() {
+        return variables;
+    }
+}
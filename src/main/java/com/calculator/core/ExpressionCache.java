@@ -0,0 +1,167 @@
+package com.calculator.core;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded, thread-safe LRU cache of compiled expressions keyed by their
+ * normalized source text.
+ * <p>
+ * Lookups that hit take no locks: they read a {@link ConcurrentHashMap} and stamp the entry
+ * with the time of its last use. A miss that takes the cache over capacity evicts the entry
+ * used longest ago, found by scanning the stamps under a lock that only misses take. Under
+ * concurrent use the order is approximate, since stamps from different threads may race.
+ *
+ * @param <T> The compiled form stored in the cache
+ */
+public class ExpressionCache<T> {
+
+    /** Default number of compiled expressions kept by the cache. */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final int capacity;
+    private final ConcurrentHashMap<String, Entry<T>> entries = new ConcurrentHashMap<>();
+    private final Object evictionLock = new Object();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * Creates a cache holding at most {@link #DEFAULT_CAPACITY} expressions.
+     */
+    public ExpressionCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a cache holding at most the given number of expressions.
+     *
+     * @param capacity The maximum number of entries
+     * @throws IllegalArgumentException if capacity is not positive
+     */
+    public ExpressionCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the compiled form for the given key, compiling and caching it on a miss.
+     * Compilation failures are propagated and nothing is cached for the key.
+     *
+     * @param key The normalized expression text
+     * @param compiler The function that compiles the key on a miss
+     * @return The cached or freshly compiled value
+     */
+    public T get(String key, Function<String, ? extends T> compiler) {
+        Entry<T> entry = entries.get(key);
+        if (entry != null) {
+            entry.lastUsed = System.nanoTime();
+            hitCount.increment();
+            return entry.value;
+        }
+        missCount.increment();
+
+        // Compile outside any lock so a slow parse does not block other lookups
+        Entry<T> compiled = new Entry<>(compiler.apply(key));
+        Entry<T> existing = entries.putIfAbsent(key, compiled);
+        if (existing != null) {
+            return existing.value;
+        }
+        if (entries.size() > capacity) {
+            evict();
+        }
+        return compiled.value;
+    }
+
+    /**
+     * Removes the least recently used entries until the cache is within capacity.
+     */
+    private void evict() {
+        synchronized (evictionLock) {
+            while (entries.size() > capacity) {
+                Map.Entry<String, Entry<T>> eldest = null;
+                for (Map.Entry<String, Entry<T>> candidate : entries.entrySet()) {
+                    if (eldest == null || candidate.getValue().lastUsed - eldest.getValue().lastUsed < 0) {
+                        eldest = candidate;
+                    }
+                }
+                if (eldest == null) {
+                    return;
+                }
+                if (entries.remove(eldest.getKey(), eldest.getValue())) {
+                    evictionCount.increment();
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all entries from the cache. Statistics are kept.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Returns the number of entries currently cached.
+     *
+     * @return The cache size
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the maximum number of entries the cache holds.
+     *
+     * @return The cache capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of lookups served from the cache.
+     *
+     * @return The hit count
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * Returns the number of lookups that required compilation.
+     *
+     * @return The miss count
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * Returns the number of entries evicted to stay within capacity.
+     *
+     * @return The eviction count
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * A cached value and the {@link System#nanoTime} of its last use.
+     */
+    private static final class Entry<T> {
+
+        final T value;
+        volatile long lastUsed = System.nanoTime();
+
+        Entry(T value) {
+            this.value = value;
+        }
+    }
+}
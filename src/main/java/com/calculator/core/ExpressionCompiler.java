@@ -0,0 +1,716 @@
+package com.calculator.core;
+
+import com.calculator.units.Dimension;
+import com.calculator.units.Unit;
+import com.calculator.units.UnitRegistry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compiles expression text into a {@link CompiledExpression}.
+ * Understands the calculator's UI symbols (×, ÷, π, √) directly, so no textual
+ * preprocessing is needed. Precedence and associativity match the exp4j library used previously:
+ * {@code ^} is right associative and binds tighter than unary minus. Number literals follow a
+ * {@link NumberSyntax}, so separators can match the user's locale. Parentheses, function
+ * arguments and exponents may nest at most {@value #MAX_NESTING} levels deep; chains of prefix
+ * operators are unlimited.
+ */
+public final class ExpressionCompiler {
+
+    /** Deepest nesting of parentheses, function arguments and exponents accepted. */
+    public static final int MAX_NESTING = 500;
+
+    private final NumberSyntax syntax;
+
+    /**
+     * Creates a compiler for expressions with periods as decimal separators.
+     */
+    public ExpressionCompiler() {
+        this(NumberSyntax.STANDARD);
+    }
+
+    /**
+     * Creates a compiler for expressions whose literals and argument lists follow the given syntax.
+     *
+     * @param syntax The number syntax
+     */
+    public ExpressionCompiler(NumberSyntax syntax) {
+        this.syntax = syntax;
+    }
+
+    /**
+     * Compiles an expression.
+     *
+     * @param expression The expression text
+     * @return The compiled expression
+     * @throws IllegalArgumentException if the expression is invalid
+     */
+    public CompiledExpression compile(String expression) {
+        return new Parser(expression, null, syntax).parse();
+    }
+
+    /**
+     * Compiles an expression in which unit symbols denote quantities, such as {@code 3 m + 20 cm}
+     * or {@code 5 kg × 9.81 m/s^2}. The expression may end with {@code to}, {@code in} or {@code →}
+     * followed by the unit of the result, e.g. {@code 60 mi/h to m/s}. A number and the unit after
+     * it form one quantity, so {@code 100 km / 2 h} is a speed. Dimensions are checked
+     * here, once; the compiled program works on plain doubles in coherent base units.
+     *
+     * @param expression The expression text
+     * @param units The units that may appear in the expression
+     * @return The compiled expression
+     * @throws IllegalArgumentException if the expression is invalid or dimensionally inconsistent
+     */
+    public QuantityExpression compileQuantity(String expression, UnitRegistry units) {
+        Parser parser = new Parser(expression, units, syntax);
+        return parser.quantity(parser.parse());
+    }
+
+    /**
+     * Single-use recursive descent parser emitting postfix code as it goes.
+     */
+    private static final class Parser {
+
+        private final String source;
+        private final UnitRegistry units;
+        private final ExpressionLexer lexer;
+        private final DimensionAnalyzer dimensions;
+        private int pos;
+        private UnitTerm target;
+
+        private int[] code = new int[16];
+        private int codeLength;
+        private double[] constants = new double[8];
+        private String[] constantText = new String[8];
+        private int constantCount;
+        private final List<String> variables = new ArrayList<>();
+        private int depth;
+        private int maxDepth;
+        // Set while parsing an exponent, where a number must not take a unit: 2^3 m is 8 m
+        private boolean inExponent;
+        private int nesting;
+        // Whether the last operand parsed was a bare number literal, which cannot be followed by another
+        private boolean literalOperand;
+
+        Parser(String source, UnitRegistry units, NumberSyntax syntax) {
+            this.source = source;
+            this.units = units;
+            this.lexer = new ExpressionLexer(syntax, units != null);
+            this.dimensions = units != null ? new DimensionAnalyzer() : null;
+        }
+
+        CompiledExpression parse() {
+            skipWhitespace();
+            if (pos == source.length()) {
+                throw error("Expression is empty");
+            }
+            parseAdditive();
+            skipWhitespace();
+            if (pos < source.length() && units != null) {
+                target = parseTarget();
+                if (target == null) {
+                    throw error("Unknown unit after conversion keyword");
+                }
+            }
+            if (pos < source.length()) {
+                throw error("Unexpected '" + source.charAt(pos) + "'");
+            }
+            return new CompiledExpression(source, Arrays.copyOf(code, codeLength),
+                    Arrays.copyOf(constants, constantCount), Arrays.copyOf(constantText, constantCount),
+                    variables.toArray(new String[0]), maxDepth);
+        }
+
+        /**
+         * Pairs a program compiled in units mode with the unit its result is shown in.
+         */
+        QuantityExpression quantity(CompiledExpression compiled) {
+            Dimension dimension = dimensions.result();
+            if (target != null && !target.dimension.equals(dimension)) {
+                throw error("Cannot convert " + dimension + " to " + target.label + " (" + target.dimension + ")");
+            }
+            Unit first = dimensions.firstUnit();
+            if (dimensions.isOffsetScale()) {
+                // The program yields the temperature in the scale it was written in
+                if (target == null) {
+                    return new QuantityExpression(compiled, dimension, first.getSymbol(), 1, 0);
+                }
+                if (target.factor == target.unit.getFactor() && target.offset == target.unit.getOffset()) {
+                    int from = first.getId();
+                    int to = target.unit.getId();
+                    return new QuantityExpression(compiled, dimension, target.label, 1, 0,
+                            units.scale(from, to), units.offset(from, to));
+                }
+                return new QuantityExpression(compiled, dimension, target.label, 1, 0,
+                        first.getFactor() / target.factor, (first.getOffset() - target.offset) / target.factor);
+            }
+            if (target != null) {
+                return new QuantityExpression(compiled, dimension, target.label, target.factor, target.offset);
+            }
+            if (dimension.isDimensionless()) {
+                return new QuantityExpression(compiled, dimension, "", 1, 0);
+            }
+            if (first != null && first.getDimension().equals(dimension)) {
+                return new QuantityExpression(compiled, dimension, first.getSymbol(), first.getFactor(), 0);
+            }
+            for (Unit unit : units.getUnits(dimension)) {
+                if (unit.getFactor() == 1 && !unit.isAffine()) {
+                    return new QuantityExpression(compiled, dimension, unit.getSymbol(), 1, 0);
+                }
+            }
+            return new QuantityExpression(compiled, dimension, dimension.toBaseUnits(), 1, 0);
+        }
+
+        private void parseAdditive() {
+            parseMultiplicative();
+            while (true) {
+                char c = peek();
+                if (c == '+') {
+                    pos++;
+                    parseMultiplicative();
+                    emit(Opcodes.ADD);
+                } else if (c == '-') {
+                    pos++;
+                    parseMultiplicative();
+                    emit(Opcodes.SUB);
+                } else {
+                    return;
+                }
+            }
+        }
+
+        private void parseMultiplicative() {
+            parseUnary();
+            while (true) {
+                char c = peek();
+                if (c == '*') {
+                    pos++;
+                    parseUnary();
+                    emit(Opcodes.MUL);
+                } else if (c == '/') {
+                    pos++;
+                    parseUnary();
+                    emit(Opcodes.DIV);
+                } else if (c == '%') {
+                    pos++;
+                    parseUnary();
+                    emit(Opcodes.MOD);
+                } else if (startsOperand(c) && !atTarget() && !(literalOperand && lexer.startsNumber(source, pos))) {
+                    // Implicit multiplication, e.g. 2π or 3(4+1), but not of two literals such as 1 2
+                    parseUnary();
+                    emit(Opcodes.MUL);
+                } else {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Parses prefix operators in a loop rather than recursively, so that long chains such as
+         * {@code ---x} cannot exhaust the stack, then emits them innermost first.
+         */
+        private void parseUnary() {
+            int[] prefixes = null;
+            int count = 0;
+            while (true) {
+                char c = peek();
+                if (c != '-' && c != '+' && c != '√') {
+                    break;
+                }
+                pos++;
+                if (c == '-' && units != null && peek() != 0 && lexer.startsNumber(source, pos)) {
+                    // Negate the number before applying an offset scale, so -40 F is 40 degrees below zero
+                    int start = pos;
+                    if (emitOffsetQuantity(-parseNumber())) {
+                        literalOperand = false;
+                        emitPrefixes(prefixes, count);
+                        return;
+                    }
+                    pos = start;
+                }
+                if (c != '+') {
+                    if (prefixes == null) {
+                        prefixes = new int[8];
+                    } else if (count == prefixes.length) {
+                        prefixes = Arrays.copyOf(prefixes, count * 2);
+                    }
+                    prefixes[count++] = c == '-' ? Opcodes.NEG : Opcodes.SQRT;
+                }
+            }
+            parsePower();
+            emitPrefixes(prefixes, count);
+        }
+
+        private void emitPrefixes(int[] prefixes, int count) {
+            for (int i = count - 1; i >= 0; i--) {
+                emit(prefixes[i]);
+            }
+        }
+
+        private void parsePower() {
+            parsePrimary();
+            if (peek() == '^') {
+                pos++;
+                boolean outer = inExponent;
+                inExponent = true;
+                enter();
+                parseUnary();
+                nesting--;
+                inExponent = outer;
+                literalOperand = false;
+                emit(Opcodes.POW);
+            }
+        }
+
+        private void parsePrimary() {
+            char c = peek();
+            boolean literal = false;
+            if (c == '(') {
+                pos++;
+                boolean outer = inExponent;
+                inExponent = false;
+                enter();
+                parseAdditive();
+                nesting--;
+                inExponent = outer;
+                expect(')');
+            } else if (lexer.startsNumber(source, pos)) {
+                int start = pos;
+                double value = parseNumber();
+                if (units == null || !emitOffsetQuantity(value) && !emitUnitQuantity(value)) {
+                    emitConstant(value, lexer.literalText(source, start, pos));
+                    literal = true;
+                }
+            } else if (c == 'π') {
+                pos++;
+                emitLoad("pi");
+            } else if (isIdentifierStart(c)) {
+                String name = parseIdentifier();
+                int opcode = Opcodes.functionOpcode(name);
+                if (opcode >= 0 && peek() == '(') {
+                    pos++;
+                    boolean outer = inExponent;
+                    inExponent = false;
+                    enter();
+                    int count = parseArguments(name, Opcodes.minArguments(opcode), Opcodes.maxArguments(opcode));
+                    nesting--;
+                    inExponent = outer;
+                    if (Opcodes.variadic(opcode)) {
+                        emit(opcode, count);
+                    } else {
+                        emit(opcode);
+                    }
+                } else if (units != null && resolveUnit(name) != null) {
+                    UnitTerm unit = resolveUnit(name);
+                    if (unit.offsetScale) {
+                        throw error("Temperature scale " + name + " needs a number before it, e.g. 20 " + name);
+                    }
+                    emitQuantity(unit, unit.factor, false);
+                } else {
+                    emitLoad(name);
+                }
+            } else if (c == 0) {
+                throw error("Unexpected end of expression");
+            } else {
+                throw error("Unexpected '" + c + "'");
+            }
+            literalOperand = literal;
+        }
+
+        /**
+         * Counts one more level of nesting, which the recursive descent pays for in stack frames.
+         */
+        private void enter() {
+            if (++nesting > MAX_NESTING) {
+                throw error("Expression nested too deeply");
+            }
+        }
+
+        /**
+         * Parses a comma-separated argument list up to the closing parenthesis and returns its length.
+         */
+        private int parseArguments(String function, int min, int max) {
+            int count = 0;
+            if (peek() != ')') {
+                parseAdditive();
+                count++;
+                while (peek() == ',') {
+                    pos++;
+                    parseAdditive();
+                    count++;
+                }
+            }
+            expect(')');
+            if (min == max && count != min) {
+                throw error("Function " + function + " expects " + min + " argument(s) but got " + count);
+            }
+            if (count < min) {
+                throw error("Function " + function + " expects at least " + min + " argument(s) but got " + count);
+            }
+            if (count > max) {
+                throw error("Function " + function + " accepts at most " + max + " argument(s) but got " + count);
+            }
+            return count;
+        }
+
+        /**
+         * Emits a number followed by a unit on an offset scale, such as {@code 20 C}, as a single
+         * constant in the scale it was written in. Such a literal cannot take part in any operation,
+         * so it is always the whole program, and {@link #quantity} converts it with the registry's
+         * exact pair. Leaves the position unchanged and returns false for any other input.
+         */
+        private boolean emitOffsetQuantity(double value) {
+            int start = pos;
+            if (isIdentifierStart(peek())) {
+                UnitTerm unit = resolveUnit(parseIdentifier());
+                if (unit != null && unit.offsetScale) {
+                    emitQuantity(unit, value, true);
+                    return true;
+                }
+            }
+            pos = start;
+            return false;
+        }
+
+        /**
+         * Emits a number followed by a unit, such as {@code 100 km} or {@code 9 m^2}, as a single
+         * quantity literal in base units. The pair binds tighter than {@code *} and {@code /}, so
+         * {@code 100 km / 2 h} is a speed. Leaves the position unchanged and returns false if no
+         * unit follows the number.
+         */
+        private boolean emitUnitQuantity(double value) {
+            int start = pos;
+            if (!inExponent && isIdentifierStart(peek()) && !atTarget()) {
+                String name = parseIdentifier();
+                UnitTerm unit = resolveUnit(name);
+                boolean call = Opcodes.functionOpcode(name) >= 0 && peek() == '(';
+                if (unit != null && !unit.offsetScale && !call) {
+                    unit = parseIntegerPower(unit);
+                    emitQuantity(unit, value * unit.factor, false);
+                    return true;
+                }
+            }
+            pos = start;
+            return false;
+        }
+
+        /**
+         * Applies an integer power such as {@code ^2} or {@code ^-1} following a unit. Any other
+         * exponent is left in the input, to be applied to the whole quantity.
+         */
+        private UnitTerm parseIntegerPower(UnitTerm unit) {
+            int start = pos;
+            if (peek() == '^') {
+                pos++;
+                boolean negative = peek() == '-';
+                if (negative) {
+                    pos++;
+                }
+                skipWhitespace();
+                int digits = pos;
+                while (pos < source.length() && isDigit(source.charAt(pos))) {
+                    pos++;
+                }
+                if (digits < pos && !lexer.startsNumber(source, pos) && !isIdentifierStart(peekRaw())) {
+                    int exponent = Integer.parseInt(source.substring(digits, pos));
+                    return unit.power(negative ? -exponent : exponent);
+                }
+            }
+            pos = start;
+            return unit;
+        }
+
+        private char peekRaw() {
+            return pos < source.length() ? source.charAt(pos) : 0;
+        }
+
+        /**
+         * Returns whether the input continues with a conversion target, leaving the position unchanged.
+         * {@code in} is only a keyword if a valid unit follows it and ends the expression,
+         * so that {@code 3 ft + 2 in} still means inches.
+         */
+        private boolean atTarget() {
+            if (units == null) {
+                return false;
+            }
+            int start = pos;
+            try {
+                return parseTarget() != null && pos == source.length();
+            } catch (IllegalArgumentException e) {
+                return false;
+            } finally {
+                pos = start;
+            }
+        }
+
+        /**
+         * Parses {@code to}, {@code in} or {@code →} and the unit after it, or returns null if the
+         * input does not start with a conversion keyword.
+         */
+        private UnitTerm parseTarget() {
+            char c = peek();
+            if (c == '→') {
+                pos++;
+            } else if (isIdentifierStart(c)) {
+                int start = pos;
+                String keyword = parseIdentifier();
+                if (!keyword.equals("to") && !keyword.equals("in")) {
+                    pos = start;
+                    return null;
+                }
+            } else {
+                return null;
+            }
+            skipWhitespace();
+            int start = pos;
+            UnitTerm unit = parseUnitFactor();
+            boolean compound = false;
+            while (true) {
+                char op = peek();
+                boolean divide = op == '/';
+                if (!divide && op != '*' && op != '·') {
+                    break;
+                }
+                pos++;
+                UnitTerm next = parseUnitFactor();
+                unit = divide ? unit.divide(next) : unit.multiply(next);
+                compound = true;
+            }
+            if (unit.offsetScale && compound) {
+                throw error("Temperature scales cannot be combined with other units");
+            }
+            return unit.withLabel(source.substring(start, pos).trim());
+        }
+
+        private UnitTerm parseUnitFactor() {
+            skipWhitespace();
+            if (!isIdentifierStart(peek())) {
+                throw error("Expected a unit");
+            }
+            String name = parseIdentifier();
+            UnitTerm unit = resolveUnit(name);
+            if (unit == null) {
+                throw error("Unknown unit: " + name);
+            }
+            if (peek() == '^') {
+                pos++;
+                boolean negative = peek() == '-';
+                if (negative) {
+                    pos++;
+                }
+                int start = pos;
+                while (pos < source.length() && isDigit(source.charAt(pos))) {
+                    pos++;
+                }
+                if (start == pos) {
+                    throw error("Expected an integer exponent");
+                }
+                int exponent = Integer.parseInt(source.substring(start, pos));
+                unit = unit.power(negative ? -exponent : exponent);
+            }
+            return unit;
+        }
+
+        /**
+         * Looks up a unit symbol, accepting a trailing ² or ³ on any unit, e.g. s² in m/s².
+         * Returns null if the name is not a unit.
+         */
+        private UnitTerm resolveUnit(String name) {
+            Unit unit = units.find(name);
+            if (unit != null) {
+                return new UnitTerm(unit);
+            }
+            char last = name.charAt(name.length() - 1);
+            if (name.length() > 1 && (last == '²' || last == '³')) {
+                unit = units.find(name.substring(0, name.length() - 1));
+                if (unit != null && !unit.isAffine()) {
+                    return new UnitTerm(unit).power(last == '²' ? 2 : 3);
+                }
+            }
+            return null;
+        }
+
+        private double parseNumber() {
+            pos = lexer.scanNumber(source, pos);
+            if (!lexer.isValid()) {
+                throw error("Invalid number");
+            }
+            return lexer.getValue();
+        }
+
+        private String parseIdentifier() {
+            int start = pos;
+            while (pos < source.length() && isIdentifierPart(source.charAt(pos))) {
+                pos++;
+            }
+            return source.substring(start, pos);
+        }
+
+        private void expect(char expected) {
+            if (peek() != expected) {
+                throw error("Expected '" + expected + "'");
+            }
+            pos++;
+        }
+
+        /**
+         * Skips whitespace and returns the next character in canonical form, or 0 at the end of input.
+         */
+        private char peek() {
+            skipWhitespace();
+            return pos < source.length() ? lexer.symbol(source.charAt(pos)) : 0;
+        }
+
+        private void skipWhitespace() {
+            pos = lexer.skipWhitespace(source, pos);
+        }
+
+        private void emitConstant(double value, String text) {
+            addConstant(value, text);
+            if (dimensions != null) {
+                dimensions.pushConstant(value);
+            }
+        }
+
+        /**
+         * Emits a unit or quantity literal as its value in base units, or a temperature on an
+         * offset scale as its value in that scale.
+         */
+        private void emitQuantity(UnitTerm unit, double value, boolean offsetScale) {
+            addConstant(value, null);
+            dimensions.pushUnit(unit.unit, unit.dimension, offsetScale);
+        }
+
+        private void addConstant(double value, String text) {
+            if (constantCount == constants.length) {
+                constants = Arrays.copyOf(constants, constantCount * 2);
+                constantText = Arrays.copyOf(constantText, constantCount * 2);
+            }
+            constants[constantCount] = value;
+            constantText[constantCount] = text;
+            emit(Opcodes.CONST, constantCount++);
+        }
+
+        private void emitLoad(String name) {
+            int slot = variables.indexOf(name);
+            if (slot < 0) {
+                slot = variables.size();
+                variables.add(name);
+            }
+            emit(Opcodes.LOAD, slot);
+            if (dimensions != null) {
+                dimensions.pushVariable();
+            }
+        }
+
+        /**
+         * Emits an instruction with an operand: a constant index, variable slot, or argument count.
+         */
+        private void emit(int opcode, int operand) {
+            append(opcode, operand);
+            track(Opcodes.variadic(opcode) ? operand : 0);
+            if (Opcodes.variadic(opcode)) {
+                checkDimensions(opcode, operand);
+            }
+        }
+
+        private void emit(int opcode) {
+            append(opcode, -1);
+            track(Opcodes.arity(opcode));
+            checkDimensions(opcode, Opcodes.arity(opcode));
+        }
+
+        private void checkDimensions(int opcode, int count) {
+            if (dimensions != null) {
+                try {
+                    dimensions.apply(opcode, count);
+                } catch (IllegalArgumentException e) {
+                    throw error(e.getMessage());
+                }
+            }
+        }
+
+        private void append(int opcode, int operand) {
+            if (codeLength + 2 > code.length) {
+                code = Arrays.copyOf(code, code.length * 2);
+            }
+            code[codeLength++] = opcode;
+            if (operand >= 0) {
+                code[codeLength++] = operand;
+            }
+        }
+
+        /**
+         * Records the stack effect of an instruction that consumes some values and pushes one result.
+         */
+        private void track(int consumed) {
+            depth += 1 - consumed;
+            maxDepth = Math.max(maxDepth, depth);
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + pos + " in: " + source);
+        }
+
+        private boolean startsOperand(char c) {
+            return lexer.startsNumber(source, pos) || c == '(' || c == 'π' || c == '√' || isIdentifierStart(c);
+        }
+
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+
+        private boolean isIdentifierStart(char c) {
+            return lexer.isIdentifierStart(c);
+        }
+
+        private boolean isIdentifierPart(char c) {
+            return lexer.isIdentifierPart(c);
+        }
+    }
+
+    /**
+     * The scale, offset and dimension of a unit or product of units, relative to coherent base units.
+     */
+    private static final class UnitTerm {
+
+        final Unit unit;
+        final String label;
+        final Dimension dimension;
+        final double factor;
+        final double offset;
+        final boolean offsetScale;
+
+        UnitTerm(Unit unit) {
+            this(unit, unit.getSymbol(), unit.getDimension(), unit.getFactor(), unit.getOffset(), unit.isAffine());
+        }
+
+        private UnitTerm(Unit unit, String label, Dimension dimension, double factor, double offset,
+                         boolean offsetScale) {
+            this.unit = unit;
+            this.label = label;
+            this.dimension = dimension;
+            this.factor = factor;
+            this.offset = offset;
+            this.offsetScale = offsetScale;
+        }
+
+        UnitTerm multiply(UnitTerm other) {
+            return new UnitTerm(unit, label, dimension.multiply(other.dimension), factor * other.factor,
+                    0, offsetScale || other.offsetScale);
+        }
+
+        UnitTerm divide(UnitTerm other) {
+            return new UnitTerm(unit, label, dimension.divide(other.dimension), factor / other.factor,
+                    0, offsetScale || other.offsetScale);
+        }
+
+        UnitTerm power(int exponent) {
+            return new UnitTerm(unit, label, dimension.power(exponent), Math.pow(factor, exponent), 0, false);
+        }
+
+        UnitTerm withLabel(String text) {
+            return new UnitTerm(unit, text, dimension, factor, offset, offsetScale);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.calculator.core;
+
+/**
+ * A compiled expression as a primitive function of its variables.
+ * Variables are passed by slot, in the order of {@link CompiledExpression#getVariableNames()}.
+ */
+@FunctionalInterface
+public interface ExpressionFunction {
+
+    /**
+     * Evaluates the expression.
+     *
+     * @param variables The variable values
+     * @return The result of the evaluation
+     */
+    double applyAsDouble(double[] variables);
+}
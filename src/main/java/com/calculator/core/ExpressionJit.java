@@ -0,0 +1,420 @@
+package com.calculator.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Translates the postfix program of a {@link CompiledExpression} into a JVM hidden class,
+ * so that hot expressions run as straight-line bytecode that HotSpot can inline.
+ * The generated class implements {@link ExpressionFunction} and, for expressions with at
+ * most one variable, {@link java.util.function.DoubleUnaryOperator}.
+ */
+final class ExpressionJit {
+
+    /** Number of interpreted evaluations after which an expression is compiled to bytecode. */
+    static final int THRESHOLD = Integer.getInteger("calculator.jit.threshold", 1000);
+
+    private static final String CLASS_NAME = "com/calculator/core/GeneratedExpression";
+    private static final String OPCODES = "com/calculator/core/Opcodes";
+    private static final String SPECIAL_FUNCTIONS = "com/calculator/core/SpecialFunctions";
+    private static final String MATH = "java/lang/Math";
+
+    // Class file constants
+    private static final int CLASS_VERSION = 61;
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+    private static final int ACC_SYNTHETIC = 0x1000;
+
+    // Bytecode instructions used by the translation
+    private static final int DCONST_0 = 0x0e;
+    private static final int DCONST_1 = 0x0f;
+    private static final int BIPUSH = 0x10;
+    private static final int SIPUSH = 0x11;
+    private static final int LDC2_W = 0x14;
+    private static final int DLOAD = 0x18;
+    private static final int DLOAD_1 = 0x27;
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int DALOAD = 0x31;
+    private static final int DSTORE = 0x39;
+    private static final int DASTORE = 0x52;
+    private static final int DUP = 0x59;
+    private static final int DUP2 = 0x5c;
+    private static final int DADD = 0x63;
+    private static final int DSUB = 0x67;
+    private static final int DMUL = 0x6b;
+    private static final int DNEG = 0x77;
+    private static final int DRETURN = 0xaf;
+    private static final int RETURN = 0xb1;
+    private static final int WIDE = 0xc4;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int INVOKESTATIC = 0xb8;
+
+    // First local variable slot free in both generated methods
+    private static final int FIRST_TEMPORARY = 3;
+
+    private ExpressionJit() {
+    }
+
+    /**
+     * Generates and loads a hidden class evaluating the given expression.
+     *
+     * @param expression The compiled expression
+     * @return The generated function
+     * @throws IllegalStateException if the class cannot be generated or loaded
+     */
+    static ExpressionFunction generate(CompiledExpression expression) {
+        try {
+            byte[] bytes = new ClassWriter(expression).toByteArray();
+            Class<?> generated = MethodHandles.lookup().defineHiddenClass(bytes, true).lookupClass();
+            return (ExpressionFunction) generated.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | IOException | LinkageError e) {
+            throw new IllegalStateException("Could not generate bytecode for: " + expression.getSource(), e);
+        }
+    }
+
+    /**
+     * Minimal class file writer for the single shape of class the JIT produces.
+     */
+    private static final class ClassWriter {
+
+        private final CompiledExpression expression;
+        private final boolean unary;
+        private final int sharedLocals;
+
+        private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+        private final DataOutputStream pool = new DataOutputStream(poolBytes);
+        private final Map<String, Integer> poolIndex = new HashMap<>();
+        private int poolCount = 1;
+
+        ClassWriter(CompiledExpression expression) {
+            this.expression = expression;
+            this.unary = expression.variableNames().length <= 1;
+            this.sharedLocals = FIRST_TEMPORARY + 2 * widestVariadicCall();
+        }
+
+        byte[] toByteArray() throws IOException {
+            int thisClass = classRef(CLASS_NAME);
+            int superClass = classRef("java/lang/Object");
+            int functionInterface = classRef("com/calculator/core/ExpressionFunction");
+            int unaryInterface = unary ? classRef("java/util/function/DoubleUnaryOperator") : 0;
+            int codeName = utf8("Code");
+
+            byte[] constructor = method(ACC_PUBLIC, "<init>", "()V", codeName, constructorCode(), 1, 1);
+            byte[] arrayMethod = method(ACC_PUBLIC, "applyAsDouble", "([D)D", codeName,
+                    evaluationCode(false), maxStack(), maxLocals());
+            byte[] unaryMethod = unary
+                    ? method(ACC_PUBLIC, "applyAsDouble", "(D)D", codeName, evaluationCode(true), maxStack(), maxLocals())
+                    : null;
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(CLASS_VERSION);
+            out.writeShort(poolCount);
+            pool.flush();
+            out.write(poolBytes.toByteArray());
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(unary ? 2 : 1);
+            out.writeShort(functionInterface);
+            if (unary) {
+                out.writeShort(unaryInterface);
+            }
+            out.writeShort(0); // fields
+            out.writeShort(unary ? 3 : 2);
+            out.write(constructor);
+            out.write(arrayMethod);
+            if (unary) {
+                out.write(unaryMethod);
+            }
+            out.writeShort(0); // attributes
+            out.flush();
+            return bytes.toByteArray();
+        }
+
+        private byte[] constructorCode() throws IOException {
+            ByteArrayOutputStream code = new ByteArrayOutputStream();
+            code.write(ALOAD_0);
+            code.write(INVOKESPECIAL);
+            writeShort(code, methodRef("java/lang/Object", "<init>", "()V"));
+            code.write(RETURN);
+            return code.toByteArray();
+        }
+
+        /**
+         * Translates the postfix program one instruction at a time. The operand stack of the
+         * stack machine maps directly onto the JVM operand stack, so no locals or branches are needed.
+         */
+        private byte[] evaluationCode(boolean scalarArgument) throws IOException {
+            int[] program = expression.code();
+            double[] constants = expression.constants();
+            ByteArrayOutputStream code = new ByteArrayOutputStream();
+            for (int pc = 0; pc < program.length; pc++) {
+                int op = program[pc];
+                switch (op) {
+                    case Opcodes.CONST:
+                        pushConstant(code, constants[program[++pc]]);
+                        break;
+                    case Opcodes.LOAD:
+                        loadVariable(code, program[++pc], scalarArgument);
+                        break;
+                    case Opcodes.STORE:
+                        code.write(DUP2);
+                        accessLocal(code, DSTORE, temporaryLocal(program[++pc]));
+                        break;
+                    case Opcodes.TEMP:
+                        accessLocal(code, DLOAD, temporaryLocal(program[++pc]));
+                        break;
+                    case Opcodes.ADD:
+                        code.write(DADD);
+                        break;
+                    case Opcodes.SUB:
+                        code.write(DSUB);
+                        break;
+                    case Opcodes.MUL:
+                        code.write(DMUL);
+                        break;
+                    case Opcodes.NEG:
+                        code.write(DNEG);
+                        break;
+                    case Opcodes.DIV:
+                        invokeStatic(code, OPCODES, "divide", "(DD)D");
+                        break;
+                    case Opcodes.MOD:
+                        invokeStatic(code, OPCODES, "modulo", "(DD)D");
+                        break;
+                    case Opcodes.POW:
+                        invokeStatic(code, MATH, "pow", "(DD)D");
+                        break;
+                    case Opcodes.COT:
+                        invokeStatic(code, OPCODES, "cot", "(D)D");
+                        break;
+                    case Opcodes.LOG2:
+                        invokeStatic(code, OPCODES, "log2", "(D)D");
+                        break;
+                    case Opcodes.NCR:
+                    case Opcodes.NPR:
+                        invokeStatic(code, SPECIAL_FUNCTIONS, Opcodes.name(op), "(DD)D");
+                        break;
+                    case Opcodes.GAMMA:
+                    case Opcodes.FACTORIAL:
+                    case Opcodes.ERF:
+                    case Opcodes.ERFC:
+                        invokeStatic(code, SPECIAL_FUNCTIONS, Opcodes.name(op), "(D)D");
+                        break;
+                    case Opcodes.LGAMMA:
+                        invokeStatic(code, SPECIAL_FUNCTIONS, "lnGamma", "(D)D");
+                        break;
+                    case Opcodes.SUM:
+                    case Opcodes.MEAN:
+                    case Opcodes.VARIANCE:
+                    case Opcodes.STDDEV:
+                    case Opcodes.MIN:
+                    case Opcodes.MAX:
+                        callVariadic(code, op, program[++pc]);
+                        break;
+                    default:
+                        invokeStatic(code, MATH, Opcodes.name(op), "(D)D");
+                        break;
+                }
+            }
+            code.write(DRETURN);
+            return code.toByteArray();
+        }
+
+        /**
+         * Moves the arguments from the JVM stack into locals, copies them into the thread's
+         * argument buffer and calls {@link Opcodes#variadic(int, double[], int, int)} on it.
+         */
+        private void callVariadic(ByteArrayOutputStream code, int op, int count) throws IOException {
+            for (int i = count - 1; i >= 0; i--) {
+                accessLocal(code, DSTORE, FIRST_TEMPORARY + 2 * i);
+            }
+            pushInt(code, op);
+            invokeStatic(code, OPCODES, "arguments", "()[D");
+            for (int i = 0; i < count; i++) {
+                code.write(DUP);
+                pushInt(code, i);
+                accessLocal(code, DLOAD, FIRST_TEMPORARY + 2 * i);
+                code.write(DASTORE);
+            }
+            pushInt(code, 0);
+            pushInt(code, count);
+            invokeStatic(code, OPCODES, "variadic", "(I[DII)D");
+        }
+
+        /**
+         * Shared subexpressions are kept in the locals after those used by variadic calls.
+         */
+        private int temporaryLocal(int temporary) {
+            return sharedLocals + 2 * temporary;
+        }
+
+        private void accessLocal(ByteArrayOutputStream code, int instruction, int local) {
+            if (local > 255) {
+                code.write(WIDE);
+                code.write(instruction);
+                writeShort(code, local);
+            } else {
+                code.write(instruction);
+                code.write(local);
+            }
+        }
+
+        private void pushInt(ByteArrayOutputStream code, int value) {
+            code.write(BIPUSH);
+            code.write(value);
+        }
+
+        private void pushConstant(ByteArrayOutputStream code, double value) throws IOException {
+            if (Double.doubleToRawLongBits(value) == 0L) {
+                code.write(DCONST_0);
+            } else if (value == 1.0) {
+                code.write(DCONST_1);
+            } else {
+                code.write(LDC2_W);
+                writeShort(code, doubleConstant(value));
+            }
+        }
+
+        private void loadVariable(ByteArrayOutputStream code, int slot, boolean scalarArgument) {
+            if (scalarArgument) {
+                code.write(DLOAD_1);
+                return;
+            }
+            code.write(ALOAD_1);
+            if (slot < 128) {
+                code.write(BIPUSH);
+                code.write(slot);
+            } else {
+                code.write(SIPUSH);
+                writeShort(code, slot);
+            }
+            code.write(DALOAD);
+        }
+
+        private void invokeStatic(ByteArrayOutputStream code, String owner, String name, String descriptor)
+                throws IOException {
+            code.write(INVOKESTATIC);
+            writeShort(code, methodRef(owner, name, descriptor));
+        }
+
+        /**
+         * Each double occupies two JVM stack slots. A variable load needs two more for the array
+         * reference and index, filling the argument buffer of a variadic call needs four more,
+         * and copying a value into a temporary needs two.
+         */
+        private int maxStack() {
+            return (expression.getMaxStackDepth() - expression.temporaryCount()) * 2 + 6;
+        }
+
+        /**
+         * The receiver and argument, followed by two slots per argument of the widest variadic call
+         * and two per shared subexpression.
+         */
+        private int maxLocals() {
+            return temporaryLocal(expression.temporaryCount());
+        }
+
+        private int widestVariadicCall() {
+            int[] program = expression.code();
+            int widest = 0;
+            for (int pc = 0; pc < program.length; pc += 1 + Opcodes.operandCount(program[pc])) {
+                if (Opcodes.variadic(program[pc])) {
+                    widest = Math.max(widest, program[pc + 1]);
+                }
+            }
+            return widest;
+        }
+
+        private byte[] method(int access, String name, String descriptor, int codeName,
+                              byte[] code, int maxStack, int maxLocals) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeShort(access);
+            out.writeShort(utf8(name));
+            out.writeShort(utf8(descriptor));
+            out.writeShort(1);
+            out.writeShort(codeName);
+            out.writeInt(12 + code.length);
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(code.length);
+            out.write(code);
+            out.writeShort(0); // exception table
+            out.writeShort(0); // attributes
+            out.flush();
+            return bytes.toByteArray();
+        }
+
+        private int utf8(String value) throws IOException {
+            Integer index = poolIndex.get("U" + value);
+            if (index == null) {
+                pool.writeByte(1);
+                pool.writeUTF(value);
+                index = poolCount++;
+                poolIndex.put("U" + value, index);
+            }
+            return index;
+        }
+
+        private int classRef(String name) throws IOException {
+            Integer index = poolIndex.get("C" + name);
+            if (index == null) {
+                int nameIndex = utf8(name);
+                pool.writeByte(7);
+                pool.writeShort(nameIndex);
+                index = poolCount++;
+                poolIndex.put("C" + name, index);
+            }
+            return index;
+        }
+
+        private int methodRef(String owner, String name, String descriptor) throws IOException {
+            String key = "M" + owner + "." + name + descriptor;
+            Integer index = poolIndex.get(key);
+            if (index == null) {
+                int ownerIndex = classRef(owner);
+                int nameIndex = utf8(name);
+                int descriptorIndex = utf8(descriptor);
+                pool.writeByte(12);
+                pool.writeShort(nameIndex);
+                pool.writeShort(descriptorIndex);
+                int nameAndType = poolCount++;
+                pool.writeByte(10);
+                pool.writeShort(ownerIndex);
+                pool.writeShort(nameAndType);
+                index = poolCount++;
+                poolIndex.put(key, index);
+            }
+            return index;
+        }
+
+        private int doubleConstant(double value) throws IOException {
+            String key = "D" + Double.doubleToRawLongBits(value);
+            Integer index = poolIndex.get(key);
+            if (index == null) {
+                pool.writeByte(6);
+                pool.writeDouble(value);
+                index = poolCount;
+                // Doubles take two constant pool entries
+                poolCount += 2;
+                poolIndex.put(key, index);
+            }
+            return index;
+        }
+
+        private static void writeShort(ByteArrayOutputStream out, int value) {
+            out.write((value >>> 8) & 0xFF);
+            out.write(value & 0xFF);
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.calculator.core;
+
+import java.math.BigInteger;
+
+/**
+ * Character classification and literal scanning shared by the expression parsers.
+ * Maps the UI symbols × and ÷ and the locale's separators to canonical characters, and reads
+ * number literals in a single pass: decimal digits with the locale's separators are accumulated
+ * into a 64-bit significand and converted by {@link FastDoubleParser}, and {@code 0x}, {@code 0o}
+ * and {@code 0b} literals are read as integers. Only literals too long for the fast path
+ * allocate. The lexer also records how far each scan looked ahead, for incremental parsing.
+ */
+final class ExpressionLexer {
+
+    // Significant decimal digits that fit an unsigned 64-bit significand
+    private static final int MAX_DIGITS = 19;
+
+    private final NumberSyntax syntax;
+    private final boolean units;
+
+    // Result of the last scan
+    private double value;
+    private boolean valid;
+    private boolean plain;
+    private int radix;
+    private int examined;
+
+    ExpressionLexer(NumberSyntax syntax, boolean units) {
+        this.syntax = syntax;
+        this.units = units;
+    }
+
+    /**
+     * Returns the index of the first non-whitespace character at or after {@code pos}.
+     */
+    int skipWhitespace(CharSequence source, int pos) {
+        while (pos < source.length() && Character.isWhitespace(source.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    /**
+     * Maps a character to its canonical form: × to *, ÷ to /, the argument separator to a comma
+     * and the decimal separator to a period. Other characters are returned unchanged.
+     */
+    char symbol(char c) {
+        if (c == syntax.getArgumentSeparator()) {
+            return ',';
+        }
+        if (c == syntax.getDecimalSeparator()) {
+            return '.';
+        }
+        switch (c) {
+            case '×': return '*';
+            case '÷': return '/';
+            default: return c;
+        }
+    }
+
+    /**
+     * Returns whether a number literal starts at {@code pos}.
+     */
+    boolean startsNumber(CharSequence source, int pos) {
+        if (pos >= source.length()) {
+            return false;
+        }
+        char c = source.charAt(pos);
+        return isDigit(c) || c == syntax.getDecimalSeparator();
+    }
+
+    /**
+     * Identifiers are letters, digits and underscores; in units mode they may also start with °
+     * and contain ² and ³, so that symbols such as °C and m² read as one name.
+     */
+    boolean isIdentifierStart(char c) {
+        return c != 'π' && (Character.isLetter(c) || c == '_' || (units && c == '°'));
+    }
+
+    boolean isIdentifierPart(char c) {
+        return isIdentifierStart(c) || isDigit(c) || (units && (c == '²' || c == '³'));
+    }
+
+    /**
+     * Scans the number literal starting at {@code start} and returns the index after it.
+     * The value is then available from {@link #getValue()}.
+     */
+    int scanNumber(CharSequence source, int start) {
+        examined = start;
+        radix = 10;
+        if (at(source, start) == '0') {
+            char prefix = at(source, start + 1);
+            int base = prefix == 'x' || prefix == 'X' ? 16 : prefix == 'o' || prefix == 'O' ? 8
+                    : prefix == 'b' || prefix == 'B' ? 2 : 0;
+            if (base != 0 && digit(at(source, start + 2)) < base) {
+                radix = base;
+                return scanInteger(source, start + 2);
+            }
+        }
+        return scanDecimal(source, start);
+    }
+
+    /**
+     * Returns the value of the last literal scanned.
+     */
+    double getValue() {
+        return value;
+    }
+
+    /**
+     * Returns whether the last scan read a number; a lone decimal separator is not one.
+     */
+    boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * Returns the index after the last character the last scan examined. A scan that reached
+     * the end of the text counts as examining one character more, since appended text could
+     * have extended the literal.
+     */
+    int getExamined() {
+        return examined;
+    }
+
+    /**
+     * Returns the last literal scanned as plain decimal text, for evaluation in arbitrary precision.
+     * Literals without separators or a radix prefix are returned as written.
+     */
+    String literalText(CharSequence source, int start, int end) {
+        if (plain) {
+            return source.subSequence(start, end).toString();
+        }
+        if (radix != 10) {
+            return new BigInteger(source.subSequence(start + 2, end).toString(), radix).toString();
+        }
+        StringBuilder text = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = source.charAt(i);
+            if (c == syntax.getDecimalSeparator()) {
+                text.append('.');
+            } else if (!syntax.isGroupingSeparator(c)) {
+                text.append(c);
+            }
+        }
+        return text.toString();
+    }
+
+    private int scanInteger(CharSequence source, int pos) {
+        int start = pos;
+        int shift = Integer.numberOfTrailingZeros(radix);
+        long bits = 0;
+        boolean overflow = false;
+        int d;
+        while ((d = digit(at(source, pos))) < radix) {
+            overflow |= Long.numberOfLeadingZeros(bits) < shift;
+            bits = bits << shift | d;
+            pos++;
+        }
+        if (overflow) {
+            value = new BigInteger(source.subSequence(start, pos).toString(), radix).doubleValue();
+        } else if (bits >= 0) {
+            value = bits;
+        } else {
+            // Halve as unsigned, keeping the lowest bit so the conversion still rounds correctly
+            value = (double) (bits >>> 1 | bits & 1) * 2;
+        }
+        valid = true;
+        plain = false;
+        return pos;
+    }
+
+    private int scanDecimal(CharSequence source, int start) {
+        int pos = start;
+        long significand = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean truncated = false;
+        boolean any = false;
+        plain = true;
+
+        char c = at(source, pos);
+        while (true) {
+            if (isDigit(c)) {
+                if (digits < MAX_DIGITS) {
+                    significand = significand * 10 + (c - '0');
+                    if (significand != 0) {
+                        digits++;
+                    }
+                } else {
+                    exponent++;
+                    truncated |= c != '0';
+                }
+                any = true;
+            } else if (any && syntax.isGroupingSeparator(c) && isGroupOfThree(source, pos + 1)) {
+                plain = false;
+            } else {
+                break;
+            }
+            c = at(source, ++pos);
+        }
+        if (c == syntax.getDecimalSeparator()) {
+            plain &= c == '.';
+            c = at(source, ++pos);
+            while (isDigit(c)) {
+                if (digits < MAX_DIGITS) {
+                    significand = significand * 10 + (c - '0');
+                    if (significand != 0) {
+                        digits++;
+                    }
+                    exponent--;
+                } else {
+                    truncated |= c != '0';
+                }
+                any = true;
+                c = at(source, ++pos);
+            }
+        }
+        valid = any;
+        if (!any) {
+            value = Double.NaN;
+            return pos;
+        }
+        // Scientific notation, taking care not to swallow the constant e in "2e"
+        if (c == 'e' || c == 'E') {
+            int next = pos + 1;
+            char sign = at(source, next);
+            if (sign == '+' || sign == '-') {
+                next++;
+            }
+            if (isDigit(at(source, next))) {
+                int power = 0;
+                pos = next;
+                while (isDigit(c = at(source, pos))) {
+                    // Larger exponents all overflow or underflow anyway
+                    if (power < 100_000) {
+                        power = power * 10 + (c - '0');
+                    }
+                    pos++;
+                }
+                exponent += sign == '-' ? -power : power;
+            }
+        }
+        value = FastDoubleParser.toDouble(significand, exponent);
+        // With digits dropped the value lies between the truncated significand and the next one up
+        if (truncated && !Double.isNaN(value) && value != FastDoubleParser.toDouble(significand + 1, exponent)) {
+            value = Double.NaN;
+        }
+        if (Double.isNaN(value)) {
+            value = Double.parseDouble(literalText(source, start, pos));
+        }
+        return pos;
+    }
+
+    private boolean isGroupOfThree(CharSequence source, int pos) {
+        return isDigit(at(source, pos)) && isDigit(at(source, pos + 1)) && isDigit(at(source, pos + 2))
+                && !isDigit(at(source, pos + 3));
+    }
+
+    /**
+     * Returns the character at an index, or 0 past the end, and records how far the scan looked.
+     */
+    private char at(CharSequence source, int pos) {
+        if (pos >= source.length()) {
+            examined = Math.max(examined, source.length() + 1);
+            return 0;
+        }
+        examined = Math.max(examined, pos + 1);
+        return source.charAt(pos);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Returns the value of an ASCII digit or letter in bases up to 36, or 36 for any other character.
+     */
+    private static int digit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A' + 10;
+        }
+        return 36;
+    }
+}
@@ -0,0 +1,476 @@
+package com.calculator.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rewrites the postfix program of a {@link CompiledExpression} so that each evaluation does less work.
+ * The program is rebuilt as a DAG in which equal subexpressions are a single node, and each node
+ * is simplified as it is created:
+ * <ul>
+ *   <li>engine constants such as pi and e become literals, and operations on literals are folded;</li>
+ *   <li>identities that hold for every double, including NaN, infinities and signed zeros, are
+ *       applied, e.g. {@code x*1} to {@code x}, {@code x-(-y)} to {@code x+y}, {@code x/4} to
+ *       {@code x*0.25} and {@code x^2} to {@code x*x};</li>
+ *   <li>subexpressions used more than once are computed once and kept in a temporary.</li>
+ * </ul>
+ * Results are unchanged, and operations that may throw, such as a division by a variable,
+ * are never folded or dropped.
+ */
+final class ExpressionOptimizer {
+
+    private ExpressionOptimizer() {
+    }
+
+    /**
+     * Optimizes a compiled expression, treating the given names as constants.
+     *
+     * @param expression The expression as compiled
+     * @param constants Values to fold into the program where their names are referenced
+     * @return The optimized expression, or the given one if optimization changes nothing
+     */
+    static CompiledExpression optimize(CompiledExpression expression, Map<String, Double> constants) {
+        return new Builder(expression, constants).build();
+    }
+
+    /**
+     * A value in the DAG. Nodes are interned, so equal subexpressions are the same node.
+     */
+    private static final class Node {
+
+        final int op;
+        final double value;
+        final int slot;
+        final Node[] args;
+        final boolean mayThrow;
+        final String text;
+        final int hash;
+
+        int uses;
+        int temporary = -1;
+
+        Node(int op, double value, int slot, Node[] args, String text) {
+            this.op = op;
+            this.value = value;
+            this.slot = slot;
+            this.args = args;
+            this.text = text;
+            this.mayThrow = mayThrow(op, args);
+            int h = op * 31 + Long.hashCode(Double.doubleToRawLongBits(value)) * 17 + slot;
+            for (Node arg : args) {
+                // Order-independent for the commutative operations, which match either way round
+                h = commutative(op) ? h + arg.hash : h * 31 + arg.hash;
+            }
+            this.hash = h;
+        }
+
+        boolean isConstant() {
+            return op == Opcodes.CONST;
+        }
+
+        boolean isConstant(double expected) {
+            return op == Opcodes.CONST && Double.doubleToRawLongBits(value) == Double.doubleToRawLongBits(expected);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Node)) {
+                return false;
+            }
+            Node node = (Node) other;
+            if (node.op != op || node.slot != slot || node.args.length != args.length
+                    || Double.doubleToRawLongBits(node.value) != Double.doubleToRawLongBits(value)) {
+                return false;
+            }
+            if (commutative(op) && node.args[0] == args[1] && node.args[1] == args[0]) {
+                return true;
+            }
+            for (int i = 0; i < args.length; i++) {
+                if (node.args[i] != args[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        private static boolean commutative(int op) {
+            return op == Opcodes.ADD || op == Opcodes.MUL;
+        }
+
+        /**
+         * Arithmetic and the Math functions never throw; division, the cotangent and the special
+         * functions may, unless the divisor is a non-zero constant.
+         */
+        private static boolean mayThrow(int op, Node[] args) {
+            for (Node arg : args) {
+                if (arg.mayThrow) {
+                    return true;
+                }
+            }
+            switch (op) {
+                case Opcodes.CONST:
+                case Opcodes.LOAD:
+                case Opcodes.ADD:
+                case Opcodes.SUB:
+                case Opcodes.MUL:
+                case Opcodes.POW:
+                case Opcodes.NEG:
+                    return false;
+                case Opcodes.DIV:
+                case Opcodes.MOD:
+                    return !args[1].isConstant() || args[1].value == 0;
+                case Opcodes.COT:
+                    return true;
+                default:
+                    return op > Opcodes.SIGNUM;
+            }
+        }
+    }
+
+    /**
+     * Rebuilds one program: reads the postfix code into the DAG, then emits the DAG back as postfix.
+     */
+    private static final class Builder {
+
+        private final CompiledExpression expression;
+        private final Map<String, Double> constants;
+        private final Map<Node, Node> nodes = new HashMap<>();
+        private final Map<String, Double> folded = new LinkedHashMap<>();
+
+        private int[] code = new int[16];
+        private int codeLength;
+        private final List<Double> constantValues = new ArrayList<>();
+        private final List<String> constantText = new ArrayList<>();
+        private final Map<Long, Integer> constantIndex = new HashMap<>();
+        private int[] slots;
+        private int depth;
+        private int maxDepth;
+        private int temporaryCount;
+
+        Builder(CompiledExpression expression, Map<String, Double> constants) {
+            this.expression = expression;
+            this.constants = constants;
+        }
+
+        CompiledExpression build() {
+            Node root = read();
+            String[] names = expression.variableNames();
+            slots = new int[names.length];
+            Arrays.fill(slots, -1);
+            countUses(root);
+            List<String> variables = new ArrayList<>();
+            for (int slot = 0; slot < names.length; slot++) {
+                if (slots[slot] >= 0) {
+                    slots[slot] = variables.size();
+                    variables.add(names[slot]);
+                }
+            }
+            emit(root);
+
+            int[] program = Arrays.copyOf(code, codeLength);
+            double[] values = new double[constantValues.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = constantValues.get(i);
+            }
+            if (Arrays.equals(program, expression.code()) && Arrays.equals(values, expression.constants())) {
+                return expression;
+            }
+            double[] foldedValues = new double[folded.size()];
+            int i = 0;
+            for (double value : folded.values()) {
+                foldedValues[i++] = value;
+            }
+            return new CompiledExpression(expression.getSource(), program, values,
+                    constantText.toArray(new String[0]), variables.toArray(new String[0]), maxDepth,
+                    temporaryCount, expression, folded.keySet().toArray(new String[0]), foldedValues);
+        }
+
+        /**
+         * Replays the postfix program on a stack of nodes.
+         */
+        private Node read() {
+            int[] program = expression.code();
+            Node[] stack = new Node[expression.getMaxStackDepth()];
+            int sp = -1;
+            int pc = 0;
+            while (pc < program.length) {
+                int op = program[pc++];
+                switch (op) {
+                    case Opcodes.CONST: {
+                        int index = program[pc++];
+                        stack[++sp] = constant(expression.constants()[index], expression.constantText()[index]);
+                        break;
+                    }
+                    case Opcodes.LOAD: {
+                        int slot = program[pc++];
+                        String name = expression.variableNames()[slot];
+                        Double value = constants.get(name);
+                        if (value != null) {
+                            folded.put(name, value);
+                            stack[++sp] = constant(value, null);
+                        } else {
+                            stack[++sp] = intern(new Node(op, 0, slot, new Node[0], null));
+                        }
+                        break;
+                    }
+                    default: {
+                        int count = Opcodes.variadic(op) ? program[pc++] : Opcodes.arity(op);
+                        sp -= count - 1;
+                        stack[sp] = operation(op, Arrays.copyOfRange(stack, sp, sp + count));
+                        break;
+                    }
+                }
+            }
+            return stack[0];
+        }
+
+        private Node constant(double value, String text) {
+            return intern(new Node(Opcodes.CONST, value, -1, new Node[0], text));
+        }
+
+        private Node intern(Node node) {
+            Node existing = nodes.putIfAbsent(node, node);
+            return existing != null ? existing : node;
+        }
+
+        /**
+         * Creates the node for an operation, simplified as far as the identities allow.
+         */
+        private Node operation(int op, Node... args) {
+            Node a = args[0];
+            Node b = args.length > 1 ? args[1] : null;
+            switch (op) {
+                case Opcodes.NEG:
+                    if (a.op == Opcodes.NEG) {
+                        return a.args[0];
+                    }
+                    break;
+                case Opcodes.ADD:
+                    if (b.op == Opcodes.NEG) {
+                        return operation(Opcodes.SUB, a, b.args[0]);
+                    }
+                    if (a.op == Opcodes.NEG) {
+                        return operation(Opcodes.SUB, b, a.args[0]);
+                    }
+                    // Only negative zero is an identity; x + 0 turns -0 into 0
+                    if (b.isConstant(-0.0)) {
+                        return a;
+                    }
+                    if (a.isConstant(-0.0)) {
+                        return b;
+                    }
+                    break;
+                case Opcodes.SUB:
+                    if (b.op == Opcodes.NEG) {
+                        return operation(Opcodes.ADD, a, b.args[0]);
+                    }
+                    if (b.isConstant(0.0)) {
+                        return a;
+                    }
+                    break;
+                case Opcodes.MUL:
+                    if (b.isConstant(1.0)) {
+                        return a;
+                    }
+                    if (a.isConstant(1.0)) {
+                        return b;
+                    }
+                    if (b.isConstant(-1.0)) {
+                        return operation(Opcodes.NEG, a);
+                    }
+                    if (a.isConstant(-1.0)) {
+                        return operation(Opcodes.NEG, b);
+                    }
+                    if (a.op == Opcodes.NEG && b.op == Opcodes.NEG) {
+                        return operation(Opcodes.MUL, a.args[0], b.args[0]);
+                    }
+                    break;
+                case Opcodes.DIV:
+                    if (b.isConstant(1.0)) {
+                        return a;
+                    }
+                    if (b.isConstant(-1.0)) {
+                        return operation(Opcodes.NEG, a);
+                    }
+                    // Dividing by a power of two is the same as multiplying by its exact reciprocal
+                    if (b.isConstant() && !a.isConstant() && isNormalPowerOfTwo(b.value)) {
+                        return operation(Opcodes.MUL, a, constant(1 / b.value, null));
+                    }
+                    break;
+                case Opcodes.POW:
+                    if (b.isConstant(1.0)) {
+                        return a;
+                    }
+                    if (b.isConstant(0.0) && !a.mayThrow) {
+                        return constant(1.0, null);
+                    }
+                    if (b.isConstant(2.0) && !a.isConstant()) {
+                        return operation(Opcodes.MUL, a, a);
+                    }
+                    break;
+                default:
+                    break;
+            }
+            Node node = intern(new Node(op, 0, -1, args, null));
+            return fold(node);
+        }
+
+        /**
+         * Evaluates an operation on constants now, unless it throws, in which case it is left
+         * for evaluation to report.
+         */
+        private Node fold(Node node) {
+            for (Node arg : node.args) {
+                if (!arg.isConstant()) {
+                    return node;
+                }
+            }
+            double[] values = new double[node.args.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = node.args[i].value;
+            }
+            double result;
+            try {
+                if (Opcodes.variadic(node.op)) {
+                    result = Opcodes.variadic(node.op, values, 0, values.length);
+                } else if (values.length == 2) {
+                    result = Opcodes.binary(node.op, values[0], values[1]);
+                } else {
+                    result = Opcodes.unary(node.op, values[0]);
+                }
+            } catch (RuntimeException e) {
+                return node;
+            }
+            return constant(result, null);
+        }
+
+        private static boolean isNormalPowerOfTwo(double value) {
+            int exponent = Math.getExponent(value);
+            return exponent >= Double.MIN_EXPONENT && exponent <= Double.MAX_EXPONENT
+                    && Math.abs(value) == Math.scalb(1.0, exponent);
+        }
+
+        /**
+         * Counts the references to each node, visiting shared nodes once, and marks the
+         * variables that are still referenced. Walks the DAG with an explicit stack, since
+         * generated expressions can be thousands of levels deep.
+         */
+        private void countUses(Node root) {
+            Deque<Node> pending = new ArrayDeque<>();
+            pending.push(root);
+            while (!pending.isEmpty()) {
+                Node node = pending.pop();
+                if (node.uses++ > 0) {
+                    continue;
+                }
+                if (node.op == Opcodes.LOAD) {
+                    slots[node.slot] = 0;
+                }
+                for (Node arg : node.args) {
+                    pending.push(arg);
+                }
+            }
+        }
+
+        /**
+         * Emits the DAG in postfix order, depth first with an explicit stack of nodes and the
+         * index of the next argument to emit for each.
+         */
+        private void emit(Node root) {
+            Node[] pending = new Node[16];
+            int[] nextArg = new int[16];
+            int top = 0;
+            pending[0] = root;
+            while (top >= 0) {
+                Node node = pending[top];
+                if (nextArg[top] == 0 && emitLoad(node)) {
+                    top--;
+                } else if (nextArg[top] < node.args.length) {
+                    Node arg = node.args[nextArg[top]++];
+                    if (++top == pending.length) {
+                        pending = Arrays.copyOf(pending, top * 2);
+                        nextArg = Arrays.copyOf(nextArg, top * 2);
+                    }
+                    pending[top] = arg;
+                    nextArg[top] = 0;
+                } else {
+                    emitOperation(node);
+                    top--;
+                }
+            }
+        }
+
+        /**
+         * Emits a load for a node that needs no computation: a shared operation already stored
+         * in a temporary, a constant or a variable. Constants and variables are cheaper to load
+         * again than to store.
+         *
+         * @return false if the node must be computed from its arguments
+         */
+        private boolean emitLoad(Node node) {
+            if (node.temporary >= 0) {
+                append(Opcodes.TEMP, node.temporary);
+            } else if (node.op == Opcodes.CONST) {
+                append(Opcodes.CONST, constantIndex(node));
+            } else if (node.op == Opcodes.LOAD) {
+                append(Opcodes.LOAD, slots[node.slot]);
+            } else {
+                return false;
+            }
+            push();
+            return true;
+        }
+
+        /**
+         * Emits an operation whose arguments are on the stack. A shared operation is stored into
+         * a temporary when it is first computed and loaded from there at every later use.
+         */
+        private void emitOperation(Node node) {
+            if (Opcodes.variadic(node.op)) {
+                append(node.op, node.args.length);
+            } else {
+                append(node.op);
+            }
+            depth -= node.args.length - 1;
+            if (node.uses > 1) {
+                node.temporary = temporaryCount++;
+                append(Opcodes.STORE, node.temporary);
+            }
+        }
+
+        private int constantIndex(Node node) {
+            Integer index = constantIndex.get(Double.doubleToRawLongBits(node.value));
+            if (index == null) {
+                index = constantValues.size();
+                constantValues.add(node.value);
+                constantText.add(node.text);
+                constantIndex.put(Double.doubleToRawLongBits(node.value), index);
+            }
+            return index;
+        }
+
+        private void push() {
+            maxDepth = Math.max(maxDepth, ++depth);
+        }
+
+        private void append(int... instruction) {
+            if (codeLength + instruction.length > code.length) {
+                code = Arrays.copyOf(code, code.length * 2);
+            }
+            for (int value : instruction) {
+                code[codeLength++] = value;
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.calculator.core;
+
+import java.math.BigInteger;
+
+/**
+ * Converts a decimal significand and exponent to the nearest double without allocating.
+ * Values that are exact in double arithmetic take Clinger's fast path; the rest use the
+ * Eisel-Lemire algorithm (D. Lemire, "Number Parsing at a Gigabyte per Second", 2021), which
+ * multiplies the significand by a 128-bit approximation of the power of five and only gives
+ * up in the rare cases where that approximation cannot decide the rounding.
+ */
+final class FastDoubleParser {
+
+    // Decimal exponents with tabulated powers of five; outside them the value is 0 or infinite
+    private static final int SMALLEST_POWER = -342;
+    private static final int LARGEST_POWER = 308;
+
+    // Normalized 128-bit truncations of 5^q, high word first
+    private static final long[] POWERS_OF_FIVE = new long[2 * (LARGEST_POWER - SMALLEST_POWER + 1)];
+
+    private static final double[] EXACT_POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    static {
+        BigInteger five = BigInteger.valueOf(5);
+        for (int q = SMALLEST_POWER; q <= LARGEST_POWER; q++) {
+            BigInteger c;
+            if (q < 0) {
+                // Reciprocal, rounded up, with enough bits that truncation keeps it an upper bound
+                BigInteger power = five.pow(-q);
+                int z = power.bitLength();
+                int b = q >= -27 ? z + 127 : 2 * z + 128;
+                c = BigInteger.ONE.shiftLeft(b).divide(power).add(BigInteger.ONE);
+            } else {
+                c = five.pow(q);
+            }
+            c = c.bitLength() > 128 ? c.shiftRight(c.bitLength() - 128) : c.shiftLeft(128 - c.bitLength());
+            int index = 2 * (q - SMALLEST_POWER);
+            POWERS_OF_FIVE[index] = c.shiftRight(64).longValue();
+            POWERS_OF_FIVE[index + 1] = c.longValue();
+        }
+    }
+
+    private FastDoubleParser() {
+    }
+
+    /**
+     * Returns the double nearest to w 10^q, or NaN if the fast algorithms cannot decide.
+     *
+     * @param w The significand, an unsigned value of at most 19 digits
+     * @param q The decimal exponent
+     */
+    static double toDouble(long w, int q) {
+        if (w == 0 || q < SMALLEST_POWER) {
+            return 0.0;
+        }
+        if (q > LARGEST_POWER) {
+            return Double.POSITIVE_INFINITY;
+        }
+        // Both operands are exact, so the one rounding of the product or quotient is correct
+        if (q >= -22 && q <= 22 && w >= 0 && w <= 1L << 53) {
+            return q < 0 ? w / EXACT_POWERS_OF_TEN[-q] : w * EXACT_POWERS_OF_TEN[q];
+        }
+        int lz = Long.numberOfLeadingZeros(w);
+        w <<= lz;
+        int index = 2 * (q - SMALLEST_POWER);
+        long high = unsignedMultiplyHigh(w, POWERS_OF_FIVE[index]);
+        long low = w * POWERS_OF_FIVE[index];
+        if ((high & 0x1ff) == 0x1ff) {
+            // The bits that decide the rounding are all ones; refine with the low word of the power
+            long carry = unsignedMultiplyHigh(w, POWERS_OF_FIVE[index + 1]);
+            low += carry;
+            if (Long.compareUnsigned(carry, low) > 0) {
+                high++;
+            }
+            if (low == -1L && (q < -27 || q > 55)) {
+                return Double.NaN;
+            }
+        }
+        int upperBit = (int) (high >>> 63);
+        long mantissa = high >>> (upperBit + 9);
+        int power2 = (((152_170 + 65_536) * q) >> 16) + 63 + upperBit - lz + 1023;
+        if (power2 <= 0) {
+            // Subnormal
+            if (-power2 + 1 >= 64) {
+                return 0.0;
+            }
+            mantissa >>>= -power2 + 1;
+            mantissa += mantissa & 1;
+            mantissa >>>= 1;
+            power2 = mantissa < 1L << 52 ? 0 : 1;
+            return Double.longBitsToDouble(mantissa | (long) power2 << 52);
+        }
+        // An exact halfway case rounds to even rather than up
+        if ((low == 0 || low == 1) && q >= -4 && q <= 23 && (mantissa & 3) == 1
+                && mantissa << (upperBit + 9) == high) {
+            mantissa &= ~1L;
+        }
+        mantissa += mantissa & 1;
+        mantissa >>>= 1;
+        if (mantissa >= 2L << 52) {
+            mantissa = 1L << 52;
+            power2++;
+        }
+        mantissa &= ~(1L << 52);
+        if (power2 >= 0x7ff) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return Double.longBitsToDouble(mantissa | (long) power2 << 52);
+    }
+
+    private static long unsignedMultiplyHigh(long a, long b) {
+        return Math.multiplyHigh(a, b) + ((a >> 63) & b) + ((b >> 63) & a);
+    }
+}
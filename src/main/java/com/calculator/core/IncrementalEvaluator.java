@@ -0,0 +1,511 @@
+package com.calculator.core;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.OptionalDouble;
+
+/**
+ * Evaluates an expression while it is being typed, for a live preview of the result.
+ * The text is parsed by an operator-precedence machine with the same grammar as
+ * {@link ExpressionCompiler}, and the machine's state after every token is kept as a
+ * checkpoint. The operand and operator stacks are immutable linked lists, so a checkpoint
+ * costs one state object and edits never copy them. Each token also records how far the
+ * lexer had to look ahead to end it, so an edit only re-lexes the tokens whose lookahead
+ * reached the changed position. Appending or deleting a character therefore costs a
+ * token or two, however long the expression is.
+ * <p>
+ * Variables are read from the context when their token is parsed. The preview is only a
+ * convenience; the result shown on {@code =} still comes from the compiled expression.
+ */
+public final class IncrementalEvaluator {
+
+    // Token kinds
+    private static final int NUMBER = 0;
+    private static final int VARIABLE = 1;
+    private static final int FUNCTION = 2;
+    private static final int OPEN = 3;
+    private static final int CLOSE = 4;
+    private static final int COMMA = 5;
+    private static final int PLUS = 6;
+    private static final int MINUS = 7;
+    private static final int BINARY = 8;
+    private static final int ROOT = 9;
+    private static final int INVALID = 10;
+
+    // Operator precedence, matching the levels of the recursive descent parser
+    private static final int ADDITIVE = 1;
+    private static final int MULTIPLICATIVE = 2;
+    private static final int PREFIX = 3;
+    private static final int POWER = 4;
+    private static final int PARENTHESIS = 0;
+
+    private final Map<String, Double> variables;
+    private final ExpressionLexer scanner;
+    private final StringBuilder text = new StringBuilder();
+
+    // Checkpoint i is the state after the first i tokens, which end at tokenEnd[i]
+    // and were decided by looking at the characters before lookEnd[i]
+    private int[] tokenEnd = new int[16];
+    private int[] lookEnd = new int[16];
+    private State[] states = new State[16];
+    private int checkpoints = 1;
+    private int tokensParsed;
+
+    IncrementalEvaluator(EvaluationContext context, NumberSyntax syntax) {
+        this.variables = context.variables();
+        this.scanner = new ExpressionLexer(syntax, false);
+        states[0] = State.INITIAL;
+    }
+
+    /**
+     * Appends text to the expression.
+     *
+     * @param suffix The text to append
+     */
+    public void append(String suffix) {
+        int changed = text.length();
+        text.append(suffix);
+        reparseFrom(changed);
+    }
+
+    /**
+     * Removes the last character of the expression, if there is one.
+     */
+    public void backspace() {
+        if (text.length() > 0) {
+            text.setLength(text.length() - 1);
+            reparseFrom(text.length());
+        }
+    }
+
+    /**
+     * Replaces the expression, reusing the parse of the prefix it shares with the previous text.
+     *
+     * @param expression The new expression text
+     */
+    public void setText(String expression) {
+        int common = 0;
+        int limit = Math.min(text.length(), expression.length());
+        while (common < limit && text.charAt(common) == expression.charAt(common)) {
+            common++;
+        }
+        if (common == text.length() && common == expression.length()) {
+            return;
+        }
+        text.setLength(common);
+        text.append(expression, common, expression.length());
+        reparseFrom(common);
+    }
+
+    /**
+     * Returns the current expression text.
+     *
+     * @return The expression text
+     */
+    public String getText() {
+        return text.toString();
+    }
+
+    /**
+     * Returns the value of the expression typed so far, with any open parentheses closed.
+     * There is no preview while an operand is still missing or when the text is invalid.
+     *
+     * @return The preview value, or empty if the expression cannot be evaluated yet
+     */
+    public OptionalDouble preview() {
+        State state = states[checkpoints - 1];
+        if (state.failed || state.expectOperand) {
+            return OptionalDouble.empty();
+        }
+        Machine machine = new Machine(state);
+        try {
+            return OptionalDouble.of(machine.finish());
+        } catch (ArithmeticException | IllegalArgumentException e) {
+            return OptionalDouble.empty();
+        }
+    }
+
+    /**
+     * Returns the number of tokens parsed by the most recent edit, for tests.
+     */
+    int lastTokensParsed() {
+        return tokensParsed;
+    }
+
+    /**
+     * Drops the checkpoints that depend on characters at or after {@code changed} and parses
+     * the rest of the text from the last checkpoint left.
+     */
+    private void reparseFrom(int changed) {
+        int kept = checkpoints;
+        while (kept > 1 && lookEnd[kept - 1] > changed) {
+            kept--;
+        }
+        Arrays.fill(states, kept, checkpoints, null);
+        checkpoints = kept;
+        State state = states[checkpoints - 1];
+        int pos = tokenEnd[checkpoints - 1];
+        Lexer lexer = new Lexer(text, variables, scanner);
+        tokensParsed = 0;
+        while (lexer.next(pos)) {
+            state = state.failed ? state : apply(state, lexer);
+            pos = lexer.end;
+            push(lexer.end, lexer.lookEnd, state);
+            tokensParsed++;
+        }
+    }
+
+    private void push(int end, int look, State state) {
+        if (checkpoints == states.length) {
+            int capacity = checkpoints * 2;
+            tokenEnd = Arrays.copyOf(tokenEnd, capacity);
+            lookEnd = Arrays.copyOf(lookEnd, capacity);
+            states = Arrays.copyOf(states, capacity);
+        }
+        tokenEnd[checkpoints] = end;
+        // A checkpoint depends on every token before it, so keep the furthest lookahead
+        lookEnd[checkpoints] = Math.max(look, lookEnd[checkpoints - 1]);
+        states[checkpoints] = state;
+        checkpoints++;
+    }
+
+    private static State apply(State state, Lexer token) {
+        Machine machine = new Machine(state);
+        try {
+            machine.accept(token);
+            return machine.toState();
+        } catch (ArithmeticException | IllegalArgumentException e) {
+            return State.FAILED;
+        }
+    }
+
+    /**
+     * An immutable snapshot of the operator-precedence machine.
+     */
+    private static final class State {
+
+        static final State INITIAL = new State(null, null, true, -1, false);
+        static final State FAILED = new State(null, null, false, -1, true);
+
+        final Value values;
+        final Operator operators;
+        final boolean expectOperand;
+        final int pendingFunction;
+        final boolean failed;
+
+        State(Value values, Operator operators, boolean expectOperand, int pendingFunction, boolean failed) {
+            this.values = values;
+            this.operators = operators;
+            this.expectOperand = expectOperand;
+            this.pendingFunction = pendingFunction;
+            this.failed = failed;
+        }
+    }
+
+    /**
+     * A cell of the persistent operand stack.
+     */
+    private static final class Value {
+
+        final double value;
+        final Value next;
+
+        Value(double value, Value next) {
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    /**
+     * A cell of the persistent operator stack. Parentheses carry the opcode of the function
+     * they call, or -1, and the number of arguments completed so far.
+     */
+    private static final class Operator {
+
+        final int opcode;
+        final int precedence;
+        final int arguments;
+        final Operator next;
+
+        Operator(int opcode, int precedence, int arguments, Operator next) {
+            this.opcode = opcode;
+            this.precedence = precedence;
+            this.arguments = arguments;
+            this.next = next;
+        }
+    }
+
+    /**
+     * Applies tokens to a state. Pushing and popping only relinks the persistent stacks,
+     * so the state the machine started from is left intact.
+     */
+    private static final class Machine {
+
+        private Value values;
+        private Operator operators;
+        private boolean expectOperand;
+        private int pendingFunction;
+
+        Machine(State state) {
+            values = state.values;
+            operators = state.operators;
+            expectOperand = state.expectOperand;
+            pendingFunction = state.pendingFunction;
+        }
+
+        State toState() {
+            return new State(values, operators, expectOperand, pendingFunction, false);
+        }
+
+        void accept(Lexer token) {
+            if (pendingFunction >= 0 && token.kind != OPEN) {
+                throw new IllegalArgumentException("Expected '('");
+            }
+            switch (token.kind) {
+                case NUMBER:
+                case VARIABLE:
+                    startOperand();
+                    values = new Value(token.value, values);
+                    expectOperand = false;
+                    break;
+                case FUNCTION:
+                    startOperand();
+                    pendingFunction = token.opcode;
+                    break;
+                case ROOT:
+                    startOperand();
+                    operators = new Operator(Opcodes.SQRT, PREFIX, 0, operators);
+                    break;
+                case OPEN:
+                    startOperand();
+                    operators = new Operator(pendingFunction, PARENTHESIS, 0, operators);
+                    pendingFunction = -1;
+                    expectOperand = true;
+                    break;
+                case CLOSE:
+                    closeParenthesis();
+                    break;
+                case COMMA:
+                    requireOperand();
+                    reduce(PARENTHESIS + 1);
+                    if (operators == null || operators.opcode < 0) {
+                        throw new IllegalArgumentException("Unexpected ','");
+                    }
+                    operators = new Operator(operators.opcode, PARENTHESIS, operators.arguments + 1, operators.next);
+                    expectOperand = true;
+                    break;
+                case PLUS:
+                case MINUS:
+                    if (expectOperand) {
+                        if (token.kind == MINUS) {
+                            operators = new Operator(Opcodes.NEG, PREFIX, 0, operators);
+                        }
+                    } else {
+                        binary(token.kind == PLUS ? Opcodes.ADD : Opcodes.SUB, ADDITIVE);
+                    }
+                    break;
+                case BINARY:
+                    requireOperand();
+                    binary(token.opcode, token.opcode == Opcodes.POW ? POWER : MULTIPLICATIVE);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unexpected character");
+            }
+        }
+
+        /**
+         * Evaluates the remaining operators, closing any open parentheses.
+         */
+        double finish() {
+            while (operators != null) {
+                if (operators.precedence == PARENTHESIS) {
+                    closeParenthesis();
+                } else {
+                    reduceTop();
+                }
+            }
+            if (values == null || values.next != null) {
+                throw new IllegalArgumentException("Incomplete expression");
+            }
+            return values.value;
+        }
+
+        /**
+         * An operand directly after another is an implicit multiplication, e.g. 2π or 3(4+1).
+         */
+        private void startOperand() {
+            if (!expectOperand) {
+                binary(Opcodes.MUL, MULTIPLICATIVE);
+            }
+        }
+
+        private void binary(int opcode, int precedence) {
+            // Only ^ is right associative, so it reduces strictly higher levels
+            reduce(precedence == POWER ? precedence + 1 : precedence);
+            operators = new Operator(opcode, precedence, 0, operators);
+            expectOperand = true;
+        }
+
+        private void requireOperand() {
+            if (expectOperand) {
+                throw new IllegalArgumentException("Missing operand");
+            }
+        }
+
+        private void closeParenthesis() {
+            requireOperand();
+            reduce(PARENTHESIS + 1);
+            if (operators == null) {
+                throw new IllegalArgumentException("Unexpected ')'");
+            }
+            int function = operators.opcode;
+            int count = operators.arguments + 1;
+            operators = operators.next;
+            if (function >= 0) {
+                call(function, count);
+            }
+        }
+
+        /**
+         * Reduces the operators on top of the stack whose precedence is at least {@code precedence}.
+         */
+        private void reduce(int precedence) {
+            while (operators != null && operators.precedence != PARENTHESIS && operators.precedence >= precedence) {
+                reduceTop();
+            }
+        }
+
+        private void reduceTop() {
+            Operator op = operators;
+            operators = op.next;
+            if (op.precedence == PREFIX) {
+                values = new Value(Opcodes.unary(op.opcode, values.value), values.next);
+            } else {
+                double b = values.value;
+                Value rest = values.next;
+                values = new Value(Opcodes.binary(op.opcode, rest.value, b), rest.next);
+            }
+        }
+
+        private void call(int opcode, int count) {
+            if (count < Opcodes.minArguments(opcode) || count > Opcodes.maxArguments(opcode)) {
+                throw new IllegalArgumentException("Wrong number of arguments for " + Opcodes.name(opcode));
+            }
+            if (Opcodes.variadic(opcode)) {
+                double[] arguments = new double[count];
+                for (int i = count - 1; i >= 0; i--) {
+                    arguments[i] = values.value;
+                    values = values.next;
+                }
+                values = new Value(Opcodes.variadic(opcode, arguments, 0, count), values);
+            } else if (count == 2) {
+                double b = values.value;
+                Value rest = values.next;
+                values = new Value(Opcodes.binary(opcode, rest.value, b), rest.next);
+            } else {
+                values = new Value(Opcodes.unary(opcode, values.value), values.next);
+            }
+        }
+    }
+
+    /**
+     * Reads one token at a time, recording how far it looked ahead to decide where the token ends.
+     * Reaching the end of the text counts as looking one character past it, since appending
+     * a character there could extend the token.
+     */
+    private static final class Lexer {
+
+        private final CharSequence source;
+        private final Map<String, Double> variables;
+        private final ExpressionLexer scanner;
+
+        int kind;
+        int opcode;
+        double value;
+        int end;
+        int lookEnd;
+
+        Lexer(CharSequence source, Map<String, Double> variables, ExpressionLexer scanner) {
+            this.source = source;
+            this.variables = variables;
+            this.scanner = scanner;
+        }
+
+        /**
+         * Reads the token at or after {@code pos}, returning false at the end of the text.
+         */
+        boolean next(int pos) {
+            pos = scanner.skipWhitespace(source, pos);
+            if (pos == source.length()) {
+                return false;
+            }
+            char c = source.charAt(pos);
+            end = pos + 1;
+            lookEnd = end;
+            opcode = -1;
+            if (scanner.startsNumber(source, pos)) {
+                end = scanner.scanNumber(source, pos);
+                lookEnd = scanner.getExamined();
+                kind = scanner.isValid() ? NUMBER : INVALID;
+                value = scanner.getValue();
+            } else if (scanner.isIdentifierStart(c)) {
+                readIdentifier(pos);
+            } else if (c == 'π') {
+                variable("pi");
+            } else {
+                kind = single(scanner.symbol(c));
+            }
+            return true;
+        }
+
+        private int single(char c) {
+            switch (c) {
+                case '(': return OPEN;
+                case ')': return CLOSE;
+                case ',': return COMMA;
+                case '+': return PLUS;
+                case '-': return MINUS;
+                case '√': return ROOT;
+                case '*':
+                    opcode = Opcodes.MUL;
+                    return BINARY;
+                case '/':
+                    opcode = Opcodes.DIV;
+                    return BINARY;
+                case '%':
+                    opcode = Opcodes.MOD;
+                    return BINARY;
+                case '^':
+                    opcode = Opcodes.POW;
+                    return BINARY;
+                default:
+                    return INVALID;
+            }
+        }
+
+        private void readIdentifier(int start) {
+            int pos = start;
+            while (pos < source.length() && scanner.isIdentifierPart(source.charAt(pos))) {
+                pos++;
+            }
+            end = pos;
+            String name = source.subSequence(start, pos).toString();
+            // Whether the name calls a function depends on the next non-blank character
+            pos = scanner.skipWhitespace(source, pos);
+            lookEnd = pos + 1;
+            int function = Opcodes.functionOpcode(name);
+            if (function >= 0 && pos < source.length() && source.charAt(pos) == '(') {
+                kind = FUNCTION;
+                opcode = function;
+            } else {
+                variable(name);
+            }
+        }
+
+        private void variable(String name) {
+            Double bound = variables.get(name);
+            kind = bound != null ? VARIABLE : INVALID;
+            value = bound != null ? bound : Double.NaN;
+        }
+    }
+}
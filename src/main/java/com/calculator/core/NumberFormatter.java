@@ -0,0 +1,477 @@
+package com.calculator.core;
+
+import java.math.BigInteger;
+
+/**
+ * Formats doubles as decimal text without allocating.
+ * By default a value is written with the fewest significant digits that parse back to the same
+ * double, found with the Schubfach algorithm (R. Giulietti, "The Schubfach way to render
+ * doubles", 2020): a single 128-bit multiplication by a cached power of ten locates the
+ * shortest decimal in the value's rounding interval. A formatter can instead round to a fixed
+ * number of significant digits, and write plain, scientific or engineering notation.
+ * <p>
+ * Formatters are immutable and thread-safe. Output goes to a caller-supplied {@code char[]},
+ * {@code byte[]} or {@link StringBuilder}, so formatting in a loop creates no garbage.
+ */
+public final class NumberFormatter {
+
+    /**
+     * How the decimal exponent of a value is written.
+     */
+    public enum Notation {
+        /** Positional digits, switching to scientific notation below 1e-7 and from 1e21 on. */
+        PLAIN,
+        /** One digit before the point and an exponent, e.g. 1.5E-8. */
+        SCIENTIFIC,
+        /** One to three digits before the point and an exponent that is a multiple of three, e.g. 15E-9. */
+        ENGINEERING
+    }
+
+    /** The longest text any formatter writes for a double. */
+    public static final int MAX_LENGTH = 32;
+
+    /** Shortest round-trip digits in plain notation. */
+    public static final NumberFormatter SHORTEST = new NumberFormatter(0, Notation.PLAIN);
+
+    // Binary format of a double
+    private static final int P = 53;
+    private static final int Q_MIN = -1074;
+    private static final long C_MIN = 1L << (P - 1);
+    private static final long C_TINY = 3;
+    private static final int BQ_MASK = 0x7ff;
+    private static final long T_MASK = (1L << (P - 1)) - 1;
+    private static final long MASK_63 = Long.MAX_VALUE;
+
+    // Range of decimal exponents k whose powers 10^-k are tabulated
+    private static final int K_MIN = -324;
+    private static final int K_MAX = 292;
+
+    // 126-bit approximations g of 10^-k, split as g1 2^63 + g0, computed once at class loading
+    private static final long[] G = new long[2 * (K_MAX - K_MIN + 1)];
+
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    // Per-thread scratch space for the StringBuilder and byte[] entry points, long enough for 64 binary digits
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[Long.SIZE + 1]);
+
+    private static final char[] DIGITS = "0123456789abcdefghijklmnopqrstuvwxyz".toCharArray();
+
+    // Tens and units digits of 0 to 99, for writing two digits per division
+    private static final char[] TENS = new char[100];
+    private static final char[] UNITS = new char[100];
+
+    static {
+        for (int k = K_MIN; k <= K_MAX; k++) {
+            // 10^-k = beta 2^r with 2^125 <= beta < 2^126, and g = floor(beta) + 1
+            int r = flog2pow10(-k) - 125;
+            BigInteger g;
+            if (k <= 0) {
+                BigInteger power = BigInteger.TEN.pow(-k);
+                g = r >= 0 ? power.shiftRight(r) : power.shiftLeft(-r);
+            } else {
+                g = BigInteger.ONE.shiftLeft(-r).divide(BigInteger.TEN.pow(k));
+            }
+            g = g.add(BigInteger.ONE);
+            G[2 * (k - K_MIN)] = g.shiftRight(63).longValue();
+            G[2 * (k - K_MIN) + 1] = g.longValue() & MASK_63;
+        }
+        for (int i = 0; i < 100; i++) {
+            TENS[i] = (char) ('0' + i / 10);
+            UNITS[i] = (char) ('0' + i % 10);
+        }
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final int significantDigits;
+    private final Notation notation;
+
+    /**
+     * Creates a formatter.
+     *
+     * @param significantDigits The number of significant digits to round to, from 1 to 17,
+     *                          or 0 for the shortest digits that round-trip
+     * @param notation How to write the exponent
+     * @throws IllegalArgumentException if the number of digits is out of range
+     */
+    public NumberFormatter(int significantDigits, Notation notation) {
+        if (significantDigits < 0 || significantDigits > 17) {
+            throw new IllegalArgumentException("Significant digits must be between 0 and 17");
+        }
+        this.significantDigits = significantDigits;
+        this.notation = notation;
+    }
+
+    /**
+     * Returns the number of significant digits, or 0 for shortest round-trip output.
+     *
+     * @return The number of significant digits
+     */
+    public int getSignificantDigits() {
+        return significantDigits;
+    }
+
+    /**
+     * Returns the notation used for the exponent.
+     *
+     * @return The notation
+     */
+    public Notation getNotation() {
+        return notation;
+    }
+
+    /**
+     * Formats a value as a new string.
+     *
+     * @param value The value to format
+     * @return The formatted value
+     */
+    public String format(double value) {
+        char[] buffer = BUFFER.get();
+        return new String(buffer, 0, format(value, buffer, 0));
+    }
+
+    /**
+     * Appends a formatted value to a builder.
+     *
+     * @param value The value to format
+     * @param out The builder to append to
+     * @return The builder
+     */
+    public StringBuilder format(double value, StringBuilder out) {
+        char[] buffer = BUFFER.get();
+        return out.append(buffer, 0, format(value, buffer, 0));
+    }
+
+    /**
+     * Writes a formatted value as ASCII bytes.
+     *
+     * @param value The value to format
+     * @param buffer The buffer to write to, with at least {@link #MAX_LENGTH} bytes free after {@code offset}
+     * @param offset The index of the first byte to write
+     * @return The index after the last byte written
+     */
+    public int format(double value, byte[] buffer, int offset) {
+        char[] chars = BUFFER.get();
+        int length = format(value, chars, 0);
+        for (int i = 0; i < length; i++) {
+            buffer[offset + i] = (byte) chars[i];
+        }
+        return offset + length;
+    }
+
+    /**
+     * Writes a formatted value.
+     *
+     * @param value The value to format
+     * @param buffer The buffer to write to, with at least {@link #MAX_LENGTH} chars free after {@code offset}
+     * @param offset The index of the first char to write
+     * @return The index after the last char written
+     */
+    public int format(double value, char[] buffer, int offset) {
+        long bits = Double.doubleToRawLongBits(value);
+        long t = bits & T_MASK;
+        int bq = (int) (bits >>> (P - 1)) & BQ_MASK;
+        if (bq == BQ_MASK) {
+            return offset + (t != 0 ? copy("NaN", buffer, offset) : copy(bits > 0 ? "Infinity" : "-Infinity", buffer, offset));
+        }
+        int pos = offset;
+        if (bits < 0) {
+            buffer[pos++] = '-';
+        }
+        if (bq == 0 && t == 0) {
+            buffer[pos++] = '0';
+            return pos;
+        }
+        if (bq != 0) {
+            int mq = -Q_MIN + 1 - bq;
+            long c = C_MIN | t;
+            if (0 < mq && mq < P && (c >> mq) << mq == c) {
+                // Small integers are exact
+                return write(c >> mq, 0, buffer, pos);
+            }
+            return toDecimal(-mq, c, 0, buffer, pos);
+        }
+        return t < C_TINY ? toDecimal(Q_MIN, 10 * t, -1, buffer, pos) : toDecimal(Q_MIN, t, 0, buffer, pos);
+    }
+
+    /**
+     * Appends an integer in the given radix, with a '-' sign if it is negative.
+     *
+     * @param value The value to format
+     * @param radix The radix, from 2 to 36
+     * @param out The builder to append to
+     * @return The builder
+     * @throws IllegalArgumentException if the radix is out of range
+     */
+    public static StringBuilder formatInteger(long value, int radix, StringBuilder out) {
+        checkRadix(radix);
+        char[] buffer = BUFFER.get();
+        int pos = buffer.length;
+        // Work with the negated value so that Long.MIN_VALUE needs no special case
+        long negative = value < 0 ? value : -value;
+        do {
+            buffer[--pos] = DIGITS[(int) -(negative % radix)];
+            negative /= radix;
+        } while (negative != 0);
+        if (value < 0) {
+            buffer[--pos] = '-';
+        }
+        return out.append(buffer, pos, buffer.length - pos);
+    }
+
+    /**
+     * Appends the bit pattern of a word as an unsigned integer in the given radix, as programmer
+     * mode shows 64-bit words.
+     *
+     * @param value The value to format
+     * @param radix The radix, from 2 to 36
+     * @param out The builder to append to
+     * @return The builder
+     * @throws IllegalArgumentException if the radix is out of range
+     */
+    public static StringBuilder formatUnsignedInteger(long value, int radix, StringBuilder out) {
+        checkRadix(radix);
+        if (value >= 0) {
+            return formatInteger(value, radix, out);
+        }
+        char[] buffer = BUFFER.get();
+        int pos = buffer.length;
+        buffer[--pos] = DIGITS[(int) Long.remainderUnsigned(value, radix)];
+        long rest = Long.divideUnsigned(value, radix);
+        while (rest != 0) {
+            buffer[--pos] = DIGITS[(int) (rest % radix)];
+            rest /= radix;
+        }
+        return out.append(buffer, pos, buffer.length - pos);
+    }
+
+    /**
+     * Appends a double holding an integer in the given radix, as used by programmer mode.
+     *
+     * @param value The value to format
+     * @param radix The radix, from 2 to 36
+     * @param out The builder to append to
+     * @return The builder
+     * @throws IllegalArgumentException if the value is not an integer in the range of a long
+     */
+    public static StringBuilder formatInteger(double value, int radix, StringBuilder out) {
+        if (value != Math.rint(value) || value < Long.MIN_VALUE || value >= 0x1p63) {
+            throw new IllegalArgumentException("Not an integer: " + value);
+        }
+        return formatInteger((long) value, radix, out);
+    }
+
+    private static void checkRadix(int radix) {
+        if (radix < Character.MIN_RADIX || radix > Character.MAX_RADIX) {
+            throw new IllegalArgumentException("Radix must be between 2 and 36");
+        }
+    }
+
+    /**
+     * Rounds the digits as configured and lays them out in the configured notation.
+     */
+    private int write(long digits, int exponent, char[] buffer, int pos) {
+        int length = digitCount(digits);
+        if (significantDigits > 0 && length > significantDigits) {
+            // Round half up on the shortest digits, so 0.15 shown to one digit is 0.2
+            long divisor = POWERS_OF_TEN[length - significantDigits];
+            long rounded = digits / divisor;
+            if (digits % divisor >= divisor / 2) {
+                rounded++;
+            }
+            exponent += length - significantDigits;
+            digits = rounded;
+            length = digitCount(digits);
+        }
+        while (digits % 10 == 0) {
+            digits /= 10;
+            exponent++;
+            length--;
+        }
+        // Decimal exponent of the leading digit
+        int leading = exponent + length - 1;
+        switch (notation) {
+            case SCIENTIFIC:
+                return writeExponential(digits, length, 1, leading, buffer, pos);
+            case ENGINEERING:
+                return writeExponential(digits, length, Math.floorMod(leading, 3) + 1, leading, buffer, pos);
+            default:
+                if (leading < -7 || leading >= 21) {
+                    return writeExponential(digits, length, 1, leading, buffer, pos);
+                }
+                return writePlain(digits, length, leading, buffer, pos);
+        }
+    }
+
+    private static int writePlain(long digits, int length, int leading, char[] buffer, int pos) {
+        if (leading < 0) {
+            buffer[pos++] = '0';
+            buffer[pos++] = '.';
+            for (int i = -1; i > leading; i--) {
+                buffer[pos++] = '0';
+            }
+            return writeDigits(digits, length, buffer, pos);
+        }
+        int integerDigits = leading + 1;
+        if (length <= integerDigits) {
+            pos = writeDigits(digits, length, buffer, pos);
+            for (int i = length; i < integerDigits; i++) {
+                buffer[pos++] = '0';
+            }
+            return pos;
+        }
+        long scale = POWERS_OF_TEN[length - integerDigits];
+        pos = writeDigits(digits / scale, integerDigits, buffer, pos);
+        buffer[pos++] = '.';
+        return writeDigits(digits % scale, length - integerDigits, buffer, pos);
+    }
+
+    private static int writeExponential(long digits, int length, int integerDigits, int leading,
+                                        char[] buffer, int pos) {
+        if (length <= integerDigits) {
+            pos = writeDigits(digits, length, buffer, pos);
+            for (int i = length; i < integerDigits; i++) {
+                buffer[pos++] = '0';
+            }
+        } else {
+            long scale = POWERS_OF_TEN[length - integerDigits];
+            pos = writeDigits(digits / scale, integerDigits, buffer, pos);
+            buffer[pos++] = '.';
+            pos = writeDigits(digits % scale, length - integerDigits, buffer, pos);
+        }
+        int exponent = leading - (integerDigits - 1);
+        if (exponent == 0) {
+            return pos;
+        }
+        buffer[pos++] = 'E';
+        if (exponent < 0) {
+            buffer[pos++] = '-';
+            exponent = -exponent;
+        }
+        return writeDigits((long) exponent, digitCount(exponent), buffer, pos);
+    }
+
+    /**
+     * Writes exactly {@code length} decimal digits of a value, with leading zeros if needed.
+     */
+    private static int writeDigits(long value, int length, char[] buffer, int pos) {
+        int end = pos + length;
+        int i = end;
+        // Split off eight digits at a time so the rest is done in int arithmetic
+        while (i - pos > 8) {
+            int chunk = (int) (value % 100_000_000);
+            value /= 100_000_000;
+            i = writeDigits(chunk, 8, buffer, i);
+        }
+        writeDigits((int) value, i - pos, buffer, i);
+        return end;
+    }
+
+    /**
+     * Writes {@code length} digits of a value backwards from {@code end} and returns the first index written.
+     */
+    private static int writeDigits(int value, int length, char[] buffer, int end) {
+        int i = end;
+        for (; length >= 2; length -= 2) {
+            int pair = value % 100;
+            value /= 100;
+            buffer[--i] = UNITS[pair];
+            buffer[--i] = TENS[pair];
+        }
+        if (length == 1) {
+            buffer[--i] = (char) ('0' + value);
+        }
+        return i;
+    }
+
+    /**
+     * Returns the number of decimal digits of a value below 10^18, estimating log10 from its bit length.
+     */
+    private static int digitCount(long value) {
+        int estimate = (64 - Long.numberOfLeadingZeros(value | 1)) * 1233 >>> 12;
+        return estimate + (value >= POWERS_OF_TEN[estimate] ? 1 : 0);
+    }
+
+    private static int copy(String text, char[] buffer, int offset) {
+        text.getChars(0, text.length(), buffer, offset);
+        return text.length();
+    }
+
+    /**
+     * Finds the shortest decimal in the rounding interval of c 2^q, see figure 7 of the paper,
+     * and writes it. The decimal exponent is adjusted by {@code dk} for subnormals that were scaled by ten.
+     */
+    private int toDecimal(int q, long c, int dk, char[] buffer, int pos) {
+        int out = (int) c & 0x1;
+        long cb = c << 2;
+        long cbr = cb + 2;
+        long cbl;
+        int k;
+        if (c != C_MIN || q == Q_MIN) {
+            // Regular spacing
+            cbl = cb - 2;
+            k = flog10pow2(q);
+        } else {
+            // The interval below a power of two is half as wide
+            cbl = cb - 1;
+            k = flog10threeQuartersPow2(q);
+        }
+        int h = q + flog2pow10(-k) + 2;
+
+        long g1 = G[2 * (k - K_MIN)];
+        long g0 = G[2 * (k - K_MIN) + 1];
+
+        long vb = rop(g1, g0, cb << h);
+        long vbl = rop(g1, g0, cbl << h);
+        long vbr = rop(g1, g0, cbr << h);
+
+        long s = vb >> 2;
+        if (s >= 100) {
+            // Try one digit fewer: s' = floor(s / 10) computed by multiplication
+            long sp10 = 10 * Math.multiplyHigh(s, 115_292_150_460_684_698L << 4);
+            long tp10 = sp10 + 10;
+            boolean upin = vbl + out <= sp10 << 2;
+            boolean wpin = (tp10 << 2) + out <= vbr;
+            if (upin != wpin) {
+                return write(upin ? sp10 : tp10, k, buffer, pos);
+            }
+        }
+        long t = s + 1;
+        boolean uin = vbl + out <= s << 2;
+        boolean win = (t << 2) + out <= vbr;
+        if (uin != win) {
+            return write(uin ? s : t, k + dk, buffer, pos);
+        }
+        // Both candidates round-trip; take the closer one, or the even one on a tie
+        long cmp = vb - ((s + t) << 1);
+        return write(cmp < 0 || cmp == 0 && (s & 0x1) == 0 ? s : t, k + dk, buffer, pos);
+    }
+
+    /**
+     * Rounds g cp 2^-127 to odd, where g = g1 2^63 + g0.
+     */
+    private static long rop(long g1, long g0, long cp) {
+        long x1 = Math.multiplyHigh(g0, cp);
+        long y0 = g1 * cp;
+        long y1 = Math.multiplyHigh(g1, cp);
+        long z = (y0 >>> 1) + x1;
+        long vbp = y1 + (z >>> 63);
+        return vbp | ((z & MASK_63) + MASK_63) >>> 63;
+    }
+
+    // floor(log10(2^e)), floor(log10(3/4 2^e)) and floor(log2(10^e)) for the exponents of doubles
+    private static int flog10pow2(int e) {
+        return (int) (e * 661_971_961_083L >> 41);
+    }
+
+    private static int flog10threeQuartersPow2(int e) {
+        return (int) (e * 661_971_961_083L + -274_743_187_321L >> 41);
+    }
+
+    private static int flog2pow10(int e) {
+        return (int) (e * 913_124_641_741L >> 38);
+    }
+}
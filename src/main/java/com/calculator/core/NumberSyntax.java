@@ -0,0 +1,109 @@
+package com.calculator.core;
+
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * The separators used in number literals and argument lists of expressions.
+ * Where the decimal separator is a comma, function arguments are separated by semicolons,
+ * e.g. {@code max(1,5; 2)}. A grouping separator is only accepted between groups of exactly
+ * three digits, and not at all if it would be confused with the argument separator, so
+ * English text keeps {@code max(1,000)} as two arguments.
+ */
+public final class NumberSyntax {
+
+    /** A period as decimal separator, commas between arguments and no digit grouping. */
+    public static final NumberSyntax STANDARD = new NumberSyntax('.', (char) 0, ',');
+
+    private final char decimalSeparator;
+    private final char groupingSeparator;
+    private final char argumentSeparator;
+
+    private NumberSyntax(char decimalSeparator, char groupingSeparator, char argumentSeparator) {
+        this.decimalSeparator = decimalSeparator;
+        this.groupingSeparator = groupingSeparator;
+        this.argumentSeparator = argumentSeparator;
+    }
+
+    /**
+     * Returns the syntax of numbers written in a locale.
+     *
+     * @param locale The locale
+     * @return The number syntax of the locale
+     */
+    public static NumberSyntax forLocale(Locale locale) {
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+        char decimal = symbols.getDecimalSeparator();
+        char grouping = symbols.getGroupingSeparator();
+        char argument = decimal == ',' ? ';' : ',';
+        if (grouping == argument || grouping == decimal) {
+            grouping = 0;
+        }
+        if (decimal == '.' && grouping == 0 && argument == ',') {
+            return STANDARD;
+        }
+        return new NumberSyntax(decimal, grouping, argument);
+    }
+
+    /**
+     * Returns the decimal separator.
+     *
+     * @return The decimal separator
+     */
+    public char getDecimalSeparator() {
+        return decimalSeparator;
+    }
+
+    /**
+     * Returns the digit grouping separator, or 0 if digits cannot be grouped.
+     *
+     * @return The grouping separator
+     */
+    public char getGroupingSeparator() {
+        return groupingSeparator;
+    }
+
+    /**
+     * Returns the separator between function arguments.
+     *
+     * @return The argument separator
+     */
+    public char getArgumentSeparator() {
+        return argumentSeparator;
+    }
+
+    /**
+     * Parses a number literal written in this syntax, including hexadecimal, octal and binary
+     * literals such as {@code 0x1F}, {@code 0o17} and {@code 0b1010}.
+     *
+     * @param text The literal
+     * @return The nearest double
+     * @throws IllegalArgumentException if the text is not a single number literal
+     */
+    public double parse(CharSequence text) {
+        ExpressionLexer lexer = new ExpressionLexer(this, false);
+        int start = lexer.skipWhitespace(text, 0);
+        if (start == text.length() || !lexer.startsNumber(text, start)) {
+            throw new IllegalArgumentException("Not a number: " + text);
+        }
+        int end = lexer.scanNumber(text, start);
+        if (!lexer.isValid() || lexer.skipWhitespace(text, end) != text.length()) {
+            throw new IllegalArgumentException("Not a number: " + text);
+        }
+        return lexer.getValue();
+    }
+
+    /**
+     * Returns whether a character separates digit groups, treating all spaces alike in
+     * locales that group with a space.
+     */
+    boolean isGroupingSeparator(char c) {
+        if (groupingSeparator == 0) {
+            return false;
+        }
+        if (Character.isSpaceChar(groupingSeparator)) {
+            return c == ' ' || c == '\u00a0' || c == '\u202f';
+        }
+        return c == groupingSeparator;
+    }
+}
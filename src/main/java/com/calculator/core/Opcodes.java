@@ -0,0 +1,366 @@
+package com.calculator.core;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Instruction set of the postfix programs produced by {@link ExpressionCompiler}, and the
+ * registry of functions that expressions can call.
+ * Each instruction is an opcode, followed by one operand for {@link #CONST}, {@link #LOAD},
+ * {@link #STORE} and {@link #TEMP} and by the argument count for variadic functions such as {@link #MEAN}.
+ */
+final class Opcodes {
+
+    // Stack and arithmetic operations
+    static final int CONST = 0;
+    static final int LOAD = 1;
+    static final int ADD = 2;
+    static final int SUB = 3;
+    static final int MUL = 4;
+    static final int DIV = 5;
+    static final int MOD = 6;
+    static final int POW = 7;
+    static final int NEG = 8;
+
+    // Built-in single argument functions
+    static final int SIN = 9;
+    static final int COS = 10;
+    static final int TAN = 11;
+    static final int COT = 12;
+    static final int ASIN = 13;
+    static final int ACOS = 14;
+    static final int ATAN = 15;
+    static final int SINH = 16;
+    static final int COSH = 17;
+    static final int TANH = 18;
+    static final int LOG = 19;
+    static final int LOG2 = 20;
+    static final int LOG10 = 21;
+    static final int LOG1P = 22;
+    static final int ABS = 23;
+    static final int CBRT = 24;
+    static final int CEIL = 25;
+    static final int FLOOR = 26;
+    static final int SQRT = 27;
+    static final int EXP = 28;
+    static final int EXPM1 = 29;
+    static final int SIGNUM = 30;
+
+    // Library functions implemented by SpecialFunctions
+    static final int GAMMA = 31;
+    static final int LGAMMA = 32;
+    static final int FACTORIAL = 33;
+    static final int ERF = 34;
+    static final int ERFC = 35;
+    static final int NCR = 36;
+    static final int NPR = 37;
+
+    // Variadic functions over a window of the operand stack
+    static final int SUM = 38;
+    static final int MEAN = 39;
+    static final int VARIANCE = 40;
+    static final int STDDEV = 41;
+    static final int MIN = 42;
+    static final int MAX = 43;
+
+    // Temporaries holding subexpressions shared by an optimized program
+    static final int STORE = 44;
+    static final int TEMP = 45;
+
+    /** Largest number of arguments accepted by a variadic function. */
+    static final int MAX_ARGUMENTS = 64;
+
+    private static final double LN_2 = Math.log(2);
+
+    private static final Map<String, Integer> FUNCTIONS = new HashMap<>();
+
+    // Per-thread argument buffer for variadic calls from generated and batch code
+    private static final ThreadLocal<double[]> ARGUMENTS = ThreadLocal.withInitial(() -> new double[MAX_ARGUMENTS]);
+
+    static {
+        register(SIN, "sin");
+        register(COS, "cos");
+        register(TAN, "tan");
+        register(COT, "cot");
+        register(ASIN, "asin");
+        register(ACOS, "acos");
+        register(ATAN, "atan");
+        register(SINH, "sinh");
+        register(COSH, "cosh");
+        register(TANH, "tanh");
+        register(LOG, "log", "ln");
+        register(LOG2, "log2");
+        register(LOG10, "log10");
+        register(LOG1P, "log1p");
+        register(ABS, "abs");
+        register(CBRT, "cbrt");
+        register(CEIL, "ceil");
+        register(FLOOR, "floor");
+        register(SQRT, "sqrt");
+        register(EXP, "exp");
+        register(EXPM1, "expm1");
+        register(SIGNUM, "signum");
+        register(POW, "pow");
+        register(GAMMA, "gamma");
+        register(LGAMMA, "lgamma");
+        register(FACTORIAL, "factorial");
+        register(ERF, "erf");
+        register(ERFC, "erfc");
+        register(NCR, "nCr");
+        register(NPR, "nPr");
+        register(SUM, "sum");
+        register(MEAN, "mean");
+        register(VARIANCE, "variance", "var");
+        register(STDDEV, "stddev", "stdev");
+        register(MIN, "min");
+        register(MAX, "max");
+    }
+
+    private Opcodes() {
+    }
+
+    private static void register(int opcode, String... names) {
+        for (String name : names) {
+            FUNCTIONS.put(name, opcode);
+        }
+    }
+
+    /**
+     * Returns the opcode of a built-in function, or -1 if the name is not a built-in.
+     */
+    static int functionOpcode(String name) {
+        Integer opcode = FUNCTIONS.get(name);
+        return opcode != null ? opcode : -1;
+    }
+
+    /**
+     * Returns whether an opcode is a variadic function taking its argument count as an operand.
+     */
+    static boolean variadic(int opcode) {
+        return opcode >= SUM && opcode <= MAX;
+    }
+
+    /**
+     * Returns the fewest arguments a function accepts.
+     */
+    static int minArguments(int opcode) {
+        if (opcode == VARIANCE || opcode == STDDEV) {
+            return 2;
+        }
+        return variadic(opcode) ? 1 : arity(opcode);
+    }
+
+    /**
+     * Returns the most arguments a function accepts.
+     */
+    static int maxArguments(int opcode) {
+        return variadic(opcode) ? MAX_ARGUMENTS : arity(opcode);
+    }
+
+    /**
+     * Returns the number of stack values consumed by a fixed-arity operation.
+     * Variadic operations consume the number of values given by their operand.
+     */
+    static int arity(int opcode) {
+        switch (opcode) {
+            case CONST:
+            case LOAD:
+            case TEMP:
+                return 0;
+            case ADD:
+            case SUB:
+            case MUL:
+            case DIV:
+            case MOD:
+            case POW:
+            case NCR:
+            case NPR:
+                return 2;
+            default:
+                return 1;
+        }
+    }
+
+    /**
+     * Returns the number of operands following an opcode in the code array.
+     */
+    static int operandCount(int opcode) {
+        return opcode == CONST || opcode == LOAD || opcode == STORE || opcode == TEMP || variadic(opcode) ? 1 : 0;
+    }
+
+    /**
+     * Returns whether an opcode computes a value, as opposed to moving one onto the stack or into a temporary.
+     */
+    static boolean computes(int opcode) {
+        return opcode != CONST && opcode != LOAD && opcode != STORE && opcode != TEMP;
+    }
+
+    /**
+     * Applies a two-argument operation.
+     */
+    static double binary(int opcode, double a, double b) {
+        switch (opcode) {
+            case ADD: return a + b;
+            case SUB: return a - b;
+            case MUL: return a * b;
+            case DIV: return divide(a, b);
+            case MOD: return modulo(a, b);
+            case POW: return Math.pow(a, b);
+            case NCR: return SpecialFunctions.nCr(a, b);
+            case NPR: return SpecialFunctions.nPr(a, b);
+            default: throw new IllegalStateException("Not a binary operation: " + opcode);
+        }
+    }
+
+    /**
+     * Applies a single-argument operation.
+     */
+    static double unary(int opcode, double x) {
+        switch (opcode) {
+            case NEG: return -x;
+            case SIN: return Math.sin(x);
+            case COS: return Math.cos(x);
+            case TAN: return Math.tan(x);
+            case COT: return cot(x);
+            case ASIN: return Math.asin(x);
+            case ACOS: return Math.acos(x);
+            case ATAN: return Math.atan(x);
+            case SINH: return Math.sinh(x);
+            case COSH: return Math.cosh(x);
+            case TANH: return Math.tanh(x);
+            case LOG: return Math.log(x);
+            case LOG2: return log2(x);
+            case LOG10: return Math.log10(x);
+            case LOG1P: return Math.log1p(x);
+            case ABS: return Math.abs(x);
+            case CBRT: return Math.cbrt(x);
+            case CEIL: return Math.ceil(x);
+            case FLOOR: return Math.floor(x);
+            case SQRT: return Math.sqrt(x);
+            case EXP: return Math.exp(x);
+            case EXPM1: return Math.expm1(x);
+            case SIGNUM: return Math.signum(x);
+            case GAMMA: return SpecialFunctions.gamma(x);
+            case LGAMMA: return SpecialFunctions.lnGamma(x);
+            case FACTORIAL: return SpecialFunctions.factorial(x);
+            case ERF: return SpecialFunctions.erf(x);
+            case ERFC: return SpecialFunctions.erfc(x);
+            default: throw new IllegalStateException("Not a unary operation: " + opcode);
+        }
+    }
+
+    /**
+     * Applies a variadic function to {@code count} values starting at {@code from}.
+     */
+    static double variadic(int opcode, double[] values, int from, int count) {
+        switch (opcode) {
+            case SUM: return SpecialFunctions.sum(values, from, count);
+            case MEAN: return SpecialFunctions.mean(values, from, count);
+            case VARIANCE: return SpecialFunctions.variance(values, from, count);
+            case STDDEV: return Math.sqrt(SpecialFunctions.variance(values, from, count));
+            case MIN: return SpecialFunctions.min(values, from, count);
+            case MAX: return SpecialFunctions.max(values, from, count);
+            default: throw new IllegalStateException("Not a variadic operation: " + opcode);
+        }
+    }
+
+    /**
+     * Returns this thread's buffer of {@link #MAX_ARGUMENTS} slots for gathering variadic arguments.
+     */
+    static double[] arguments() {
+        return ARGUMENTS.get();
+    }
+
+    /**
+     * Division that rejects a zero divisor.
+     */
+    static double divide(double a, double b) {
+        if (b == 0) {
+            throw new ArithmeticException("Division by zero!");
+        }
+        return a / b;
+    }
+
+    /**
+     * Remainder that rejects a zero divisor.
+     */
+    static double modulo(double a, double b) {
+        if (b == 0) {
+            throw new ArithmeticException("Division by zero!");
+        }
+        return a % b;
+    }
+
+    /**
+     * Cotangent that rejects angles whose tangent is zero.
+     */
+    static double cot(double x) {
+        double tan = Math.tan(x);
+        if (tan == 0) {
+            throw new ArithmeticException("Division by zero in cotangent!");
+        }
+        return 1 / tan;
+    }
+
+    /**
+     * Base-2 logarithm.
+     */
+    static double log2(double x) {
+        return Math.log(x) / LN_2;
+    }
+
+    /**
+     * Returns a readable mnemonic for an opcode.
+     */
+    static String name(int opcode) {
+        switch (opcode) {
+            case CONST: return "const";
+            case LOAD: return "load";
+            case ADD: return "add";
+            case SUB: return "sub";
+            case MUL: return "mul";
+            case DIV: return "div";
+            case MOD: return "mod";
+            case POW: return "pow";
+            case NEG: return "neg";
+            case SIN: return "sin";
+            case COS: return "cos";
+            case TAN: return "tan";
+            case COT: return "cot";
+            case ASIN: return "asin";
+            case ACOS: return "acos";
+            case ATAN: return "atan";
+            case SINH: return "sinh";
+            case COSH: return "cosh";
+            case TANH: return "tanh";
+            case LOG: return "log";
+            case LOG2: return "log2";
+            case LOG10: return "log10";
+            case LOG1P: return "log1p";
+            case ABS: return "abs";
+            case CBRT: return "cbrt";
+            case CEIL: return "ceil";
+            case FLOOR: return "floor";
+            case SQRT: return "sqrt";
+            case EXP: return "exp";
+            case EXPM1: return "expm1";
+            case SIGNUM: return "signum";
+            case GAMMA: return "gamma";
+            case LGAMMA: return "lgamma";
+            case FACTORIAL: return "factorial";
+            case ERF: return "erf";
+            case ERFC: return "erfc";
+            case NCR: return "nCr";
+            case NPR: return "nPr";
+            case SUM: return "sum";
+            case MEAN: return "mean";
+            case VARIANCE: return "variance";
+            case STDDEV: return "stddev";
+            case MIN: return "min";
+            case MAX: return "max";
+            case STORE: return "store";
+            case TEMP: return "temp";
+            default: return "op" + opcode;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.calculator.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Evaluates a compiled expression over columns of inputs across several threads.
+ * Rows are split into chunks that are each evaluated by a {@link BatchEvaluator};
+ * every chunk writes only its own range of the output, so results are in row order
+ * regardless of scheduling.
+ */
+public final class ParallelBatchEvaluator {
+
+    /** Default number of rows per task. */
+    public static final int DEFAULT_CHUNK_SIZE = 64 * BatchEvaluator.BLOCK_SIZE;
+
+    private final ExecutorService executor;
+    private final int chunkSize;
+    private final BatchEvaluator evaluator;
+
+    /**
+     * Creates an evaluator running on the common fork/join pool with the default chunk size.
+     */
+    public ParallelBatchEvaluator() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates an evaluator running on the given executor. A {@link ForkJoinPool} is used
+     * with recursive splitting; any other executor receives one task per chunk.
+     *
+     * @param executor The executor to run chunks on
+     * @param chunkSize The number of rows each task evaluates
+     * @throws IllegalArgumentException if chunkSize is not positive
+     */
+    public ParallelBatchEvaluator(ExecutorService executor, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.executor = executor;
+        this.chunkSize = chunkSize;
+        this.evaluator = new BatchEvaluator();
+    }
+
+    /**
+     * Returns the number of rows each task evaluates.
+     *
+     * @return The chunk size
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Evaluates an expression for every row of the given columns.
+     *
+     * @param expression The compiled expression
+     * @param columns The input column of each variable slot, or null where the slot takes a scalar
+     * @param scalars The value of each variable slot that has no column; may be null if every slot has a column
+     * @param results The output column; its length is the number of rows
+     * @throws IllegalArgumentException if the inputs do not match the expression or the number of rows
+     * @throws ArithmeticException if evaluation of any row fails
+     */
+    public void evaluate(CompiledExpression expression, double[][] columns, double[] scalars, double[] results) {
+        BatchEvaluator.validate(expression, columns, scalars, results.length);
+        if (results.length <= chunkSize) {
+            evaluator.evaluateRange(expression, columns, scalars, results, 0, results.length);
+        } else if (executor instanceof ForkJoinPool) {
+            ((ForkJoinPool) executor).invoke(new ChunkTask(expression, columns, scalars, results, 0, results.length));
+        } else {
+            evaluateOnExecutor(expression, columns, scalars, results);
+        }
+    }
+
+    private void evaluateOnExecutor(CompiledExpression expression, double[][] columns, double[] scalars,
+                                    double[] results) {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int from = 0; from < results.length; from += chunkSize) {
+            int start = from;
+            int end = Math.min(results.length, from + chunkSize);
+            tasks.add(() -> {
+                evaluator.evaluateRange(expression, columns, scalars, results, start, end);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch evaluation was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Batch evaluation failed", e.getCause());
+        }
+    }
+
+    /**
+     * Splits its row range in half until it is no larger than the chunk size.
+     */
+    private final class ChunkTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final CompiledExpression expression;
+        private final double[][] columns;
+        private final double[] scalars;
+        private final double[] results;
+        private final int from;
+        private final int to;
+
+        ChunkTask(CompiledExpression expression, double[][] columns, double[] scalars,
+                  double[] results, int from, int to) {
+            this.expression = expression;
+            this.columns = columns;
+            this.scalars = scalars;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                evaluator.evaluateRange(expression, columns, scalars, results, from, to);
+                return;
+            }
+            // Split on a block boundary so no block straddles two tasks
+            int middle = from + ((to - from) / 2 / BatchEvaluator.BLOCK_SIZE) * BatchEvaluator.BLOCK_SIZE;
+            if (middle <= from) {
+                middle = from + (to - from) / 2;
+            }
+            invokeAll(new ChunkTask(expression, columns, scalars, results, from, middle),
+                      new ChunkTask(expression, columns, scalars, results, middle, to));
+        }
+    }
+}
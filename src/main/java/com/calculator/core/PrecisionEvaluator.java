@@ -0,0 +1,266 @@
+package com.calculator.core;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+/**
+ * Runs the postfix program of a {@link CompiledExpression} over {@link BigDecimal} values.
+ * Number literals are taken from their source text, so decimal inputs such as 0.1 are exact.
+ * Factorials and combinatorics of integers are exact; gamma and the error function are
+ * evaluated in double precision.
+ */
+final class PrecisionEvaluator {
+
+    private static final BigDecimal TWO = BigDecimal.valueOf(2);
+    private static final int GUARD_DIGITS = 5;
+    // Largest integer argument for exact factorials and combinatorics
+    private static final BigDecimal MAX_EXACT_ARGUMENT = BigDecimal.valueOf(100_000);
+
+    private PrecisionEvaluator() {
+    }
+
+    /**
+     * Evaluates an expression.
+     *
+     * @param expression The compiled expression
+     * @param variables The variable values, in slot order
+     * @param mc The precision of the result
+     * @return The result rounded to the requested precision
+     * @throws ArithmeticException if an operation is undefined for its arguments
+     */
+    static BigDecimal evaluate(CompiledExpression expression, BigDecimal[] variables, MathContext mc) {
+        MathContext work = new MathContext(mc.getPrecision() + GUARD_DIGITS, mc.getRoundingMode());
+        int[] code = expression.code();
+        BigDecimal[] stack = new BigDecimal[expression.getMaxStackDepth()];
+        int sp = -1;
+        int pc = 0;
+        while (pc < code.length) {
+            int op = code[pc++];
+            switch (op) {
+                case Opcodes.CONST:
+                    stack[++sp] = constant(expression, code[pc++]);
+                    break;
+                case Opcodes.LOAD:
+                    stack[++sp] = variables[code[pc++]];
+                    break;
+                case Opcodes.ADD:
+                case Opcodes.SUB:
+                case Opcodes.MUL:
+                case Opcodes.DIV:
+                case Opcodes.MOD:
+                case Opcodes.POW:
+                case Opcodes.NCR:
+                case Opcodes.NPR:
+                    sp--;
+                    stack[sp] = binary(op, stack[sp], stack[sp + 1], work);
+                    break;
+                case Opcodes.SUM:
+                case Opcodes.MEAN:
+                case Opcodes.VARIANCE:
+                case Opcodes.STDDEV:
+                case Opcodes.MIN:
+                case Opcodes.MAX: {
+                    int count = code[pc++];
+                    sp -= count - 1;
+                    stack[sp] = variadic(op, stack, sp, count, work);
+                    break;
+                }
+                default:
+                    stack[sp] = unary(op, stack[sp], work);
+                    break;
+            }
+        }
+        return stack[0].round(mc);
+    }
+
+    private static BigDecimal constant(CompiledExpression expression, int index) {
+        String text = expression.constantText()[index];
+        return text != null ? new BigDecimal(text) : new BigDecimal(expression.constants()[index]);
+    }
+
+    private static BigDecimal binary(int op, BigDecimal a, BigDecimal b, MathContext mc) {
+        switch (op) {
+            case Opcodes.ADD:
+                return a.add(b, mc);
+            case Opcodes.SUB:
+                return a.subtract(b, mc);
+            case Opcodes.MUL:
+                return a.multiply(b, mc);
+            case Opcodes.DIV:
+                checkDivisor(b);
+                return a.divide(b, mc);
+            case Opcodes.MOD:
+                checkDivisor(b);
+                return a.remainder(b, mc);
+            case Opcodes.NCR:
+            case Opcodes.NPR:
+                return combinatorics(op, a, b, mc);
+            default:
+                return PrecisionMath.pow(a, b, mc);
+        }
+    }
+
+    /**
+     * Counts combinations or permutations exactly when both arguments are small non-negative integers.
+     */
+    private static BigDecimal combinatorics(int op, BigDecimal n, BigDecimal k, MathContext mc) {
+        if (!isSmallInteger(n) || !isSmallInteger(k)) {
+            return viaDouble(Opcodes.binary(op, n.doubleValue(), k.doubleValue()));
+        }
+        int items = n.intValueExact();
+        int chosen = k.intValueExact();
+        if (chosen > items) {
+            return BigDecimal.ZERO;
+        }
+        BigInteger arrangements = PrecisionMath.factorial(items).divide(PrecisionMath.factorial(items - chosen));
+        if (op == Opcodes.NCR) {
+            arrangements = arrangements.divide(PrecisionMath.factorial(chosen));
+        }
+        return new BigDecimal(arrangements).round(mc);
+    }
+
+    private static BigDecimal variadic(int op, BigDecimal[] values, int from, int count, MathContext mc) {
+        switch (op) {
+            case Opcodes.MIN:
+            case Opcodes.MAX: {
+                BigDecimal result = values[from];
+                for (int i = from + 1; i < from + count; i++) {
+                    result = op == Opcodes.MIN ? result.min(values[i]) : result.max(values[i]);
+                }
+                return result;
+            }
+            default:
+                break;
+        }
+        BigDecimal sum = BigDecimal.ZERO;
+        for (int i = from; i < from + count; i++) {
+            sum = sum.add(values[i]);
+        }
+        if (op == Opcodes.SUM) {
+            return sum.round(mc);
+        }
+        BigDecimal mean = sum.divide(BigDecimal.valueOf(count), mc);
+        if (op == Opcodes.MEAN) {
+            return mean;
+        }
+        BigDecimal squares = BigDecimal.ZERO;
+        for (int i = from; i < from + count; i++) {
+            BigDecimal deviation = values[i].subtract(mean, mc);
+            squares = squares.add(deviation.multiply(deviation, mc), mc);
+        }
+        BigDecimal variance = squares.divide(BigDecimal.valueOf(count - 1), mc);
+        return op == Opcodes.VARIANCE ? variance : PrecisionMath.sqrt(variance, mc);
+    }
+
+    private static BigDecimal unary(int op, BigDecimal x, MathContext mc) {
+        switch (op) {
+            case Opcodes.NEG:
+                return x.negate();
+            case Opcodes.SIN:
+                return PrecisionMath.sin(x, mc);
+            case Opcodes.COS:
+                return PrecisionMath.cos(x, mc);
+            case Opcodes.TAN: {
+                BigDecimal cos = PrecisionMath.cos(x, mc);
+                checkDivisor(cos);
+                return PrecisionMath.sin(x, mc).divide(cos, mc);
+            }
+            case Opcodes.COT: {
+                BigDecimal sin = PrecisionMath.sin(x, mc);
+                if (sin.signum() == 0) {
+                    throw new ArithmeticException("Division by zero in cotangent!");
+                }
+                return PrecisionMath.cos(x, mc).divide(sin, mc);
+            }
+            case Opcodes.ASIN:
+                return PrecisionMath.asin(x, mc);
+            case Opcodes.ACOS:
+                return PrecisionMath.acos(x, mc);
+            case Opcodes.ATAN:
+                return PrecisionMath.atan(x, mc);
+            case Opcodes.SINH:
+            case Opcodes.COSH:
+            case Opcodes.TANH:
+                return hyperbolic(op, x, mc);
+            case Opcodes.LOG:
+                return PrecisionMath.ln(x, mc);
+            case Opcodes.LOG2:
+                return PrecisionMath.ln(x, mc).divide(PrecisionMath.ln(TWO, mc), mc);
+            case Opcodes.LOG10:
+                return PrecisionMath.ln(x, mc).divide(PrecisionMath.ln(BigDecimal.TEN, mc), mc);
+            case Opcodes.LOG1P:
+                return PrecisionMath.ln(BigDecimal.ONE.add(x), mc);
+            case Opcodes.ABS:
+                return x.abs();
+            case Opcodes.CBRT: {
+                if (x.signum() == 0) {
+                    return BigDecimal.ZERO;
+                }
+                BigDecimal root = PrecisionMath.exp(PrecisionMath.ln(x.abs(), mc)
+                        .divide(BigDecimal.valueOf(3), mc), mc);
+                return x.signum() < 0 ? root.negate() : root;
+            }
+            case Opcodes.CEIL:
+                return x.setScale(0, RoundingMode.CEILING);
+            case Opcodes.FLOOR:
+                return x.setScale(0, RoundingMode.FLOOR);
+            case Opcodes.SQRT:
+                return PrecisionMath.sqrt(x, mc);
+            case Opcodes.EXP:
+                return PrecisionMath.exp(x, mc);
+            case Opcodes.EXPM1:
+                return PrecisionMath.exp(x, mc).subtract(BigDecimal.ONE, mc);
+            case Opcodes.SIGNUM:
+                return BigDecimal.valueOf(x.signum());
+            case Opcodes.FACTORIAL:
+                if (isSmallInteger(x)) {
+                    return new BigDecimal(PrecisionMath.factorial(x.intValueExact())).round(mc);
+                }
+                return viaDouble(Opcodes.unary(op, x.doubleValue()));
+            case Opcodes.GAMMA:
+            case Opcodes.LGAMMA:
+            case Opcodes.ERF:
+            case Opcodes.ERFC:
+                return viaDouble(Opcodes.unary(op, x.doubleValue()));
+            default:
+                throw new IllegalStateException("Not a unary operation: " + op);
+        }
+    }
+
+    private static BigDecimal hyperbolic(int op, BigDecimal x, MathContext mc) {
+        // Extra digits absorb the cancellation in e^x - e^-x for small x
+        int cancellation = Math.max(0, x.scale() - x.precision());
+        MathContext work = new MathContext(mc.getPrecision() + cancellation + GUARD_DIGITS);
+        BigDecimal positive = PrecisionMath.exp(x, work);
+        BigDecimal negative = BigDecimal.ONE.divide(positive, work);
+        BigDecimal sinh = positive.subtract(negative, work).divide(TWO, work);
+        BigDecimal cosh = positive.add(negative, work).divide(TWO, work);
+        switch (op) {
+            case Opcodes.SINH:
+                return sinh.round(mc);
+            case Opcodes.COSH:
+                return cosh.round(mc);
+            default:
+                return sinh.divide(cosh, mc);
+        }
+    }
+
+    private static boolean isSmallInteger(BigDecimal x) {
+        return x.signum() >= 0 && x.compareTo(MAX_EXACT_ARGUMENT) <= 0 && x.stripTrailingZeros().scale() <= 0;
+    }
+
+    private static BigDecimal viaDouble(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new ArithmeticException("Result is not a finite number: " + value);
+        }
+        return new BigDecimal(value);
+    }
+
+    private static void checkDivisor(BigDecimal divisor) {
+        if (divisor.signum() == 0) {
+            throw new ArithmeticException("Division by zero!");
+        }
+    }
+}
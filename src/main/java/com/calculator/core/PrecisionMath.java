@@ -0,0 +1,533 @@
+package com.calculator.core;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+/**
+ * Arbitrary-precision math kernels used by the precision evaluation mode.
+ * <p>
+ * Series (exp, sin/cos, atan) are summed after reducing the argument: by binary splitting over
+ * exact integers when the reduced argument has few digits, and otherwise term by term at the
+ * working precision, where each term costs one multiplication and a small division.
+ * Logarithms use Halley iteration on exp, tripling the number of correct digits per step, and
+ * pi uses the Chudnovsky series. Results are correctly rounded to the requested precision
+ * except in the last digit, which may be off by one.
+ */
+public final class PrecisionMath {
+
+    private static final BigDecimal TWO = BigDecimal.valueOf(2);
+    private static final int GUARD_DIGITS = 10;
+    // Series arguments with more than 1/4 of the working digits are summed term by term
+    private static final int SHORT_ARGUMENT_RATIO = 4;
+
+    // Largest-precision values computed so far, reused for any lower precision
+    private static volatile BigDecimal cachedPi = BigDecimal.ZERO;
+    private static volatile BigDecimal cachedLn10 = BigDecimal.ZERO;
+
+    private PrecisionMath() {
+    }
+
+    /**
+     * Calculates n! exactly by multiplying a balanced product tree, so that the
+     * large multiplications are between operands of similar size.
+     *
+     * @param n The number to calculate factorial for
+     * @return The exact factorial
+     * @throws IllegalArgumentException if n is negative
+     */
+    public static BigInteger factorial(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Factorial is not defined for negative numbers");
+        }
+        return n < 2 ? BigInteger.ONE : product(2, n);
+    }
+
+    /**
+     * Product of the integers in {@code [low, high]}.
+     */
+    private static BigInteger product(long low, long high) {
+        if (high - low < 16) {
+            BigInteger result = BigInteger.ONE;
+            long accumulator = 1;
+            for (long i = low; i <= high; i++) {
+                if (accumulator > Long.MAX_VALUE / i) {
+                    result = result.multiply(BigInteger.valueOf(accumulator));
+                    accumulator = 1;
+                }
+                accumulator *= i;
+            }
+            return result.multiply(BigInteger.valueOf(accumulator));
+        }
+        long middle = (low + high) >>> 1;
+        return product(low, middle).multiply(product(middle + 1, high));
+    }
+
+    /**
+     * Returns pi to the given precision.
+     *
+     * @param mc The precision
+     * @return Pi
+     */
+    public static BigDecimal pi(MathContext mc) {
+        int precision = precision(mc);
+        BigDecimal pi = cachedPi;
+        if (pi.precision() < precision + GUARD_DIGITS) {
+            pi = chudnovsky(precision + 2 * GUARD_DIGITS);
+            cachedPi = pi;
+        }
+        return pi.round(mc);
+    }
+
+    /**
+     * Chudnovsky series, each term adding about 14 digits.
+     */
+    private static BigDecimal chudnovsky(int digits) {
+        long terms = digits / 14 + 2;
+        BigInteger[] pqt = chudnovskySplit(0, terms);
+        MathContext work = new MathContext(digits);
+        BigDecimal sqrt = BigDecimal.valueOf(10005).sqrt(work);
+        return new BigDecimal(pqt[1].multiply(BigInteger.valueOf(426880)))
+                .multiply(sqrt, work)
+                .divide(new BigDecimal(pqt[2]), work);
+    }
+
+    private static BigInteger[] chudnovskySplit(long a, long b) {
+        if (b - a == 1) {
+            BigInteger p;
+            BigInteger q;
+            if (a == 0) {
+                p = BigInteger.ONE;
+                q = BigInteger.ONE;
+            } else {
+                p = BigInteger.valueOf(6 * a - 5).multiply(BigInteger.valueOf(2 * a - 1))
+                        .multiply(BigInteger.valueOf(6 * a - 1));
+                q = BigInteger.valueOf(a).pow(3).multiply(BigInteger.valueOf(10939058860032000L));
+            }
+            BigInteger t = p.multiply(BigInteger.valueOf(13591409 + 545140134 * a));
+            return new BigInteger[] {p, q, (a & 1) == 1 ? t.negate() : t};
+        }
+        long m = (a + b) >>> 1;
+        BigInteger[] left = chudnovskySplit(a, m);
+        BigInteger[] right = chudnovskySplit(m, b);
+        return new BigInteger[] {
+            left[0].multiply(right[0]),
+            left[1].multiply(right[1]),
+            right[1].multiply(left[2]).add(left[0].multiply(right[2]))
+        };
+    }
+
+    /**
+     * Calculates e raised to the power of x.
+     *
+     * @param x The exponent
+     * @param mc The precision
+     * @return The exponential
+     * @throws ArithmeticException if the result is too large to represent
+     */
+    public static BigDecimal exp(BigDecimal x, MathContext mc) {
+        int precision = precision(mc);
+        if (x.signum() == 0) {
+            return BigDecimal.ONE.round(mc);
+        }
+        if (x.abs().compareTo(BigDecimal.valueOf(100_000_000)) > 0) {
+            throw new ArithmeticException("Exponent out of range");
+        }
+        if (x.signum() < 0) {
+            MathContext work = new MathContext(precision + GUARD_DIGITS);
+            return BigDecimal.ONE.divide(exp(x.negate(), work), mc);
+        }
+
+        // Halve the argument until the series converges quickly, then square the result back up;
+        // each squaring doubles the relative error, so carry extra digits for it
+        int halvings = Math.max(0, Math.getExponent(x.doubleValue()) + 1 + reductionSteps(precision));
+        MathContext work = new MathContext(precision + GUARD_DIGITS + (int) (halvings * 0.302) + 1);
+        BigDecimal reduced = x.divide(TWO.pow(halvings), work);
+
+        BigDecimal result = sumSeries(reduced, work, SeriesKind.EXP);
+        for (int i = 0; i < halvings; i++) {
+            result = result.multiply(result, work);
+        }
+        return result.round(mc);
+    }
+
+    /**
+     * Calculates the natural logarithm of x.
+     *
+     * @param x The input value
+     * @param mc The precision
+     * @return The natural logarithm
+     * @throws ArithmeticException if x is not positive
+     */
+    public static BigDecimal ln(BigDecimal x, MathContext mc) {
+        int precision = precision(mc);
+        if (x.signum() <= 0) {
+            throw new ArithmeticException("Logarithm is not defined for non-positive numbers");
+        }
+        if (x.compareTo(BigDecimal.ONE) == 0) {
+            return BigDecimal.ZERO;
+        }
+        // Split x = m * 10^k with m in [1, 10) so the iteration starts from a double estimate
+        int k = x.precision() - x.scale() - 1;
+        BigDecimal m = x.movePointLeft(k);
+        MathContext work = new MathContext(precision + GUARD_DIGITS + String.valueOf(Math.abs(k)).length());
+        BigDecimal result = halleyLn(m, work);
+        if (k != 0) {
+            result = result.add(ln10(work).multiply(BigDecimal.valueOf(k)), work);
+        }
+        return result.round(mc);
+    }
+
+    private static BigDecimal ln10(MathContext mc) {
+        BigDecimal ln10 = cachedLn10;
+        if (ln10.precision() < mc.getPrecision()) {
+            ln10 = halleyLn(BigDecimal.TEN, new MathContext(mc.getPrecision() + GUARD_DIGITS));
+            cachedLn10 = ln10;
+        }
+        return ln10.round(mc);
+    }
+
+    /**
+     * Halley iteration y' = y + 2(m - e^y) / (m + e^y), for m within double range.
+     */
+    private static BigDecimal halleyLn(BigDecimal m, MathContext mc) {
+        BigDecimal y = new BigDecimal(Math.log(m.doubleValue()));
+        int correct = 14;
+        while (correct < mc.getPrecision()) {
+            correct = Math.min(correct * 3, mc.getPrecision());
+            MathContext step = new MathContext(correct + GUARD_DIGITS);
+            BigDecimal ey = exp(y, step);
+            y = y.add(TWO.multiply(m.subtract(ey, step)).divide(m.add(ey, step), step), step);
+        }
+        return y.round(mc);
+    }
+
+    /**
+     * Calculates the square root of x.
+     *
+     * @param x The input value
+     * @param mc The precision
+     * @return The square root
+     * @throws ArithmeticException if x is negative
+     */
+    public static BigDecimal sqrt(BigDecimal x, MathContext mc) {
+        precision(mc);
+        if (x.signum() < 0) {
+            throw new ArithmeticException("Square root is not defined for negative numbers");
+        }
+        return x.sqrt(mc);
+    }
+
+    /**
+     * Calculates x raised to the power of y. Integer exponents are computed by repeated
+     * squaring; other exponents as exp(y ln x).
+     *
+     * @param x The base
+     * @param y The exponent
+     * @param mc The precision
+     * @return The power
+     * @throws ArithmeticException if the result is undefined or not real
+     */
+    public static BigDecimal pow(BigDecimal x, BigDecimal y, MathContext mc) {
+        int precision = precision(mc);
+        if (y.signum() == 0) {
+            return BigDecimal.ONE.round(mc);
+        }
+        if (isInteger(y) && y.abs().compareTo(BigDecimal.valueOf(999_999_999)) <= 0) {
+            if (x.signum() == 0 && y.signum() < 0) {
+                throw new ArithmeticException("Division by zero!");
+            }
+            return x.pow(y.intValueExact(), new MathContext(precision + GUARD_DIGITS)).round(mc);
+        }
+        if (x.signum() == 0) {
+            if (y.signum() < 0) {
+                throw new ArithmeticException("Division by zero!");
+            }
+            return BigDecimal.ZERO;
+        }
+        if (x.signum() < 0) {
+            throw new ArithmeticException("Power of a negative base requires an integer exponent");
+        }
+        // The error of y ln x is magnified by its integer digits in the exponential
+        BigDecimal estimate = y.multiply(ln(x, new MathContext(precision + GUARD_DIGITS)));
+        int magnitude = Math.max(0, estimate.precision() - estimate.scale());
+        MathContext work = new MathContext(precision + GUARD_DIGITS + magnitude);
+        return exp(y.multiply(ln(x, work), work), mc);
+    }
+
+    /**
+     * Calculates the sine of an angle in radians.
+     *
+     * @param x The angle
+     * @param mc The precision
+     * @return The sine
+     */
+    public static BigDecimal sin(BigDecimal x, MathContext mc) {
+        return sinCos(x, mc)[0];
+    }
+
+    /**
+     * Calculates the cosine of an angle in radians.
+     *
+     * @param x The angle
+     * @param mc The precision
+     * @return The cosine
+     */
+    public static BigDecimal cos(BigDecimal x, MathContext mc) {
+        return sinCos(x, mc)[1];
+    }
+
+    /**
+     * Computes sine and cosine together: reduces modulo 2π, divides the angle by 2^8,
+     * sums both series and then applies the double-angle formulas.
+     */
+    private static BigDecimal[] sinCos(BigDecimal x, MathContext mc) {
+        int precision = precision(mc);
+        int magnitude = Math.max(0, x.precision() - x.scale());
+        int halvings = reductionSteps(precision);
+        MathContext work = new MathContext(precision + 2 * GUARD_DIGITS + magnitude + (int) (halvings * 0.302));
+
+        BigDecimal twoPi = pi(work).multiply(TWO);
+        BigDecimal turns = x.divide(twoPi, work).setScale(0, RoundingMode.HALF_EVEN);
+        BigDecimal reduced = x.subtract(twoPi.multiply(turns), work);
+
+        BigDecimal t = reduced.divide(TWO.pow(halvings), work);
+        BigDecimal sin = t.multiply(sumSeries(t, work, SeriesKind.SIN_OVER_X), work);
+        BigDecimal cos = sumSeries(t, work, SeriesKind.COS);
+        for (int i = 0; i < halvings; i++) {
+            BigDecimal doubledSin = TWO.multiply(sin).multiply(cos, work);
+            cos = cos.multiply(cos).subtract(sin.multiply(sin), work);
+            sin = doubledSin;
+        }
+        return new BigDecimal[] {sin.round(mc), cos.round(mc)};
+    }
+
+    /**
+     * Calculates the arctangent of x.
+     *
+     * @param x The input value
+     * @param mc The precision
+     * @return The arctangent in radians
+     */
+    public static BigDecimal atan(BigDecimal x, MathContext mc) {
+        int precision = precision(mc);
+        if (x.signum() == 0) {
+            return BigDecimal.ZERO;
+        }
+        MathContext work = new MathContext(precision + GUARD_DIGITS);
+        if (x.abs().compareTo(BigDecimal.ONE) > 0) {
+            // atan(x) = ±π/2 - atan(1/x)
+            BigDecimal halfPi = pi(work).divide(TWO, work);
+            BigDecimal inverse = atan(BigDecimal.ONE.divide(x, work), work);
+            return (x.signum() > 0 ? halfPi : halfPi.negate()).subtract(inverse, mc);
+        }
+        // atan(x) = 2 atan(x / (1 + sqrt(1 + x^2))), applied until the series converges quickly
+        int halvings = 4;
+        BigDecimal reduced = x;
+        for (int i = 0; i < halvings; i++) {
+            BigDecimal root = BigDecimal.ONE.add(reduced.multiply(reduced), work).sqrt(work);
+            reduced = reduced.divide(BigDecimal.ONE.add(root), work);
+        }
+        BigDecimal result = reduced.multiply(sumSeries(reduced, work, SeriesKind.ATAN_OVER_X), work);
+        return result.multiply(BigDecimal.valueOf(1 << halvings)).round(mc);
+    }
+
+    /**
+     * Calculates the arcsine of x.
+     *
+     * @param x The input value in [-1, 1]
+     * @param mc The precision
+     * @return The arcsine in radians
+     * @throws ArithmeticException if x is outside [-1, 1]
+     */
+    public static BigDecimal asin(BigDecimal x, MathContext mc) {
+        int precision = precision(mc);
+        int comparison = x.abs().compareTo(BigDecimal.ONE);
+        if (comparison > 0) {
+            throw new ArithmeticException("Arcsine is not defined outside [-1, 1]");
+        }
+        MathContext work = new MathContext(precision + GUARD_DIGITS);
+        if (comparison == 0) {
+            BigDecimal halfPi = pi(work).divide(TWO, work);
+            return (x.signum() > 0 ? halfPi : halfPi.negate()).round(mc);
+        }
+        BigDecimal cos = BigDecimal.ONE.subtract(x.multiply(x), work).sqrt(work);
+        return atan(x.divide(cos, work), mc);
+    }
+
+    /**
+     * Calculates the arccosine of x.
+     *
+     * @param x The input value in [-1, 1]
+     * @param mc The precision
+     * @return The arccosine in radians
+     * @throws ArithmeticException if x is outside [-1, 1]
+     */
+    public static BigDecimal acos(BigDecimal x, MathContext mc) {
+        MathContext work = new MathContext(precision(mc) + GUARD_DIGITS);
+        return pi(work).divide(TWO, work).subtract(asin(x, work), mc);
+    }
+
+    /**
+     * The series summed by {@link #sumSeries}, each written as 1 + sum over n of the
+     * product for i = 1..n of a(i) / b(i), for an argument p / q.
+     */
+    private enum SeriesKind {
+        /** e^x: a(i) = p, b(i) = q i. */
+        EXP,
+        /** sin(x) / x: a(i) = -p^2, b(i) = q^2 (2i)(2i + 1). */
+        SIN_OVER_X,
+        /** cos(x): a(i) = -p^2, b(i) = q^2 (2i - 1)(2i). */
+        COS,
+        /** atan(x) / x: a(i) = -p^2 (2i - 1), b(i) = q^2 (2i + 1). */
+        ATAN_OVER_X
+    }
+
+    /**
+     * Sums a series by binary splitting when the argument has few digits, and otherwise term
+     * by term at the working precision. Binary splitting works on the exact digits of p and q,
+     * so for a full-precision argument its products grow far beyond the working precision;
+     * the callers reduce the argument so that the plain sum converges in a few dozen terms.
+     */
+    private static BigDecimal sumSeries(BigDecimal x, MathContext mc, SeriesKind kind) {
+        if (x.signum() == 0) {
+            return BigDecimal.ONE;
+        }
+        if (x.precision() * SHORT_ARGUMENT_RATIO > mc.getPrecision()) {
+            return taylorSeries(x, mc, kind);
+        }
+        BigInteger p;
+        BigInteger q;
+        if (x.scale() > 0) {
+            p = x.unscaledValue();
+            q = BigInteger.TEN.pow(x.scale());
+        } else {
+            p = x.toBigIntegerExact();
+            q = BigInteger.ONE;
+        }
+        BigInteger numerator = kind == SeriesKind.EXP ? p : p.multiply(p).negate();
+        BigInteger denominator = kind == SeriesKind.EXP ? q : q.multiply(q);
+
+        long terms = termCount(x.doubleValue(), mc.getPrecision(), kind);
+        BigInteger[] pqt = split(kind, numerator, denominator, 1, terms + 1);
+        return BigDecimal.ONE.add(new BigDecimal(pqt[2]).divide(new BigDecimal(pqt[1]), mc), mc);
+    }
+
+    /**
+     * Sums a series term by term, each term costing one multiplication and a division by a
+     * small integer at the working precision.
+     */
+    private static BigDecimal taylorSeries(BigDecimal x, MathContext mc, SeriesKind kind) {
+        BigDecimal ratio = kind == SeriesKind.EXP ? x : x.multiply(x, mc).negate();
+        // Every series sums to about 1, so terms below 10^-(digits + 1) no longer matter
+        int limit = -mc.getPrecision() - 1;
+        BigDecimal sum = BigDecimal.ONE;
+        BigDecimal power = BigDecimal.ONE;
+        for (long n = 1; ; n++) {
+            power = power.multiply(ratio, mc);
+            BigDecimal term;
+            switch (kind) {
+                case EXP:
+                    power = power.divide(BigDecimal.valueOf(n), mc);
+                    term = power;
+                    break;
+                case SIN_OVER_X:
+                    power = power.divide(BigDecimal.valueOf(2 * n * (2 * n + 1)), mc);
+                    term = power;
+                    break;
+                case COS:
+                    power = power.divide(BigDecimal.valueOf((2 * n - 1) * (2 * n)), mc);
+                    term = power;
+                    break;
+                default:
+                    term = power.divide(BigDecimal.valueOf(2 * n + 1), mc);
+                    break;
+            }
+            if (term.signum() == 0 || term.precision() - term.scale() < limit) {
+                return sum;
+            }
+            sum = sum.add(term, mc);
+        }
+    }
+
+    /**
+     * Number of series terms needed for the remainder to drop below 10^-digits.
+     */
+    private static long termCount(double x, int digits, SeriesKind kind) {
+        double log10X = Math.log10(Math.abs(x));
+        double magnitude = 0;
+        long n = 0;
+        while (magnitude > -digits - 2 || n < 2) {
+            n++;
+            switch (kind) {
+                case EXP:
+                    magnitude += log10X - Math.log10(n);
+                    break;
+                case ATAN_OVER_X:
+                    magnitude += 2 * log10X;
+                    break;
+                default:
+                    magnitude += 2 * log10X - Math.log10(2.0 * n) - Math.log10(2.0 * n + 1);
+                    break;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Binary splitting over terms {@code [low, high)}, returning {P, Q, T} where P and Q are
+     * the products of a(i) and b(i), and T / Q is the partial sum of the series over the range.
+     */
+    private static BigInteger[] split(SeriesKind kind, BigInteger numerator, BigInteger denominator,
+                                      long low, long high) {
+        if (high - low == 1) {
+            BigInteger a = numerator;
+            BigInteger b = denominator;
+            switch (kind) {
+                case EXP:
+                    b = b.multiply(BigInteger.valueOf(low));
+                    break;
+                case SIN_OVER_X:
+                    b = b.multiply(BigInteger.valueOf(2 * low).multiply(BigInteger.valueOf(2 * low + 1)));
+                    break;
+                case COS:
+                    b = b.multiply(BigInteger.valueOf(2 * low - 1).multiply(BigInteger.valueOf(2 * low)));
+                    break;
+                default:
+                    a = a.multiply(BigInteger.valueOf(2 * low - 1));
+                    b = b.multiply(BigInteger.valueOf(2 * low + 1));
+                    break;
+            }
+            return new BigInteger[] {a, b, a};
+        }
+        long middle = (low + high) >>> 1;
+        BigInteger[] left = split(kind, numerator, denominator, low, middle);
+        BigInteger[] right = split(kind, numerator, denominator, middle, high);
+        return new BigInteger[] {
+            left[0].multiply(right[0]),
+            left[1].multiply(right[1]),
+            left[2].multiply(right[1]).add(left[0].multiply(right[2]))
+        };
+    }
+
+    /**
+     * Number of argument halvings before summing a series. Each halving costs one
+     * multiplication and saves terms in proportion to the precision, so the balance lies
+     * near the square root of the number of digits.
+     */
+    private static int reductionSteps(int precision) {
+        return Math.max(8, (int) Math.sqrt(precision));
+    }
+
+    private static boolean isInteger(BigDecimal value) {
+        return value.signum() == 0 || value.stripTrailingZeros().scale() <= 0;
+    }
+
+    private static int precision(MathContext mc) {
+        if (mc.getPrecision() <= 0) {
+            throw new IllegalArgumentException("Precision must be positive");
+        }
+        return mc.getPrecision();
+    }
+}
@@ -0,0 +1,96 @@
+package com.calculator.core;
+
+import com.calculator.units.Dimension;
+import com.calculator.units.Quantity;
+import java.util.Map;
+
+/**
+ * An expression with units whose dimensions were checked when it was compiled.
+ * The underlying program computes the result in coherent base units as a plain double;
+ * evaluation then applies one precomputed affine conversion to the display unit.
+ * The exception is a lone temperature on an offset scale, such as {@code 20 C to F}: the
+ * program yields it in the scale it was written in, and the registry's exactly rounded pair
+ * converts it, so no round trip through kelvin leaves an error in the result.
+ */
+public final class QuantityExpression {
+
+    private final CompiledExpression expression;
+    private final Dimension dimension;
+    private final String unit;
+    private final double factor;
+    private final double offset;
+    private final double scale;
+    private final double shift;
+
+    QuantityExpression(CompiledExpression expression, Dimension dimension, String unit, double factor, double offset) {
+        this(expression, dimension, unit, factor, offset, 1, 0);
+    }
+
+    QuantityExpression(CompiledExpression expression, Dimension dimension, String unit, double factor, double offset,
+                       double scale, double shift) {
+        this.expression = expression;
+        this.dimension = dimension;
+        this.unit = unit;
+        this.factor = factor;
+        this.offset = offset;
+        this.scale = scale;
+        this.shift = shift;
+    }
+
+    /**
+     * Evaluates the expression with variables bound by name.
+     *
+     * @param variables The variable values
+     * @return The result in {@link #getUnit()}
+     * @throws IllegalArgumentException if a referenced variable has no value
+     */
+    public double evaluate(Map<String, Double> variables) {
+        return Math.fma((expression.evaluate(variables) - offset) / factor, scale, shift);
+    }
+
+    /**
+     * Evaluates the expression and pairs the result with its unit.
+     *
+     * @param variables The variable values
+     * @return The result as a quantity
+     * @throws IllegalArgumentException if a referenced variable has no value
+     */
+    public Quantity evaluateQuantity(Map<String, Double> variables) {
+        return new Quantity(evaluate(variables), unit, dimension);
+    }
+
+    /**
+     * Returns the dimension of the result.
+     *
+     * @return The dimension
+     */
+    public Dimension getDimension() {
+        return dimension;
+    }
+
+    /**
+     * Returns the unit the result is expressed in: the target given after {@code to} or {@code in},
+     * otherwise the first unit in the expression if it has the right dimension, otherwise a
+     * coherent unit. Empty for pure numbers.
+     *
+     * @return The unit label
+     */
+    public String getUnit() {
+        return unit;
+    }
+
+    /**
+     * Returns the compiled program, which computes the result in coherent base units, or in
+     * the written scale for a temperature on an offset scale.
+     *
+     * @return The compiled expression
+     */
+    public CompiledExpression getCompiledExpression() {
+        return expression;
+    }
+
+    @Override
+    public String toString() {
+        return expression.getSource();
+    }
+}
@@ -0,0 +1,50 @@
+package com.calculator.core;
+
+/**
+ * Plain loop implementation of the batch kernels. HotSpot auto-vectorizes
+ * most of these loops, so this is also a reasonable fallback.
+ */
+final class ScalarBatchKernels implements BatchKernels {
+
+    @Override
+    public void add(double[] a, double[] b, int length) {
+        for (int i = 0; i < length; i++) {
+            a[i] += b[i];
+        }
+    }
+
+    @Override
+    public void subtract(double[] a, double[] b, int length) {
+        for (int i = 0; i < length; i++) {
+            a[i] -= b[i];
+        }
+    }
+
+    @Override
+    public void multiply(double[] a, double[] b, int length) {
+        for (int i = 0; i < length; i++) {
+            a[i] *= b[i];
+        }
+    }
+
+    @Override
+    public void divide(double[] a, double[] b, int length) {
+        for (int i = 0; i < length; i++) {
+            a[i] = Opcodes.divide(a[i], b[i]);
+        }
+    }
+
+    @Override
+    public void negate(double[] a, int length) {
+        for (int i = 0; i < length; i++) {
+            a[i] = -a[i];
+        }
+    }
+
+    @Override
+    public void sqrt(double[] a, int length) {
+        for (int i = 0; i < length; i++) {
+            a[i] = Math.sqrt(a[i]);
+        }
+    }
+}
@@ -0,0 +1,562 @@
+package com.calculator.core;
+
+/**
+ * Factorial, Gamma, combinatorics, error function and summary statistics kernels for double
+ * arguments. These back the corresponding functions in compiled expressions.
+ * <p>
+ * Integer arguments are answered from tables computed once at class initialization: n! is
+ * stored correctly rounded for every n from 0 to 170 (171! overflows a double) along with
+ * its natural logarithm. Other arguments use the Lanczos approximation (g = 7, 9 terms),
+ * accurate to about 1e-15 relative error, and the Stirling series for ln Γ(x) with x &ge; 10,
+ * accurate to about 1e-16 relative error. Near its zeros at 1 and 2, ln Γ(x) would lose
+ * its relative accuracy to cancellation in the Lanczos form, so it is taken from the Taylor
+ * series about 2 there instead. Negative arguments are reflected through
+ * Γ(x)Γ(1-x) = π / sin(πx).
+ * <p>
+ * The error function uses its Taylor series near zero and a continued fraction for erfc in the
+ * tails, both accurate to about 1e-14 relative error. Statistics over argument lists use
+ * compensated summation and the corrected two-pass variance. None of the methods allocate.
+ */
+public final class SpecialFunctions {
+
+    /** Largest n for which n! is finite as a double. */
+    public static final int MAX_FACTORIAL = 170;
+
+    // Γ(x) overflows a double above this argument
+    private static final double GAMMA_OVERFLOW = 171.61447887182298;
+    private static final double STIRLING_THRESHOLD = 10.0;
+
+    private static final double ERF_SERIES_LIMIT = 2.0;
+    // Below this erfc is at least 0.15, so computing it as 1 - erf loses no significant digits
+    private static final double ERFC_SERIES_LIMIT = 1.0;
+    private static final double TWO_OVER_SQRT_PI = 2 / Math.sqrt(Math.PI);
+    // Every integer below 2^53 is exactly representable; table quotients carry at most a few
+    // ulps of error, so rounding them to the nearest integer is exact below 2^49
+    private static final double EXACT_INTEGER_LIMIT = 0x1p53;
+    private static final double ROUNDING_LIMIT = 0x1p49;
+    // Up to this many factors, a direct product is more accurate than going through ln Γ
+    private static final int DIRECT_PRODUCT_LIMIT = 64;
+
+    private static final double HALF_LOG_TWO_PI = 0.5 * Math.log(2 * Math.PI);
+    private static final double SQRT_TWO_PI = Math.sqrt(2 * Math.PI);
+
+    private static final double LANCZOS_G = 7.0;
+    private static final double[] LANCZOS = {
+        0.99999999999980993, 676.5203681218851, -1259.1392167224028,
+        771.32342877765313, -176.61502916214059, 12.507343278686905,
+        -0.13857109526572012, 9.9843695780195716e-6, 1.5056327351493116e-7
+    };
+
+    // ln Γ(2+ε) = (1-γ)ε + Σ (-1)^k (ζ(k)-1)/k ε^k; the terms shrink like (ε/2)^k, so twenty
+    // of them reach full double precision for |ε| &le; 0.25
+    private static final double SERIES_RADIUS = 0.25;
+    private static final double ONE_MINUS_EULER_GAMMA = 0.42278433509846713939;
+    private static final double[] ZETA_MINUS_ONE = {
+        6.44934066848226406e-01, 2.02056903159594292e-01, 8.23232337111381857e-02,
+        3.69277551433699266e-02, 1.73430619844491402e-02, 8.34927738192282713e-03,
+        4.07735619794433960e-03, 2.00839282608221426e-03, 9.94575127818085256e-04,
+        4.94188604119464529e-04, 2.46086553308048320e-04, 1.22713347578489145e-04,
+        6.12481350587048277e-05, 3.05882363070204933e-05, 1.52822594086518710e-05,
+        7.63719763789976257e-06, 3.81729326499984022e-06, 1.90821271655393897e-06,
+        9.53962033872796212e-07, 4.76932986787806447e-07
+    };
+    private static final double[] LN_GAMMA_SERIES = new double[ZETA_MINUS_ONE.length];
+
+    private static final double[] FACTORIALS = new double[MAX_FACTORIAL + 1];
+    private static final double[] LOG_FACTORIALS = new double[MAX_FACTORIAL + 1];
+
+    static {
+        for (int n = 0; n <= MAX_FACTORIAL; n++) {
+            // Rounding the exact value once avoids the error a running double product accumulates
+            FACTORIALS[n] = PrecisionMath.factorial(n).doubleValue();
+            LOG_FACTORIALS[n] = Math.log(FACTORIALS[n]);
+        }
+        for (int i = 0; i < ZETA_MINUS_ONE.length; i++) {
+            int k = i + 2;
+            LN_GAMMA_SERIES[i] = (k % 2 == 0 ? 1 : -1) * ZETA_MINUS_ONE[i] / k;
+        }
+    }
+
+    private SpecialFunctions() {
+    }
+
+    /**
+     * Calculates the factorial of a number, using the Gamma function for non-integers.
+     *
+     * @param n The number to calculate factorial for
+     * @return n!, or positive infinity if it exceeds the double range
+     * @throws IllegalArgumentException if n is negative
+     */
+    public static double factorial(double n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Factorial is not defined for negative numbers");
+        }
+        if (n == Math.floor(n)) {
+            return n <= MAX_FACTORIAL ? FACTORIALS[(int) n] : Double.POSITIVE_INFINITY;
+        }
+        return gamma(n + 1);
+    }
+
+    /**
+     * Calculates the natural logarithm of n!, which stays finite long after n! overflows.
+     *
+     * @param n The number to calculate the log-factorial for
+     * @return ln(n!)
+     * @throws IllegalArgumentException if n is negative
+     */
+    public static double logFactorial(double n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Factorial is not defined for negative numbers");
+        }
+        if (n <= MAX_FACTORIAL && n == Math.floor(n)) {
+            return LOG_FACTORIALS[(int) n];
+        }
+        return lnGamma(n + 1);
+    }
+
+    /**
+     * Calculates the Gamma function.
+     *
+     * @param x The input value
+     * @return Γ(x), or NaN at the poles 0, -1, -2, ...
+     */
+    public static double gamma(double x) {
+        if (x == Math.floor(x)) {
+            if (x <= 0) {
+                return Double.NaN;
+            }
+            return x <= MAX_FACTORIAL + 1 ? FACTORIALS[(int) x - 1] : Double.POSITIVE_INFINITY;
+        }
+        if (x < 0.5) {
+            return Math.PI / (Math.sin(Math.PI * x) * gamma(1 - x));
+        }
+        if (x > GAMMA_OVERFLOW) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double z = x - 1;
+        double t = z + LANCZOS_G + 0.5;
+        // Split the power so that t^(z+0.5) does not overflow before e^-t brings it back
+        double halfPower = Math.pow(t, 0.5 * (z + 0.5));
+        return SQRT_TWO_PI * halfPower * (halfPower * Math.exp(-t)) * lanczosSum(z);
+    }
+
+    /**
+     * Calculates the natural logarithm of the absolute value of the Gamma function.
+     *
+     * @param x The input value
+     * @return ln|Γ(x)|, or positive infinity at the poles 0, -1, -2, ...
+     */
+    public static double lnGamma(double x) {
+        if (Double.isNaN(x)) {
+            return x;
+        }
+        if (x == Math.floor(x)) {
+            if (x <= 0) {
+                return Double.POSITIVE_INFINITY;
+            }
+            if (x <= MAX_FACTORIAL + 1) {
+                return LOG_FACTORIALS[(int) x - 1];
+            }
+        }
+        if (x < 0.5) {
+            return Math.log(Math.PI / Math.abs(Math.sin(Math.PI * x))) - lnGamma(1 - x);
+        }
+        if (x >= STIRLING_THRESHOLD) {
+            return stirling(x);
+        }
+        if (Math.abs(x - 2) <= SERIES_RADIUS) {
+            return lnGammaSeries(x - 2);
+        }
+        if (Math.abs(x - 1) <= SERIES_RADIUS) {
+            // Γ(1+ε) = Γ(2+ε) / (1+ε)
+            double epsilon = x - 1;
+            return lnGammaSeries(epsilon) - Math.log1p(epsilon);
+        }
+        double z = x - 1;
+        double t = z + LANCZOS_G + 0.5;
+        return HALF_LOG_TWO_PI + (z + 0.5) * Math.log(t) - t + Math.log(lanczosSum(z));
+    }
+
+    /**
+     * Calculates the number of combinations of k items chosen from n.
+     * For integer arguments, results below 2^53 are exact and larger ones are rounded to integers.
+     * Large arguments keep close to full relative accuracy.
+     *
+     * @param n The number of items
+     * @param k The number of items chosen
+     * @return n! / (k! (n-k)!), 0 if k exceeds n, or NaN for negative arguments
+     */
+    public static double nCr(double n, double k) {
+        if (n < 0 || k < 0 || Double.isNaN(n) || Double.isNaN(k)) {
+            return Double.NaN;
+        }
+        if (isInteger(n) && isInteger(k)) {
+            if (k > n) {
+                return 0;
+            }
+            if (n <= MAX_FACTORIAL) {
+                double estimate = FACTORIALS[(int) n] / FACTORIALS[(int) k] / FACTORIALS[(int) (n - k)];
+                return estimate < ROUNDING_LIMIT ? Math.rint(estimate) : exactCombinations((long) n, (long) k, estimate);
+            }
+            long exact = n < EXACT_INTEGER_LIMIT ? combinations((long) n, (long) k) : -1;
+            return exact >= 0 ? exact : Math.rint(combinationsEstimate(n, Math.min(k, n - k)));
+        }
+        double smaller = Math.min(k, n - k);
+        if (smaller < 0) {
+            // Γ(n-k+1) is negative or infinite here; keep the magnitude as before
+            return Math.exp(lnGamma(n + 1) - lnGamma(k + 1) - lnGamma(n - k + 1));
+        }
+        return combinationsEstimate(n, smaller);
+    }
+
+    /**
+     * Calculates the number of ordered arrangements of k items chosen from n.
+     * For integer arguments, results below 2^53 are exact and larger ones are rounded to integers.
+     * Large arguments keep close to full relative accuracy.
+     *
+     * @param n The number of items
+     * @param k The number of items chosen
+     * @return n! / (n-k)!, 0 if k exceeds n, or NaN for negative arguments
+     */
+    public static double nPr(double n, double k) {
+        if (n < 0 || k < 0 || Double.isNaN(n) || Double.isNaN(k)) {
+            return Double.NaN;
+        }
+        if (isInteger(n) && isInteger(k)) {
+            if (k > n) {
+                return 0;
+            }
+            if (n <= MAX_FACTORIAL) {
+                double estimate = FACTORIALS[(int) n] / FACTORIALS[(int) (n - k)];
+                return estimate < ROUNDING_LIMIT ? Math.rint(estimate) : exactPermutations((long) n, (long) k, estimate);
+            }
+            long exact = n < EXACT_INTEGER_LIMIT ? permutations((long) n, (long) k) : -1;
+            return exact >= 0 ? exact : Math.rint(permutationsEstimate(n, k));
+        }
+        if (isInteger(k) && k <= DIRECT_PRODUCT_LIMIT) {
+            return permutationsProduct(n, k);
+        }
+        if (n - k + 1 <= 0) {
+            return Math.exp(lnGamma(n + 1) - lnGamma(n - k + 1));
+        }
+        return Math.exp(lnGammaRatio(n - k + 1, k));
+    }
+
+    /**
+     * Calculates the error function.
+     *
+     * @param x The input value
+     * @return erf(x)
+     */
+    public static double erf(double x) {
+        double magnitude = Math.abs(x);
+        if (magnitude < ERF_SERIES_LIMIT) {
+            return erfSeries(x);
+        }
+        double result = 1 - erfcContinuedFraction(magnitude);
+        return x < 0 ? -result : result;
+    }
+
+    /**
+     * Calculates the complementary error function 1 - erf(x) without cancellation for large x.
+     *
+     * @param x The input value
+     * @return erfc(x)
+     */
+    public static double erfc(double x) {
+        if (Double.isNaN(x)) {
+            return x;
+        }
+        if (Math.abs(x) < ERFC_SERIES_LIMIT) {
+            return 1 - erfSeries(x);
+        }
+        double tail = erfcContinuedFraction(Math.abs(x));
+        return x < 0 ? 2 - tail : tail;
+    }
+
+    /**
+     * Sums values with Neumaier's compensated summation, so that the result does not depend
+     * on cancellation between large and small terms.
+     *
+     * @param values The array holding the values
+     * @param from The index of the first value
+     * @param count The number of values
+     * @return The sum
+     */
+    public static double sum(double[] values, int from, int count) {
+        double sum = 0;
+        double compensation = 0;
+        for (int i = from; i < from + count; i++) {
+            double value = values[i];
+            double t = sum + value;
+            if (Math.abs(sum) >= Math.abs(value)) {
+                compensation += (sum - t) + value;
+            } else {
+                compensation += (value - t) + sum;
+            }
+            sum = t;
+        }
+        return sum + compensation;
+    }
+
+    /**
+     * Calculates the arithmetic mean of values.
+     *
+     * @param values The array holding the values
+     * @param from The index of the first value
+     * @param count The number of values
+     * @return The mean
+     */
+    public static double mean(double[] values, int from, int count) {
+        return sum(values, from, count) / count;
+    }
+
+    /**
+     * Calculates the sample variance of values with the corrected two-pass algorithm, which
+     * stays accurate when the mean is large compared to the spread.
+     *
+     * @param values The array holding the values
+     * @param from The index of the first value
+     * @param count The number of values
+     * @return The sample variance, or NaN for fewer than two values
+     */
+    public static double variance(double[] values, int from, int count) {
+        if (count < 2) {
+            return Double.NaN;
+        }
+        double mean = mean(values, from, count);
+        double squares = 0;
+        double deviations = 0;
+        for (int i = from; i < from + count; i++) {
+            double deviation = values[i] - mean;
+            squares += deviation * deviation;
+            deviations += deviation;
+        }
+        return (squares - deviations * deviations / count) / (count - 1);
+    }
+
+    /**
+     * Returns the smallest of values, or NaN if any value is NaN.
+     *
+     * @param values The array holding the values
+     * @param from The index of the first value
+     * @param count The number of values
+     * @return The minimum
+     */
+    public static double min(double[] values, int from, int count) {
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = from; i < from + count; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    /**
+     * Returns the largest of values, or NaN if any value is NaN.
+     *
+     * @param values The array holding the values
+     * @param from The index of the first value
+     * @param count The number of values
+     * @return The maximum
+     */
+    public static double max(double[] values, int from, int count) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = from; i < from + count; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    /**
+     * Maclaurin series of erf, summed until the terms no longer change the result.
+     */
+    private static double erfSeries(double x) {
+        double xSquared = x * x;
+        double term = x;
+        double sum = x;
+        for (int n = 1; n < 100; n++) {
+            term *= -xSquared / n;
+            double contribution = term / (2 * n + 1);
+            sum += contribution;
+            if (Math.abs(contribution) <= 1e-17 * Math.abs(sum)) {
+                break;
+            }
+        }
+        return TWO_OVER_SQRT_PI * sum;
+    }
+
+    /**
+     * Continued fraction erfc(x) = e^(-x²)/√π · 1/(x + (1/2)/(x + 1/(x + (3/2)/(x + ...)))) for x &ge; 1,
+     * evaluated with the modified Lentz method.
+     */
+    private static double erfcContinuedFraction(double x) {
+        double tiny = 1e-300;
+        double f = x;
+        double c = x;
+        double d = 0;
+        for (int k = 1; k < 500; k++) {
+            double a = 0.5 * k;
+            d = x + a * d;
+            d = d == 0 ? tiny : d;
+            c = x + a / c;
+            c = c == 0 ? tiny : c;
+            d = 1 / d;
+            double delta = c * d;
+            f *= delta;
+            if (Math.abs(delta - 1) < 1e-16) {
+                break;
+            }
+        }
+        return Math.exp(-x * x) / (f * Math.sqrt(Math.PI));
+    }
+
+    private static boolean isInteger(double x) {
+        return x == Math.floor(x) && !Double.isInfinite(x);
+    }
+
+    /**
+     * Recomputes a large binomial coefficient in exact integer arithmetic when it is still
+     * representable. Each partial product C(n-k+j, j) is at most the result, so the long
+     * intermediate stays below 2^53 · 170.
+     */
+    private static double exactCombinations(long n, long k, double estimate) {
+        long exact = estimate > EXACT_INTEGER_LIMIT ? -1 : combinations(n, k);
+        return exact >= 0 ? exact : estimate;
+    }
+
+    /**
+     * Recomputes a large permutation count as an exact product when it is still representable.
+     */
+    private static double exactPermutations(long n, long k, double estimate) {
+        long exact = estimate > EXACT_INTEGER_LIMIT ? -1 : permutations(n, k);
+        return exact >= 0 ? exact : estimate;
+    }
+
+    /**
+     * Approximates C(n, m) for m = min(k, n-k) &ge; 0 without subtracting large, nearly equal
+     * logarithms: as a product of m factors when m is a small integer; through
+     * {@link #lnGammaRatio} when m is small, so that ln Γ(m+1) is too; and otherwise from
+     * Stirling's series for all three factorials with the leading terms combined into
+     * m ln(n/m) + (n-m) ln(n/(n-m)), which are both positive.
+     */
+    private static double combinationsEstimate(double n, double m) {
+        if (isInteger(m) && m <= DIRECT_PRODUCT_LIMIT) {
+            double result = 1;
+            for (int j = 1; j <= m; j++) {
+                result = result * (n - m + j) / j;
+            }
+            return result;
+        }
+        if (m < STIRLING_THRESHOLD) {
+            return Math.exp(lnGammaRatio(n - m + 1, m) - lnGamma(m + 1));
+        }
+        double rest = n - m;
+        double fraction = m / n;
+        return Math.exp(-m * Math.log(fraction) - rest * Math.log1p(-fraction) + 0.5 * Math.log(n / m / rest)
+                - HALF_LOG_TWO_PI + stirlingSeries(n) - stirlingSeries(m) - stirlingSeries(rest));
+    }
+
+    private static double permutationsEstimate(double n, double k) {
+        return k <= DIRECT_PRODUCT_LIMIT ? permutationsProduct(n, k) : Math.exp(lnGammaRatio(n - k + 1, k));
+    }
+
+    /**
+     * The falling factorial n (n-1) ... (n-k+1) for a small integer k.
+     */
+    private static double permutationsProduct(double n, double k) {
+        double result = 1;
+        for (int i = 0; i < k; i++) {
+            result *= n - i;
+        }
+        return result;
+    }
+
+    /**
+     * Calculates ln Γ(y+d) - ln Γ(y) for y &gt; 0 and d &ge; 0. For large y the Stirling forms
+     * are subtracted analytically, leaving (y - 1/2) ln(1 + d/y) + d (ln(y+d) - 1) and the
+     * difference of the small correction series, so no digits are lost when both logarithms
+     * are huge and nearly equal.
+     */
+    private static double lnGammaRatio(double y, double d) {
+        if (y < STIRLING_THRESHOLD) {
+            return lnGamma(y + d) - lnGamma(y);
+        }
+        double x = y + d;
+        return (y - 0.5) * Math.log1p(d / y) + d * (Math.log(x) - 1) + stirlingSeries(x) - stirlingSeries(y);
+    }
+
+    /**
+     * Computes C(n, k) as a product of min(k, n-k) factors, dividing as it goes so that every
+     * partial result is itself a binomial coefficient. Returns -1 once the result reaches 2^53,
+     * where it is no longer exact as a double; the partial results grow, so this takes few steps.
+     */
+    private static long combinations(long n, long k) {
+        long chosen = Math.min(k, n - k);
+        long result = 1;
+        for (long j = 1; j <= chosen; j++) {
+            long factor = n - chosen + j;
+            if (result > Long.MAX_VALUE / factor) {
+                return -1;
+            }
+            result = result * factor / j;
+            if (result >= EXACT_INTEGER_LIMIT) {
+                return -1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes n! / (n-k)! as a product of k factors, or returns -1 once it reaches 2^53.
+     */
+    private static long permutations(long n, long k) {
+        long result = 1;
+        for (long i = n - k + 1; i <= n; i++) {
+            if (result > Long.MAX_VALUE / i) {
+                return -1;
+            }
+            result *= i;
+            if (result >= EXACT_INTEGER_LIMIT) {
+                return -1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Taylor series for ln Γ(2+ε), which keeps full relative accuracy as ε approaches zero.
+     */
+    private static double lnGammaSeries(double epsilon) {
+        double sum = LN_GAMMA_SERIES[LN_GAMMA_SERIES.length - 1];
+        for (int i = LN_GAMMA_SERIES.length - 2; i >= 0; i--) {
+            sum = sum * epsilon + LN_GAMMA_SERIES[i];
+        }
+        return epsilon * (ONE_MINUS_EULER_GAMMA + epsilon * sum);
+    }
+
+    private static double lanczosSum(double z) {
+        double sum = LANCZOS[0];
+        for (int i = 1; i < LANCZOS.length; i++) {
+            sum += LANCZOS[i] / (z + i);
+        }
+        return sum;
+    }
+
+    /**
+     * Stirling's series for ln Γ(x), truncated after the x^-11 term.
+     */
+    private static double stirling(double x) {
+        return (x - 0.5) * Math.log(x) - x + HALF_LOG_TWO_PI + stirlingSeries(x);
+    }
+
+    /**
+     * The correction terms of Stirling's series, 1/(12x) - 1/(360x^3) + ...
+     */
+    private static double stirlingSeries(double x) {
+        double inverse = 1 / x;
+        double inverseSquared = inverse * inverse;
+        return inverse * (1.0 / 12 - inverseSquared * (1.0 / 360
+                - inverseSquared * (1.0 / 1260 - inverseSquared * (1.0 / 1680
+                - inverseSquared * (1.0 / 1188 - inverseSquared * 691.0 / 360360)))));
+    }
+}
@@ -0,0 +1,90 @@
+package com.calculator.core;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Batch kernels using the incubating JDK Vector API. Only loaded by
+ * {@link BatchKernels#create()} when the module is available at runtime.
+ */
+final class VectorBatchKernels implements BatchKernels {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public void add(double[] a, double[] b, int length) {
+        int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, a, i).add(DoubleVector.fromArray(SPECIES, b, i)).intoArray(a, i);
+        }
+        for (; i < length; i++) {
+            a[i] += b[i];
+        }
+    }
+
+    @Override
+    public void subtract(double[] a, double[] b, int length) {
+        int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, a, i).sub(DoubleVector.fromArray(SPECIES, b, i)).intoArray(a, i);
+        }
+        for (; i < length; i++) {
+            a[i] -= b[i];
+        }
+    }
+
+    @Override
+    public void multiply(double[] a, double[] b, int length) {
+        int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, a, i).mul(DoubleVector.fromArray(SPECIES, b, i)).intoArray(a, i);
+        }
+        for (; i < length; i++) {
+            a[i] *= b[i];
+        }
+    }
+
+    @Override
+    public void divide(double[] a, double[] b, int length) {
+        int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector divisor = DoubleVector.fromArray(SPECIES, b, i);
+            if (divisor.eq(0.0).anyTrue()) {
+                throw new ArithmeticException("Division by zero!");
+            }
+            DoubleVector.fromArray(SPECIES, a, i).div(divisor).intoArray(a, i);
+        }
+        for (; i < length; i++) {
+            a[i] = Opcodes.divide(a[i], b[i]);
+        }
+    }
+
+    @Override
+    public void negate(double[] a, int length) {
+        int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, a, i).neg().intoArray(a, i);
+        }
+        for (; i < length; i++) {
+            a[i] = -a[i];
+        }
+    }
+
+    @Override
+    public void sqrt(double[] a, int length) {
+        int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, a, i).lanewise(VectorOperators.SQRT).intoArray(a, i);
+        }
+        for (; i < length; i++) {
+            a[i] = Math.sqrt(a[i]);
+        }
+    }
+}
@@ -1,22 +1,75 @@
 package com.calculator.model;
 
+import java.lang.invoke.VarHandle;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 /**
  * Class to store and manage the calculation history.
+ * Entries are kept in a fixed-capacity circular buffer; adding an entry is O(1) and evicts the
+ * oldest one once the buffer is full. Results are stored as primitive doubles next to the text.
+ * <p>
+ * One thread may add entries while any number of threads read without locking. The writer
+ * fills a slot before publishing it through a volatile sequence number, and a reader checks
+ * that sequence again after copying a slot, retrying if the writer has reused the slot meanwhile.
+ * The check relies on fences on both sides: the writer issues a store-store fence before it
+ * overwrites a slot, so the overwrite is never seen ahead of the sequence number that evicted
+ * the slot's old entry, and the reader issues an acquire fence between copying the slot and
+ * re-reading the sequence number.
+ * Indexes count back from the newest entry, which has index 0.
+ * <p>
+ * A history created with indexing enabled also maintains a {@link HistoryIndex} as entries are
+ * added, for text and result range searches through {@link #search(String, double, double, int)}.
  */
 public class CalculationHistory {
     
-    private static final int MAX_HISTORY_SIZE = 100;
-    private final List<String> entries;
+    /** Default number of entries kept; older ones remain in the persistent store. */
+    public static final int MAX_HISTORY_SIZE = 100;
+    
+    private final int capacity;
+    // One spare slot, so the slot being written never holds an entry readers may still see
+    private final String[] entries;
+    private final double[] results;
+    private final HistoryIndex index;
+    
+    // Sequence number of the next entry; entry n lives in slot n % (capacity + 1)
+    private volatile long head;
+    // Sequence number of the first entry after the last clear
+    private volatile long start;
     
     /**
-     * Constructor initializes an empty history.
+     * Constructor initializes an empty history of the default capacity.
      */
     public CalculationHistory() {
-        entries = new ArrayList<>();
+        this(MAX_HISTORY_SIZE);
+    }
+    
+    /**
+     * Creates an empty history.
+     *
+     * @param capacity The number of entries to keep
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public CalculationHistory(int capacity) {
+        this(capacity, false);
+    }
+    
+    /**
+     * Creates an empty history, optionally maintaining a search index.
+     *
+     * @param capacity The number of entries to keep
+     * @param indexed Whether to index entries for {@link #search(String, double, double, int)}
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public CalculationHistory(int capacity, boolean indexed) {
+        if (capacity <= 0 || capacity == Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid history capacity: " + capacity);
+        }
+        this.capacity = capacity;
+        this.entries = new String[capacity + 1];
+        this.results = new double[capacity + 1];
+        this.index = indexed ? new HistoryIndex() : null;
     }
     
     /**
@@ -25,29 +78,82 @@ public class CalculationHistory {
      * @param entry The calculation entry to add
      */
     public void addEntry(String entry) {
-        // Add the new entry at the beginning of the list
-        entries.add(0, entry);
-        
-        // Trim the history if it exceeds the maximum size
-        if (entries.size() > MAX_HISTORY_SIZE) {
-            entries.remove(entries.size() - 1);
+        addEntry(entry, Double.NaN);
+    }
+    
+    /**
+     * Adds a new entry together with its numeric result. Must only be called from one thread at a time.
+     *
+     * @param entry The calculation entry to add
+     * @param result The result of the calculation
+     */
+    public void addEntry(String entry, double result) {
+        long sequence = head;
+        int slot = slot(sequence);
+        // The slot last held the entry evicted by the previous publish; keep the overwrite from
+        // becoming visible before that publish, or a reader could accept the new value as the old entry
+        VarHandle.storeStoreFence();
+        entries[slot] = entry;
+        results[slot] = result;
+        // Publish the slot
+        head = sequence + 1;
+        if (index != null) {
+            index.add(sequence, entry, result);
+            index.removeBefore(oldest(sequence + 1));
         }
     }
     
     /**
-     * Returns an unmodifiable view of the history entries.
+     * Returns a snapshot of the history entries, newest first.
      *
      * @return The list of history entries
      */
     public List<String> getEntries() {
-        return Collections.unmodifiableList(entries);
+        Cursor cursor = cursor();
+        List<String> snapshot = new ArrayList<>(size());
+        String[] page = new String[256];
+        int count;
+        while ((count = cursor.next(page, null)) > 0) {
+            for (int i = 0; i < count; i++) {
+                snapshot.add(page[i]);
+            }
+        }
+        return Collections.unmodifiableList(snapshot);
     }
     
     /**
      * Clears all entries from the history.
      */
     public void clear() {
-        entries.clear();
+        start = head;
+        if (index != null) {
+            index.removeBefore(start);
+        }
+    }
+    
+    /**
+     * Finds entries containing a text whose result lies in a range.
+     *
+     * @param contains The text to look for, case-insensitive; null or empty matches every entry
+     * @param minResult The smallest result to accept, or negative infinity
+     * @param maxResult The largest result to accept, or positive infinity
+     * @param limit The maximum number of entries to return
+     * @return The matching entries, newest first
+     * @throws IllegalStateException if the history was created without an index
+     */
+    public List<String> search(String contains, double minResult, double maxResult, int limit) {
+        if (index == null) {
+            throw new IllegalStateException("History is not indexed");
+        }
+        List<String> found = new ArrayList<>();
+        for (long sequence : index.search(contains, minResult, maxResult, limit)) {
+            String entry = entries[slot(sequence)];
+            // Skip entries evicted since the index was queried
+            if (stillValid(sequence)) {
+                found.add(entry);
+            }
+        }
+        return found;
     }
     
     /**
@@ -56,7 +162,17 @@ public class CalculationHistory {
      * @return The size of the history
      */
     public int size() {
-        return entries.size();
+        long h = head;
+        return (int) (h - oldest(h));
+    }
+    
+    /**
+     * Returns the number of entries the history keeps before evicting the oldest.
+     *
+     * @return The capacity
+     */
+    public int getCapacity() {
+        return capacity;
     }
     
     /**
@@ -65,7 +181,7 @@ public class CalculationHistory {
      * @return true if the history is empty, false otherwise
      */
     public boolean isEmpty() {
-        return entries.isEmpty();
+        return size() == 0;
     }
     
     /**
@@ -76,9 +192,124 @@ public class CalculationHistory {
      * @throws IndexOutOfBoundsException if the index is out of range
      */
     public String getEntry(int index) {
-        if (index < 0 || index >= entries.size()) {
-            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + entries.size());
+        while (true) {
+            long sequence = sequenceOf(index);
+            String entry = entries[slot(sequence)];
+            if (stillValid(sequence)) {
+                return entry;
+            }
+        }
+    }
+    
+    /**
+     * Gets the numeric result of an entry.
+     *
+     * @param index The index of the entry
+     * @return The result, or NaN if the entry was added without one
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public double getResult(int index) {
+        while (true) {
+            long sequence = sequenceOf(index);
+            double result = results[slot(sequence)];
+            if (stillValid(sequence)) {
+                return result;
+            }
+        }
+    }
+    
+    /**
+     * Returns a cursor that pages through the history from the newest entry towards the oldest.
+     *
+     * @return The cursor
+     */
+    public Cursor cursor() {
+        return new Cursor(head - 1);
+    }
+    
+    /**
+     * Returns a cursor that starts at the entry with the given index.
+     *
+     * @param index The index of the first entry to return
+     * @return The cursor
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public Cursor cursor(int index) {
+        return new Cursor(sequenceOf(index));
+    }
+    
+    private long sequenceOf(int index) {
+        long h = head;
+        int size = (int) (h - oldest(h));
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return h - 1 - index;
+    }
+    
+    private long oldest(long h) {
+        return Math.max(start, h - capacity);
+    }
+    
+    /**
+     * Returns whether the slot of an entry still held it while it was being read.
+     */
+    private boolean stillValid(long sequence) {
+        // Keep the slot reads above from moving below the re-read of the sequence numbers
+        VarHandle.acquireFence();
+        return sequence >= oldest(head);
+    }
+    
+    private int slot(long sequence) {
+        return (int) (sequence % (capacity + 1));
+    }
+    
+    /**
+     * Pages through the history from newer to older entries. A cursor is anchored to an entry
+     * rather than an index, so entries added while paging do not shift the pages; it ends early
+     * if the entries it has not reached yet are evicted.
+     */
+    public final class Cursor {
+        
+        private long next;
+        
+        private Cursor(long next) {
+            this.next = next;
+        }
+        
+        /**
+         * Returns whether more entries remain.
+         *
+         * @return true if {@link #next(String[], double[])} will return at least one entry
+         */
+        public boolean hasNext() {
+            return next >= oldest(head);
+        }
+        
+        /**
+         * Copies the next page of entries, newest first.
+         *
+         * @param entryPage The array receiving the entries; its length is the page size
+         * @param resultPage The array receiving the results, or null
+         * @return The number of entries copied, 0 at the end
+         */
+        public int next(String[] entryPage, double[] resultPage) {
+            int count = 0;
+            while (count < entryPage.length && next >= oldest(head)) {
+                int slot = slot(next);
+                String entry = entries[slot];
+                double result = results[slot];
+                if (!stillValid(next)) {
+                    break;
+                }
+                entryPage[count] = entry;
+                if (resultPage != null) {
+                    resultPage[count] = result;
+                }
+                count++;
+                next--;
+            }
+            return count;
         }
-        return entries.get(index);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,359 @@
+package com.calculator.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Search index over history entries, updated incrementally as entries are added.
+ * <p>
+ * Text is matched as a case-insensitive substring. Every entry is split into overlapping
+ * three-character grams, each with a posting list of the entries containing it; a query
+ * walks the shortest posting list among its own grams and confirms each candidate against
+ * the entry text, which is kept in one shared character array rather than as Strings.
+ * Results are kept sorted by value so a range is found by binary search. New results go to
+ * a small unsorted tail that is sorted and merged in once it reaches an eighth of the sorted
+ * part, which keeps insertion amortized constant time.
+ * <p>
+ * Entries are identified by the sequence numbers of {@link CalculationHistory}. Evicted
+ * entries are dropped with {@link #removeBefore(long)} and the index is compacted once most of
+ * it is dead. All methods are synchronized.
+ */
+public final class HistoryIndex {
+
+    private static final int GRAM = 3;
+    private static final int MIN_TAIL = 1024;
+
+    // Documents in the order they were added; documents below firstLive have been removed
+    private long[] sequences = new long[1024];
+    private double[] results = new double[1024];
+    private int[] textStarts = new int[1025];
+    private char[] text = new char[16384];
+    private int documentCount;
+    private int firstLive;
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    // Results in ascending order, plus an unsorted tail of recent ones
+    private double[] sortedValues = new double[0];
+    private int[] sortedDocuments = new int[0];
+    private double[] tailValues = new double[MIN_TAIL];
+    private int[] tailDocuments = new int[MIN_TAIL];
+    private int tailSize;
+
+    /**
+     * Indexes an entry.
+     *
+     * @param sequence The sequence number of the entry; must be greater than any indexed before
+     * @param entry The entry text
+     * @param result The numeric result, or NaN if the entry has none
+     */
+    public synchronized void add(long sequence, String entry, double result) {
+        int document = documentCount;
+        if (document == sequences.length) {
+            int capacity = document * 2;
+            sequences = Arrays.copyOf(sequences, capacity);
+            results = Arrays.copyOf(results, capacity);
+            textStarts = Arrays.copyOf(textStarts, capacity + 1);
+        }
+        sequences[document] = sequence;
+        results[document] = result;
+
+        String lower = entry.toLowerCase(Locale.ROOT);
+        int start = textStarts[document];
+        if (start + lower.length() > text.length) {
+            text = Arrays.copyOf(text, Math.max(text.length * 2, start + lower.length()));
+        }
+        lower.getChars(0, lower.length(), text, start);
+        textStarts[document + 1] = start + lower.length();
+        for (int i = 0; i + GRAM <= lower.length(); i++) {
+            postings.computeIfAbsent(gram(text, start + i), key -> new Postings()).add(document);
+        }
+        documentCount++;
+
+        if (!Double.isNaN(result)) {
+            addResult(document, result);
+        }
+    }
+
+    /**
+     * Drops every entry with a sequence number below the given one.
+     *
+     * @param sequence The first sequence number to keep
+     */
+    public synchronized void removeBefore(long sequence) {
+        while (firstLive < documentCount && sequences[firstLive] < sequence) {
+            firstLive++;
+        }
+        if (firstLive > MIN_TAIL && firstLive > documentCount / 2) {
+            compact();
+        }
+    }
+
+    /**
+     * Returns the number of entries indexed and not removed.
+     *
+     * @return The number of live entries
+     */
+    public synchronized int size() {
+        return documentCount - firstLive;
+    }
+
+    /**
+     * Finds entries containing a text whose result lies in a range, newest first.
+     *
+     * @param contains The text to look for, case-insensitive; null or empty matches every entry
+     * @param minResult The smallest result to accept, or negative infinity
+     * @param maxResult The largest result to accept, or positive infinity
+     * @param limit The maximum number of entries to return
+     * @return The sequence numbers of the matching entries, newest first
+     */
+    public synchronized long[] search(String contains, double minResult, double maxResult, int limit) {
+        char[] query = contains == null ? new char[0] : contains.toLowerCase(Locale.ROOT).toCharArray();
+        boolean ranged = minResult > Double.NEGATIVE_INFINITY || maxResult < Double.POSITIVE_INFINITY;
+        if (limit <= 0 || minResult > maxResult) {
+            return new long[0];
+        }
+
+        Postings driver = null;
+        if (query.length >= GRAM) {
+            for (int i = 0; i + GRAM <= query.length; i++) {
+                Postings list = postings.get(gram(query, i));
+                if (list == null) {
+                    return new long[0];
+                }
+                if (driver == null || list.size < driver.size) {
+                    driver = list;
+                }
+            }
+        }
+
+        int low = 0;
+        int high = 0;
+        if (ranged) {
+            low = lowerBound(minResult);
+            high = upperBound(maxResult);
+        }
+        if (ranged && (driver == null || high - low + tailSize < driver.size)) {
+            return searchByResult(query, minResult, maxResult, low, high, limit);
+        }
+
+        long[] found = new long[Math.min(limit, size())];
+        int count = 0;
+        if (driver != null) {
+            for (int i = driver.size - 1; i >= 0 && count < found.length; i--) {
+                int document = driver.documents[i];
+                if (document < firstLive) {
+                    break;
+                }
+                if (matches(document, query, minResult, maxResult, ranged)) {
+                    found[count++] = sequences[document];
+                }
+            }
+        } else {
+            for (int document = documentCount - 1; document >= firstLive && count < found.length; document--) {
+                if (matches(document, query, minResult, maxResult, ranged)) {
+                    found[count++] = sequences[document];
+                }
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Answers a query driven by the result range when it is more selective than the text.
+     */
+    private long[] searchByResult(char[] query, double minResult, double maxResult, int low, int high, int limit) {
+        int[] documents = new int[high - low + tailSize];
+        int count = 0;
+        for (int i = low; i < high; i++) {
+            int document = sortedDocuments[i];
+            if (document >= firstLive && containsText(document, query)) {
+                documents[count++] = document;
+            }
+        }
+        for (int i = 0; i < tailSize; i++) {
+            int document = tailDocuments[i];
+            double value = tailValues[i];
+            if (document >= firstLive && value >= minResult && value <= maxResult && containsText(document, query)) {
+                documents[count++] = document;
+            }
+        }
+        Arrays.sort(documents, 0, count);
+        long[] found = new long[Math.min(limit, count)];
+        for (int i = 0; i < found.length; i++) {
+            found[i] = sequences[documents[count - 1 - i]];
+        }
+        return found;
+    }
+
+    private boolean matches(int document, char[] query, double minResult, double maxResult, boolean ranged) {
+        if (ranged) {
+            double value = results[document];
+            if (!(value >= minResult && value <= maxResult)) {
+                return false;
+            }
+        }
+        return containsText(document, query);
+    }
+
+    private boolean containsText(int document, char[] query) {
+        int start = textStarts[document];
+        int last = textStarts[document + 1] - query.length;
+        outer:
+        for (int i = start; i <= last; i++) {
+            for (int j = 0; j < query.length; j++) {
+                if (text[i + j] != query[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void addResult(int document, double value) {
+        if (tailSize == tailValues.length) {
+            tailValues = Arrays.copyOf(tailValues, tailSize * 2);
+            tailDocuments = Arrays.copyOf(tailDocuments, tailSize * 2);
+        }
+        tailValues[tailSize] = value;
+        tailDocuments[tailSize] = document;
+        tailSize++;
+        if (tailSize >= Math.max(MIN_TAIL, sortedValues.length / 8)) {
+            mergeTail();
+        }
+    }
+
+    /**
+     * Sorts the tail and merges it into the sorted results, dropping removed entries.
+     */
+    private void mergeTail() {
+        sortByValue(tailValues, tailDocuments, tailSize);
+        int capacity = sortedValues.length + tailSize;
+        double[] values = new double[capacity];
+        int[] documents = new int[capacity];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < sortedValues.length || j < tailSize) {
+            boolean fromSorted = j == tailSize || (i < sortedValues.length && sortedValues[i] <= tailValues[j]);
+            int document = fromSorted ? sortedDocuments[i] : tailDocuments[j];
+            double value = fromSorted ? sortedValues[i++] : tailValues[j++];
+            if (document >= firstLive) {
+                values[count] = value;
+                documents[count++] = document;
+            }
+        }
+        sortedValues = Arrays.copyOf(values, count);
+        sortedDocuments = Arrays.copyOf(documents, count);
+        tailSize = 0;
+    }
+
+    /**
+     * Rebuilds the index from the live entries, renumbering them from zero.
+     */
+    private void compact() {
+        long[] oldSequences = sequences;
+        double[] oldResults = results;
+        int[] oldStarts = textStarts;
+        char[] oldText = text;
+        int from = firstLive;
+        int to = documentCount;
+
+        int live = to - from;
+        int capacity = Math.max(1024, Integer.highestOneBit(live) * 2);
+        sequences = new long[capacity];
+        results = new double[capacity];
+        textStarts = new int[capacity + 1];
+        text = new char[Math.max(16384, oldStarts[to] - oldStarts[from])];
+        documentCount = 0;
+        firstLive = 0;
+        postings.clear();
+        sortedValues = new double[0];
+        sortedDocuments = new int[0];
+        tailSize = 0;
+        for (int document = from; document < to; document++) {
+            add(oldSequences[document], new String(oldText, oldStarts[document],
+                    oldStarts[document + 1] - oldStarts[document]), oldResults[document]);
+        }
+    }
+
+    private int lowerBound(double value) {
+        int low = 0;
+        int high = sortedValues.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedValues[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int upperBound(double value) {
+        int low = 0;
+        int high = sortedValues.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedValues[middle] <= value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Sorts parallel arrays by value with a merge sort, keeping equal values in insertion order.
+     */
+    private static void sortByValue(double[] values, int[] documents, int length) {
+        double[] valueBuffer = new double[length];
+        int[] documentBuffer = new int[length];
+        for (int width = 1; width < length; width *= 2) {
+            for (int left = 0; left < length - width; left += 2 * width) {
+                int middle = left + width;
+                int right = Math.min(left + 2 * width, length);
+                int i = left;
+                int j = middle;
+                int k = left;
+                while (i < middle || j < right) {
+                    boolean fromLeft = j == right || (i < middle && values[i] <= values[j]);
+                    int source = fromLeft ? i++ : j++;
+                    valueBuffer[k] = values[source];
+                    documentBuffer[k++] = documents[source];
+                }
+                System.arraycopy(valueBuffer, left, values, left, right - left);
+                System.arraycopy(documentBuffer, left, documents, left, right - left);
+            }
+        }
+    }
+
+    private static long gram(char[] chars, int offset) {
+        return ((long) chars[offset] << 32) | ((long) chars[offset + 1] << 16) | chars[offset + 2];
+    }
+
+    /**
+     * Ascending document numbers containing one gram.
+     */
+    private static final class Postings {
+
+        int[] documents = new int[4];
+        int size;
+
+        void add(int document) {
+            // A gram repeated within one entry is listed once
+            if (size > 0 && documents[size - 1] == document) {
+                return;
+            }
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+            }
+            documents[size++] = document;
+        }
+    }
+}
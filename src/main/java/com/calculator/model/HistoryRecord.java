@@ -0,0 +1,68 @@
+package com.calculator.model;
+
+/**
+ * A single calculation kept in the history: when it was made, what was entered and its result.
+ */
+public final class HistoryRecord {
+
+    private final long timestamp;
+    private final String expression;
+    private final double result;
+    private final CalculatorMode mode;
+
+    /**
+     * Creates a history record.
+     *
+     * @param timestamp The time of the calculation in milliseconds since the epoch
+     * @param expression The expression as entered
+     * @param result The result of the expression
+     * @param mode The calculator mode the expression was evaluated in
+     */
+    public HistoryRecord(long timestamp, String expression, double result, CalculatorMode mode) {
+        this.timestamp = timestamp;
+        this.expression = expression;
+        this.result = result;
+        this.mode = mode;
+    }
+
+    /**
+     * Returns the time of the calculation.
+     *
+     * @return The timestamp in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Returns the expression as entered.
+     *
+     * @return The expression
+     */
+    public String getExpression() {
+        return expression;
+    }
+
+    /**
+     * Returns the result of the expression.
+     *
+     * @return The result
+     */
+    public double getResult() {
+        return result;
+    }
+
+    /**
+     * Returns the calculator mode the expression was evaluated in.
+     *
+     * @return The mode
+     */
+    public CalculatorMode getMode() {
+        return mode;
+    }
+
+    @Override
+    public String toString() {
+        return expression + " = " + result;
+    }
+}
@@ -0,0 +1,417 @@
+package com.calculator.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent calculation history kept in an append-only log of memory-mapped segment files.
+ * Records live in the mapped files rather than on the heap; the heap holds only one
+ * {@code int} offset per record. Each record is numbered by a sequence that keeps increasing
+ * across restarts.
+ * <p>
+ * Record layout, little overhead and no padding:
+ * <pre>
+ * int    length of the whole record in bytes
+ * long   timestamp, milliseconds since the epoch
+ * double result, raw IEEE 754 bits
+ * byte   calculator mode
+ * byte[] expression, UTF-8
+ * int    CRC-32 of the timestamp, result, mode and expression
+ * </pre>
+ * The length is written last, so a record torn by a crash has either a zero length or a
+ * checksum that does not match; recovery scans each segment once and stops there.
+ * Retention removes whole segments, so slightly more records than the limit may be kept.
+ */
+public final class HistoryStore implements Closeable {
+
+    /** Default number of records kept. */
+    public static final long DEFAULT_MAX_ENTRIES = 10_000_000;
+
+    /** Default age after which records are discarded. */
+    public static final Duration DEFAULT_MAX_AGE = Duration.ofDays(400);
+
+    /** Longest expression that can be stored, in UTF-8 bytes. */
+    public static final int MAX_EXPRESSION_BYTES = 65536;
+
+    static final int DEFAULT_SEGMENT_SIZE = 4 << 20;
+
+    private static final long MAGIC = 0x43414c4348495354L; // "CALCHIST"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_OVERHEAD = 4 + 8 + 8 + 1 + 4;
+    private static final String SUFFIX = ".log";
+
+    private static final CalculatorMode[] MODES = CalculatorMode.values();
+
+    private final Path directory;
+    private final long maxEntries;
+    private final Duration maxAge;
+    private final int segmentSize;
+    private final CRC32 crc = new CRC32();
+
+    // Oldest first; only the last segment is written to
+    private final List<Segment> segments = new ArrayList<>();
+    private long size;
+    private boolean closed;
+
+    /**
+     * Opens the history in a directory with the default retention, creating it if needed.
+     *
+     * @param directory The directory holding the segment files
+     * @throws IOException if the directory cannot be read or a segment is not a history file
+     */
+    public HistoryStore(Path directory) throws IOException {
+        this(directory, DEFAULT_MAX_ENTRIES, DEFAULT_MAX_AGE);
+    }
+
+    /**
+     * Opens the history in a directory, creating it if needed, and recovers the records it holds.
+     *
+     * @param directory The directory holding the segment files
+     * @param maxEntries The number of records to keep
+     * @param maxAge The age after which records are discarded
+     * @throws IOException if the directory cannot be read or a segment is not a history file
+     */
+    public HistoryStore(Path directory, long maxEntries, Duration maxAge) throws IOException {
+        this(directory, maxEntries, maxAge, DEFAULT_SEGMENT_SIZE);
+    }
+
+    HistoryStore(Path directory, long maxEntries, Duration maxAge, int segmentSize) throws IOException {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Retention must keep at least one entry");
+        }
+        if (segmentSize < HEADER_SIZE + RECORD_OVERHEAD + MAX_EXPRESSION_BYTES) {
+            throw new IllegalArgumentException("Segment size too small: " + segmentSize);
+        }
+        this.directory = directory;
+        this.maxEntries = maxEntries;
+        this.maxAge = maxAge;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+        recover();
+        applyRetention(System.currentTimeMillis());
+    }
+
+    /**
+     * Appends a record to the log.
+     *
+     * @param record The record to append
+     * @return The sequence number of the record
+     * @throws IOException if a new segment file cannot be created
+     * @throws IllegalArgumentException if the expression is longer than {@link #MAX_EXPRESSION_BYTES}
+     */
+    public synchronized long append(HistoryRecord record) throws IOException {
+        checkOpen();
+        byte[] expression = record.getExpression().getBytes(StandardCharsets.UTF_8);
+        if (expression.length > MAX_EXPRESSION_BYTES) {
+            throw new IllegalArgumentException("Expression too long to store in the history");
+        }
+        int length = RECORD_OVERHEAD + expression.length;
+        Segment segment = activeSegment();
+        if (segment == null || segment.writePosition + length > segment.buffer.capacity()) {
+            segment = createSegment(getNextSequence());
+        }
+        MappedByteBuffer buffer = segment.buffer;
+        int position = segment.writePosition;
+        buffer.putLong(position + 4, record.getTimestamp());
+        buffer.putDouble(position + 12, record.getResult());
+        buffer.put(position + 20, (byte) record.getMode().ordinal());
+        buffer.put(position + 21, expression);
+        buffer.putInt(position + length - 4, checksum(buffer, position, length));
+        // Publish the record by writing its length last
+        buffer.putInt(position, length);
+
+        segment.add(position, record.getTimestamp());
+        segment.writePosition = position + length;
+        size++;
+        applyRetention(record.getTimestamp());
+        return segment.firstSequence + segment.count - 1;
+    }
+
+    /**
+     * Reads a record.
+     *
+     * @param sequence The sequence number returned by {@link #append(HistoryRecord)}
+     * @return The record
+     * @throws IndexOutOfBoundsException if the record has been discarded or does not exist yet
+     */
+    public synchronized HistoryRecord get(long sequence) {
+        checkOpen();
+        if (sequence < getFirstSequence() || sequence >= getNextSequence()) {
+            throw new IndexOutOfBoundsException("Sequence: " + sequence + ", Range: "
+                    + getFirstSequence() + " to " + getNextSequence());
+        }
+        int low = 0;
+        int high = segments.size() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (segments.get(middle).firstSequence <= sequence) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        Segment segment = segments.get(low);
+        return decode(segment.buffer, segment.offsets[(int) (sequence - segment.firstSequence)]);
+    }
+
+    /**
+     * Returns the most recent records, newest first.
+     *
+     * @param count The maximum number of records to return
+     * @return The records
+     */
+    public synchronized List<HistoryRecord> getRecent(int count) {
+        checkOpen();
+        int n = (int) Math.min(count, size);
+        List<HistoryRecord> records = new ArrayList<>(n);
+        for (int s = segments.size() - 1; s >= 0 && records.size() < n; s--) {
+            Segment segment = segments.get(s);
+            for (int i = segment.count - 1; i >= 0 && records.size() < n; i--) {
+                records.add(decode(segment.buffer, segment.offsets[i]));
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Returns the sequence number of the oldest record kept.
+     *
+     * @return The first sequence number, equal to {@link #getNextSequence()} if the history is empty
+     */
+    public synchronized long getFirstSequence() {
+        return segments.isEmpty() ? 0 : segments.get(0).firstSequence;
+    }
+
+    /**
+     * Returns the sequence number the next appended record will get.
+     *
+     * @return The next sequence number
+     */
+    public synchronized long getNextSequence() {
+        Segment last = activeSegment();
+        return last == null ? 0 : last.firstSequence + last.count;
+    }
+
+    /**
+     * Returns the number of records kept.
+     *
+     * @return The number of records
+     */
+    public synchronized long size() {
+        return size;
+    }
+
+    /**
+     * Writes appended records through to the storage device.
+     */
+    public synchronized void flush() {
+        Segment last = activeSegment();
+        if (last != null && !closed) {
+            last.buffer.force();
+        }
+    }
+
+    /**
+     * Deletes every record. Sequence numbers continue from where they were.
+     *
+     * @throws IOException if a segment file cannot be deleted or created
+     */
+    public synchronized void clear() throws IOException {
+        checkOpen();
+        long next = getNextSequence();
+        while (!segments.isEmpty()) {
+            deleteOldestSegment();
+        }
+        createSegment(next);
+    }
+
+    /**
+     * Flushes the log and releases the store. Later calls other than {@code close} fail.
+     */
+    @Override
+    public synchronized void close() {
+        flush();
+        closed = true;
+        segments.clear();
+    }
+
+    private void recover() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        // Names are zero-padded sequence numbers, so name order is log order
+        files.sort(null);
+        for (int i = 0; i < files.size(); i++) {
+            Path file = files.get(i);
+            String name = file.getFileName().toString();
+            long firstSequence;
+            try {
+                firstSequence = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+            } catch (NumberFormatException e) {
+                throw new IOException("Not a history segment: " + file, e);
+            }
+            boolean last = i == files.size() - 1;
+            Segment segment = new Segment(file, firstSequence, map(file, last));
+            scan(segment);
+            segments.add(segment);
+            size += segment.count;
+        }
+    }
+
+    /**
+     * Validates the header and indexes the records of a segment, stopping at the first one
+     * that is incomplete or fails its checksum.
+     */
+    private void scan(Segment segment) throws IOException {
+        MappedByteBuffer buffer = segment.buffer;
+        long magic = buffer.capacity() >= HEADER_SIZE ? buffer.getLong(0) : 0;
+        if (magic == 0) {
+            // Created but never initialized
+            if (!buffer.isReadOnly()) {
+                writeHeader(buffer);
+            }
+        } else if (magic != MAGIC || buffer.getInt(8) != VERSION) {
+            throw new IOException("Not a history segment: " + segment.path);
+        }
+        int position = HEADER_SIZE;
+        int capacity = buffer.capacity();
+        while (position + 4 <= capacity) {
+            int length = buffer.getInt(position);
+            if (length < RECORD_OVERHEAD || length > capacity - position
+                    || buffer.getInt(position + length - 4) != checksum(buffer, position, length)) {
+                break;
+            }
+            segment.add(position, buffer.getLong(position + 4));
+            position += length;
+        }
+        segment.writePosition = position;
+        if (!buffer.isReadOnly()) {
+            // Clear anything a torn write left behind
+            for (int i = position; i < capacity && i < position + 4 + RECORD_OVERHEAD + MAX_EXPRESSION_BYTES; i++) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+    }
+
+    private Segment createSegment(long firstSequence) throws IOException {
+        Path file = directory.resolve(String.format("%020d%s", firstSequence, SUFFIX));
+        MappedByteBuffer buffer = map(file, true);
+        writeHeader(buffer);
+        Segment segment = new Segment(file, firstSequence, buffer);
+        segment.writePosition = HEADER_SIZE;
+        segments.add(segment);
+        return segment;
+    }
+
+    /**
+     * Maps a segment file; the channel can be closed at once since the mapping stays valid.
+     * The segment being written is mapped read-write at full size, older ones read-only.
+     */
+    private MappedByteBuffer map(Path file, boolean writable) throws IOException {
+        if (writable) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long length = Math.max(segmentSize, channel.size());
+                return channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.min(length, Integer.MAX_VALUE));
+            }
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), Integer.MAX_VALUE));
+        }
+    }
+
+    private static void writeHeader(MappedByteBuffer buffer) {
+        buffer.putLong(0, MAGIC);
+        buffer.putInt(8, VERSION);
+    }
+
+    /**
+     * Discards whole segments, oldest first, while the rest still satisfy the retention limits.
+     * The segment being written is never discarded.
+     */
+    private void applyRetention(long now) throws IOException {
+        long cutoff = now - maxAge.toMillis();
+        while (segments.size() > 1) {
+            Segment oldest = segments.get(0);
+            if (size - oldest.count < maxEntries && oldest.lastTimestamp >= cutoff) {
+                break;
+            }
+            deleteOldestSegment();
+        }
+    }
+
+    private void deleteOldestSegment() throws IOException {
+        Segment oldest = segments.remove(0);
+        size -= oldest.count;
+        Files.deleteIfExists(oldest.path);
+    }
+
+    private int checksum(MappedByteBuffer buffer, int position, int length) {
+        crc.reset();
+        crc.update(buffer.slice(position + 4, length - 8));
+        return (int) crc.getValue();
+    }
+
+    private static HistoryRecord decode(MappedByteBuffer buffer, int position) {
+        int length = buffer.getInt(position);
+        byte[] expression = new byte[length - RECORD_OVERHEAD];
+        buffer.get(position + 21, expression);
+        int mode = buffer.get(position + 20);
+        return new HistoryRecord(buffer.getLong(position + 4), new String(expression, StandardCharsets.UTF_8),
+                buffer.getDouble(position + 12), mode >= 0 && mode < MODES.length ? MODES[mode] : CalculatorMode.STANDARD);
+    }
+
+    private Segment activeSegment() {
+        return segments.isEmpty() ? null : segments.get(segments.size() - 1);
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("History store is closed");
+        }
+    }
+
+    /**
+     * A mapped segment file and the offsets of its records.
+     */
+    private static final class Segment {
+
+        final Path path;
+        final long firstSequence;
+        final MappedByteBuffer buffer;
+        int[] offsets = new int[64];
+        int count;
+        int writePosition;
+        long lastTimestamp = Long.MIN_VALUE;
+
+        Segment(Path path, long firstSequence, MappedByteBuffer buffer) {
+            this.path = path;
+            this.firstSequence = firstSequence;
+            this.buffer = buffer;
+        }
+
+        void add(int offset, long timestamp) {
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            offsets[count++] = offset;
+            lastTimestamp = Math.max(lastTimestamp, timestamp);
+        }
+    }
+}
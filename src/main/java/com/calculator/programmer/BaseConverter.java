@@ -0,0 +1,296 @@
+package com.calculator.programmer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Converts streams of ASCII numbers from one base to another without creating a String per value.
+ * Numbers are separated by whitespace, commas or semicolons, which are copied to the output unchanged.
+ * A number may have a leading minus sign and, in bases 2, 8 and 16, a {@code 0b}, {@code 0o}
+ * or {@code 0x} prefix; output digits are lower case without a prefix.
+ * <p>
+ * Between two power-of-two bases digits are regrouped bit by bit through lookup tables,
+ * so values of any length are converted in one linear pass without parsing them as numbers.
+ * Other numbers are accumulated in a {@code long} when they are short enough and fall back to
+ * {@link BitVector} otherwise.
+ * <p>
+ * Instances keep a scratch buffer and are not thread-safe.
+ */
+public final class BaseConverter {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    // Value of each ASCII digit in any base up to 36, or -1
+    private static final byte[] DIGIT_VALUES = new byte[256];
+    private static final byte[] DIGITS = "0123456789abcdefghijklmnopqrstuvwxyz".getBytes(StandardCharsets.US_ASCII);
+
+    static {
+        Arrays.fill(DIGIT_VALUES, (byte) -1);
+        for (int i = 0; i < DIGITS.length; i++) {
+            DIGIT_VALUES[DIGITS[i]] = (byte) i;
+            DIGIT_VALUES[Character.toUpperCase(DIGITS[i])] = (byte) i;
+        }
+    }
+
+    private final int fromRadix;
+    private final int toRadix;
+    // Bits per digit for power-of-two bases, otherwise 0
+    private final int fromShift;
+    private final int toShift;
+    // Most source digits whose value always fits in a positive long
+    private final int chunkDigits;
+    // Upper bound on output digits per input digit
+    private final int expansion;
+
+    private byte[] scratch = new byte[128];
+
+    /**
+     * Creates a converter between two bases.
+     *
+     * @param fromRadix The base of the input, from 2 to 36
+     * @param toRadix The base of the output, from 2 to 36
+     * @throws IllegalArgumentException if a base is out of range
+     */
+    public BaseConverter(int fromRadix, int toRadix) {
+        checkRadix(fromRadix);
+        checkRadix(toRadix);
+        this.fromRadix = fromRadix;
+        this.toRadix = toRadix;
+        this.fromShift = Integer.bitCount(fromRadix) == 1 ? Integer.numberOfTrailingZeros(fromRadix) : 0;
+        this.toShift = Integer.bitCount(toRadix) == 1 ? Integer.numberOfTrailingZeros(toRadix) : 0;
+        int digits = 1;
+        long power = fromRadix;
+        while (power <= Long.MAX_VALUE / fromRadix) {
+            power *= fromRadix;
+            digits++;
+        }
+        this.chunkDigits = digits;
+        int fromBits = 32 - Integer.numberOfLeadingZeros(fromRadix - 1);
+        int toBits = 31 - Integer.numberOfLeadingZeros(toRadix);
+        this.expansion = (fromBits + toBits - 1) / toBits;
+    }
+
+    /**
+     * Converts the numbers in an input buffer, writing them to an output buffer.
+     * Stops at the first number that does not fit in the remaining output, and, unless
+     * {@code endOfInput} is set, at a number that may continue past the end of the input.
+     * The input position is left after the last number or separator consumed, so the caller
+     * can compact the buffer, refill it and call again.
+     *
+     * @param in The ASCII input, read from its position to its limit
+     * @param out The buffer receiving the converted numbers
+     * @param endOfInput Whether the input ends at the limit
+     * @return The number of values converted
+     * @throws NumberFormatException if a number contains a digit invalid in the source base
+     */
+    public int convert(ByteBuffer in, ByteBuffer out, boolean endOfInput) {
+        int count = 0;
+        int limit = in.limit();
+        while (in.hasRemaining()) {
+            int start = in.position();
+            byte b = in.get(start);
+            if (isSeparator(b)) {
+                if (!out.hasRemaining()) {
+                    break;
+                }
+                out.put(b);
+                in.position(start + 1);
+                continue;
+            }
+            int end = start + 1;
+            while (end < limit && !isSeparator(in.get(end))) {
+                end++;
+            }
+            if ((end == limit && !endOfInput) || !convertToken(in, start, end, out)) {
+                break;
+            }
+            in.position(end);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Converts every number read from a stream and writes the result to another stream.
+     * Neither stream is closed.
+     *
+     * @param in The ASCII input
+     * @param out The output
+     * @return The number of values converted
+     * @throws IOException if reading or writing fails
+     * @throws NumberFormatException if a number contains a digit invalid in the source base
+     */
+    public long convert(InputStream in, OutputStream out) throws IOException {
+        ByteBuffer input = ByteBuffer.allocate(BUFFER_SIZE);
+        ByteBuffer output = ByteBuffer.allocate(BUFFER_SIZE);
+        boolean endOfInput = false;
+        long count = 0;
+        while (true) {
+            if (!endOfInput && input.hasRemaining()) {
+                int read = in.read(input.array(), input.position(), input.remaining());
+                if (read < 0) {
+                    endOfInput = true;
+                } else {
+                    input.position(input.position() + read);
+                }
+            }
+            input.flip();
+            int before = input.remaining();
+            count += convert(input, output, endOfInput);
+            boolean consumed = input.remaining() < before;
+            out.write(output.array(), 0, output.position());
+            output.clear();
+            if (endOfInput && !input.hasRemaining()) {
+                return count;
+            }
+            if (!consumed && (endOfInput || input.limit() == input.capacity())) {
+                // A single number does not fit in the buffers
+                input = ByteBuffer.allocate(input.capacity() * 2).put(input);
+                output = ByteBuffer.allocate(output.capacity() * 2);
+            } else {
+                input.compact();
+            }
+        }
+    }
+
+    /**
+     * Converts {@code in[start, end)} into the tail of the scratch buffer and copies it to the output.
+     * Returns false, leaving the output unchanged, if it does not fit.
+     */
+    private boolean convertToken(ByteBuffer in, int start, int end, ByteBuffer out) {
+        int p = start;
+        boolean negative = in.get(p) == '-';
+        if (negative) {
+            p++;
+        }
+        if (end - p > 2 && in.get(p) == '0' && isPrefix(in.get(p + 1))) {
+            p += 2;
+        }
+        if (p == end) {
+            throw new NumberFormatException("Empty number");
+        }
+        int bound = (end - p) * expansion + 1;
+        if (scratch.length < bound) {
+            scratch = new byte[Math.max(bound, scratch.length * 2)];
+        }
+        int length;
+        if (fromShift != 0 && toShift != 0) {
+            length = regroupBits(in, p, end);
+        } else if (end - p <= chunkDigits) {
+            length = writeLong(parseLong(in, p, end));
+        } else {
+            length = convertLarge(in, p, end);
+        }
+        boolean sign = negative && !(length == 1 && scratch[scratch.length - 1] == '0');
+        if (out.remaining() < length + (sign ? 1 : 0)) {
+            return false;
+        }
+        if (sign) {
+            out.put((byte) '-');
+        }
+        out.put(scratch, scratch.length - length, length);
+        return true;
+    }
+
+    /**
+     * Converts between power-of-two bases by feeding source digits, least significant first,
+     * into a small bit accumulator and emitting a target digit whenever enough bits are present.
+     */
+    private int regroupBits(ByteBuffer in, int from, int to) {
+        byte[] buffer = scratch;
+        int mask = toRadix - 1;
+        int w = buffer.length;
+        int accumulator = 0;
+        int bits = 0;
+        for (int i = to - 1; i >= from; i--) {
+            accumulator |= digit(in.get(i)) << bits;
+            bits += fromShift;
+            while (bits >= toShift) {
+                buffer[--w] = DIGITS[accumulator & mask];
+                accumulator >>>= toShift;
+                bits -= toShift;
+            }
+        }
+        if (bits > 0) {
+            buffer[--w] = DIGITS[accumulator];
+        }
+        while (w < buffer.length - 1 && buffer[w] == '0') {
+            w++;
+        }
+        return buffer.length - w;
+    }
+
+    private long parseLong(ByteBuffer in, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            value = value * fromRadix + digit(in.get(i));
+        }
+        return value;
+    }
+
+    /**
+     * Writes a non-negative value into the tail of the scratch buffer.
+     */
+    private int writeLong(long value) {
+        byte[] buffer = scratch;
+        int w = buffer.length;
+        if (toShift != 0) {
+            int mask = toRadix - 1;
+            do {
+                buffer[--w] = DIGITS[(int) (value & mask)];
+                value >>>= toShift;
+            } while (value != 0);
+        } else {
+            do {
+                buffer[--w] = DIGITS[(int) (value % toRadix)];
+                value /= toRadix;
+            } while (value != 0);
+        }
+        return buffer.length - w;
+    }
+
+    private int convertLarge(ByteBuffer in, int from, int to) {
+        byte[] digits = new byte[to - from];
+        in.get(from, digits);
+        String converted = BitVector.parse(new String(digits, StandardCharsets.US_ASCII), fromRadix).toString(toRadix);
+        int length = converted.length();
+        if (scratch.length < length) {
+            scratch = new byte[length];
+        }
+        for (int i = 0; i < length; i++) {
+            scratch[scratch.length - length + i] = (byte) converted.charAt(i);
+        }
+        return length;
+    }
+
+    private int digit(byte b) {
+        int value = DIGIT_VALUES[b & 0xFF];
+        if (value < 0 || value >= fromRadix) {
+            throw new NumberFormatException("Invalid digit '" + (char) (b & 0xFF) + "' for base " + fromRadix);
+        }
+        return value;
+    }
+
+    private boolean isPrefix(byte b) {
+        switch (b | 0x20) {
+            case 'x': return fromRadix == 16;
+            case 'o': return fromRadix == 8;
+            case 'b': return fromRadix == 2;
+            default: return false;
+        }
+    }
+
+    private static boolean isSeparator(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == ',' || b == ';';
+    }
+
+    private static void checkRadix(int radix) {
+        if (radix < Character.MIN_RADIX || radix > Character.MAX_RADIX) {
+            throw new IllegalArgumentException("Unsupported base: " + radix);
+        }
+    }
+}
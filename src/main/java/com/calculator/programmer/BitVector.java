@@ -0,0 +1,645 @@
+package com.calculator.programmer;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * An immutable integer of arbitrary fixed width, stored as little-endian 64-bit words.
+ * Arithmetic wraps around modulo 2<sup>width</sup>, and bitwise operations, shifts and
+ * scans work a whole word at a time. Values are unsigned unless a method says otherwise;
+ * the signed methods read the top bit as the two's complement sign.
+ */
+public final class BitVector {
+
+    private final long[] words;
+    private final int width;
+
+    // Callers pass a fresh array that this instance then owns
+    private BitVector(long[] words, int width) {
+        if ((width & 63) != 0) {
+            words[words.length - 1] &= (1L << width) - 1;
+        }
+        this.words = words;
+        this.width = width;
+    }
+
+    /**
+     * Returns a vector of the given width with all bits clear.
+     *
+     * @param width The width in bits
+     * @return The zero vector
+     * @throws IllegalArgumentException if the width is not positive
+     */
+    public static BitVector zero(int width) {
+        return new BitVector(new long[wordCount(width)], width);
+    }
+
+    /**
+     * Returns a vector holding a long, sign-extended or truncated to the given width.
+     *
+     * @param value The value
+     * @param width The width in bits
+     * @return The vector
+     * @throws IllegalArgumentException if the width is not positive
+     */
+    public static BitVector valueOf(long value, int width) {
+        long[] words = new long[wordCount(width)];
+        Arrays.fill(words, value < 0 ? -1L : 0L);
+        words[0] = value;
+        return new BitVector(words, width);
+    }
+
+    /**
+     * Returns a vector holding the two's complement bits of an integer, wrapped to the given width.
+     *
+     * @param value The value
+     * @param width The width in bits
+     * @return The vector
+     * @throws IllegalArgumentException if the width is not positive
+     */
+    public static BitVector valueOf(BigInteger value, int width) {
+        return new BitVector(RadixConverter.toWords(value, wordCount(width)), width);
+    }
+
+    /**
+     * Returns a vector with the given little-endian words; bits above the width are ignored.
+     *
+     * @param words The words, least significant first
+     * @param width The width in bits
+     * @return The vector
+     * @throws IllegalArgumentException if the width is not positive
+     */
+    public static BitVector fromWords(long[] words, int width) {
+        return new BitVector(Arrays.copyOf(words, wordCount(width)), width);
+    }
+
+    /**
+     * Parses an unsigned number, choosing the smallest width that holds it.
+     *
+     * @param digits The digits, without sign or prefix
+     * @param radix The base, from 2 to 36
+     * @return The parsed vector
+     * @throws NumberFormatException if the text is not a valid number in the base
+     */
+    public static BitVector parse(CharSequence digits, int radix) {
+        long[] words = RadixConverter.parse(digits, radix);
+        BitVector parsed = new BitVector(words, words.length * 64);
+        return parsed.resize(Math.max(1, parsed.bitLength()));
+    }
+
+    /**
+     * Parses an unsigned number into a vector of the given width.
+     *
+     * @param digits The digits, without sign or prefix
+     * @param radix The base, from 2 to 36
+     * @param width The width in bits
+     * @return The parsed vector
+     * @throws NumberFormatException if the text is not a valid number in the base or does not fit the width
+     */
+    public static BitVector parse(CharSequence digits, int radix, int width) {
+        BitVector parsed = parse(digits, radix);
+        if (parsed.bitLength() > width) {
+            throw new NumberFormatException("Value does not fit in " + width + " bits");
+        }
+        return parsed.resize(width);
+    }
+
+    /**
+     * Returns the width in bits.
+     *
+     * @return The width
+     */
+    public int width() {
+        return width;
+    }
+
+    /**
+     * Returns this value zero-extended or truncated to another width.
+     *
+     * @param newWidth The new width in bits
+     * @return The resized vector
+     */
+    public BitVector resize(int newWidth) {
+        return new BitVector(Arrays.copyOf(words, wordCount(newWidth)), newWidth);
+    }
+
+    /**
+     * Returns whether a bit is set.
+     *
+     * @param index The bit index, 0 being the least significant
+     * @return true if the bit is set
+     * @throws IndexOutOfBoundsException if the index is outside the width
+     */
+    public boolean testBit(int index) {
+        checkIndex(index);
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Returns a copy with one bit set.
+     *
+     * @param index The bit index
+     * @return The new vector
+     * @throws IndexOutOfBoundsException if the index is outside the width
+     */
+    public BitVector setBit(int index) {
+        checkIndex(index);
+        long[] result = words.clone();
+        result[index >>> 6] |= 1L << index;
+        return new BitVector(result, width);
+    }
+
+    /**
+     * Returns a copy with one bit cleared.
+     *
+     * @param index The bit index
+     * @return The new vector
+     * @throws IndexOutOfBoundsException if the index is outside the width
+     */
+    public BitVector clearBit(int index) {
+        checkIndex(index);
+        long[] result = words.clone();
+        result[index >>> 6] &= ~(1L << index);
+        return new BitVector(result, width);
+    }
+
+    /**
+     * Returns a copy with one bit inverted.
+     *
+     * @param index The bit index
+     * @return The new vector
+     * @throws IndexOutOfBoundsException if the index is outside the width
+     */
+    public BitVector flipBit(int index) {
+        checkIndex(index);
+        long[] result = words.clone();
+        result[index >>> 6] ^= 1L << index;
+        return new BitVector(result, width);
+    }
+
+    /**
+     * Returns the bitwise AND of two vectors of the same width.
+     *
+     * @param other The other operand
+     * @return The result
+     * @throws IllegalArgumentException if the widths differ
+     */
+    public BitVector and(BitVector other) {
+        requireSameWidth(other);
+        long[] result = new long[words.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = words[i] & other.words[i];
+        }
+        return new BitVector(result, width);
+    }
+
+    /**
+     * Returns the bitwise OR of two vectors of the same width.
+     *
+     * @param other The other operand
+     * @return The result
+     * @throws IllegalArgumentException if the widths differ
+     */
+    public BitVector or(BitVector other) {
+        requireSameWidth(other);
+        long[] result = new long[words.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = words[i] | other.words[i];
+        }
+        return new BitVector(result, width);
+    }
+
+    /**
+     * Returns the bitwise XOR of two vectors of the same width.
+     *
+     * @param other The other operand
+     * @return The result
+     * @throws IllegalArgumentException if the widths differ
+     */
+    public BitVector xor(BitVector other) {
+        requireSameWidth(other);
+        long[] result = new long[words.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = words[i] ^ other.words[i];
+        }
+        return new BitVector(result, width);
+    }
+
+    /**
+     * Returns the bitwise complement.
+     *
+     * @return The result
+     */
+    public BitVector not() {
+        long[] result = new long[words.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ~words[i];
+        }
+        return new BitVector(result, width);
+    }
+
+    /**
+     * Shifts left, discarding bits shifted past the width.
+     *
+     * @param distance The number of bits to shift by
+     * @return The result, zero if the distance is at least the width
+     * @throws IllegalArgumentException if the distance is negative
+     */
+    public BitVector shiftLeft(int distance) {
+        checkDistance(distance);
+        long[] result = new long[words.length];
+        if (distance >= width) {
+            return new BitVector(result, width);
+        }
+        int wordShift = distance >>> 6;
+        int bitShift = distance & 63;
+        for (int i = result.length - 1; i >= wordShift; i--) {
+            int source = i - wordShift;
+            long word = words[source] << bitShift;
+            if (bitShift != 0 && source > 0) {
+                word |= words[source - 1] >>> (64 - bitShift);
+            }
+            result[i] = word;
+        }
+        return new BitVector(result, width);
+    }
+
+    /**
+     * Shifts right, filling with zeros.
+     *
+     * @param distance The number of bits to shift by
+     * @return The result, zero if the distance is at least the width
+     * @throws IllegalArgumentException if the distance is negative
+     */
+    public BitVector shiftRight(int distance) {
+        checkDistance(distance);
+        long[] result = new long[words.length];
+        if (distance >= width) {
+            return new BitVector(result, width);
+        }
+        int wordShift = distance >>> 6;
+        int bitShift = distance & 63;
+        for (int i = 0; i + wordShift < words.length; i++) {
+            int source = i + wordShift;
+            long word = words[source] >>> bitShift;
+            if (bitShift != 0 && source + 1 < words.length) {
+                word |= words[source + 1] << (64 - bitShift);
+            }
+            result[i] = word;
+        }
+        return new BitVector(result, width);
+    }
+
+    /**
+     * Shifts right, filling with copies of the sign bit.
+     *
+     * @param distance The number of bits to shift by
+     * @return The result
+     * @throws IllegalArgumentException if the distance is negative
+     */
+    public BitVector shiftRightArithmetic(int distance) {
+        // For negative x, x >> n == ~(~x >>> n)
+        return isNegative() ? not().shiftRight(distance).not() : shiftRight(distance);
+    }
+
+    /**
+     * Rotates left within the width.
+     *
+     * @param distance The number of bits to rotate by; negative values rotate right
+     * @return The result
+     */
+    public BitVector rotateLeft(int distance) {
+        int n = Math.floorMod(distance, width);
+        return n == 0 ? this : shiftLeft(n).or(shiftRight(width - n));
+    }
+
+    /**
+     * Rotates right within the width.
+     *
+     * @param distance The number of bits to rotate by; negative values rotate left
+     * @return The result
+     */
+    public BitVector rotateRight(int distance) {
+        return rotateLeft(-Math.floorMod(distance, width));
+    }
+
+    /**
+     * Returns the sum modulo 2<sup>width</sup>.
+     *
+     * @param other The other operand
+     * @return The result
+     * @throws IllegalArgumentException if the widths differ
+     */
+    public BitVector add(BitVector other) {
+        requireSameWidth(other);
+        long[] result = new long[words.length];
+        long carry = 0;
+        for (int i = 0; i < result.length; i++) {
+            long a = words[i];
+            long b = other.words[i];
+            long sum = a + b + carry;
+            // Carry out of the top bit of a full adder
+            carry = ((a & b) | ((a | b) & ~sum)) >>> 63;
+            result[i] = sum;
+        }
+        return new BitVector(result, width);
+    }
+
+    /**
+     * Returns the difference modulo 2<sup>width</sup>.
+     *
+     * @param other The other operand
+     * @return The result
+     * @throws IllegalArgumentException if the widths differ
+     */
+    public BitVector subtract(BitVector other) {
+        requireSameWidth(other);
+        long[] result = new long[words.length];
+        long borrow = 0;
+        for (int i = 0; i < result.length; i++) {
+            long a = words[i];
+            long b = other.words[i];
+            long difference = a - b - borrow;
+            borrow = ((~a & b) | (~(a ^ b) & difference)) >>> 63;
+            result[i] = difference;
+        }
+        return new BitVector(result, width);
+    }
+
+    /**
+     * Returns the two's complement negation.
+     *
+     * @return The result
+     */
+    public BitVector negate() {
+        return zero(width).subtract(this);
+    }
+
+    /**
+     * Returns the product modulo 2<sup>width</sup>.
+     *
+     * @param other The other operand
+     * @return The result
+     * @throws IllegalArgumentException if the widths differ
+     */
+    public BitVector multiply(BitVector other) {
+        requireSameWidth(other);
+        return valueOf(toBigInteger().multiply(other.toBigInteger()), width);
+    }
+
+    /**
+     * Returns the unsigned quotient.
+     *
+     * @param divisor The divisor
+     * @return The result
+     * @throws IllegalArgumentException if the widths differ
+     * @throws ArithmeticException if the divisor is zero
+     */
+    public BitVector divide(BitVector divisor) {
+        requireSameWidth(divisor);
+        if (divisor.isZero()) {
+            throw new ArithmeticException("Division by zero!");
+        }
+        return valueOf(toBigInteger().divide(divisor.toBigInteger()), width);
+    }
+
+    /**
+     * Returns the unsigned remainder.
+     *
+     * @param divisor The divisor
+     * @return The result
+     * @throws IllegalArgumentException if the widths differ
+     * @throws ArithmeticException if the divisor is zero
+     */
+    public BitVector remainder(BitVector divisor) {
+        requireSameWidth(divisor);
+        if (divisor.isZero()) {
+            throw new ArithmeticException("Division by zero!");
+        }
+        return valueOf(toBigInteger().remainder(divisor.toBigInteger()), width);
+    }
+
+    /**
+     * Returns the number of set bits.
+     *
+     * @return The population count
+     */
+    public int bitCount() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of clear bits above the highest set bit.
+     *
+     * @return The leading zero count, equal to the width if no bit is set
+     */
+    public int numberOfLeadingZeros() {
+        int unused = words.length * 64 - width;
+        for (int i = words.length - 1; i >= 0; i--) {
+            if (words[i] != 0) {
+                return (words.length - 1 - i) * 64 + Long.numberOfLeadingZeros(words[i]) - unused;
+            }
+        }
+        return width;
+    }
+
+    /**
+     * Returns the number of clear bits below the lowest set bit.
+     *
+     * @return The trailing zero count, equal to the width if no bit is set
+     */
+    public int numberOfTrailingZeros() {
+        for (int i = 0; i < words.length; i++) {
+            if (words[i] != 0) {
+                return i * 64 + Long.numberOfTrailingZeros(words[i]);
+            }
+        }
+        return width;
+    }
+
+    /**
+     * Returns the number of bits up to and including the highest set bit.
+     *
+     * @return The unsigned bit length
+     */
+    public int bitLength() {
+        return width - numberOfLeadingZeros();
+    }
+
+    /**
+     * Returns the index of the first set bit at or above an index.
+     *
+     * @param from The index to start from
+     * @return The index of the next set bit, or -1 if there is none
+     */
+    public int nextSetBit(int from) {
+        if (from < 0) {
+            throw new IndexOutOfBoundsException("Bit index: " + from);
+        }
+        if (from >= width) {
+            return -1;
+        }
+        int i = from >>> 6;
+        long word = words[i] & (-1L << from);
+        while (word == 0) {
+            if (++i == words.length) {
+                return -1;
+            }
+            word = words[i];
+        }
+        return i * 64 + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Returns the index of the last set bit at or below an index.
+     *
+     * @param from The index to start from
+     * @return The index of the previous set bit, or -1 if there is none
+     */
+    public int previousSetBit(int from) {
+        if (from < 0) {
+            return -1;
+        }
+        int index = Math.min(from, width - 1);
+        int i = index >>> 6;
+        long word = words[i] & (-1L >>> (63 - (index & 63)));
+        while (word == 0) {
+            if (--i < 0) {
+                return -1;
+            }
+            word = words[i];
+        }
+        return i * 64 + 63 - Long.numberOfLeadingZeros(word);
+    }
+
+    /**
+     * Returns whether all bits are clear.
+     *
+     * @return true if the value is zero
+     */
+    public boolean isZero() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the top bit is set, i.e. the value is negative when read as signed.
+     *
+     * @return true if the sign bit is set
+     */
+    public boolean isNegative() {
+        return testBit(width - 1);
+    }
+
+    /**
+     * Returns the low 64 bits.
+     *
+     * @return The low word
+     */
+    public long longValue() {
+        return words[0];
+    }
+
+    /**
+     * Returns a copy of the little-endian words.
+     *
+     * @return The words, least significant first
+     */
+    public long[] toLongArray() {
+        return words.clone();
+    }
+
+    /**
+     * Returns the value read as unsigned.
+     *
+     * @return The unsigned value
+     */
+    public BigInteger toBigInteger() {
+        return RadixConverter.toBigInteger(words);
+    }
+
+    /**
+     * Returns the value read as two's complement.
+     *
+     * @return The signed value
+     */
+    public BigInteger toSignedBigInteger() {
+        BigInteger unsigned = toBigInteger();
+        return isNegative() ? unsigned.subtract(BigInteger.ONE.shiftLeft(width)) : unsigned;
+    }
+
+    /**
+     * Formats the value as unsigned in the given base.
+     *
+     * @param radix The base, from 2 to 36
+     * @return The digits, in lower case without leading zeros
+     */
+    public String toString(int radix) {
+        return RadixConverter.toString(words, bitLength(), radix);
+    }
+
+    /**
+     * Formats the value as two's complement in the given base, with a leading minus sign if negative.
+     *
+     * @param radix The base, from 2 to 36
+     * @return The signed digits
+     */
+    public String toSignedString(int radix) {
+        return isNegative() ? "-" + negate().toString(radix) : toString(radix);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BitVector)) {
+            return false;
+        }
+        BitVector other = (BitVector) o;
+        return width == other.width && Arrays.equals(words, other.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * width + Arrays.hashCode(words);
+    }
+
+    @Override
+    public String toString() {
+        return toString(10);
+    }
+
+    private static int wordCount(int width) {
+        if (width <= 0) {
+            throw new IllegalArgumentException("Width must be positive: " + width);
+        }
+        return (width + 63) >>> 6;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= width) {
+            throw new IndexOutOfBoundsException("Bit index " + index + " outside width " + width);
+        }
+    }
+
+    private static void checkDistance(int distance) {
+        if (distance < 0) {
+            throw new IllegalArgumentException("Shift distance must not be negative: " + distance);
+        }
+    }
+
+    private void requireSameWidth(BitVector other) {
+        if (other.width != width) {
+            throw new IllegalArgumentException("Width mismatch: " + width + " and " + other.width);
+        }
+    }
+}
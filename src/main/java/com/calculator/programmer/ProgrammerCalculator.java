@@ -0,0 +1,258 @@
+package com.calculator.programmer;
+
+/**
+ * Integer arithmetic on fixed-size words, as in a programmer's calculator.
+ * Every result wraps around to the word size; signed words are kept sign-extended in their
+ * {@code long} and unsigned words zero-extended, so Java's arithmetic on the stored value is
+ * already correct apart from unsigned 64-bit division and comparison.
+ * Values wider than 64 bits are handled by {@link BitVector}.
+ */
+public final class ProgrammerCalculator {
+
+    private final WordSize wordSize;
+    private final boolean signed;
+
+    /**
+     * Creates a calculator for the given word size.
+     *
+     * @param wordSize The word size
+     * @param signed Whether words are read as two's complement
+     */
+    public ProgrammerCalculator(WordSize wordSize, boolean signed) {
+        this.wordSize = wordSize;
+        this.signed = signed;
+    }
+
+    /**
+     * Returns the word size results are wrapped to.
+     *
+     * @return The word size
+     */
+    public WordSize getWordSize() {
+        return wordSize;
+    }
+
+    /**
+     * Returns whether words are read as two's complement.
+     *
+     * @return true for signed words
+     */
+    public boolean isSigned() {
+        return signed;
+    }
+
+    /**
+     * Wraps a value to the word size.
+     *
+     * @param value The value
+     * @return The value truncated to the word and extended according to the signedness
+     */
+    public long normalize(long value) {
+        return wordSize.wrap(value, signed);
+    }
+
+    /**
+     * Returns the wrapped sum.
+     */
+    public long add(long a, long b) {
+        return normalize(a + b);
+    }
+
+    /**
+     * Returns the wrapped difference.
+     */
+    public long subtract(long a, long b) {
+        return normalize(a - b);
+    }
+
+    /**
+     * Returns the wrapped product.
+     */
+    public long multiply(long a, long b) {
+        return normalize(a * b);
+    }
+
+    /**
+     * Divides, truncating toward zero.
+     *
+     * @param a The dividend
+     * @param b The divisor
+     * @return The quotient
+     * @throws ArithmeticException if the divisor is zero
+     */
+    public long divide(long a, long b) {
+        a = normalize(a);
+        b = normalize(b);
+        if (b == 0) {
+            throw new ArithmeticException("Division by zero!");
+        }
+        return normalize(signed ? a / b : Long.divideUnsigned(a, b));
+    }
+
+    /**
+     * Returns the remainder of truncating division.
+     *
+     * @param a The dividend
+     * @param b The divisor
+     * @return The remainder
+     * @throws ArithmeticException if the divisor is zero
+     */
+    public long remainder(long a, long b) {
+        a = normalize(a);
+        b = normalize(b);
+        if (b == 0) {
+            throw new ArithmeticException("Division by zero!");
+        }
+        return normalize(signed ? a % b : Long.remainderUnsigned(a, b));
+    }
+
+    /**
+     * Returns the bitwise AND.
+     */
+    public long and(long a, long b) {
+        return normalize(a & b);
+    }
+
+    /**
+     * Returns the bitwise OR.
+     */
+    public long or(long a, long b) {
+        return normalize(a | b);
+    }
+
+    /**
+     * Returns the bitwise XOR.
+     */
+    public long xor(long a, long b) {
+        return normalize(a ^ b);
+    }
+
+    /**
+     * Returns the bitwise complement within the word.
+     */
+    public long not(long a) {
+        return normalize(~a);
+    }
+
+    /**
+     * Shifts left; distances of at least the word size give zero.
+     *
+     * @param a The value
+     * @param distance The number of bits to shift by
+     * @return The shifted value
+     * @throws IllegalArgumentException if the distance is negative
+     */
+    public long shiftLeft(long a, int distance) {
+        checkDistance(distance);
+        return distance >= wordSize.getBits() ? 0 : normalize(a << distance);
+    }
+
+    /**
+     * Shifts right, arithmetically for signed words and logically for unsigned ones.
+     *
+     * @param a The value
+     * @param distance The number of bits to shift by
+     * @return The shifted value
+     * @throws IllegalArgumentException if the distance is negative
+     */
+    public long shiftRight(long a, int distance) {
+        checkDistance(distance);
+        a = normalize(a);
+        int n = Math.min(distance, 63);
+        if (signed) {
+            return a >> n;
+        }
+        return distance >= wordSize.getBits() ? 0 : a >>> n;
+    }
+
+    /**
+     * Rotates left within the word.
+     *
+     * @param a The value
+     * @param distance The number of bits to rotate by; negative values rotate right
+     * @return The rotated value
+     */
+    public long rotateLeft(long a, int distance) {
+        int bits = wordSize.getBits();
+        int n = Math.floorMod(distance, bits);
+        long value = a & wordSize.getMask();
+        if (n == 0) {
+            return normalize(value);
+        }
+        return normalize((value << n) | (value >>> (bits - n)));
+    }
+
+    /**
+     * Rotates right within the word.
+     *
+     * @param a The value
+     * @param distance The number of bits to rotate by; negative values rotate left
+     * @return The rotated value
+     */
+    public long rotateRight(long a, int distance) {
+        return rotateLeft(a, -Math.floorMod(distance, wordSize.getBits()));
+    }
+
+    /**
+     * Returns the number of set bits in the word.
+     */
+    public int bitCount(long a) {
+        return Long.bitCount(a & wordSize.getMask());
+    }
+
+    /**
+     * Returns the number of clear bits above the highest set bit of the word.
+     */
+    public int numberOfLeadingZeros(long a) {
+        return Long.numberOfLeadingZeros(a & wordSize.getMask()) - (64 - wordSize.getBits());
+    }
+
+    /**
+     * Returns the number of clear bits below the lowest set bit, or the word size if the word is zero.
+     */
+    public int numberOfTrailingZeros(long a) {
+        return Math.min(Long.numberOfTrailingZeros(a), wordSize.getBits());
+    }
+
+    /**
+     * Parses a word. Decimal input may carry a minus sign; any input may give the full bit
+     * pattern of the word, so {@code ff} is -1 as a signed byte.
+     *
+     * @param text The digits
+     * @param radix The base, from 2 to 36
+     * @return The normalized value
+     * @throws NumberFormatException if the text is not a number in the base or does not fit the word
+     */
+    public long parse(String text, int radix) {
+        boolean negative = text.startsWith("-");
+        BitVector magnitude = BitVector.parse(negative ? text.substring(1) : text, radix);
+        int bits = wordSize.getBits();
+        int limit = negative ? bits - 1 : bits;
+        long value = magnitude.longValue();
+        if (magnitude.bitLength() > limit && !(negative && magnitude.bitLength() == bits
+                && magnitude.numberOfTrailingZeros() == bits - 1)) {
+            throw new NumberFormatException("Value does not fit in a " + bits + "-bit word: " + text);
+        }
+        return normalize(negative ? -value : value);
+    }
+
+    /**
+     * Formats a word. Decimal output follows the signedness; other bases show the bit pattern of the word.
+     *
+     * @param a The value
+     * @param radix The base, from 2 to 36
+     * @return The digits
+     */
+    public String format(long a, int radix) {
+        if (radix == 10 && signed) {
+            return Long.toString(wordSize.wrap(a, true));
+        }
+        return Long.toUnsignedString(a & wordSize.getMask(), radix);
+    }
+
+    private static void checkDistance(int distance) {
+        if (distance < 0) {
+            throw new IllegalArgumentException("Shift distance must not be negative: " + distance);
+        }
+    }
+}
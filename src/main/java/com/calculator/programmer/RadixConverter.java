@@ -0,0 +1,218 @@
+package com.calculator.programmer;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Conversion between unsigned multi-word integers and digit strings.
+ * Power-of-two bases map a fixed number of bits to each digit and are converted in one
+ * linear pass. Other bases split the value recursively around powers of the base, so that
+ * the work is dominated by a few large multiplications and divisions rather than one
+ * division per digit.
+ */
+final class RadixConverter {
+
+    private RadixConverter() {
+    }
+
+    /**
+     * Formats the low {@code bitLength} bits of a little-endian word array as an unsigned number.
+     */
+    static String toString(long[] words, int bitLength, int radix) {
+        checkRadix(radix);
+        if (Integer.bitCount(radix) == 1) {
+            return toStringPowerOfTwo(words, bitLength, Integer.numberOfTrailingZeros(radix));
+        }
+        if (bitLength < 64) {
+            return Long.toString(words[0], radix);
+        }
+        BigInteger value = toBigInteger(words);
+        int chunk = chunkDigits(radix);
+        List<BigInteger> powers = new ArrayList<>();
+        powers.add(BigInteger.valueOf(radix).pow(chunk));
+        int level = 0;
+        while (value.compareTo(powers.get(level)) >= 0) {
+            BigInteger power = powers.get(level);
+            powers.add(power.multiply(power));
+            level++;
+        }
+        StringBuilder sb = new StringBuilder();
+        toString(value, radix, chunk, powers, level - 1, false, sb);
+        return sb.toString();
+    }
+
+    /**
+     * Writes a value below {@code powers[level + 1]}, split around {@code powers[level]}.
+     * With {@code pad} set, the digits are zero-filled to the full width of the level.
+     */
+    private static void toString(BigInteger value, int radix, int chunk, List<BigInteger> powers, int level,
+                                 boolean pad, StringBuilder sb) {
+        if (level < 0) {
+            String digits = Long.toString(value.longValue(), radix);
+            if (pad) {
+                for (int i = digits.length(); i < chunk; i++) {
+                    sb.append('0');
+                }
+            }
+            sb.append(digits);
+            return;
+        }
+        if (!pad && value.compareTo(powers.get(level)) < 0) {
+            toString(value, radix, chunk, powers, level - 1, false, sb);
+            return;
+        }
+        BigInteger[] split = value.divideAndRemainder(powers.get(level));
+        toString(split[0], radix, chunk, powers, level - 1, pad, sb);
+        toString(split[1], radix, chunk, powers, level - 1, true, sb);
+    }
+
+    private static String toStringPowerOfTwo(long[] words, int bitLength, int shift) {
+        int digitCount = Math.max(1, (bitLength + shift - 1) / shift);
+        long digitMask = (1L << shift) - 1;
+        char[] out = new char[digitCount];
+        for (int d = 0; d < digitCount; d++) {
+            int bit = d * shift;
+            int word = bit >>> 6;
+            int offset = bit & 63;
+            long value = words[word] >>> offset;
+            if (offset + shift > 64 && word + 1 < words.length) {
+                value |= words[word + 1] << (64 - offset);
+            }
+            out[digitCount - 1 - d] = Character.forDigit((int) (value & digitMask), 1 << shift);
+        }
+        // Strip leading zeros, keeping at least one digit
+        int start = 0;
+        while (start < digitCount - 1 && out[start] == '0') {
+            start++;
+        }
+        return new String(out, start, digitCount - start);
+    }
+
+    /**
+     * Parses an unsigned number into a little-endian word array of at least one word.
+     *
+     * @throws NumberFormatException if the text is empty or contains a digit invalid for the base
+     */
+    static long[] parse(CharSequence digits, int radix) {
+        checkRadix(radix);
+        int length = digits.length();
+        if (length == 0) {
+            throw new NumberFormatException("Empty number");
+        }
+        for (int i = 0; i < length; i++) {
+            if (Character.digit(digits.charAt(i), radix) < 0) {
+                throw new NumberFormatException("Invalid digit '" + digits.charAt(i) + "' for base " + radix);
+            }
+        }
+        if (Integer.bitCount(radix) == 1) {
+            return parsePowerOfTwo(digits, Integer.numberOfTrailingZeros(radix));
+        }
+        int chunk = chunkDigits(radix);
+        if (length <= chunk) {
+            return new long[] {parseChunk(digits, 0, length, radix)};
+        }
+        List<BigInteger> powers = new ArrayList<>();
+        powers.add(BigInteger.valueOf(radix).pow(chunk));
+        return toWords(parse(digits, 0, length, radix, chunk, powers));
+    }
+
+    /**
+     * Parses {@code digits[from, to)} by splitting off a low part whose length is the largest
+     * chunk multiple of a power of two below the total, so every split reuses a cached power.
+     */
+    private static BigInteger parse(CharSequence digits, int from, int to, int radix, int chunk,
+                                    List<BigInteger> powers) {
+        int length = to - from;
+        if (length <= chunk) {
+            return BigInteger.valueOf(parseChunk(digits, from, to, radix));
+        }
+        int level = 0;
+        while ((long) chunk << (level + 1) < length) {
+            level++;
+        }
+        while (powers.size() <= level) {
+            BigInteger power = powers.get(powers.size() - 1);
+            powers.add(power.multiply(power));
+        }
+        int split = to - (chunk << level);
+        BigInteger high = parse(digits, from, split, radix, chunk, powers);
+        BigInteger low = parse(digits, split, to, radix, chunk, powers);
+        return high.multiply(powers.get(level)).add(low);
+    }
+
+    private static long parseChunk(CharSequence digits, int from, int to, int radix) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            value = value * radix + Character.digit(digits.charAt(i), radix);
+        }
+        return value;
+    }
+
+    private static long[] parsePowerOfTwo(CharSequence digits, int shift) {
+        int length = digits.length();
+        long[] words = new long[Math.max(1, (length * shift + 63) >>> 6)];
+        for (int d = 0; d < length; d++) {
+            long value = Character.digit(digits.charAt(length - 1 - d), 1 << shift);
+            int bit = d * shift;
+            int word = bit >>> 6;
+            int offset = bit & 63;
+            words[word] |= value << offset;
+            if (offset + shift > 64) {
+                words[word + 1] |= value >>> (64 - offset);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Returns the most digits of the base whose value always fits in a positive long.
+     */
+    private static int chunkDigits(int radix) {
+        int digits = 1;
+        long power = radix;
+        while (power <= Long.MAX_VALUE / radix) {
+            power *= radix;
+            digits++;
+        }
+        return digits;
+    }
+
+    /**
+     * Interprets a little-endian word array as an unsigned integer.
+     */
+    static BigInteger toBigInteger(long[] words) {
+        byte[] bytes = new byte[words.length * 8 + 1];
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            for (int b = 0; b < 8; b++) {
+                bytes[bytes.length - 1 - i * 8 - b] = (byte) (word >>> (b * 8));
+            }
+        }
+        return new BigInteger(bytes);
+    }
+
+    /**
+     * Returns the two's complement words of a value, sign-extended or truncated to {@code wordCount} words.
+     */
+    static long[] toWords(BigInteger value, int wordCount) {
+        byte[] bytes = value.toByteArray();
+        long fill = value.signum() < 0 ? 0xFF : 0;
+        long[] words = new long[wordCount];
+        for (int k = 0; k < wordCount * 8; k++) {
+            long b = k < bytes.length ? bytes[bytes.length - 1 - k] & 0xFF : fill;
+            words[k >>> 3] |= b << ((k & 7) << 3);
+        }
+        return words;
+    }
+
+    private static long[] toWords(BigInteger nonNegative) {
+        return toWords(nonNegative, Math.max(1, (nonNegative.bitLength() + 63) >>> 6));
+    }
+
+    private static void checkRadix(int radix) {
+        if (radix < Character.MIN_RADIX || radix > Character.MAX_RADIX) {
+            throw new IllegalArgumentException("Unsupported base: " + radix);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.calculator.programmer;
+
+/**
+ * Fixed word sizes of programmer mode. Values of every size are held in a {@code long}
+ * and normalized after each operation, sign-extended when signed and zero-extended when unsigned.
+ */
+public enum WordSize {
+    BYTE(8),
+    WORD(16),
+    DWORD(32),
+    QWORD(64);
+
+    private final int bits;
+    private final long mask;
+
+    WordSize(int bits) {
+        this.bits = bits;
+        this.mask = bits == 64 ? -1L : (1L << bits) - 1;
+    }
+
+    /**
+     * Returns the number of bits in a word.
+     *
+     * @return The width in bits
+     */
+    public int getBits() {
+        return bits;
+    }
+
+    /**
+     * Returns a mask with the low {@link #getBits()} bits set.
+     *
+     * @return The mask
+     */
+    public long getMask() {
+        return mask;
+    }
+
+    /**
+     * Truncates a value to this word size, wrapping around on overflow.
+     *
+     * @param value The value to truncate
+     * @param signed Whether to sign-extend the result rather than zero-extend it
+     * @return The normalized value
+     */
+    public long wrap(long value, boolean signed) {
+        if (bits == 64) {
+            return value;
+        }
+        int shift = 64 - bits;
+        return signed ? (value << shift) >> shift : value & mask;
+    }
+}
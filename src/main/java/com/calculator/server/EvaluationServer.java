@@ -0,0 +1,367 @@
+package com.calculator.server;
+
+import com.calculator.core.CalculatorEngine;
+import com.calculator.core.EvaluationContext;
+import com.calculator.core.NumberFormatter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Headless evaluation server for {@link CalculatorEngine}.
+ * <p>
+ * The protocol is line based: each request is one UTF-8 expression terminated by a newline,
+ * and each response is one line holding either the result or {@code ERR <message>}, e.g.
+ * {@code ERR Invalid expression: 1/0: Division by zero!}.
+ * Responses are sent in request order, so clients may pipeline any number of requests
+ * without waiting for replies. Each connection has its own {@link EvaluationContext}.
+ * <p>
+ * Connections are served by a fixed set of non-blocking event loops sharing one engine.
+ * This class does not depend on JavaFX.
+ */
+public class EvaluationServer implements Closeable {
+
+    /** Default TCP port. */
+    public static final int DEFAULT_PORT = 7575;
+
+    /** Longest accepted request line in bytes. */
+    static final int MAX_LINE_LENGTH = 64 * 1024;
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+    private static final byte[] ERROR_PREFIX = "ERR ".getBytes(StandardCharsets.US_ASCII);
+
+    private final CalculatorEngine engine;
+    private final ServerSocketChannel serverChannel;
+    private final Path unixSocketPath;
+    private final EventLoop[] loops;
+    private final Thread acceptThread;
+    private volatile boolean running = true;
+
+    /**
+     * Creates a server bound to the given address. Supports both TCP and Unix domain socket addresses.
+     *
+     * @param engine The engine evaluating requests
+     * @param address The address to listen on
+     * @param threads The number of event loop threads
+     * @throws IOException if the address cannot be bound
+     */
+    public EvaluationServer(CalculatorEngine engine, SocketAddress address, int threads) throws IOException {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive");
+        }
+        this.engine = engine;
+        if (address instanceof UnixDomainSocketAddress) {
+            unixSocketPath = ((UnixDomainSocketAddress) address).getPath();
+            Files.deleteIfExists(unixSocketPath);
+            serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        } else {
+            unixSocketPath = null;
+            serverChannel = ServerSocketChannel.open();
+        }
+        serverChannel.bind(address);
+
+        loops = new EventLoop[threads];
+        for (int i = 0; i < threads; i++) {
+            loops[i] = new EventLoop();
+        }
+        acceptThread = new Thread(this::acceptConnections, "evaluation-server-accept");
+    }
+
+    /**
+     * Starts accepting and serving connections.
+     */
+    public void start() {
+        for (int i = 0; i < loops.length; i++) {
+            Thread thread = new Thread(loops[i], "evaluation-server-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        acceptThread.start();
+    }
+
+    /**
+     * Returns the address the server is listening on.
+     *
+     * @return The local address
+     * @throws IOException if the address cannot be determined
+     */
+    public SocketAddress getLocalAddress() throws IOException {
+        return serverChannel.getLocalAddress();
+    }
+
+    /**
+     * Stops the server and closes all connections.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverChannel.close();
+        for (EventLoop loop : loops) {
+            loop.selector.wakeup();
+        }
+        if (unixSocketPath != null) {
+            Files.deleteIfExists(unixSocketPath);
+        }
+    }
+
+    private void acceptConnections() {
+        int next = 0;
+        while (running) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                channel.configureBlocking(false);
+                loops[next].register(channel);
+                next = (next + 1) % loops.length;
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("Failed to accept connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * A selector thread serving a subset of the connections.
+     */
+    private final class EventLoop implements Runnable {
+
+        private final Selector selector;
+        private final Queue<SocketChannel> pending = new ConcurrentLinkedQueue<>();
+
+        EventLoop() throws IOException {
+            selector = Selector.open();
+        }
+
+        void register(SocketChannel channel) {
+            pending.add(channel);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select();
+                    registerPending();
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        Connection connection = (Connection) key.attachment();
+                        try {
+                            if (key.isValid() && key.isReadable()) {
+                                connection.read();
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                connection.write();
+                            }
+                        } catch (IOException | RuntimeException | Error e) {
+                            // Only this connection is lost; the loop keeps serving the others
+                            connection.close();
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Event loop failed: " + e.getMessage());
+            } finally {
+                for (SelectionKey key : selector.keys()) {
+                    ((Connection) key.attachment()).close();
+                }
+                try {
+                    selector.close();
+                } catch (IOException ignored) {
+                    // Shutting down anyway
+                }
+            }
+        }
+
+        private void registerPending() {
+            SocketChannel channel;
+            while ((channel = pending.poll()) != null) {
+                try {
+                    SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                    key.attach(new Connection(channel, key));
+                } catch (IOException e) {
+                    try {
+                        channel.close();
+                    } catch (IOException ignored) {
+                        // Connection is unusable either way
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Buffers and per-session state of one client connection.
+     */
+    private final class Connection {
+
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private final EvaluationContext context;
+        private ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+        private ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);
+        private boolean discardingLine;
+        private boolean endOfInput;
+
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+            this.context = engine.newContext();
+        }
+
+        void read() throws IOException {
+            int read = channel.read(in);
+            if (read < 0) {
+                endOfInput = true;
+            }
+            in.flip();
+            processLines();
+            if (endOfInput && in.hasRemaining() && !discardingLine) {
+                // Treat an unterminated final line as a request
+                respond(new String(in.array(), in.position(), in.remaining(), StandardCharsets.UTF_8).trim());
+                in.position(in.limit());
+            }
+            in.compact();
+
+            if (!in.hasRemaining()) {
+                // A single request fills the buffer; grow it or give up on the line
+                if (in.capacity() < MAX_LINE_LENGTH) {
+                    ByteBuffer larger = ByteBuffer.allocate(Math.min(in.capacity() * 2, MAX_LINE_LENGTH));
+                    in.flip();
+                    larger.put(in);
+                    in = larger;
+                } else {
+                    in.clear();
+                    discardingLine = true;
+                    appendError("Request exceeds " + MAX_LINE_LENGTH + " bytes");
+                }
+            }
+            write();
+        }
+
+        /**
+         * Evaluates every complete line in the input buffer.
+         */
+        private void processLines() {
+            byte[] bytes = in.array();
+            int start = in.position();
+            for (int i = start; i < in.limit(); i++) {
+                if (bytes[i] != '\n') {
+                    continue;
+                }
+                if (discardingLine) {
+                    discardingLine = false;
+                } else {
+                    int end = i > start && bytes[i - 1] == '\r' ? i - 1 : i;
+                    respond(new String(bytes, start, end - start, StandardCharsets.UTF_8));
+                }
+                start = i + 1;
+            }
+            in.position(start);
+        }
+
+        private void respond(String expression) {
+            try {
+                double result = engine.evaluate(expression, context);
+                ensureCapacity(NumberFormatter.MAX_LENGTH + 1);
+                int end = NumberFormatter.SHORTEST.format(result, out.array(), out.arrayOffset() + out.position());
+                out.position(end - out.arrayOffset());
+                out.put((byte) '\n');
+            } catch (RuntimeException e) {
+                appendError(e.getMessage());
+            } catch (StackOverflowError e) {
+                // A failed request must not take down the event loop and its other connections
+                appendError("Expression nested too deeply");
+            }
+        }
+
+        private void appendError(String message) {
+            byte[] text = String.valueOf(message).replace('\n', ' ').getBytes(StandardCharsets.UTF_8);
+            ensureCapacity(ERROR_PREFIX.length + text.length + 1);
+            out.put(ERROR_PREFIX).put(text).put((byte) '\n');
+        }
+
+        private void ensureCapacity(int bytes) {
+            if (out.remaining() < bytes) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + bytes));
+                out.flip();
+                larger.put(out);
+                out = larger;
+            }
+        }
+
+        /**
+         * Flushes pending responses. While responses are pending, reading pauses so a client
+         * that does not read its replies cannot make the server buffer without bound.
+         */
+        void write() throws IOException {
+            out.flip();
+            channel.write(out);
+            out.compact();
+            if (out.position() > 0) {
+                key.interestOps(SelectionKey.OP_WRITE);
+            } else if (endOfInput) {
+                close();
+            } else {
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        }
+
+        void close() {
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Nothing left to do for this connection
+            }
+        }
+    }
+
+    /**
+     * Runs the server until the process is terminated.
+     * Options: {@code --port <n>}, {@code --unix <path>}, {@code --threads <n>}.
+     *
+     * @param args The command line options
+     * @throws IOException if the server cannot be started
+     */
+    public static void main(String[] args) throws IOException {
+        SocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), DEFAULT_PORT);
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port":
+                    address = new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(args[++i]));
+                    break;
+                case "--unix":
+                    address = UnixDomainSocketAddress.of(args[++i]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        EvaluationServer server = new EvaluationServer(new CalculatorEngine(), address, threads);
+        server.start();
+        System.out.println("Evaluation server listening on " + server.getLocalAddress());
+    }
+}
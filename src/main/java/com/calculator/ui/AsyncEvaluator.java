@@ -0,0 +1,185 @@
+package com.calculator.ui;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Runs evaluations off the UI thread and delivers their outcome back on it.
+ * At most one evaluation is current: submitting the key that is already running is ignored,
+ * and submitting a different one supersedes it. Superseded, cancelled and timed-out
+ * evaluations are interrupted and their results discarded, so callbacks only ever see the
+ * latest request.
+ * <p>
+ * Interruption only stops work that checks for it; the engine's numeric kernels do not, so
+ * cancelling an evaluation discards its result but may leave it running to completion. At most
+ * {@value #WORKERS} workers run at once, so an abandoned evaluation can hold back at most one
+ * more thread, and a request submitted while every worker is still busy with abandoned work
+ * waits for one of them to finish.
+ * <p>
+ * {@link #submit}, {@link #cancel} and {@link #isBusy} must be called on the thread that
+ * {@code callbacks} runs tasks on, which is the JavaFX application thread in the calculator.
+ */
+final class AsyncEvaluator implements AutoCloseable {
+
+    // The current evaluation plus one abandoned one that may still be running
+    static final int WORKERS = 2;
+
+    private final Executor callbacks;
+    private final long timeoutMillis;
+    private final Consumer<Boolean> busyListener;
+    private final ThreadPoolExecutor workers = new ThreadPoolExecutor(WORKERS, WORKERS, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), daemonThreads("evaluator"));
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(daemonThreads("evaluator-timeout"));
+
+    // Confined to the callback thread
+    private Evaluation<?> current;
+
+    /**
+     * Creates an evaluator.
+     *
+     * @param callbacks Runs outcomes on the UI thread, e.g. {@code Platform::runLater}
+     * @param timeoutMillis How long an evaluation may run before it is abandoned
+     * @param busyListener Told on the UI thread when evaluation starts and stops
+     */
+    AsyncEvaluator(Executor callbacks, long timeoutMillis, Consumer<Boolean> busyListener) {
+        this.callbacks = callbacks;
+        this.timeoutMillis = timeoutMillis;
+        this.busyListener = busyListener;
+        workers.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Starts an evaluation unless the same key is already running.
+     *
+     * @param key Identifies the request for coalescing, e.g. the mode and expression
+     * @param work The evaluation, run on a worker thread
+     * @param onSuccess Receives the result on the UI thread
+     * @param onFailure Receives the exception on the UI thread, a {@link TimeoutException} on timeout
+     *                  and an {@link ExecutionException} wrapping any {@link Error}
+     * @return false if the request was coalesced into the running one
+     */
+    <T> boolean submit(String key, Callable<T> work, Consumer<? super T> onSuccess,
+                       Consumer<? super Exception> onFailure) {
+        if (current != null && current.key.equals(key)) {
+            return false;
+        }
+        boolean wasBusy = current != null;
+        abandon();
+        Evaluation<T> evaluation = new Evaluation<>(key, onSuccess, onFailure);
+        current = evaluation;
+        evaluation.future = workers.submit(() -> evaluation.run(work));
+        evaluation.timeout = timer.schedule(() -> callbacks.execute(() -> timeOut(evaluation)),
+                timeoutMillis, TimeUnit.MILLISECONDS);
+        if (!wasBusy) {
+            busyListener.accept(true);
+        }
+        return true;
+    }
+
+    /**
+     * Cancels the current evaluation, if any; its callbacks are not called. The work itself
+     * stops only if it responds to interruption.
+     */
+    void cancel() {
+        if (current != null) {
+            abandon();
+            busyListener.accept(false);
+        }
+    }
+
+    /**
+     * Returns whether an evaluation is running.
+     */
+    boolean isBusy() {
+        return current != null;
+    }
+
+    @Override
+    public void close() {
+        workers.shutdownNow();
+        timer.shutdownNow();
+    }
+
+    private void abandon() {
+        if (current != null) {
+            current.future.cancel(true);
+            current.timeout.cancel(false);
+            current = null;
+        }
+    }
+
+    private void timeOut(Evaluation<?> evaluation) {
+        if (evaluation == current) {
+            abandon();
+            busyListener.accept(false);
+            evaluation.onFailure.accept(new TimeoutException("Evaluation took longer than " + timeoutMillis + " ms"));
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * One submitted request and the callbacks waiting for it.
+     */
+    private final class Evaluation<T> {
+
+        final String key;
+        final Consumer<? super T> onSuccess;
+        final Consumer<? super Exception> onFailure;
+        Future<?> future;
+        ScheduledFuture<?> timeout;
+
+        Evaluation(String key, Consumer<? super T> onSuccess, Consumer<? super Exception> onFailure) {
+            this.key = key;
+            this.onSuccess = onSuccess;
+            this.onFailure = onFailure;
+        }
+
+        void run(Callable<T> work) {
+            try {
+                T result = work.call();
+                callbacks.execute(() -> complete(result, null));
+            } catch (Exception e) {
+                if (!(e instanceof CancellationException) && !Thread.currentThread().isInterrupted()) {
+                    callbacks.execute(() -> complete(null, e));
+                }
+            } catch (Error e) {
+                // Report it now rather than leave the caller waiting for the timeout
+                callbacks.execute(() -> complete(null, new ExecutionException(e)));
+            }
+        }
+
+        private void complete(T result, Exception failure) {
+            // Drop outcomes of evaluations that were superseded, cancelled or timed out
+            if (this != current) {
+                return;
+            }
+            timeout.cancel(false);
+            current = null;
+            busyListener.accept(false);
+            if (failure == null) {
+                onSuccess.accept(result);
+            } else {
+                onFailure.accept(failure);
+            }
+        }
+    }
+}
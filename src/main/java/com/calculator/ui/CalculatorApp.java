@@ -15,11 +15,13 @@ public class CalculatorApp extends Application {
     private static final String APP_TITLE = "Advanced Java Calculator";
     private static final int DEFAULT_WIDTH = 800;
     private static final int DEFAULT_HEIGHT = 600;
+    
+    private CalculatorUI calculatorUI;
 
     @Override
     public void start(Stage primaryStage) {
         // Create the main calculator UI
-        CalculatorUI calculatorUI = new CalculatorUI();
+        calculatorUI = new CalculatorUI();
         
         // Set up the scene
         Scene scene = new Scene(calculatorUI.getRoot(), DEFAULT_WIDTH, DEFAULT_HEIGHT);
@@ -42,4 +44,11 @@ public class CalculatorApp extends Application {
         // Show the stage
         primaryStage.show();
     }
-}
\ No newline at end of file
+    
+    @Override
+    public void stop() {
+        if (calculatorUI != null) {
+            calculatorUI.shutdown();
+        }
+    }
+}
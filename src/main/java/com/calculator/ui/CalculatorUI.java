@@ -1,15 +1,27 @@
 package com.calculator.ui;
 
 import com.calculator.core.CalculatorEngine;
+import com.calculator.core.IncrementalEvaluator;
+import com.calculator.core.NumberFormatter;
 import com.calculator.model.CalculationHistory;
 import com.calculator.model.CalculatorMode;
+import com.calculator.model.HistoryRecord;
+import com.calculator.model.HistoryStore;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Parent;
 import javafx.scene.control.*;
+import javafx.scene.input.KeyCode;
 import javafx.scene.layout.*;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Main UI class for the calculator application.
@@ -17,15 +29,33 @@ import javafx.scene.text.FontWeight;
  */
 public class CalculatorUI {
     
+    // Directory of the persistent history
+    private static final Path HISTORY_DIRECTORY = Paths.get(System.getProperty("user.home"), ".advanced-calculator", "history");
+    
+    // Entries kept in the history panel; only the visible rows are rendered
+    private static final int HISTORY_CAPACITY = 100_000;
+    
+    // Evaluations running longer than this are abandoned
+    private static final long EVALUATION_TIMEOUT_MILLIS = 10_000;
+    
+    // Results are shown to 15 significant digits, which hides binary rounding such as 0.1 + 0.2
+    private static final NumberFormatter RESULT_FORMAT = new NumberFormatter(15, NumberFormatter.Notation.PLAIN);
+    
     // Core calculator components
     private final CalculatorEngine calculatorEngine;
     private final CalculationHistory history;
+    private final AsyncEvaluator evaluator;
+    private final IncrementalEvaluator livePreview;
+    private HistoryStore historyStore;
     
     // UI components
     private final BorderPane root;
     private TextField displayField;
+    private Label previewLabel;
     private Label memoryIndicator;
-    private VBox historyPanel;
+    private HistoryListModel historyEntries;
+    private ProgressIndicator busyIndicator;
+    private Button cancelButton;
     private TabPane modeTabPane;
     
     // Current calculator state
@@ -38,7 +68,10 @@ public class CalculatorUI {
     public CalculatorUI() {
         // Initialize calculator engine and history
         calculatorEngine = new CalculatorEngine();
-        history = new CalculationHistory();
+        history = new CalculationHistory(HISTORY_CAPACITY);
+        evaluator = new AsyncEvaluator(Platform::runLater, EVALUATION_TIMEOUT_MILLIS, this::showBusy);
+        livePreview = calculatorEngine.newIncrementalEvaluator();
+        openHistoryStore();
         
         // Create the root layout
         root = new BorderPane();
@@ -52,6 +85,33 @@ public class CalculatorUI {
         setupMenuBar();
     }
     
+    /**
+     * Opens the persistent history and loads its most recent entries.
+     * The calculator keeps working with an in-memory history if the store cannot be opened.
+     */
+    private void openHistoryStore() {
+        try {
+            historyStore = new HistoryStore(HISTORY_DIRECTORY);
+            List<HistoryRecord> recent = historyStore.getRecent(HISTORY_CAPACITY);
+            for (int i = recent.size() - 1; i >= 0; i--) {
+                HistoryRecord record = recent.get(i);
+                history.addEntry(record.getExpression() + " = " + formatResult(record.getResult()), record.getResult());
+            }
+        } catch (IOException e) {
+            historyStore = null;
+        }
+    }
+    
+    /**
+     * Flushes and closes the persistent history; called when the application exits.
+     */
+    public void shutdown() {
+        evaluator.close();
+        if (historyStore != null) {
+            historyStore.close();
+        }
+    }
+    
     /**
      * Returns the root node of the calculator UI.
      */
@@ -77,8 +137,31 @@ public class CalculatorUI {
         displayField.setFont(Font.font("Monospaced", FontWeight.BOLD, 24));
         displayField.setPrefHeight(60);
         
+        // Result of the expression typed so far, updated on every edit
+        previewLabel = new Label();
+        previewLabel.setFont(Font.font("Monospaced", 14));
+        previewLabel.setMaxWidth(Double.MAX_VALUE);
+        previewLabel.setAlignment(Pos.CENTER_RIGHT);
+        displayField.textProperty().addListener((observable, previous, text) -> updatePreview(previous, text));
+        
+        // Shown while an evaluation runs in the background
+        busyIndicator = new ProgressIndicator();
+        busyIndicator.setPrefSize(20, 20);
+        cancelButton = new Button("Cancel");
+        cancelButton.setOnAction(event -> evaluator.cancel());
+        HBox statusBar = new HBox(5, busyIndicator, cancelButton);
+        statusBar.setAlignment(Pos.CENTER_RIGHT);
+        showBusy(false);
+        
+        // Escape cancels a running evaluation
+        displayField.setOnKeyPressed(event -> {
+            if (event.getCode() == KeyCode.ESCAPE) {
+                evaluator.cancel();
+            }
+        });
+        
         // Add components to display area
-        displayArea.getChildren().addAll(memoryIndicator, displayField);
+        displayArea.getChildren().addAll(memoryIndicator, displayField, previewLabel, statusBar);
         
         // Add display area to the top of the root layout
         root.setTop(displayArea);
@@ -242,11 +325,12 @@ public class CalculatorUI {
         Label historyLabel = new Label("History");
         historyLabel.setFont(Font.font("System", FontWeight.BOLD, 16));
         
-        // History list
-        historyPanel = new VBox(5);
-        ScrollPane scrollPane = new ScrollPane(historyPanel);
-        scrollPane.setFitToWidth(true);
-        scrollPane.setPrefHeight(400);
+        // History list; cells are reused as it scrolls
+        historyEntries = new HistoryListModel(history);
+        ListView<String> historyList = new ListView<>(historyEntries);
+        historyList.getStyleClass().add("history-panel");
+        historyList.setPrefHeight(400);
+        historyList.setCellFactory(list -> new HistoryCell());
         
         // Clear history button
         Button clearHistoryButton = new Button("Clear History");
@@ -254,7 +338,7 @@ public class CalculatorUI {
         clearHistoryButton.setOnAction(event -> clearHistory());
         
         // Add components to the right panel
-        rightPanel.getChildren().addAll(historyLabel, scrollPane, clearHistoryButton);
+        rightPanel.getChildren().addAll(historyLabel, historyList, clearHistoryButton);
         
         // Add the right panel to the root layout
         root.setRight(rightPanel);
@@ -322,14 +406,7 @@ public class CalculatorUI {
                 }
                 break;
             case "=":
-                try {
-                    String expression = displayField.getText();
-                    double result = calculatorEngine.evaluate(expression);
-                    displayField.setText(formatResult(result));
-                    addToHistory(expression + " = " + formatResult(result));
-                } catch (Exception e) {
-                    displayField.setText("Error");
-                }
+                evaluateDisplay();
                 break;
             default:
                 // For numbers and operators
@@ -343,43 +420,98 @@ public class CalculatorUI {
     }
     
     /**
-     * Formats the calculation result for display.
+     * Evaluates the display contents on a background thread and shows the result when it is ready.
+     * Pressing "=" again while the same expression is running does not start it again.
      */
-    private String formatResult(double result) {
-        // Remove trailing zeros for integer results
-        if (result == (long) result) {
-            return String.format("%d", (long) result);
+    private void evaluateDisplay() {
+        String expression = displayField.getText();
+        CalculatorMode mode = currentMode;
+        String key = mode + ":" + expression;
+        if (mode == CalculatorMode.CONVERSION) {
+            // Unit expressions such as "60 mph to km/h"
+            evaluator.submit(key, () -> calculatorEngine.evaluateQuantity(expression), quantity -> {
+                String text = formatResult(quantity.getValue());
+                if (!quantity.getUnit().isEmpty()) {
+                    text += " " + quantity.getUnit();
+                }
+                displayField.setText(text);
+                addToHistory(expression, quantity.getValue(), text, mode);
+            }, this::showError);
+        } else {
+            evaluator.submit(key, () -> calculatorEngine.evaluate(expression), result -> {
+                displayField.setText(formatResult(result));
+                addToHistory(expression, result, formatResult(result), mode);
+            }, this::showError);
+        }
+    }
+    
+    /**
+     * Updates the live preview after an edit of the display. Typing or deleting at the end only
+     * parses the changed token, so the preview stays cheap for long expressions.
+     */
+    private void updatePreview(String previous, String text) {
+        if (text.length() == previous.length() + 1 && text.startsWith(previous)) {
+            livePreview.append(text.substring(previous.length()));
+        } else if (previous.length() == text.length() + 1 && previous.startsWith(text)) {
+            livePreview.backspace();
         } else {
-            return String.format("%.8f", result).replaceAll("0*$", "").replaceAll("\\.$", "");
+            livePreview.setText(text);
         }
+        // Unit expressions are only evaluated on "="
+        OptionalDouble value = currentMode == CalculatorMode.CONVERSION ? OptionalDouble.empty() : livePreview.preview();
+        String preview = value.isPresent() ? formatResult(value.getAsDouble()) : "";
+        previewLabel.setText(preview.isEmpty() || preview.equals(text.trim()) ? "" : "= " + preview);
+    }
+    
+    private void showError(Exception e) {
+        displayField.setText(e instanceof TimeoutException ? "Timed out" : "Error");
+    }
+    
+    private void showBusy(boolean busy) {
+        busyIndicator.setVisible(busy);
+        cancelButton.setVisible(busy);
     }
     
     /**
-     * Adds an entry to the calculation history.
+     * Formats the calculation result for display.
      */
-    private void addToHistory(String entry) {
-        history.addEntry(entry);
-        updateHistoryPanel();
+    private String formatResult(double result) {
+        return RESULT_FORMAT.format(result);
     }
     
     /**
-     * Updates the history panel with the current history entries.
+     * Adds a calculation to the history and to the persistent store, under the mode it was
+     * evaluated in rather than the one selected when the result arrives.
      */
-    private void updateHistoryPanel() {
-        historyPanel.getChildren().clear();
-        for (String entry : history.getEntries()) {
-            Label historyEntry = new Label(entry);
-            historyEntry.setMaxWidth(Double.MAX_VALUE);
-            historyEntry.setPadding(new Insets(5));
-            historyEntry.setStyle("-fx-border-color: #e0e0e0; -fx-border-radius: 3;");
-            
-            // Make history entries clickable to recall them
-            historyEntry.setOnMouseClicked(event -> {
-                String expression = entry.split(" = ")[0];
-                displayField.setText(expression);
+    private void addToHistory(String expression, double result, String resultText, CalculatorMode mode) {
+        historyEntries.addEntry(expression + " = " + resultText, result);
+        if (historyStore != null) {
+            try {
+                historyStore.append(new HistoryRecord(System.currentTimeMillis(), expression, result, mode));
+            } catch (IOException | IllegalArgumentException e) {
+                // The in-memory history still has the entry
+            }
+        }
+    }
+    
+    /**
+     * A row of the history panel; clicking it recalls the expression into the display.
+     */
+    private final class HistoryCell extends ListCell<String> {
+        
+        HistoryCell() {
+            getStyleClass().add("history-entry");
+            setOnMouseClicked(event -> {
+                if (!isEmpty()) {
+                    displayField.setText(getItem().split(" = ")[0]);
+                }
             });
-            
-            historyPanel.getChildren().add(historyEntry);
+        }
+        
+        @Override
+        protected void updateItem(String entry, boolean empty) {
+            super.updateItem(entry, empty);
+            setText(empty ? null : entry);
         }
     }
     
@@ -387,8 +519,14 @@ public class CalculatorUI {
      * Clears the calculation history.
      */
     private void clearHistory() {
-        history.clear();
-        historyPanel.getChildren().clear();
+        historyEntries.clearEntries();
+        if (historyStore != null) {
+            try {
+                historyStore.clear();
+            } catch (IOException e) {
+                // Entries already deleted stay deleted
+            }
+        }
     }
     
     /**
@@ -0,0 +1,58 @@
+package com.calculator.ui;
+
+import com.calculator.model.CalculationHistory;
+import java.util.List;
+import javafx.collections.ObservableListBase;
+
+/**
+ * Read-only observable view of a {@link CalculationHistory}, newest entry first, for a
+ * {@link javafx.scene.control.ListView}. Rows are read from the history on demand, so the list
+ * view only touches the visible entries, and adding an entry fires one small change rather
+ * than replacing the whole list. Must be used from the JavaFX application thread.
+ */
+final class HistoryListModel extends ObservableListBase<String> {
+
+    private final CalculationHistory history;
+
+    HistoryListModel(CalculationHistory history) {
+        this.history = history;
+    }
+
+    @Override
+    public String get(int index) {
+        return history.getEntry(index);
+    }
+
+    @Override
+    public int size() {
+        return history.size();
+    }
+
+    /**
+     * Adds an entry to the history and reports it, along with the entry it evicted, if any.
+     */
+    void addEntry(String entry, double result) {
+        int capacity = history.getCapacity();
+        String evicted = history.size() == capacity ? history.getEntry(capacity - 1) : null;
+        history.addEntry(entry, result);
+        beginChange();
+        nextAdd(0, 1);
+        if (evicted != null) {
+            nextRemove(capacity, evicted);
+        }
+        endChange();
+    }
+
+    /**
+     * Clears the history and reports the removal of every entry.
+     */
+    void clearEntries() {
+        List<String> removed = history.getEntries();
+        history.clear();
+        if (!removed.isEmpty()) {
+            beginChange();
+            nextRemove(0, removed);
+            endChange();
+        }
+    }
+}
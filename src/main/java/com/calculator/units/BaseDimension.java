@@ -0,0 +1,41 @@
+package com.calculator.units;
+
+/**
+ * The independent physical quantities from which every {@link Dimension} is built.
+ */
+public enum BaseDimension {
+    LENGTH("L", "m"),
+    MASS("M", "kg"),
+    TIME("T", "s"),
+    TEMPERATURE("Θ", "K"),
+    CURRENT("I", "A"),
+    AMOUNT("N", "mol"),
+    LUMINOUS_INTENSITY("J", "cd"),
+    DATA("D", "bit");
+
+    private final String symbol;
+    private final String baseUnit;
+
+    BaseDimension(String symbol, String baseUnit) {
+        this.symbol = symbol;
+        this.baseUnit = baseUnit;
+    }
+
+    /**
+     * Returns the conventional symbol of the quantity, e.g. L for length.
+     *
+     * @return The dimension symbol
+     */
+    public String getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * Returns the symbol of the coherent base unit of the quantity, e.g. m for length.
+     *
+     * @return The base unit symbol
+     */
+    public String getBaseUnit() {
+        return baseUnit;
+    }
+}
@@ -0,0 +1,186 @@
+package com.calculator.units;
+
+import java.util.Arrays;
+
+/**
+ * The dimension of a physical quantity, as integer exponents of the {@link BaseDimension}s.
+ * For example, acceleration is L·T^-2. Dimensions are immutable.
+ */
+public final class Dimension {
+
+    private static final BaseDimension[] BASES = BaseDimension.values();
+
+    /** The dimension of pure numbers. */
+    public static final Dimension NONE = new Dimension(new int[BASES.length]);
+
+    public static final Dimension LENGTH = of(BaseDimension.LENGTH);
+    public static final Dimension MASS = of(BaseDimension.MASS);
+    public static final Dimension TIME = of(BaseDimension.TIME);
+    public static final Dimension TEMPERATURE = of(BaseDimension.TEMPERATURE);
+    public static final Dimension CURRENT = of(BaseDimension.CURRENT);
+    public static final Dimension AMOUNT = of(BaseDimension.AMOUNT);
+    public static final Dimension DATA = of(BaseDimension.DATA);
+
+    public static final Dimension AREA = LENGTH.power(2);
+    public static final Dimension VOLUME = LENGTH.power(3);
+    public static final Dimension SPEED = LENGTH.divide(TIME);
+    public static final Dimension ACCELERATION = SPEED.divide(TIME);
+    public static final Dimension FORCE = MASS.multiply(ACCELERATION);
+    public static final Dimension ENERGY = FORCE.multiply(LENGTH);
+    public static final Dimension POWER = ENERGY.divide(TIME);
+    public static final Dimension PRESSURE = FORCE.divide(AREA);
+    public static final Dimension FREQUENCY = NONE.divide(TIME);
+    public static final Dimension DATA_RATE = DATA.divide(TIME);
+
+    private final int[] exponents;
+
+    private Dimension(int[] exponents) {
+        this.exponents = exponents;
+    }
+
+    /**
+     * Returns the dimension of a single base quantity.
+     *
+     * @param base The base quantity
+     * @return The dimension with exponent 1 for the base quantity
+     */
+    public static Dimension of(BaseDimension base) {
+        int[] exponents = new int[BASES.length];
+        exponents[base.ordinal()] = 1;
+        return new Dimension(exponents);
+    }
+
+    /**
+     * Returns the exponent of a base quantity in this dimension.
+     *
+     * @param base The base quantity
+     * @return The exponent
+     */
+    public int getExponent(BaseDimension base) {
+        return exponents[base.ordinal()];
+    }
+
+    /**
+     * Returns whether this is the dimension of pure numbers.
+     *
+     * @return true if every exponent is zero
+     */
+    public boolean isDimensionless() {
+        return equals(NONE);
+    }
+
+    /**
+     * Returns the dimension of a product of quantities.
+     *
+     * @param other The dimension of the other factor
+     * @return The combined dimension
+     */
+    public Dimension multiply(Dimension other) {
+        int[] result = new int[BASES.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = exponents[i] + other.exponents[i];
+        }
+        return new Dimension(result);
+    }
+
+    /**
+     * Returns the dimension of a quotient of quantities.
+     *
+     * @param other The dimension of the divisor
+     * @return The combined dimension
+     */
+    public Dimension divide(Dimension other) {
+        int[] result = new int[BASES.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = exponents[i] - other.exponents[i];
+        }
+        return new Dimension(result);
+    }
+
+    /**
+     * Returns the dimension of a quantity raised to an integer power.
+     *
+     * @param exponent The power
+     * @return The scaled dimension
+     */
+    public Dimension power(int exponent) {
+        int[] result = new int[BASES.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = exponents[i] * exponent;
+        }
+        return new Dimension(result);
+    }
+
+    /**
+     * Returns the dimension of an integer root of a quantity.
+     *
+     * @param degree The degree of the root
+     * @return The dimension whose power is this dimension
+     * @throws IllegalArgumentException if an exponent is not divisible by the degree
+     */
+    public Dimension root(int degree) {
+        int[] result = new int[BASES.length];
+        for (int i = 0; i < result.length; i++) {
+            if (exponents[i] % degree != 0) {
+                throw new IllegalArgumentException("Cannot take root " + degree + " of dimension " + this);
+            }
+            result[i] = exponents[i] / degree;
+        }
+        return new Dimension(result);
+    }
+
+    /**
+     * Formats the dimension as a product of coherent base units, e.g. {@code kg·m·s^-2}.
+     *
+     * @return The base unit expression, or an empty string if dimensionless
+     */
+    public String toBaseUnits() {
+        StringBuilder sb = new StringBuilder();
+        for (BaseDimension base : new BaseDimension[] {BaseDimension.MASS, BaseDimension.LENGTH,
+                BaseDimension.TIME, BaseDimension.TEMPERATURE, BaseDimension.CURRENT, BaseDimension.AMOUNT,
+                BaseDimension.LUMINOUS_INTENSITY, BaseDimension.DATA}) {
+            int exponent = exponents[base.ordinal()];
+            if (exponent != 0) {
+                if (sb.length() > 0) {
+                    sb.append('·');
+                }
+                sb.append(base.getBaseUnit());
+                if (exponent != 1) {
+                    sb.append('^').append(exponent);
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Dimension && Arrays.equals(exponents, ((Dimension) o).exponents);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(exponents);
+    }
+
+    /**
+     * Formats the dimension as a product of base symbols, e.g. {@code L·T^-2}, or {@code 1} if dimensionless.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (BaseDimension base : BASES) {
+            int exponent = exponents[base.ordinal()];
+            if (exponent != 0) {
+                if (sb.length() > 0) {
+                    sb.append('·');
+                }
+                sb.append(base.getSymbol());
+                if (exponent != 1) {
+                    sb.append('^').append(exponent);
+                }
+            }
+        }
+        return sb.length() > 0 ? sb.toString() : "1";
+    }
+}
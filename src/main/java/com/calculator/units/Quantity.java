@@ -0,0 +1,56 @@
+package com.calculator.units;
+
+/**
+ * A numeric value together with the unit it is expressed in.
+ */
+public final class Quantity {
+
+    private final double value;
+    private final String unit;
+    private final Dimension dimension;
+
+    /**
+     * Creates a quantity.
+     *
+     * @param value The numeric value
+     * @param unit The unit label, or an empty string for pure numbers
+     * @param dimension The dimension of the quantity
+     */
+    public Quantity(double value, String unit, Dimension dimension) {
+        this.value = value;
+        this.unit = unit;
+        this.dimension = dimension;
+    }
+
+    /**
+     * Returns the numeric value in {@link #getUnit()}.
+     *
+     * @return The value
+     */
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the label of the unit the value is expressed in.
+     *
+     * @return The unit label, empty for pure numbers
+     */
+    public String getUnit() {
+        return unit;
+    }
+
+    /**
+     * Returns the dimension of the quantity.
+     *
+     * @return The dimension
+     */
+    public Dimension getDimension() {
+        return dimension;
+    }
+
+    @Override
+    public String toString() {
+        return unit.isEmpty() ? Double.toString(value) : value + " " + unit;
+    }
+}
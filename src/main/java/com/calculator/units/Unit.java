@@ -0,0 +1,106 @@
+package com.calculator.units;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+/**
+ * A unit of measurement registered in a {@link UnitRegistry}.
+ * A value v in this unit corresponds to {@code v * factor + offset} in the coherent base unit
+ * of its dimension (metre, kilogram, second, kelvin, bit, ...). Only temperature scales
+ * such as Celsius have a non-zero offset.
+ */
+public final class Unit {
+
+    private final int id;
+    private final String symbol;
+    private final String name;
+    private final Dimension dimension;
+    private final double factor;
+    private final double offset;
+
+    // The exact definition: factor = factorNumerator / divisor, offset = offsetNumerator / divisor
+    final BigDecimal factorNumerator;
+    final BigDecimal offsetNumerator;
+    final BigDecimal divisor;
+
+    Unit(int id, String symbol, String name, Dimension dimension,
+         BigDecimal factorNumerator, BigDecimal offsetNumerator, BigDecimal divisor) {
+        this.id = id;
+        this.symbol = symbol;
+        this.name = name;
+        this.dimension = dimension;
+        this.factorNumerator = factorNumerator;
+        this.offsetNumerator = offsetNumerator;
+        this.divisor = divisor;
+        this.factor = factorNumerator.divide(divisor, MathContext.DECIMAL128).doubleValue();
+        this.offset = offsetNumerator.divide(divisor, MathContext.DECIMAL128).doubleValue();
+    }
+
+    /**
+     * Returns the dense integer ID of the unit within its registry.
+     *
+     * @return The unit ID
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Returns the primary symbol of the unit, e.g. {@code km}.
+     *
+     * @return The symbol
+     */
+    public String getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * Returns the readable name of the unit, e.g. {@code kilometre}.
+     *
+     * @return The name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the dimension of the unit.
+     *
+     * @return The dimension
+     */
+    public Dimension getDimension() {
+        return dimension;
+    }
+
+    /**
+     * Returns the size of the unit in the coherent base unit of its dimension.
+     *
+     * @return The scale factor
+     */
+    public double getFactor() {
+        return factor;
+    }
+
+    /**
+     * Returns the base-unit value of this unit's zero point; non-zero only for offset scales such as Celsius.
+     *
+     * @return The offset
+     */
+    public double getOffset() {
+        return offset;
+    }
+
+    /**
+     * Returns whether the unit's zero point differs from that of the base unit.
+     *
+     * @return true for offset scales such as Celsius and Fahrenheit
+     */
+    public boolean isAffine() {
+        return offsetNumerator.signum() != 0;
+    }
+
+    @Override
+    public String toString() {
+        return symbol;
+    }
+}
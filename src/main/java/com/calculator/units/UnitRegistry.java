@@ -0,0 +1,471 @@
+package com.calculator.units;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A set of units interned to dense integer IDs, with a precomputed conversion matrix.
+ * <p>
+ * Every conversion between units is affine, {@code to = from * scale + offset}, so the
+ * registry keeps the scale and offset of each ordered pair of units in two flat arrays indexed by
+ * {@code fromId * size + toId}. A conversion by ID is then two array loads and a multiply-add,
+ * with no string comparisons. Pairs of different dimensions hold NaN and are rejected.
+ * <p>
+ * Units are defined by exact decimal ratios, so the scale and offset of each pair are
+ * computed in {@link BigDecimal} and rounded to double once. Celsius to Fahrenheit is then
+ * exactly {@code 1.8} and {@code 32} rather than a composition of rounded ninths.
+ * <p>
+ * The matrix is rebuilt lazily after units are registered. Lookups and conversions are
+ * thread-safe; registration is expected to happen up front.
+ */
+public class UnitRegistry {
+
+    private static final UnitRegistry STANDARD = createStandard();
+
+    private final List<Unit> units = new ArrayList<>();
+    private final Map<String, Unit> bySymbol = new HashMap<>();
+    private volatile Matrix matrix;
+    private boolean readOnly;
+
+    /**
+     * Returns the shared, read-only registry of common units.
+     *
+     * @return The standard registry
+     */
+    public static UnitRegistry standard() {
+        return STANDARD;
+    }
+
+    /**
+     * Registers a unit.
+     *
+     * @param symbol The primary symbol
+     * @param name The readable name
+     * @param dimension The dimension of the unit
+     * @param factor The size of the unit in the base unit of the dimension
+     * @param offset The base-unit value of the unit's zero point
+     * @param aliases Other symbols accepted for the unit
+     * @return The registered unit
+     * @throws IllegalArgumentException if a symbol is already registered or the factor is not positive
+     * @throws IllegalStateException if this is the shared standard registry
+     */
+    public Unit register(String symbol, String name, Dimension dimension,
+                         double factor, double offset, String... aliases) {
+        if (!(factor > 0) || Double.isInfinite(factor)) {
+            throw new IllegalArgumentException("Unit factor must be positive: " + symbol);
+        }
+        if (!Double.isFinite(offset)) {
+            throw new IllegalArgumentException("Unit offset must be finite: " + symbol);
+        }
+        // valueOf keeps the decimal a literal was written as, e.g. 0.3048 rather than its binary neighbour
+        return register(symbol, name, dimension, BigDecimal.valueOf(factor), BigDecimal.valueOf(offset),
+                BigDecimal.ONE, aliases);
+    }
+
+    /**
+     * Registers a unit defined by an exact ratio, for units such as degree Fahrenheit whose size
+     * has no finite decimal expansion. The unit is {@code factor / divisor} base units and its zero
+     * point lies at {@code offset / divisor}.
+     *
+     * @param symbol The primary symbol
+     * @param name The readable name
+     * @param dimension The dimension of the unit
+     * @param factor The size of the unit in the base unit of the dimension, times the divisor
+     * @param offset The base-unit value of the unit's zero point, times the divisor
+     * @param divisor The common denominator of factor and offset
+     * @param aliases Other symbols accepted for the unit
+     * @return The registered unit
+     * @throws IllegalArgumentException if a symbol is already registered or the factor or divisor is not positive
+     * @throws IllegalStateException if this is the shared standard registry
+     */
+    public synchronized Unit register(String symbol, String name, Dimension dimension,
+                                      BigDecimal factor, BigDecimal offset, BigDecimal divisor,
+                                      String... aliases) {
+        if (readOnly) {
+            throw new IllegalStateException("The standard unit registry cannot be modified");
+        }
+        if (factor.signum() <= 0 || divisor.signum() <= 0) {
+            throw new IllegalArgumentException("Unit factor must be positive: " + symbol);
+        }
+        Unit unit = new Unit(units.size(), symbol, name, dimension, factor, offset, divisor);
+        claim(symbol, unit);
+        for (String alias : aliases) {
+            claim(alias, unit);
+        }
+        units.add(unit);
+        matrix = null;
+        return unit;
+    }
+
+    /**
+     * Registers a unit whose zero point coincides with that of the base unit.
+     *
+     * @param symbol The primary symbol
+     * @param name The readable name
+     * @param dimension The dimension of the unit
+     * @param factor The size of the unit in the base unit of the dimension
+     * @param aliases Other symbols accepted for the unit
+     * @return The registered unit
+     * @throws IllegalArgumentException if a symbol is already registered or the factor is not positive
+     * @throws IllegalStateException if this is the shared standard registry
+     */
+    public Unit register(String symbol, String name, Dimension dimension, double factor, String... aliases) {
+        return register(symbol, name, dimension, factor, 0, aliases);
+    }
+
+    private void claim(String symbol, Unit unit) {
+        if (bySymbol.containsKey(symbol)) {
+            throw new IllegalArgumentException("Unit symbol already registered: " + symbol);
+        }
+        bySymbol.put(symbol, unit);
+    }
+
+    /**
+     * Returns the unit with the given symbol or alias, or null if there is none.
+     *
+     * @param symbol The unit symbol
+     * @return The unit, or null
+     */
+    public synchronized Unit find(String symbol) {
+        return bySymbol.get(symbol);
+    }
+
+    /**
+     * Returns the unit with the given symbol or alias.
+     *
+     * @param symbol The unit symbol
+     * @return The unit
+     * @throws IllegalArgumentException if the symbol is unknown
+     */
+    public Unit get(String symbol) {
+        Unit unit = find(symbol);
+        if (unit == null) {
+            throw new IllegalArgumentException("Unknown unit: " + symbol);
+        }
+        return unit;
+    }
+
+    /**
+     * Returns the unit with the given ID.
+     *
+     * @param id The unit ID
+     * @return The unit
+     * @throws IndexOutOfBoundsException if no unit has the ID
+     */
+    public synchronized Unit get(int id) {
+        return units.get(id);
+    }
+
+    /**
+     * Returns the ID of the unit with the given symbol or alias.
+     *
+     * @param symbol The unit symbol
+     * @return The unit ID
+     * @throws IllegalArgumentException if the symbol is unknown
+     */
+    public int idOf(String symbol) {
+        return get(symbol).getId();
+    }
+
+    /**
+     * Returns the number of registered units, one more than the largest ID.
+     *
+     * @return The unit count
+     */
+    public synchronized int size() {
+        return units.size();
+    }
+
+    /**
+     * Returns all registered units, in ID order.
+     *
+     * @return An unmodifiable snapshot of the units
+     */
+    public synchronized List<Unit> getUnits() {
+        return Collections.unmodifiableList(new ArrayList<>(units));
+    }
+
+    /**
+     * Returns the registered units of a dimension, in ID order.
+     *
+     * @param dimension The dimension
+     * @return The units of the dimension
+     */
+    public synchronized List<Unit> getUnits(Dimension dimension) {
+        List<Unit> result = new ArrayList<>();
+        for (Unit unit : units) {
+            if (unit.getDimension().equals(dimension)) {
+                result.add(unit);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns whether values can be converted between two units.
+     *
+     * @param fromId The source unit ID
+     * @param toId The target unit ID
+     * @return true if the units have the same dimension
+     */
+    public boolean isConvertible(int fromId, int toId) {
+        Matrix m = matrix();
+        return !Double.isNaN(m.scale[fromId * m.size + toId]);
+    }
+
+    /**
+     * Converts a value between units given by ID.
+     *
+     * @param value The value to convert
+     * @param fromId The source unit ID
+     * @param toId The target unit ID
+     * @return The converted value
+     * @throws IllegalArgumentException if the units have different dimensions
+     */
+    public double convert(double value, int fromId, int toId) {
+        Matrix m = matrix();
+        int index = fromId * m.size + toId;
+        double scale = m.scale[index];
+        if (Double.isNaN(scale)) {
+            throw incompatible(fromId, toId);
+        }
+        return value * scale + m.offset[index];
+    }
+
+    /**
+     * Converts a value between units given by symbol.
+     *
+     * @param value The value to convert
+     * @param fromUnit The source unit symbol
+     * @param toUnit The target unit symbol
+     * @return The converted value
+     * @throws IllegalArgumentException if a unit is unknown or the units have different dimensions
+     */
+    public double convert(double value, String fromUnit, String toUnit) {
+        return convert(value, idOf(fromUnit), idOf(toUnit));
+    }
+
+    /**
+     * Converts a column of values between units. The pair is resolved once, so each element
+     * costs a single multiply-add. {@code results} may be the same array as {@code values}.
+     *
+     * @param values The values to convert
+     * @param fromId The source unit ID
+     * @param toId The target unit ID
+     * @param results The array receiving the converted values, at least as long as values
+     * @throws IllegalArgumentException if the units have different dimensions or results is too short
+     */
+    public void convert(double[] values, int fromId, int toId, double[] results) {
+        if (results.length < values.length) {
+            throw new IllegalArgumentException("Expected at least " + values.length
+                    + " result slots but got " + results.length);
+        }
+        Matrix m = matrix();
+        int index = fromId * m.size + toId;
+        double scale = m.scale[index];
+        double offset = m.offset[index];
+        if (Double.isNaN(scale)) {
+            throw incompatible(fromId, toId);
+        }
+        for (int i = 0; i < values.length; i++) {
+            results[i] = values[i] * scale + offset;
+        }
+    }
+
+    /**
+     * Returns the factor by which a value in one unit is multiplied to convert it to another.
+     *
+     * @param fromId The source unit ID
+     * @param toId The target unit ID
+     * @return The scale of the conversion
+     * @throws IllegalArgumentException if the units have different dimensions
+     */
+    public double scale(int fromId, int toId) {
+        Matrix m = matrix();
+        double scale = m.scale[fromId * m.size + toId];
+        if (Double.isNaN(scale)) {
+            throw incompatible(fromId, toId);
+        }
+        return scale;
+    }
+
+    /**
+     * Returns the amount added after scaling to convert a value from one unit to another.
+     *
+     * @param fromId The source unit ID
+     * @param toId The target unit ID
+     * @return The offset of the conversion
+     * @throws IllegalArgumentException if the units have different dimensions
+     */
+    public double offset(int fromId, int toId) {
+        Matrix m = matrix();
+        int index = fromId * m.size + toId;
+        if (Double.isNaN(m.scale[index])) {
+            throw incompatible(fromId, toId);
+        }
+        return m.offset[index];
+    }
+
+    private IllegalArgumentException incompatible(int fromId, int toId) {
+        return new IllegalArgumentException("Conversion from " + get(fromId).getSymbol()
+                + " to " + get(toId).getSymbol() + " is not supported");
+    }
+
+    private Matrix matrix() {
+        Matrix m = matrix;
+        if (m == null) {
+            synchronized (this) {
+                m = matrix;
+                if (m == null) {
+                    m = new Matrix(units);
+                    matrix = m;
+                }
+            }
+        }
+        return m;
+    }
+
+    /**
+     * Scale and offset of every ordered pair of units.
+     */
+    private static final class Matrix {
+
+        final int size;
+        final double[] scale;
+        final double[] offset;
+
+        Matrix(List<Unit> units) {
+            size = units.size();
+            scale = new double[size * size];
+            offset = new double[size * size];
+            for (Unit from : units) {
+                for (Unit to : units) {
+                    int index = from.getId() * size + to.getId();
+                    if (from == to) {
+                        scale[index] = 1;
+                    } else if (from.getDimension().equals(to.getDimension())) {
+                        // With f = a / d and o = b / d: to = (from * f1 + o1 - o2) / f2
+                        //   = from * (a1 d2) / (d1 a2) + (b1 d2 - b2 d1) / (d1 a2)
+                        BigDecimal denominator = from.divisor.multiply(to.factorNumerator);
+                        scale[index] = from.factorNumerator.multiply(to.divisor)
+                                .divide(denominator, MathContext.DECIMAL128).doubleValue();
+                        offset[index] = from.offsetNumerator.multiply(to.divisor)
+                                .subtract(to.offsetNumerator.multiply(from.divisor))
+                                .divide(denominator, MathContext.DECIMAL128).doubleValue();
+                    } else {
+                        scale[index] = Double.NaN;
+                    }
+                }
+            }
+        }
+    }
+
+    private static UnitRegistry createStandard() {
+        UnitRegistry r = new UnitRegistry();
+
+        // Length
+        r.register("m", "metre", Dimension.LENGTH, 1, "meter");
+        r.register("km", "kilometre", Dimension.LENGTH, 1e3);
+        r.register("cm", "centimetre", Dimension.LENGTH, 1e-2);
+        r.register("mm", "millimetre", Dimension.LENGTH, 1e-3);
+        r.register("µm", "micrometre", Dimension.LENGTH, 1e-6, "um");
+        r.register("nm", "nanometre", Dimension.LENGTH, 1e-9);
+        r.register("in", "inch", Dimension.LENGTH, 0.0254);
+        r.register("ft", "foot", Dimension.LENGTH, 0.3048);
+        r.register("yd", "yard", Dimension.LENGTH, 0.9144);
+        r.register("mi", "mile", Dimension.LENGTH, 1609.344);
+        r.register("nmi", "nautical mile", Dimension.LENGTH, 1852);
+
+        // Mass
+        r.register("kg", "kilogram", Dimension.MASS, 1);
+        r.register("g", "gram", Dimension.MASS, 1e-3);
+        r.register("mg", "milligram", Dimension.MASS, 1e-6);
+        r.register("t", "tonne", Dimension.MASS, 1e3);
+        r.register("lb", "pound", Dimension.MASS, 0.45359237, "lbs");
+        r.register("oz", "ounce", Dimension.MASS, 0.45359237 / 16);
+        r.register("st", "stone", Dimension.MASS, 0.45359237 * 14);
+
+        // Time
+        r.register("s", "second", Dimension.TIME, 1, "sec");
+        r.register("ms", "millisecond", Dimension.TIME, 1e-3);
+        r.register("µs", "microsecond", Dimension.TIME, 1e-6, "us");
+        r.register("ns", "nanosecond", Dimension.TIME, 1e-9);
+        r.register("min", "minute", Dimension.TIME, 60);
+        r.register("h", "hour", Dimension.TIME, 3600, "hr");
+        r.register("d", "day", Dimension.TIME, 86400, "day");
+        r.register("wk", "week", Dimension.TIME, 7 * 86400);
+        r.register("yr", "year", Dimension.TIME, 365.25 * 86400);
+
+        // Temperature
+        r.register("K", "kelvin", Dimension.TEMPERATURE, 1);
+        r.register("C", "degree Celsius", Dimension.TEMPERATURE, 1, 273.15, "°C");
+        BigDecimal nine = BigDecimal.valueOf(9);
+        r.register("F", "degree Fahrenheit", Dimension.TEMPERATURE,
+                BigDecimal.valueOf(5), new BigDecimal("2298.35"), nine, "°F");    // 0 °F = 273.15 - 32 * 5/9 K
+        r.register("R", "degree Rankine", Dimension.TEMPERATURE, BigDecimal.valueOf(5), BigDecimal.ZERO, nine, "°R");
+
+        // Data size
+        r.register("bit", "bit", Dimension.DATA, 1);
+        r.register("B", "byte", Dimension.DATA, 8);
+        r.register("kB", "kilobyte", Dimension.DATA, 8e3, "KB");
+        r.register("MB", "megabyte", Dimension.DATA, 8e6);
+        r.register("GB", "gigabyte", Dimension.DATA, 8e9);
+        r.register("TB", "terabyte", Dimension.DATA, 8e12);
+        r.register("KiB", "kibibyte", Dimension.DATA, 8.0 * 1024);
+        r.register("MiB", "mebibyte", Dimension.DATA, 8.0 * 1024 * 1024);
+        r.register("GiB", "gibibyte", Dimension.DATA, 8.0 * 1024 * 1024 * 1024);
+        r.register("TiB", "tebibyte", Dimension.DATA, 8.0 * 1024 * 1024 * 1024 * 1024);
+
+        // Area
+        r.register("m²", "square metre", Dimension.AREA, 1, "m2");
+        r.register("km²", "square kilometre", Dimension.AREA, 1e6, "km2");
+        r.register("cm²", "square centimetre", Dimension.AREA, 1e-4, "cm2");
+        r.register("ha", "hectare", Dimension.AREA, 1e4);
+        r.register("ac", "acre", Dimension.AREA, 4046.8564224, "acre");
+        r.register("ft²", "square foot", Dimension.AREA, 0.09290304, "ft2");
+
+        // Volume
+        r.register("m³", "cubic metre", Dimension.VOLUME, 1, "m3");
+        r.register("L", "litre", Dimension.VOLUME, 1e-3, "l");
+        r.register("mL", "millilitre", Dimension.VOLUME, 1e-6, "ml");
+        r.register("gal", "US gallon", Dimension.VOLUME, 3.785411784e-3);
+        r.register("qt", "US quart", Dimension.VOLUME, 3.785411784e-3 / 4);
+        r.register("floz", "US fluid ounce", Dimension.VOLUME, 3.785411784e-3 / 128);
+
+        // Speed
+        r.register("m/s", "metre per second", Dimension.SPEED, 1, "mps");
+        r.register("kph", "kilometre per hour", Dimension.SPEED, 1000 / 3600.0, "km/h", "kmh");
+        r.register("mph", "mile per hour", Dimension.SPEED, 1609.344 / 3600);
+        r.register("kn", "knot", Dimension.SPEED, 1852 / 3600.0);
+
+        // Derived mechanical and electrical units
+        r.register("Hz", "hertz", Dimension.FREQUENCY, 1);
+        r.register("N", "newton", Dimension.FORCE, 1);
+        r.register("J", "joule", Dimension.ENERGY, 1);
+        r.register("kJ", "kilojoule", Dimension.ENERGY, 1e3);
+        r.register("cal", "calorie", Dimension.ENERGY, 4.184);
+        r.register("kcal", "kilocalorie", Dimension.ENERGY, 4184);
+        r.register("Wh", "watt-hour", Dimension.ENERGY, 3600);
+        r.register("kWh", "kilowatt-hour", Dimension.ENERGY, 3.6e6);
+        r.register("W", "watt", Dimension.POWER, 1);
+        r.register("kW", "kilowatt", Dimension.POWER, 1e3);
+        r.register("hp", "horsepower", Dimension.POWER, 745.6998715822702);
+        r.register("Pa", "pascal", Dimension.PRESSURE, 1);
+        r.register("kPa", "kilopascal", Dimension.PRESSURE, 1e3);
+        r.register("bar", "bar", Dimension.PRESSURE, 1e5);
+        r.register("atm", "atmosphere", Dimension.PRESSURE, 101325);
+        r.register("psi", "pound per square inch", Dimension.PRESSURE, 6894.757293168361);
+        r.register("A", "ampere", Dimension.CURRENT, 1);
+        r.register("mol", "mole", Dimension.AMOUNT, 1);
+
+        // Build the matrix now so that the first conversion does not pay for it
+        r.matrix();
+        r.readOnly = true;
+        return r;
+    }
+}
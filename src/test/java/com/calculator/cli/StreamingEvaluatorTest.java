@@ -0,0 +1,83 @@
+package com.calculator.cli;
+
+import com.calculator.core.CalculatorEngine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the StreamingEvaluator class.
+ */
+public class StreamingEvaluatorTest {
+    
+    private static final String INPUT = "1+1\n2×3\r\n\n2+\n√16\n1/0\n10÷4";
+    private static final String EXPECTED_PREFIX = "2\n6\n\nERR ";
+    
+    private static void assertOutput(String output, StreamingEvaluator evaluator) {
+        String[] lines = output.split("\n", -1);
+        assertTrue(output.startsWith(EXPECTED_PREFIX), output);
+        assertEquals("4", lines[4]);
+        assertEquals("ERR Invalid expression: 1/0: Division by zero!", lines[5]);
+        assertEquals("2.5", lines[6]);
+        assertEquals(7, evaluator.getLineCount());
+        assertEquals(2, evaluator.getErrorCount());
+    }
+    
+    @Test
+    public void testEvaluateStream() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        StreamingEvaluator evaluator = new StreamingEvaluator(new CalculatorEngine(), output);
+        
+        evaluator.evaluate(new ByteArrayInputStream(INPUT.getBytes(StandardCharsets.UTF_8)));
+        
+        assertOutput(output.toString(StandardCharsets.UTF_8), evaluator);
+    }
+    
+    @Test
+    public void testEvaluateFileAcrossMapWindows(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("expressions.txt");
+        Files.write(file, INPUT.getBytes(StandardCharsets.UTF_8));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        
+        // A tiny window forces lines and multi-byte characters to straddle mappings
+        StreamingEvaluator evaluator = new StreamingEvaluator(new CalculatorEngine(), output, 3);
+        evaluator.evaluate(file);
+        
+        assertOutput(output.toString(StandardCharsets.UTF_8), evaluator);
+    }
+    
+    @Test
+    public void testDeeplyNestedLineIsReportedInline() throws IOException {
+        String input = "(".repeat(5000) + "1" + ")".repeat(5000) + "\n3+4\n";
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        StreamingEvaluator evaluator = new StreamingEvaluator(new CalculatorEngine(), output);
+        
+        evaluator.evaluate(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+        
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertTrue(lines[0].startsWith("ERR ") && lines[0].contains("Expression nested too deeply"));
+        assertEquals("7", lines[1]);
+        assertEquals(1, evaluator.getErrorCount());
+    }
+    
+    @Test
+    public void testOversizedLineIsReportedInline() throws IOException {
+        byte[] input = new byte[StreamingEvaluator.MAX_LINE_LENGTH + 5 + 4];
+        java.util.Arrays.fill(input, (byte) '1');
+        byte[] tail = "\n3+4".getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(tail, 0, input, input.length - tail.length, tail.length);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        
+        new StreamingEvaluator(new CalculatorEngine(), output).evaluate(new ByteArrayInputStream(input));
+        
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertTrue(lines[0].startsWith("ERR "));
+        assertEquals("7", lines[1]);
+    }
+}
@@ -0,0 +1,74 @@
+package com.calculator.core;
+
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the BatchEvaluator class.
+ */
+public class BatchEvaluatorTest {
+    
+    private final ExpressionCompiler compiler = new ExpressionCompiler();
+    
+    private void assertMatchesRowByRow(BatchEvaluator evaluator, String source, int rows) {
+        CompiledExpression expression = compiler.compile(source);
+        Random random = new Random(42);
+        double[] x = new double[rows];
+        double[] y = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            x[i] = random.nextDouble() * 10 + 0.5;
+            y[i] = random.nextDouble() * 10 + 0.5;
+        }
+        double[] results = new double[rows];
+        
+        evaluator.evaluate(expression, new double[][] {x, y, null}, new double[] {0, 0, Math.PI}, results);
+        
+        double[] stack = new double[expression.getMaxStackDepth()];
+        for (int i = 0; i < rows; i++) {
+            double expected = expression.evaluate(new double[] {x[i], y[i], Math.PI}, stack);
+            assertEquals(expected, results[i], Math.abs(expected) * 1e-12, source + " row " + i);
+        }
+    }
+    
+    @Test
+    public void testScalarKernelsMatchInterpreter() {
+        BatchEvaluator evaluator = new BatchEvaluator(new ScalarBatchKernels());
+        assertFalse(evaluator.isVectorized());
+        assertMatchesRowByRow(evaluator, "x*y - x/y + -x + √y + 0*pi", 3001);
+        assertMatchesRowByRow(evaluator, "sin(x) + x^2 % y + log(y)*pi", 17);
+    }
+    
+    @Test
+    public void testLibraryFunctionsMatchInterpreter() {
+        BatchEvaluator evaluator = new BatchEvaluator();
+        assertMatchesRowByRow(evaluator, "mean(x, y, pi) + stddev(x, y) - max(x, 2, y) + nCr(floor(x) + 5, 3)", 2050);
+    }
+    
+    @Test
+    public void testDefaultKernelsMatchInterpreter() {
+        BatchEvaluator evaluator = new BatchEvaluator();
+        assertMatchesRowByRow(evaluator, "x*y - x/y + -x + √y + 0*pi", 3001);
+        assertMatchesRowByRow(evaluator, "sin(x) + x^2 % y + log(y)*pi", 17);
+    }
+    
+    @Test
+    public void testDivisionByZeroIsReported() {
+        CompiledExpression expression = compiler.compile("1/x");
+        double[] x = new double[100];
+        
+        assertThrows(ArithmeticException.class, () ->
+                new BatchEvaluator().evaluate(expression, new double[][] {x}, null, new double[100]));
+    }
+    
+    @Test
+    public void testMismatchedColumnsAreRejected() {
+        CompiledExpression expression = compiler.compile("x+y");
+        BatchEvaluator evaluator = new BatchEvaluator();
+        
+        assertThrows(IllegalArgumentException.class, () ->
+                evaluator.evaluate(expression, new double[][] {new double[3], new double[4]}, null, new double[3]));
+        assertThrows(IllegalArgumentException.class, () ->
+                evaluator.evaluate(expression, new double[][] {new double[3], null}, null, new double[3]));
+    }
+}
@@ -2,6 +2,12 @@ package com.calculator.core;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -35,6 +41,37 @@ public class CalculatorEngineTest {
         assertEquals(20, calculator.evaluate("(2+3)×4"), 0.0001);
     }
     
+    @Test
+    public void testRepeatedEvaluationUsesCache() {
+        assertEquals(14, calculator.evaluate("2+3×4"), 0.0001);
+        assertEquals(14, calculator.evaluate("2+3×4"), 0.0001);
+        assertEquals(14, calculator.evaluate(" 2+3×4 "), 0.0001);
+        
+        ExpressionCache<?> cache = calculator.getExpressionCache();
+        assertEquals(1, cache.getMissCount());
+        assertEquals(2, cache.getHitCount());
+        
+        // Invalid expressions are still reported
+        assertThrows(IllegalArgumentException.class, () -> calculator.evaluate("2+"));
+    }
+    
+    @Test
+    public void testBatchEvaluation() {
+        CompiledExpression expression = calculator.compile("r^2 × π");
+        double[] radius = {1, 2, 3};
+        double[] areas = new double[3];
+        
+        calculator.evaluate(expression, Map.of("r", radius), areas);
+        
+        assertEquals(Math.PI, areas[0], 0.0001);
+        assertEquals(4 * Math.PI, areas[1], 0.0001);
+        assertEquals(9 * Math.PI, areas[2], 0.0001);
+        
+        // Variables must be bound to a column or an engine value
+        assertThrows(IllegalArgumentException.class, () ->
+                calculator.evaluate(calculator.compile("r*h"), Map.of("r", radius), areas));
+    }
+    
     @Test
     public void testScientificFunctions() {
         // Square root
@@ -87,6 +124,53 @@ public class CalculatorEngineTest {
         assertEquals(0, calculator.getMemory(), 0.0001);
     }
     
+    @Test
+    public void testContextsAreIndependent() {
+        EvaluationContext first = calculator.newContext();
+        EvaluationContext second = calculator.newContext();
+        first.setVariable("x", 2);
+        second.setVariable("x", 5);
+        first.setMemory(1);
+        
+        assertEquals(4, calculator.evaluate("x^2", first), 0.0001);
+        assertEquals(25, calculator.evaluate("x^2", second), 0.0001);
+        assertEquals(0, second.getMemory(), 0.0001);
+        assertEquals(Math.PI, calculator.evaluate("π", second), 0.0001);
+        
+        // The default context does not see session variables
+        assertThrows(IllegalArgumentException.class, () -> calculator.evaluate("x^2"));
+        
+        second.clearVariables();
+        assertThrows(IllegalArgumentException.class, () -> second.getVariable("x"));
+        assertEquals(Math.E, second.getVariable("e"), 0.0001);
+    }
+    
+    @Test
+    public void testSharedEngineAcrossThreads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int offset = t;
+                results.add(executor.submit(() -> {
+                    EvaluationContext context = calculator.newContext();
+                    for (int i = 0; i < 2000; i++) {
+                        context.setVariable("x", offset * 10000 + i);
+                        if (calculator.evaluate("x*2 + 1", context) != 2.0 * (offset * 10000 + i) + 1) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
     @Test
     public void testUnitConversions() {
         // Length conversions
@@ -116,6 +200,17 @@ public class CalculatorEngineTest {
         assertTrue(exception.getMessage().contains("Conversion from m to kg is not supported"));
     }
     
+    @Test
+    public void testBatchUnitConversion() {
+        double[] lengths = {1, 2.5, 10};
+        double[] feet = new double[3];
+        calculator.convert(lengths, "m", "ft", feet);
+        
+        assertArrayEquals(new double[] {3.28084, 8.2021, 32.8084}, feet, 0.0001);
+        assertThrows(IllegalArgumentException.class, () -> calculator.convert(lengths, "m", "kg", feet));
+        assertThrows(IllegalArgumentException.class, () -> calculator.convert(lengths, "m", "parsec", feet));
+    }
+    
     @Test
     public void testBitwiseOperations() {
         // AND operation
@@ -135,6 +230,16 @@ public class CalculatorEngineTest {
         
         // Right shift
         assertEquals(1, calculator.bitwiseOperation(6, 2, CalculatorEngine.BitwiseOperation.RIGHT_SHIFT));
+        
+        // Shifting by the word size or more shifts every bit out
+        assertEquals(0, calculator.bitwiseOperation(1, 64, CalculatorEngine.BitwiseOperation.LEFT_SHIFT));
+        assertEquals(-1, calculator.bitwiseOperation(-8, 100, CalculatorEngine.BitwiseOperation.RIGHT_SHIFT));
+        
+        // Negative distances are rejected
+        assertThrows(IllegalArgumentException.class,
+                () -> calculator.bitwiseOperation(1, -1, CalculatorEngine.BitwiseOperation.LEFT_SHIFT));
+        assertThrows(IllegalArgumentException.class,
+                () -> calculator.bitwiseOperation(1, Long.MIN_VALUE, CalculatorEngine.BitwiseOperation.RIGHT_SHIFT));
     }
     
     @Test
@@ -154,6 +259,12 @@ public class CalculatorEngineTest {
         // Octal to binary
         assertEquals("1000", calculator.convertNumberSystem("10", 8, 2));
         
+        // Signs, as Long.parseLong accepts them
+        assertEquals("5", calculator.convertNumberSystem("+5", 10, 10));
+        assertEquals("-ff", calculator.convertNumberSystem("-255", 10, 16));
+        assertThrows(IllegalArgumentException.class, () -> calculator.convertNumberSystem("+-5", 10, 10));
+        assertThrows(IllegalArgumentException.class, () -> calculator.convertNumberSystem("+", 10, 10));
+        
         // Test for exception with invalid number format
         Exception exception = assertThrows(IllegalArgumentException.class, () -> {
             calculator.convertNumberSystem("G", 16, 10);
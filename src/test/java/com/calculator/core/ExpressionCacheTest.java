@@ -0,0 +1,77 @@
+package com.calculator.core;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ExpressionCache class.
+ */
+public class ExpressionCacheTest {
+    
+    @Test
+    public void testHitsAndMisses() {
+        ExpressionCache<String> cache = new ExpressionCache<>(4);
+        
+        assertEquals("A", cache.get("a", String::toUpperCase));
+        assertEquals("A", cache.get("a", key -> fail("Cached value should be reused")));
+        
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.size());
+    }
+    
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+        ExpressionCache<String> cache = new ExpressionCache<>(2);
+        cache.get("a", String::toUpperCase);
+        cache.get("b", String::toUpperCase);
+        
+        // Touch "a" so that "b" becomes the eldest entry
+        cache.get("a", String::toUpperCase);
+        cache.get("c", String::toUpperCase);
+        
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        
+        cache.get("a", String::toUpperCase);
+        assertEquals(3, cache.getMissCount());
+        cache.get("b", String::toUpperCase);
+        assertEquals(4, cache.getMissCount());
+    }
+    
+    @Test
+    public void testFailedCompilationIsNotCached() {
+        ExpressionCache<String> cache = new ExpressionCache<>(2);
+        
+        assertThrows(IllegalArgumentException.class, () -> cache.get("bad", key -> {
+            throw new IllegalArgumentException("Invalid expression: " + key);
+        }));
+        
+        assertEquals(0, cache.size());
+    }
+    
+    @Test
+    public void testConcurrentLookupsStayWithinCapacity() throws InterruptedException {
+        ExpressionCache<String> cache = new ExpressionCache<>(4);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    assertEquals("K" + i % 8, cache.get("k" + i % 8, String::toUpperCase));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        
+        assertTrue(cache.size() <= 4);
+        assertEquals(40_000, cache.getHitCount() + cache.getMissCount());
+    }
+    
+    @Test
+    public void testInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new ExpressionCache<String>(0));
+    }
+}
@@ -0,0 +1,130 @@
+package com.calculator.core;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.HashMap;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ExpressionCompiler and CompiledExpression classes.
+ */
+public class ExpressionCompilerTest {
+    
+    private ExpressionCompiler compiler;
+    private Map<String, Double> variables;
+    
+    @BeforeEach
+    public void setUp() {
+        compiler = new ExpressionCompiler();
+        variables = new HashMap<>();
+        variables.put("pi", Math.PI);
+        variables.put("e", Math.E);
+    }
+    
+    private double eval(String expression) {
+        return compiler.compile(expression).evaluate(variables);
+    }
+    
+    @Test
+    public void testPrecedenceAndAssociativity() {
+        assertEquals(14, eval("2+3*4"), 0.0001);
+        assertEquals(2, eval("10-5-3"), 0.0001);
+        assertEquals(1, eval("8/4/2"), 0.0001);
+        assertEquals(512, eval("2^3^2"), 0.0001);
+        assertEquals(-4, eval("-2^2"), 0.0001);
+        assertEquals(0.125, eval("2^-3"), 0.0001);
+        assertEquals(1, eval("7%3"), 0.0001);
+        assertEquals(5, eval("--5"), 0.0001);
+    }
+    
+    @Test
+    public void testUiSymbols() {
+        assertEquals(24, eval("6×4"), 0.0001);
+        assertEquals(5, eval("10÷2"), 0.0001);
+        assertEquals(Math.PI, eval("π"), 0.0001);
+        assertEquals(3, eval("√9"), 0.0001);
+        assertEquals(6, eval("2√9"), 0.0001);
+        assertEquals(2 * Math.PI, eval("2π"), 0.0001);
+    }
+    
+    @Test
+    public void testFunctionsAndImplicitMultiplication() {
+        assertEquals(1, eval("sin(pi/2)"), 0.0001);
+        assertEquals(2, eval("log10(100)"), 0.0001);
+        assertEquals(1, eval("log(e)"), 0.0001);
+        assertEquals(8, eval("pow(2, 3)"), 0.0001);
+        assertEquals(15, eval("3(4+1)"), 0.0001);
+        assertEquals(6, eval("(1+1)(1+2)"), 0.0001);
+        assertEquals(2 * Math.E, eval("2e"), 0.0001);
+        assertEquals(2000, eval("2e3"), 0.0001);
+        assertEquals(0.025, eval("2.5E-2"), 0.0001);
+    }
+    
+    @Test
+    public void testVariableSlots() {
+        CompiledExpression expression = compiler.compile("x*x + y");
+        assertEquals(2, expression.getVariableNames().size());
+        assertEquals(0, expression.getVariableIndex("x"));
+        assertEquals(1, expression.getVariableIndex("y"));
+        assertEquals(11, expression.evaluate(new double[] {3, 2}), 0.0001);
+        assertEquals(2, expression.getMaxStackDepth());
+    }
+    
+    @Test
+    public void testLibraryFunctions() {
+        assertEquals(10, eval("nCr(5, 2)"), 0.0);
+        assertEquals(20, eval("nPr(5, 2)"), 0.0);
+        assertEquals(24, eval("gamma(5)"), 1e-12);
+        assertEquals(120, eval("factorial(5)"), 0.0);
+        assertEquals(0.8427007929497149, eval("erf(1)"), 1e-15);
+        assertEquals(4, eval("mean(2, 4, 6)"), 0.0);
+        assertEquals(4, eval("variance(2, 4, 6)"), 1e-12);
+        assertEquals(2, eval("stddev(2, 4, 6)"), 1e-12);
+        assertEquals(12, eval("sum(2, 4, 6)"), 0.0);
+        assertEquals(-1, eval("min(3, -1, 2) × max(1)"), 0.0);
+        
+        // Arguments may be full expressions, including nested variadic calls
+        assertEquals(16.0 / 3, eval("mean(1, sum(2, 3), 2^3 + 2)"), 1e-15);
+    }
+    
+    @Test
+    public void testVariadicCallDepth() {
+        CompiledExpression expression = compiler.compile("max(1, 2, 3, 4) + 1");
+        assertEquals(4, expression.getMaxStackDepth());
+        assertEquals(7, expression.getInstructionCount());
+        assertTrue(expression.disassemble().contains("max 4"));
+    }
+    
+    @Test
+    public void testInvalidExpressions() {
+        assertThrows(IllegalArgumentException.class, () -> compiler.compile(""));
+        assertThrows(IllegalArgumentException.class, () -> compiler.compile("2+"));
+        assertThrows(IllegalArgumentException.class, () -> compiler.compile("(2+3"));
+        assertThrows(IllegalArgumentException.class, () -> compiler.compile("2+3)"));
+        assertThrows(IllegalArgumentException.class, () -> compiler.compile("pow(2)"));
+        assertThrows(IllegalArgumentException.class, () -> compiler.compile("nCr(5)"));
+        assertThrows(IllegalArgumentException.class, () -> compiler.compile("variance(1)"));
+        assertThrows(IllegalArgumentException.class, () -> compiler.compile("mean()"));
+        assertThrows(IllegalArgumentException.class, () -> eval("x+1"));
+        assertThrows(ArithmeticException.class, () -> eval("1/0"));
+        assertThrows(IllegalArgumentException.class, () -> compiler.compile("1 2"));
+        assertThrows(IllegalArgumentException.class, () -> compiler.compile("1.5.5"));
+        assertThrows(IllegalArgumentException.class, () -> compiler.compile("-2 3"));
+    }
+    
+    @Test
+    public void testDeepNesting() {
+        assertEquals(1, eval("(".repeat(ExpressionCompiler.MAX_NESTING) + "1" + ")".repeat(ExpressionCompiler.MAX_NESTING)));
+        assertEquals(2, eval("abs(".repeat(ExpressionCompiler.MAX_NESTING) + "-2" + ")".repeat(ExpressionCompiler.MAX_NESTING)));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> compiler.compile("(".repeat(2000) + "1" + ")".repeat(2000)));
+        assertTrue(e.getMessage().startsWith("Expression nested too deeply"));
+        assertThrows(IllegalArgumentException.class, () -> compiler.compile("2^".repeat(2000) + "1"));
+        
+        // Prefix operators are parsed in a loop and have no limit
+        assertEquals(1, eval("-".repeat(8000) + "1"));
+        assertEquals(-1, eval("-".repeat(8001) + "1"));
+        assertEquals(-2, eval("-" + "√".repeat(3) + "256"), 1e-12);
+    }
+}
@@ -0,0 +1,65 @@
+package com.calculator.core;
+
+import org.junit.jupiter.api.Test;
+import java.util.function.DoubleUnaryOperator;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for bytecode generation of compiled expressions.
+ */
+public class ExpressionJitTest {
+    
+    private final ExpressionCompiler compiler = new ExpressionCompiler();
+    
+    @Test
+    public void testGeneratedCodeMatchesInterpreter() {
+        String[] expressions = {
+            "x + y * 2", "(x - y) / 4", "x % 3 + 0", "x^y", "-x + 1", "√x × y",
+            "sin(x) + cos(y) + tan(x)", "cot(x) + log2(y) + log10(y) + ln(y)",
+            "abs(-x) + ceil(y) + floor(y) + signum(-y)", "exp(x) + expm1(y) + cbrt(x)",
+            "sinh(x) + cosh(y) + tanh(x) + atan(y) + asin(0.5) + acos(0.5)", "pow(x, 2) + log1p(y)",
+            "nCr(10, 3) + nPr(x, 2) + gamma(y) + lgamma(x) + factorial(4) + erf(y) + erfc(x)",
+            "mean(x, y, 1) + variance(x, y) × stddev(1, x, y) - sum(x, max(x, y), min(1, 2, 3))"
+        };
+        double[] values = {3.5, 1.25};
+        double[] stack = new double[64];
+        
+        for (String source : expressions) {
+            CompiledExpression expression = compiler.compile(source);
+            double interpreted = expression.evaluate(values, stack);
+            ExpressionFunction function = expression.toFunction();
+            
+            assertTrue(expression.isBytecodeCompiled(), source);
+            assertEquals(interpreted, function.applyAsDouble(values), 0.0, source);
+            assertEquals(interpreted, expression.evaluate(values), 0.0, source);
+        }
+    }
+    
+    @Test
+    public void testSingleVariableExpressionIsUnaryOperator() {
+        ExpressionFunction function = compiler.compile("2*t^2 + 1").toFunction();
+        
+        assertTrue(function instanceof DoubleUnaryOperator);
+        assertEquals(19, ((DoubleUnaryOperator) function).applyAsDouble(3), 0.0);
+    }
+    
+    @Test
+    public void testHotExpressionIsCompiledAfterThreshold() {
+        CompiledExpression expression = compiler.compile("x * 2");
+        double[] values = {21};
+        
+        for (int i = 0; i < ExpressionJit.THRESHOLD; i++) {
+            assertEquals(42, expression.evaluate(values), 0.0);
+        }
+        
+        assertTrue(expression.isBytecodeCompiled());
+        assertEquals(42, expression.evaluate(values), 0.0);
+    }
+    
+    @Test
+    public void testGeneratedCodeReportsDivisionByZero() {
+        ExpressionFunction function = compiler.compile("1 / x").toFunction();
+        
+        assertThrows(ArithmeticException.class, () -> function.applyAsDouble(new double[] {0}));
+    }
+}
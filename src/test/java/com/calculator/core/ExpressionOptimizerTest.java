@@ -0,0 +1,180 @@
+package com.calculator.core;
+
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.HashMap;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ExpressionOptimizer class.
+ */
+public class ExpressionOptimizerTest {
+
+    private static final double[] SPECIAL_VALUES = {
+        0.0, -0.0, 1.5, -2.25, 1e300, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY
+    };
+
+    private final CalculatorEngine engine = new CalculatorEngine();
+
+    @Test
+    public void testCommonSubexpressionsAreShared() {
+        CompiledExpression expression = engine.compile("sqrt(x^2+y^2) + 2*sqrt(x^2+y^2) - sqrt(y^2+x^2)/4");
+        assertEquals(16, expression.getUnoptimized().getOperationCount());
+        assertEquals(8, expression.getOperationCount());
+        assertTrue(expression.disassemble().contains("store 0"));
+        assertTrue(expression.disassemble().contains("temp 0"));
+        assertSameResults(expression);
+    }
+
+    @Test
+    public void testBenchmarkFormulaOperationCounts() {
+        CompiledExpression generated = engine.compile(
+                "sqrt(x^2+y^2)×2×pi+sin(x×y)/sqrt(x^2+y^2)-cos(x×y)×sqrt(x^2+y^2)×e");
+        assertEquals(23, generated.getUnoptimized().getOperationCount());
+        assertEquals(14, generated.getOperationCount());
+        CompiledExpression formula = engine.compile(
+                "(x×3-y÷2)^2+sqrt(x×x+y×y)×sin(π/6)-log10(x×1000)+(x-y)×(x+y)÷5+cos(y)×2.75");
+        assertEquals(23, formula.getUnoptimized().getOperationCount());
+        assertEquals(21, formula.getOperationCount());
+    }
+
+    @Test
+    public void testConstantsAreFolded() {
+        CompiledExpression expression = engine.compile("2*pi*x + e^2 - sqrt(16)");
+        assertEquals(6, expression.getUnoptimized().getOperationCount());
+        assertEquals(3, expression.getOperationCount());
+        assertEquals(1, expression.getVariableNames().size());
+        assertEquals(2 * Math.PI * 3 + Math.exp(2) - 4, engine.evaluate("2*pi*3 + e^2 - sqrt(16)"), 1e-12);
+
+        CompiledExpression constant = engine.compile("sin(pi/6) * 2");
+        assertEquals(0, constant.getOperationCount());
+        assertEquals(1.0, constant.evaluate(new double[0]), 1e-15);
+    }
+
+    @Test
+    public void testAlgebraicSimplificationIsExact() {
+        String[] sources = {
+            "x*1 - 0", "1*x + -0", "--x", "x - -y", "-x + y", "x + -y", "-x * -y", "x*-1",
+            "x/1", "x/-1", "x/4", "x/0.125", "x^1", "x^2", "y^0", "(x+y)^2", "x + 0", "0 - x"
+        };
+        for (String source : sources) {
+            assertSameResults(engine.compile(source));
+        }
+        assertEquals(0, engine.compile("x*1 - 0").getOperationCount());
+        assertEquals(1, engine.compile("x - -y").getOperationCount());
+        assertEquals("mul", lastInstruction(engine.compile("x/4")));
+        assertEquals("mul", lastInstruction(engine.compile("x^2")));
+        assertEquals("div", lastInstruction(engine.compile("x/3")));
+    }
+
+    @Test
+    public void testErrorsAreKept() {
+        assertThrows(IllegalArgumentException.class, () -> engine.evaluate("1/0 + 2"));
+        assertThrows(IllegalArgumentException.class, () -> engine.evaluate("(1/(x-x))^0", context(1, 2)));
+        assertThrows(IllegalArgumentException.class, () -> engine.evaluate("factorial(-1)*0"));
+        assertEquals(1, engine.evaluate("(x+1)^0", context(Double.NaN, 0)));
+    }
+
+    @Test
+    public void testRebindingAFoldedConstant() {
+        EvaluationContext context = engine.newContext();
+        assertEquals(2 * Math.PI, engine.evaluate("2*pi", context), 1e-15);
+        context.setVariable("pi", 3);
+        assertEquals(6, engine.evaluate("2*pi", context));
+        assertThrows(IllegalArgumentException.class, () -> engine.compile("2*pi").evaluate(new HashMap<>()));
+
+        double[] results = new double[2];
+        Map<String, double[]> columns = new HashMap<>();
+        columns.put("x", new double[] {1, 2});
+        engine.evaluate(engine.compile("x*pi"), columns, results, context);
+        assertArrayEquals(new double[] {3, 6}, results);
+        columns.put("pi", new double[] {10, 20});
+        engine.evaluate(engine.compile("x*pi"), columns, results);
+        assertArrayEquals(new double[] {10, 40}, results);
+    }
+
+    @Test
+    public void testPrecisionUsesTheProgramAsWritten() {
+        BigDecimal result = engine.evaluate("2*pi - 0.1 - 0.2", new MathContext(30));
+        assertEquals("5.98318530717958647692528676656", result.toPlainString());
+    }
+
+    @Test
+    public void testBytecodeAndBatchEvaluationWithTemporaries() {
+        CompiledExpression expression = engine.compile("(x*y+1)*(x*y+1) + sin(x*y+1) + max(x, y, x*y+1)");
+        assertTrue(expression.getOperationCount() < expression.getUnoptimized().getOperationCount());
+        double[] values = {1.5, -2.5};
+        double expected = expression.getUnoptimized().evaluate(values);
+        assertEquals(expected, expression.evaluate(values));
+        assertEquals(expected, expression.toFunction().applyAsDouble(values));
+
+        double[] x = {1.5, 2, 3};
+        double[] y = {-2.5, 0.5, 7};
+        double[] results = new double[3];
+        Map<String, double[]> columns = new HashMap<>();
+        columns.put("x", x);
+        columns.put("y", y);
+        engine.evaluate(expression, columns, results);
+        for (int i = 0; i < x.length; i++) {
+            assertEquals(expression.getUnoptimized().evaluate(new double[] {x[i], y[i]}), results[i], 1e-12);
+        }
+    }
+
+    @Test
+    public void testMoreTemporariesThanTheDefaultStack() {
+        StringBuilder source = new StringBuilder("0");
+        for (int i = 1; i <= 40; i++) {
+            source.append("+(x+").append(i).append(")^2");
+        }
+        CompiledExpression expression = engine.compile(source.toString());
+        assertTrue(expression.getMaxStackDepth() > 32);
+        double expected = 0;
+        for (int i = 1; i <= 40; i++) {
+            expected += (2.0 + i) * (2.0 + i);
+        }
+        assertEquals(expected, engine.evaluate(source.toString(), context(2, 0)));
+        assertEquals(expected, expression.evaluate(new double[] {2}));
+    }
+
+    @Test
+    public void testLongGeneratedSums() {
+        String sum = "x" + "+x".repeat(7999);
+        assertEquals(16000, engine.evaluate(sum, context(2, 0)));
+        CompiledExpression expression = engine.compile(sum);
+        assertEquals(16000, expression.evaluate(new double[] {2}));
+
+        // Mixed terms that share a subexpression keep its temporary
+        String shared = "sin(x)" + "+sin(x)*y".repeat(4000);
+        assertEquals(Math.sin(1) + 4000 * Math.sin(1) * 0.5, engine.evaluate(shared, context(1, 0.5)), 1e-9);
+    }
+
+    private EvaluationContext context(double x, double y) {
+        EvaluationContext context = engine.newContext();
+        context.setVariable("x", x);
+        context.setVariable("y", y);
+        return context;
+    }
+
+    /**
+     * Checks that the optimized program gives bit-identical results to the original one,
+     * including signed zeros, NaN and infinities.
+     */
+    private void assertSameResults(CompiledExpression expression) {
+        CompiledExpression original = expression.getUnoptimized();
+        for (double x : SPECIAL_VALUES) {
+            for (double y : SPECIAL_VALUES) {
+                EvaluationContext context = context(x, y);
+                double expected = original.evaluate(context.getVariables());
+                assertEquals(expected, expression.evaluate(context.getVariables()),
+                        expression.getSource() + " at x=" + x + ", y=" + y);
+            }
+        }
+    }
+
+    private static String lastInstruction(CompiledExpression expression) {
+        String[] lines = expression.disassemble().split("\n");
+        return lines[lines.length - 1];
+    }
+}
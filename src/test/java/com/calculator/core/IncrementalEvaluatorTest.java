@@ -0,0 +1,147 @@
+package com.calculator.core;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.Locale;
+import java.util.OptionalDouble;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the IncrementalEvaluator class.
+ */
+public class IncrementalEvaluatorTest {
+
+    private static final String[] EXPRESSIONS = {
+        "2 + 3 * 4",
+        "-2^2",
+        "2^3^2",
+        "2^-3*4",
+        "√16 + 2√9",
+        "3(4+1)π",
+        "2e3 + 2e",
+        "1.5e-2 * 4",
+        "sin(pi / 2) + cos(0)",
+        "max(1, 7, 3) - mean(2, 4)",
+        "pow(2, 10) % 7",
+        "10 ÷ 4 × 2",
+        "(1 + 2) * (3 - 4) / 5"
+    };
+
+    private CalculatorEngine engine;
+
+    @BeforeEach
+    public void setUp() {
+        engine = new CalculatorEngine();
+    }
+
+    @Test
+    public void testPreviewMatchesEvaluation() {
+        for (String expression : EXPRESSIONS) {
+            IncrementalEvaluator evaluator = engine.newIncrementalEvaluator();
+            evaluator.setText(expression);
+            assertEquals(engine.evaluate(expression), evaluator.preview().getAsDouble(), 1e-12, expression);
+        }
+    }
+
+    @Test
+    public void testTypingMatchesEvaluationOfEachPrefix() {
+        for (String expression : EXPRESSIONS) {
+            IncrementalEvaluator typed = engine.newIncrementalEvaluator();
+            for (int i = 1; i <= expression.length(); i++) {
+                typed.append(expression.substring(i - 1, i));
+                String prefix = expression.substring(0, i);
+
+                IncrementalEvaluator fresh = engine.newIncrementalEvaluator();
+                fresh.setText(prefix);
+                assertEquals(fresh.preview(), typed.preview(), prefix);
+
+                Double expected = evaluateOrNull(prefix);
+                if (expected != null && typed.preview().isPresent()) {
+                    assertEquals(expected, typed.preview().getAsDouble(), 1e-12, prefix);
+                }
+            }
+            assertTrue(typed.preview().isPresent(), expression);
+        }
+    }
+
+    @Test
+    public void testBackspaceRestoresEarlierPreview() {
+        IncrementalEvaluator evaluator = engine.newIncrementalEvaluator();
+        evaluator.append("12+3");
+        assertEquals(15, evaluator.preview().getAsDouble());
+        evaluator.backspace();
+        assertFalse(evaluator.preview().isPresent());
+        evaluator.backspace();
+        assertEquals(12, evaluator.preview().getAsDouble());
+        evaluator.append("e2");
+        assertEquals(1200, evaluator.preview().getAsDouble());
+        evaluator.backspace();
+        assertEquals(12 * Math.E, evaluator.preview().getAsDouble(), 1e-12);
+        assertEquals("12e", evaluator.getText());
+    }
+
+    @Test
+    public void testOpenParenthesesAreClosedForThePreview() {
+        IncrementalEvaluator evaluator = engine.newIncrementalEvaluator();
+        evaluator.setText("2 * (3 + max(4, 5");
+        assertEquals(16, evaluator.preview().getAsDouble());
+    }
+
+    @Test
+    public void testNoPreviewForInvalidOrIncompleteText() {
+        IncrementalEvaluator evaluator = engine.newIncrementalEvaluator();
+        assertFalse(evaluator.preview().isPresent());
+        for (String text : new String[] {"2 +", "1 / 0", "unknown + 1", "2 )", "sin", "3 $ 4", "mean(1,"}) {
+            evaluator.setText(text);
+            assertEquals(OptionalDouble.empty(), evaluator.preview(), text);
+        }
+    }
+
+    @Test
+    public void testEditsOnlyReparseTheEnd() {
+        IncrementalEvaluator evaluator = engine.newIncrementalEvaluator();
+        StringBuilder expression = new StringBuilder("1");
+        for (int i = 0; i < 500; i++) {
+            expression.append(" + ").append(i).append(" * 2");
+        }
+        evaluator.setText(expression.toString());
+
+        evaluator.append("3");
+        assertTrue(evaluator.lastTokensParsed() <= 2);
+        evaluator.append(" - 1");
+        assertTrue(evaluator.lastTokensParsed() <= 3);
+        evaluator.backspace();
+        assertTrue(evaluator.lastTokensParsed() <= 2);
+        assertFalse(evaluator.preview().isPresent());
+        evaluator.append("5");
+        assertEquals(engine.evaluate(evaluator.getText()), evaluator.preview().getAsDouble(), 1e-9);
+    }
+
+    @Test
+    public void testVariablesComeFromTheContext() {
+        EvaluationContext context = engine.newContext();
+        context.setVariable("x", 4);
+        IncrementalEvaluator evaluator = engine.newIncrementalEvaluator(context);
+        evaluator.setText("3x + 1");
+        assertEquals(13, evaluator.preview().getAsDouble());
+    }
+
+    @Test
+    public void testLocaleLiteralsAcrossEdits() {
+        IncrementalEvaluator evaluator = new CalculatorEngine(Locale.GERMANY).newIncrementalEvaluator();
+        evaluator.setText("max(1,5; 2");
+        evaluator.append(",5)");
+        assertEquals(2.5, evaluator.preview().getAsDouble());
+        evaluator.setText("0x1");
+        evaluator.append("f");
+        assertEquals(31, evaluator.preview().getAsDouble());
+    }
+
+    private Double evaluateOrNull(String expression) {
+        try {
+            return engine.evaluate(expression);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
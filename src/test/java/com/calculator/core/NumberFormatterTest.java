@@ -0,0 +1,120 @@
+package com.calculator.core;
+
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the NumberFormatter class.
+ */
+public class NumberFormatterTest {
+
+    private static final NumberFormatter SHORTEST = NumberFormatter.SHORTEST;
+
+    @Test
+    public void testShortestPlainOutput() {
+        assertEquals("0", SHORTEST.format(0.0));
+        assertEquals("-0", SHORTEST.format(-0.0));
+        assertEquals("42", SHORTEST.format(42));
+        assertEquals("-2.5", SHORTEST.format(-2.5));
+        assertEquals("0.1", SHORTEST.format(0.1));
+        assertEquals("0.30000000000000004", SHORTEST.format(0.1 + 0.2));
+        assertEquals("123456789012345680000", SHORTEST.format(1.2345678901234568e20));
+        assertEquals("1E21", SHORTEST.format(1e21));
+        assertEquals("0.0000001", SHORTEST.format(1e-7));
+        assertEquals("1.5E-8", SHORTEST.format(1.5e-8));
+        assertEquals("1.7976931348623157E308", SHORTEST.format(Double.MAX_VALUE));
+        assertEquals("4.9E-324", SHORTEST.format(Double.MIN_VALUE));
+        assertEquals("2.2250738585072014E-308", SHORTEST.format(Double.MIN_NORMAL));
+        assertEquals("NaN", SHORTEST.format(Double.NaN));
+        assertEquals("-Infinity", SHORTEST.format(Double.NEGATIVE_INFINITY));
+    }
+
+    @Test
+    public void testRandomValuesRoundTripWithFewestDigits() {
+        Random random = new Random(42);
+        char[] buffer = new char[NumberFormatter.MAX_LENGTH];
+        for (int i = 0; i < 20_000; i++) {
+            double value = Double.longBitsToDouble(random.nextLong());
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                continue;
+            }
+            String text = new String(buffer, 0, SHORTEST.format(value, buffer, 0));
+            assertEquals(value, Double.parseDouble(text), text);
+            if (i % 10 == 0) {
+                assertTrue(significantDigits(text) <= fewestDigits(value), text);
+            }
+        }
+    }
+
+    @Test
+    public void testSignificantDigits() {
+        NumberFormatter formatter = new NumberFormatter(15, NumberFormatter.Notation.PLAIN);
+        assertEquals("0.3", formatter.format(0.1 + 0.2));
+        assertEquals("3.14159265358979", formatter.format(Math.PI));
+        assertEquals("0.2", new NumberFormatter(1, NumberFormatter.Notation.PLAIN).format(0.15));
+        assertEquals("1000", new NumberFormatter(3, NumberFormatter.Notation.PLAIN).format(999.6));
+    }
+
+    @Test
+    public void testScientificAndEngineeringNotation() {
+        NumberFormatter scientific = new NumberFormatter(0, NumberFormatter.Notation.SCIENTIFIC);
+        assertEquals("1.2345E4", scientific.format(12345));
+        assertEquals("5", scientific.format(5));
+        assertEquals("-2.5E-3", scientific.format(-0.0025));
+
+        NumberFormatter engineering = new NumberFormatter(0, NumberFormatter.Notation.ENGINEERING);
+        assertEquals("12.345E3", engineering.format(12345));
+        assertEquals("100E3", engineering.format(100000));
+        assertEquals("2.5E-3", engineering.format(0.0025));
+        assertEquals("250E-6", engineering.format(0.00025));
+    }
+
+    @Test
+    public void testAppendToBuilderAndBytes() {
+        StringBuilder out = new StringBuilder("x = ");
+        SHORTEST.format(1.25, out);
+        assertEquals("x = 1.25", out.toString());
+
+        byte[] bytes = new byte[40];
+        int end = SHORTEST.format(-7.5e100, bytes, 3);
+        assertEquals("-7.5E100", new String(bytes, 3, end - 3));
+    }
+
+    @Test
+    public void testIntegersInOtherBases() {
+        assertEquals("ff", NumberFormatter.formatInteger(255L, 16, new StringBuilder()).toString());
+        assertEquals("-101", NumberFormatter.formatInteger(-5L, 2, new StringBuilder()).toString());
+        assertEquals(Long.toBinaryString(Long.MIN_VALUE).length() + 1,
+                NumberFormatter.formatInteger(Long.MIN_VALUE, 2, new StringBuilder()).length());
+        assertEquals("ffffffffffffffff", NumberFormatter.formatUnsignedInteger(-1L, 16, new StringBuilder()).toString());
+        assertEquals(Long.toUnsignedString(-12345L, 7),
+                NumberFormatter.formatUnsignedInteger(-12345L, 7, new StringBuilder()).toString());
+        assertEquals("777", NumberFormatter.formatInteger(511.0, 8, new StringBuilder()).toString());
+        assertThrows(IllegalArgumentException.class, () -> NumberFormatter.formatInteger(1.5, 2, new StringBuilder()));
+        assertThrows(IllegalArgumentException.class, () -> NumberFormatter.formatInteger(1L, 1, new StringBuilder()));
+    }
+
+    @Test
+    public void testInvalidDigitCount() {
+        assertThrows(IllegalArgumentException.class, () -> new NumberFormatter(18, NumberFormatter.Notation.PLAIN));
+    }
+
+    private static int significantDigits(String text) {
+        String mantissa = text.replace("-", "").split("E")[0].replace(".", "").replaceAll("^0+", "");
+        return mantissa.replaceAll("0+$", "").length();
+    }
+
+    private static int fewestDigits(double value) {
+        BigDecimal exact = new BigDecimal(value);
+        for (int digits = 1; digits < 17; digits++) {
+            if (exact.round(new MathContext(digits, RoundingMode.HALF_EVEN)).doubleValue() == value) {
+                return digits;
+            }
+        }
+        return 17;
+    }
+}
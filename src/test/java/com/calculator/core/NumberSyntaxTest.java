@@ -0,0 +1,113 @@
+package com.calculator.core;
+
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Locale;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the NumberSyntax class and the number scanning behind it.
+ */
+public class NumberSyntaxTest {
+
+    private static final NumberSyntax STANDARD = NumberSyntax.STANDARD;
+
+    @Test
+    public void testDecimalLiterals() {
+        assertEquals(42, STANDARD.parse("42"));
+        assertEquals(0.1, STANDARD.parse("0.1"));
+        assertEquals(0.5, STANDARD.parse(".5"));
+        assertEquals(3, STANDARD.parse("3."));
+        assertEquals(1.5e-8, STANDARD.parse("1.5e-8"));
+        assertEquals(2.5e300, STANDARD.parse("2.5E+300"));
+        assertEquals(Double.MAX_VALUE, STANDARD.parse("1.7976931348623157e308"));
+        assertEquals(Double.MIN_VALUE, STANDARD.parse("4.9e-324"));
+        assertEquals(Double.POSITIVE_INFINITY, STANDARD.parse("1e400"));
+        assertEquals(0.0, STANDARD.parse("1e-400"));
+        assertEquals(0.30000000000000004, STANDARD.parse("0.30000000000000004"));
+        assertEquals(9007199254740993.0, STANDARD.parse("9007199254740993"));
+        assertEquals(1.0, STANDARD.parse("1.00000000000000000000000000001"));
+    }
+
+    @Test
+    public void testRandomLiteralsMatchDoubleParse() {
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            String text;
+            switch (i % 3) {
+                case 0:
+                    text = Double.toString(Double.longBitsToDouble(random.nextLong() & Long.MAX_VALUE));
+                    break;
+                case 1:
+                    text = random.nextInt(1_000_000) + "." + Math.abs(random.nextLong()) + "e" + (random.nextInt(640) - 330);
+                    break;
+                default:
+                    text = Long.toUnsignedString(random.nextLong()) + Math.abs(random.nextLong());
+                    break;
+            }
+            if (text.contains("Infinity") || text.contains("NaN")) {
+                continue;
+            }
+            assertEquals(Double.parseDouble(text), STANDARD.parse(text), text);
+        }
+    }
+
+    @Test
+    public void testHalfwayCasesRoundToEven() {
+        assertEquals(9007199254740992.0, STANDARD.parse("9007199254740993"));
+        assertEquals(9007199254740996.0, STANDARD.parse("9007199254740995"));
+        assertEquals(Double.parseDouble("2.2250738585072011e-308"), STANDARD.parse("2.2250738585072011e-308"));
+        assertEquals(Double.parseDouble("7.3177701707893310e+15"), STANDARD.parse("7.3177701707893310e+15"));
+    }
+
+    @Test
+    public void testRadixLiterals() {
+        assertEquals(255, STANDARD.parse("0xff"));
+        assertEquals(31, STANDARD.parse("0X1F"));
+        assertEquals(15, STANDARD.parse("0o17"));
+        assertEquals(10, STANDARD.parse("0b1010"));
+        assertEquals(0x1p64, STANDARD.parse("0x10000000000000000"));
+        assertEquals(Math.pow(2, 64) - 1, STANDARD.parse("0xffffffffffffffff"));
+        assertThrows(IllegalArgumentException.class, () -> STANDARD.parse("0b2"));
+        assertThrows(IllegalArgumentException.class, () -> STANDARD.parse("0x"));
+    }
+
+    @Test
+    public void testLocaleSeparators() {
+        NumberSyntax german = NumberSyntax.forLocale(Locale.GERMANY);
+        assertEquals(',', german.getDecimalSeparator());
+        assertEquals('.', german.getGroupingSeparator());
+        assertEquals(';', german.getArgumentSeparator());
+        assertEquals(1234.5, german.parse("1.234,5"));
+        assertEquals(1234567, german.parse("1.234.567"));
+        assertThrows(IllegalArgumentException.class, () -> german.parse("1.23,5"));
+
+        NumberSyntax french = NumberSyntax.forLocale(Locale.FRANCE);
+        assertEquals(1234.5, french.parse("1 234,5"));
+        assertEquals(1234.5, french.parse("1 234,5"));
+
+        assertSame(STANDARD, NumberSyntax.forLocale(Locale.ROOT));
+        NumberSyntax english = NumberSyntax.forLocale(Locale.US);
+        assertEquals(0, english.getGroupingSeparator());
+        assertThrows(IllegalArgumentException.class, () -> english.parse("1,000"));
+    }
+
+    @Test
+    public void testInvalidLiterals() {
+        assertThrows(IllegalArgumentException.class, () -> STANDARD.parse(""));
+        assertThrows(IllegalArgumentException.class, () -> STANDARD.parse("."));
+        assertThrows(IllegalArgumentException.class, () -> STANDARD.parse("1.2.3"));
+        assertThrows(IllegalArgumentException.class, () -> STANDARD.parse("abc"));
+    }
+
+    @Test
+    public void testLocaleExpressions() {
+        CalculatorEngine engine = new CalculatorEngine(Locale.GERMANY);
+        assertEquals(2.5, engine.evaluate("max(1,5; 2,5)"), 0.0001);
+        assertEquals(2469, engine.evaluate("1.234,5 × 2"), 0.0001);
+        assertEquals(new BigDecimal("0.3"), engine.evaluate("0,1 + 0,2", MathContext.DECIMAL64));
+        assertEquals(256, new CalculatorEngine().evaluate("0xff + 0b1"), 0.0001);
+    }
+}
@@ -0,0 +1,79 @@
+package com.calculator.core;
+
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ParallelBatchEvaluator class.
+ */
+public class ParallelBatchEvaluatorTest {
+    
+    private static final int ROWS = 10_000;
+    
+    private final CompiledExpression expression = new ExpressionCompiler().compile("x^2 + y/2 - c");
+    
+    private double[][] columns() {
+        double[] x = new double[ROWS];
+        double[] y = new double[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            x[i] = i * 0.5;
+            y[i] = ROWS - i;
+        }
+        return new double[][] {x, y, null};
+    }
+    
+    private void assertMatchesSequential(ParallelBatchEvaluator parallel) {
+        double[][] columns = columns();
+        double[] scalars = {0, 0, 3};
+        double[] expected = new double[ROWS];
+        double[] actual = new double[ROWS];
+        
+        new BatchEvaluator().evaluate(expression, columns, scalars, expected);
+        parallel.evaluate(expression, columns, scalars, actual);
+        
+        assertArrayEquals(expected, actual);
+    }
+    
+    @Test
+    public void testForkJoinPoolPreservesRowOrder() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertMatchesSequential(new ParallelBatchEvaluator(pool, 700));
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    @Test
+    public void testCustomExecutorPreservesRowOrder() {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            assertMatchesSequential(new ParallelBatchEvaluator(executor, 1500));
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    @Test
+    public void testFailuresPropagate() {
+        CompiledExpression reciprocal = new ExpressionCompiler().compile("1/x");
+        double[] x = new double[ROWS];
+        x[ROWS - 1] = 0;
+        for (int i = 0; i < ROWS - 1; i++) {
+            x[i] = i + 1;
+        }
+        
+        ParallelBatchEvaluator parallel = new ParallelBatchEvaluator(ForkJoinPool.commonPool(), 1024);
+        assertThrows(ArithmeticException.class, () ->
+                parallel.evaluate(reciprocal, new double[][] {x}, null, new double[ROWS]));
+    }
+    
+    @Test
+    public void testInvalidChunkSize() {
+        assertThrows(IllegalArgumentException.class, () ->
+                new ParallelBatchEvaluator(ForkJoinPool.commonPool(), 0));
+    }
+}
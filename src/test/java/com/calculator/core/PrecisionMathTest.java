@@ -0,0 +1,113 @@
+package com.calculator.core;
+
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the PrecisionMath class.
+ */
+public class PrecisionMathTest {
+    
+    private static final String PI_DIGITS =
+            "3.14159265358979323846264338327950288419716939937510582097494459230781640628620899862803482534211706798214808651";
+    private static final String E_DIGITS =
+            "2.71828182845904523536028747135266249775724709369995957496696762772407663035354759457138217852516642742746";
+    private static final String LN2_DIGITS = "0.69314718055994530941723212145817656807550013436025";
+    
+    private static final MathContext MC50 = new MathContext(50);
+    
+    @Test
+    public void testConstantsMatchKnownDigits() {
+        assertEquals(new BigDecimal(PI_DIGITS).round(new MathContext(100)), PrecisionMath.pi(new MathContext(100)));
+        assertEquals(new BigDecimal(E_DIGITS).round(new MathContext(100)),
+                PrecisionMath.exp(BigDecimal.ONE, new MathContext(100)));
+        assertEquals(new BigDecimal(LN2_DIGITS).round(new MathContext(45)),
+                PrecisionMath.ln(BigDecimal.valueOf(2), new MathContext(45)));
+    }
+    
+    @Test
+    public void testInverseFunctions() {
+        BigDecimal x = new BigDecimal("123.456");
+        assertClose(x, PrecisionMath.exp(PrecisionMath.ln(x, MC50), MC50), 45);
+        
+        BigDecimal angle = new BigDecimal("0.7");
+        BigDecimal sin = PrecisionMath.sin(angle, MC50);
+        BigDecimal cos = PrecisionMath.cos(angle, MC50);
+        assertClose(BigDecimal.ONE, sin.pow(2).add(cos.pow(2)), 45);
+        assertClose(angle, PrecisionMath.asin(sin, MC50), 45);
+        assertClose(angle, PrecisionMath.atan(sin.divide(cos, MC50), MC50), 45);
+        
+        assertClose(BigDecimal.valueOf(2), PrecisionMath.sqrt(BigDecimal.valueOf(4), MC50), 49);
+        assertClose(new BigDecimal("1024"), PrecisionMath.pow(BigDecimal.valueOf(2), BigDecimal.TEN, MC50), 49);
+    }
+    
+    @Test
+    public void testFiveHundredDigits() {
+        MathContext mc = new MathContext(500);
+        // e as the sum of 1/n!, independent of the reduced series in exp
+        BigDecimal e = BigDecimal.ONE;
+        BigDecimal term = BigDecimal.ONE;
+        MathContext wide = new MathContext(520);
+        for (int n = 1; n < 300; n++) {
+            term = term.divide(BigDecimal.valueOf(n), wide);
+            e = e.add(term, wide);
+        }
+        assertClose(e, PrecisionMath.exp(BigDecimal.ONE, mc), 498);
+        BigDecimal angle = new BigDecimal("1.2345678901234567");
+        BigDecimal sin = PrecisionMath.sin(angle, mc);
+        BigDecimal cos = PrecisionMath.cos(angle, mc);
+        assertClose(BigDecimal.ONE, sin.pow(2).add(cos.pow(2)), 495);
+        assertClose(angle, PrecisionMath.atan(sin.divide(cos, mc), mc), 495);
+        assertClose(angle, PrecisionMath.ln(PrecisionMath.exp(angle, mc), mc), 495);
+    }
+    
+    @Test
+    public void testFactorial() {
+        assertEquals(BigInteger.ONE, PrecisionMath.factorial(0));
+        assertEquals(new BigInteger("15511210043330985984000000"), PrecisionMath.factorial(25));
+        assertThrows(IllegalArgumentException.class, () -> PrecisionMath.factorial(-1));
+    }
+    
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(ArithmeticException.class, () -> PrecisionMath.ln(BigDecimal.ZERO, MC50));
+        assertThrows(ArithmeticException.class, () -> PrecisionMath.sqrt(BigDecimal.ONE.negate(), MC50));
+        assertThrows(IllegalArgumentException.class, () -> PrecisionMath.pi(MathContext.UNLIMITED));
+    }
+    
+    @Test
+    public void testEnginePrecisionEvaluation() {
+        CalculatorEngine engine = new CalculatorEngine();
+        
+        // Decimal literals are exact, unlike the double result 0.30000000000000004
+        assertEquals(0, new BigDecimal("0.3").compareTo(engine.evaluate("0.1+0.2", MathContext.DECIMAL128)));
+        assertEquals(new BigDecimal(PI_DIGITS).round(new MathContext(60)),
+                engine.evaluate("π", new MathContext(60)));
+        assertClose(BigDecimal.ONE, engine.evaluate("sin(pi/6)×2", MC50), 45);
+        
+        EvaluationContext context = engine.newContext();
+        context.setVariable("x", 0.5);
+        assertEquals(0, new BigDecimal("0.25").compareTo(engine.evaluate("x^2", MC50, context)));
+        
+        assertThrows(IllegalArgumentException.class, () -> engine.evaluate("1/0", MC50));
+        assertThrows(IllegalArgumentException.class, () -> engine.evaluate("1+", MC50));
+    }
+    
+    @Test
+    public void testFactorialBeyondLongRange() {
+        CalculatorEngine engine = new CalculatorEngine();
+        assertEquals(2.43290200817664e18, engine.factorial(20), 1e4);
+        assertEquals(5.109094217170944e19, engine.factorial(21), 1e5);
+        assertEquals(Double.POSITIVE_INFINITY, engine.factorial(171));
+        assertEquals(new BigInteger("51090942171709440000"), engine.factorialExact(21));
+    }
+    
+    private static void assertClose(BigDecimal expected, BigDecimal actual, int digits) {
+        BigDecimal tolerance = BigDecimal.ONE.movePointLeft(digits).multiply(expected.abs().max(BigDecimal.ONE));
+        assertTrue(expected.subtract(actual).abs().compareTo(tolerance) <= 0,
+                "expected " + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,93 @@
+package com.calculator.core;
+
+import com.calculator.units.Dimension;
+import com.calculator.units.Quantity;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for expressions with units, compiled through CalculatorEngine.compileQuantity.
+ */
+public class QuantityExpressionTest {
+    
+    private final CalculatorEngine engine = new CalculatorEngine();
+    
+    @Test
+    public void testResultUsesFirstUnit() {
+        Quantity length = engine.evaluateQuantity("3 m + 20 cm");
+        
+        assertEquals(3.2, length.getValue(), 1e-12);
+        assertEquals("m", length.getUnit());
+        assertEquals(Dimension.LENGTH, length.getDimension());
+        assertEquals(60, engine.evaluateQuantity("30 min + 1800 s").getValue(), 1e-12);
+    }
+    
+    @Test
+    public void testDerivedDimensions() {
+        Quantity force = engine.evaluateQuantity("5 kg * 9.81 m/s^2");
+        assertEquals(Dimension.FORCE, force.getDimension());
+        assertEquals(49.05, engine.evaluateQuantity("5 kg × 9.81 m/s² to N").getValue(), 1e-12);
+        
+        assertEquals(Dimension.AREA, engine.evaluateQuantity("2 m^2").getDimension());
+        assertEquals(3, engine.evaluateQuantity("sqrt(9 m^2) to m").getValue(), 1e-12);
+        assertEquals(2, engine.evaluateQuantity("(4 m) / (2 m)").getValue(), 1e-12);
+        assertEquals("", engine.evaluateQuantity("(4 m) / (2 m)").getUnit());
+    }
+    
+    @Test
+    public void testNumberAndUnitBindTighterThanDivision() {
+        Quantity speed = engine.evaluateQuantity("100 km / 2 h");
+        assertEquals(Dimension.SPEED, speed.getDimension());
+        assertEquals(50, engine.evaluateQuantity("100 km / 2 h to km/h").getValue(), 1e-9);
+        assertEquals(1.5, engine.evaluateQuantity("3 m / 2 s to m/s").getValue(), 1e-12);
+        assertEquals(4, engine.evaluateQuantity("12 m^2 / 3 m to m").getValue(), 1e-12);
+        assertEquals(6, engine.evaluateQuantity("3 m * 2 m to m^2").getValue(), 1e-12);
+        assertEquals(8, engine.evaluateQuantity("2^3 m to m").getValue(), 1e-12);
+        assertEquals(20, engine.evaluateQuantity("(10 m)/(2 s) * 4 s to m").getValue(), 1e-12);
+    }
+    
+    @Test
+    public void testConversionTargets() {
+        assertEquals(96.56064, engine.evaluateQuantity("60 mph to kph").getValue(), 1e-9);
+        assertEquals(26.8224, engine.evaluateQuantity("60 mi/h → m/s").getValue(), 1e-9);
+        assertEquals(7.62, engine.evaluateQuantity("3 in in cm").getValue(), 1e-12);
+        assertEquals(38, engine.evaluateQuantity("3 ft + 2 in in in").getValue(), 1e-12);
+        assertEquals("km/h", engine.evaluateQuantity("100 m/s to km/h").getUnit());
+    }
+    
+    @Test
+    public void testOffsetScales() {
+        assertEquals(212, engine.evaluateQuantity("100 C to F").getValue(), 1e-9);
+        assertEquals(-40, engine.evaluateQuantity("-40 F to C").getValue(), 1e-9);
+        assertEquals(293.15, engine.evaluateQuantity("20 °C in K").getValue(), 1e-9);
+        assertEquals(68.0, engine.evaluateQuantity("20 C to F").getValue());
+        assertEquals(212.0, engine.evaluateQuantity("100 C to F").getValue());
+        assertEquals(32.0, engine.evaluateQuantity("0 C to F").getValue());
+        assertEquals(100.0, engine.evaluateQuantity("212 F to C").getValue());
+        assertEquals(293.15, engine.evaluateQuantity("20 C to K").getValue());
+        assertEquals(-40.0, engine.evaluateQuantity("-40 F to C").getValue());
+        assertEquals(37.0, engine.evaluateQuantity("37 C").getValue());
+        
+        Quantity body = engine.evaluateQuantity("37 C");
+        assertEquals(37, body.getValue(), 1e-9);
+        assertEquals("C", body.getUnit());
+    }
+    
+    @Test
+    public void testVariablesArePureNumbers() {
+        EvaluationContext context = engine.newContext();
+        context.setVariable("x", 4.0);
+        
+        assertEquals(8, engine.evaluateQuantity("x * 2 m", context).getValue(), 1e-12);
+    }
+    
+    @Test
+    public void testDimensionErrorsAreReportedAtCompileTime() {
+        assertThrows(IllegalArgumentException.class, () -> engine.compileQuantity("3 m + 2 kg"));
+        assertThrows(IllegalArgumentException.class, () -> engine.compileQuantity("sin(2 m)"));
+        assertThrows(IllegalArgumentException.class, () -> engine.compileQuantity("20 C + 5 C"));
+        assertThrows(IllegalArgumentException.class, () -> engine.compileQuantity("3 m to kg"));
+        assertThrows(IllegalArgumentException.class, () -> engine.compileQuantity("2 m ^ 1.5"));
+        assertThrows(IllegalArgumentException.class, () -> engine.compileQuantity("C"));
+    }
+}
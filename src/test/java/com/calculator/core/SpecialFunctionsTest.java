@@ -0,0 +1,121 @@
+package com.calculator.core;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the SpecialFunctions class.
+ */
+public class SpecialFunctionsTest {
+    
+    @Test
+    public void testFactorialTable() {
+        assertEquals(1, SpecialFunctions.factorial(0));
+        assertEquals(3628800, SpecialFunctions.factorial(10));
+        assertEquals(PrecisionMath.factorial(170).doubleValue(), SpecialFunctions.factorial(170));
+        assertEquals(Double.POSITIVE_INFINITY, SpecialFunctions.factorial(171));
+        assertThrows(IllegalArgumentException.class, () -> SpecialFunctions.factorial(-2));
+    }
+    
+    @Test
+    public void testGammaAtNonIntegers() {
+        double sqrtPi = Math.sqrt(Math.PI);
+        assertEquals(sqrtPi, SpecialFunctions.gamma(0.5), 1e-14 * sqrtPi);
+        assertEquals(sqrtPi / 2, SpecialFunctions.factorial(0.5), 1e-14);
+        assertEquals(-2 * sqrtPi, SpecialFunctions.gamma(-0.5), 1e-14 * 2 * sqrtPi);
+        assertEquals(9.5135076986687318, SpecialFunctions.gamma(0.1), 1e-13);
+        assertTrue(Double.isNaN(SpecialFunctions.gamma(-3)));
+        assertEquals(Double.POSITIVE_INFINITY, SpecialFunctions.gamma(180.5));
+    }
+    
+    @Test
+    public void testLogarithmsDoNotOverflow() {
+        assertEquals(Math.log(SpecialFunctions.factorial(100)), SpecialFunctions.logFactorial(100), 1e-12);
+        assertEquals(5905.2204232091812, SpecialFunctions.lnGamma(1000), 1e-9);
+        assertEquals(1.2815518384658170e7, SpecialFunctions.logFactorial(1e6), 1e-5);
+        assertEquals(0.57236494292470008, SpecialFunctions.lnGamma(0.5), 1e-14);
+        assertEquals(Math.log(2 * Math.sqrt(Math.PI)), SpecialFunctions.lnGamma(-0.5), 1e-14);
+        
+        // Both kernels agree where they meet
+        double x = 10.25;
+        assertEquals(Math.log(SpecialFunctions.gamma(x)), SpecialFunctions.lnGamma(x), 1e-13);
+    }
+    
+    @Test
+    public void testLogGammaKeepsRelativeAccuracyNearItsZeros() {
+        // Expected values are for the exact binary arguments, not the decimal literals
+        assertRelative(-5.771334222047127e-05, SpecialFunctions.lnGamma(1.0001), 1e-15);
+        assertRelative(-5.772155829918507e-08, SpecialFunctions.lnGamma(1.0000001), 1e-15);
+        assertRelative(4.227843666532498e-08, SpecialFunctions.lnGamma(2.0000001), 1e-15);
+        assertRelative(-8.537409000331583e-02, SpecialFunctions.lnGamma(1.2), 1e-15);
+        assertRelative(-7.108387291437215e-02, SpecialFunctions.lnGamma(1.8), 1e-15);
+        assertRelative(9.694746679063887e-02, SpecialFunctions.lnGamma(2.2), 1e-15);
+        assertRelative(6.637623973474295e-02, SpecialFunctions.lnGamma(0.9), 1e-15);
+    }
+
+    private static void assertRelative(double expected, double actual, double tolerance) {
+        assertEquals(expected, actual, Math.abs(expected) * tolerance);
+    }
+    
+    @Test
+    public void testCombinatoricsAreExact() {
+        assertEquals(10, SpecialFunctions.nCr(5, 2));
+        assertEquals(0, SpecialFunctions.nCr(2, 5));
+        assertEquals(126410606437752.0, SpecialFunctions.nCr(50, 25));
+        assertEquals(7648690600760440.0, SpecialFunctions.nCr(56, 28));
+        assertEquals(60339831552000.0, SpecialFunctions.nPr(20, 12));
+        assertEquals(4950, SpecialFunctions.nCr(100, 98));
+        assertEquals(19900, SpecialFunctions.nCr(200, 2));
+        assertEquals(14535, SpecialFunctions.nCr(171, 2));
+        assertEquals(39800, SpecialFunctions.nPr(200, 2));
+        assertEquals(166167000, SpecialFunctions.nCr(1000, 3));
+        assertEquals(999000, SpecialFunctions.nPr(1000, 2));
+        assertEquals(Math.rint(SpecialFunctions.nCr(1000, 500)), SpecialFunctions.nCr(1000, 500));
+    }
+    
+    @Test
+    public void testCombinatoricsOfLargeArgumentsDoNotCancel() {
+        assertRelative(2.7028824094543655e299, SpecialFunctions.nCr(1000, 500), 1e-13);
+        assertEquals(4.9999999995e19, SpecialFunctions.nCr(1e10, 2));
+        assertRelative(4.999999999999999e31, SpecialFunctions.nCr(1e16, 2), 1e-15);
+        assertRelative(9.999999999999999e31, SpecialFunctions.nPr(1e16, 2), 1e-15);
+        assertEquals(1e12 + 0.5, SpecialFunctions.nCr(1e12 + 0.5, 1));
+        assertEquals(1e12 + 0.5, SpecialFunctions.nPr(1e12 + 0.5, 1));
+        // Γ(n+1) / (Γ(n+1/2) Γ(3/2)) with n = 1e10, from the asymptotic expansion
+        assertRelative(112837.91671378268, SpecialFunctions.nCr(1e10 + 0.5, 1e10), 1e-12);
+        assertRelative(-0.9375, SpecialFunctions.nPr(2.5, 4), 1e-15);
+        assertEquals(2.5, SpecialFunctions.nCr(2.5, 1.5), 1e-12);
+        assertTrue(Double.isNaN(SpecialFunctions.nCr(-1, 2)));
+    }
+    
+    @Test
+    public void testErrorFunction() {
+        double[][] cases = {
+            {0.01, 0.011283415555849616, 0.9887165844441503},
+            {0.5, 0.5204998778130465, 0.4795001221869535},
+            {1.9, 0.9927904292352575, 0.0072095707647425325},
+            {2.0, 0.9953222650189527, 0.004677734981047265},
+            {2.5, 0.999593047982555, 0.0004069520174449589},
+            {5.0, 0.9999999999984626, 1.5374597944280351e-12},
+            {-3.0, -0.9999779095030014, 1.9999779095030015}
+        };
+        for (double[] c : cases) {
+            assertEquals(c[1], SpecialFunctions.erf(c[0]), 1e-14 * Math.abs(c[1]), "erf " + c[0]);
+            assertEquals(c[2], SpecialFunctions.erfc(c[0]), 1e-14 * c[2], "erfc " + c[0]);
+        }
+        assertEquals(2.088487583762545e-45, SpecialFunctions.erfc(10), 1e-58);
+    }
+    
+    @Test
+    public void testStatistics() {
+        double[] values = {0, 1e9 + 4, 1e9 + 7, 1e9 + 13, 1e9 + 16};
+        
+        assertEquals(1e9 + 10, SpecialFunctions.mean(values, 1, 4), 0.0);
+        // Shifting by a large mean must not lose the spread
+        assertEquals(30, SpecialFunctions.variance(values, 1, 4), 1e-6);
+        assertEquals(1, SpecialFunctions.sum(new double[] {1e100, 1, -1e100}, 0, 3), 0.0);
+        assertEquals(1e9 + 4, SpecialFunctions.min(values, 1, 4), 0.0);
+        assertEquals(1e9 + 16, SpecialFunctions.max(values, 0, 5), 0.0);
+        assertTrue(Double.isNaN(SpecialFunctions.variance(values, 0, 1)));
+    }
+}
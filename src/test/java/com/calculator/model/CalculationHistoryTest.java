@@ -0,0 +1,92 @@
+package com.calculator.model;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the CalculationHistory class.
+ */
+public class CalculationHistoryTest {
+    
+    @Test
+    public void testNewestFirstWithEviction() {
+        CalculationHistory history = new CalculationHistory(3);
+        for (int i = 1; i <= 5; i++) {
+            history.addEntry(i + "+0 = " + i, i);
+        }
+        
+        assertEquals(3, history.size());
+        assertEquals(List.of("5+0 = 5", "4+0 = 4", "3+0 = 3"), history.getEntries());
+        assertEquals("5+0 = 5", history.getEntry(0));
+        assertEquals(3, history.getResult(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> history.getEntry(3));
+        
+        history.addEntry("text only");
+        assertTrue(Double.isNaN(history.getResult(0)));
+    }
+    
+    @Test
+    public void testClear() {
+        CalculationHistory history = new CalculationHistory(4);
+        history.addEntry("1 = 1", 1);
+        history.addEntry("2 = 2", 2);
+        history.clear();
+        
+        assertTrue(history.isEmpty());
+        assertTrue(history.getEntries().isEmpty());
+        history.addEntry("3 = 3", 3);
+        assertEquals(List.of("3 = 3"), history.getEntries());
+    }
+    
+    @Test
+    public void testCursorPagesAreStableWhileAdding() {
+        CalculationHistory history = new CalculationHistory(1000);
+        for (int i = 0; i < 10; i++) {
+            history.addEntry("e" + i, i);
+        }
+        
+        CalculationHistory.Cursor cursor = history.cursor(2);
+        String[] entries = new String[3];
+        double[] results = new double[3];
+        assertEquals(3, cursor.next(entries, results));
+        assertArrayEquals(new String[] {"e7", "e6", "e5"}, entries);
+        
+        history.addEntry("e10", 10);
+        assertEquals(3, cursor.next(entries, results));
+        assertArrayEquals(new double[] {4, 3, 2}, results);
+        assertEquals(2, cursor.next(entries, null));
+        assertFalse(cursor.hasNext());
+        assertEquals(0, cursor.next(entries, null));
+    }
+    
+    @Test
+    public void testReadersSeeConsistentEntriesWhileWriterWraps() throws InterruptedException {
+        CalculationHistory history = new CalculationHistory(64);
+        int writes = 200_000;
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            String[] entries = new String[16];
+            double[] results = new double[16];
+            while (history.size() < 64 || !"done".equals(history.getEntry(0))) {
+                CalculationHistory.Cursor cursor = history.cursor();
+                int count = cursor.next(entries, results);
+                for (int i = 0; i < count; i++) {
+                    if (!entries[i].equals("done") && Double.parseDouble(entries[i]) != results[i]) {
+                        failure.set(entries[i] + " paired with " + results[i]);
+                    }
+                }
+            }
+        });
+        reader.start();
+        for (int i = 0; i < writes; i++) {
+            history.addEntry(Integer.toString(i), i);
+        }
+        history.addEntry("done", -1);
+        reader.join(10_000);
+        
+        assertFalse(reader.isAlive());
+        assertNull(failure.get());
+    }
+}
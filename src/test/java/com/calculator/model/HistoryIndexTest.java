@@ -0,0 +1,74 @@
+package com.calculator.model;
+
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the HistoryIndex class and indexed CalculationHistory searches.
+ */
+public class HistoryIndexTest {
+    
+    @Test
+    public void testTextAndRangeQueries() {
+        HistoryIndex index = new HistoryIndex();
+        index.add(0, "sqrt(144) = 12", 12);
+        index.add(1, "SQRT(400) = 20", 20);
+        index.add(2, "sqrt(900) = 30", 30);
+        index.add(3, "10 + 5 = 15", 15);
+        index.add(4, "pi", Double.NaN);
+        
+        assertArrayEquals(new long[] {2, 1, 0}, index.search("sqrt", Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, 10));
+        assertArrayEquals(new long[] {1, 0}, index.search("Sqrt(", 10, 20, 10));
+        assertArrayEquals(new long[] {3, 1, 0}, index.search(null, 10, 20, 10));
+        assertArrayEquals(new long[] {4}, index.search("pi", Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, 10));
+        assertArrayEquals(new long[] {2}, index.search("sqrt", 25, 35, 10));
+        assertArrayEquals(new long[] {3}, index.search("", 0, 100, 1));
+        assertEquals(0, index.search("sqrt(12", 0, 100, 10).length);
+        assertEquals(0, index.search("cbrt", 0, 100, 10).length);
+    }
+    
+    @Test
+    public void testMatchesLinearScanOverManyEntries() {
+        HistoryIndex index = new HistoryIndex();
+        String[] functions = {"sqrt", "sin", "cos", "log", "exp"};
+        Random random = new Random(11);
+        int n = 50_000;
+        String[] entries = new String[n];
+        double[] results = new double[n];
+        for (int i = 0; i < n; i++) {
+            results[i] = random.nextInt(1000) / 10.0;
+            entries[i] = functions[random.nextInt(functions.length)] + "(" + i + ") = " + results[i];
+            index.add(i, entries[i], results[i]);
+        }
+        index.removeBefore(20_000);
+        
+        long[] found = index.search("sqrt", 10, 20, Integer.MAX_VALUE);
+        int expected = 0;
+        for (int i = n - 1; i >= 20_000; i--) {
+            if (entries[i].contains("sqrt") && results[i] >= 10 && results[i] <= 20) {
+                assertEquals(i, found[expected++]);
+            }
+        }
+        assertEquals(expected, found.length);
+        assertEquals(30_000, index.size());
+    }
+    
+    @Test
+    public void testIndexedHistoryFollowsEviction() {
+        CalculationHistory history = new CalculationHistory(3, true);
+        history.addEntry("sqrt(4) = 2", 2);
+        history.addEntry("sqrt(9) = 3", 3);
+        history.addEntry("2 + 2 = 4", 4);
+        history.addEntry("sqrt(16) = 4", 4);
+        
+        assertEquals(List.of("sqrt(16) = 4", "sqrt(9) = 3"),
+                history.search("sqrt", Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, 10));
+        assertEquals(List.of("sqrt(16) = 4", "2 + 2 = 4"), history.search("", 4, 4, 10));
+        
+        history.clear();
+        assertTrue(history.search("sqrt", 0, 10, 10).isEmpty());
+        assertThrows(IllegalStateException.class, () -> new CalculationHistory(3).search("x", 0, 1, 1));
+    }
+}
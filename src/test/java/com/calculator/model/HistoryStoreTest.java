@@ -0,0 +1,109 @@
+package com.calculator.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the HistoryStore class.
+ */
+public class HistoryStoreTest {
+    
+    private static final int SEGMENT_SIZE = 80 * 1024;
+    
+    @Test
+    public void testRecordsSurviveReopening(@TempDir Path directory) throws IOException {
+        try (HistoryStore store = new HistoryStore(directory)) {
+            assertEquals(0, store.append(new HistoryRecord(1000, "2+2", 4, CalculatorMode.STANDARD)));
+            assertEquals(1, store.append(new HistoryRecord(2000, "sin(π/2) × 3", 3, CalculatorMode.SCIENTIFIC)));
+        }
+        
+        try (HistoryStore store = new HistoryStore(directory, 100, Duration.ofDays(365 * 100))) {
+            assertEquals(2, store.size());
+            HistoryRecord second = store.get(1);
+            assertEquals("sin(π/2) × 3", second.getExpression());
+            assertEquals(3, second.getResult());
+            assertEquals(2000, second.getTimestamp());
+            assertEquals(CalculatorMode.SCIENTIFIC, second.getMode());
+            
+            assertEquals(2, store.append(new HistoryRecord(3000, "1/3", 1.0 / 3, CalculatorMode.STANDARD)));
+            List<HistoryRecord> recent = store.getRecent(2);
+            assertEquals("1/3", recent.get(0).getExpression());
+            assertEquals(1.0 / 3, recent.get(0).getResult());
+            assertEquals("sin(π/2) × 3", recent.get(1).getExpression());
+        }
+    }
+    
+    @Test
+    public void testRecoveryStopsAtTornRecord(@TempDir Path directory) throws IOException {
+        try (HistoryStore store = new HistoryStore(directory)) {
+            store.append(new HistoryRecord(1, "1+1", 2, CalculatorMode.STANDARD));
+            store.append(new HistoryRecord(2, "2+2", 4, CalculatorMode.STANDARD));
+        }
+        // Corrupt the last byte of the second record's expression
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            int second = 16 + 25 + 3;
+            channel.write(ByteBuffer.wrap(new byte[] {'9'}), second + 21 + 2);
+        }
+        
+        try (HistoryStore store = new HistoryStore(directory)) {
+            assertEquals(1, store.size());
+            assertEquals("1+1", store.get(0).getExpression());
+            assertEquals(1, store.append(new HistoryRecord(3, "3+3", 6, CalculatorMode.STANDARD)));
+        }
+        try (HistoryStore store = new HistoryStore(directory)) {
+            assertEquals(2, store.size());
+            assertEquals("3+3", store.get(1).getExpression());
+        }
+    }
+    
+    @Test
+    public void testRetentionDiscardsWholeSegments(@TempDir Path directory) throws IOException {
+        String padding = "x".repeat(1000);
+        try (HistoryStore store = new HistoryStore(directory, 100, Duration.ofDays(1), SEGMENT_SIZE)) {
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < 300; i++) {
+                store.append(new HistoryRecord(now, padding + i, i, CalculatorMode.STANDARD));
+            }
+            
+            assertTrue(store.size() >= 100 && store.size() < 200);
+            assertEquals(300, store.getNextSequence());
+            assertEquals(padding + 299, store.get(299).getExpression());
+            assertThrows(IndexOutOfBoundsException.class, () -> store.get(0));
+            
+            store.clear();
+            assertEquals(0, store.size());
+            assertEquals(300, store.append(new HistoryRecord(now, "1", 1, CalculatorMode.STANDARD)));
+        }
+    }
+    
+    @Test
+    public void testOldRecordsExpire(@TempDir Path directory) throws IOException {
+        long now = System.currentTimeMillis();
+        String padding = "x".repeat(1000);
+        try (HistoryStore store = new HistoryStore(directory, 1000, Duration.ofDays(1), SEGMENT_SIZE)) {
+            for (int i = 0; i < 100; i++) {
+                store.append(new HistoryRecord(now - Duration.ofDays(2).toMillis(), padding, i, CalculatorMode.STANDARD));
+            }
+            store.append(new HistoryRecord(now, "recent", 1, CalculatorMode.STANDARD));
+            
+            // The segment being written is kept, so only the sealed one expires
+            assertTrue(store.size() < 100);
+            assertTrue(store.getFirstSequence() > 0);
+            assertEquals("recent", store.getRecent(10).get(0).getExpression());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.calculator.programmer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the BaseConverter class.
+ */
+public class BaseConverterTest {
+    
+    private static String convert(String input, int from, int to) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BaseConverter(from, to).convert(new ByteArrayInputStream(input.getBytes(StandardCharsets.US_ASCII)), out);
+        return out.toString(StandardCharsets.US_ASCII);
+    }
+    
+    @Test
+    public void testPowerOfTwoBases() throws IOException {
+        assertEquals("11111111 1010\n0,-10000", convert("0xFF 0x0a\n000,-10", 16, 2));
+        assertEquals("ff a 0", convert("11111111 0b1010 0", 2, 16));
+        assertEquals("377 12", convert("ff a", 16, 8));
+        assertEquals("7fff", convert("0o77777", 8, 16));
+    }
+    
+    @Test
+    public void testOtherBases() throws IOException {
+        assertEquals("ff 7fffffffffffffff", convert("255 9223372036854775807", 10, 16));
+        assertEquals("255 -10", convert("ff -a", 16, 10));
+        assertEquals("18446744073709551616", convert("10000000000000000", 16, 10));
+        assertEquals("zz", convert("1295", 10, 36));
+    }
+    
+    @Test
+    public void testLongValuesMatchBigInteger() throws IOException {
+        BigInteger value = new BigInteger(5000, new Random(3));
+        
+        assertEquals(value.toString(2), convert(value.toString(16), 16, 2));
+        assertEquals(value.toString(16), convert(value.toString(10), 10, 16));
+    }
+    
+    @Test
+    public void testNumbersSplitAcrossBuffers() {
+        BaseConverter converter = new BaseConverter(16, 10);
+        ByteBuffer out = ByteBuffer.allocate(64);
+        
+        ByteBuffer first = ByteBuffer.wrap("10 2".getBytes(StandardCharsets.US_ASCII));
+        assertEquals(1, converter.convert(first, out, false));
+        assertEquals(3, first.position());
+        
+        ByteBuffer second = ByteBuffer.wrap("20 ff".getBytes(StandardCharsets.US_ASCII));
+        assertEquals(2, converter.convert(second, out, true));
+        assertEquals("16 32 255", new String(out.array(), 0, out.position(), StandardCharsets.US_ASCII));
+    }
+    
+    @Test
+    public void testOutputOverflowLeavesNumberUnconsumed() {
+        BaseConverter converter = new BaseConverter(16, 2);
+        ByteBuffer in = ByteBuffer.wrap("f ff".getBytes(StandardCharsets.US_ASCII));
+        ByteBuffer out = ByteBuffer.allocate(6);
+        
+        assertEquals(1, converter.convert(in, out, true));
+        assertEquals(2, in.position());
+        assertEquals(5, out.position());
+    }
+    
+    @Test
+    public void testInvalidDigits() {
+        assertThrows(NumberFormatException.class, () -> convert("12 1g", 16, 10));
+        assertThrows(NumberFormatException.class, () -> convert("102", 2, 16));
+        assertThrows(IllegalArgumentException.class, () -> new BaseConverter(1, 10));
+    }
+}
@@ -0,0 +1,100 @@
+package com.calculator.programmer;
+
+import java.math.BigInteger;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the BitVector class.
+ */
+public class BitVectorTest {
+    
+    @Test
+    public void testBitwiseOperationsAcrossWords() {
+        BitVector a = BitVector.parse("f0f0f0f0f0f0f0f0ff", 16, 72);
+        BitVector b = BitVector.parse("0ff00ff00ff00ff00f", 16, 72);
+        
+        assertEquals("f000f000f000f00f", a.and(b).toString(16));
+        assertEquals("fff0fff0fff0fff0ff", a.or(b).toString(16));
+        assertEquals("ff00ff00ff00ff00f0", a.xor(b).toString(16));
+        assertEquals("f0f0f0f0f0f0f0f00", a.not().toString(16));
+        assertEquals(72, a.not().not().width());
+        assertEquals(a, a.not().not());
+    }
+    
+    @Test
+    public void testShiftsAndRotatesMatchBigInteger() {
+        Random random = new Random(42);
+        int width = 200;
+        BigInteger modulus = BigInteger.ONE.shiftLeft(width);
+        for (int trial = 0; trial < 50; trial++) {
+            BigInteger value = new BigInteger(width, random);
+            BitVector vector = BitVector.valueOf(value, width);
+            int n = random.nextInt(width);
+            
+            assertEquals(value.shiftLeft(n).mod(modulus), vector.shiftLeft(n).toBigInteger());
+            assertEquals(value.shiftRight(n), vector.shiftRight(n).toBigInteger());
+            assertEquals(value.shiftLeft(n).mod(modulus).or(value.shiftRight(width - n)),
+                    vector.rotateLeft(n).toBigInteger());
+            assertEquals(vector, vector.rotateLeft(n).rotateRight(n));
+            assertEquals(vector.toSignedBigInteger().shiftRight(n),
+                    vector.shiftRightArithmetic(n).toSignedBigInteger());
+        }
+        assertTrue(BitVector.valueOf(-1, 100).shiftLeft(100).isZero());
+    }
+    
+    @Test
+    public void testArithmeticWrapsAround() {
+        BitVector max = BitVector.valueOf(-1, 130);
+        BitVector one = BitVector.valueOf(1, 130);
+        
+        assertTrue(max.add(one).isZero());
+        assertEquals(max, BitVector.zero(130).subtract(one));
+        assertEquals(BigInteger.ONE.negate(), max.toSignedBigInteger());
+        assertEquals(BigInteger.ONE.shiftLeft(130).subtract(BigInteger.ONE), max.toBigInteger());
+        assertEquals(one, max.negate());
+        assertEquals(BitVector.valueOf(6, 130), BitVector.valueOf(2, 130).multiply(BitVector.valueOf(3, 130)));
+        assertEquals("-7", BitVector.valueOf(-7, 130).toSignedString(10));
+        assertThrows(ArithmeticException.class, () -> one.divide(BitVector.zero(130)));
+        assertThrows(IllegalArgumentException.class, () -> one.add(BitVector.valueOf(1, 64)));
+    }
+    
+    @Test
+    public void testPopulationCountAndScans() {
+        BitVector vector = BitVector.zero(300).setBit(3).setBit(64).setBit(250);
+        
+        assertEquals(3, vector.bitCount());
+        assertEquals(3, vector.numberOfTrailingZeros());
+        assertEquals(49, vector.numberOfLeadingZeros());
+        assertEquals(251, vector.bitLength());
+        assertEquals(64, vector.nextSetBit(4));
+        assertEquals(-1, vector.nextSetBit(251));
+        assertEquals(64, vector.previousSetBit(249));
+        assertEquals(-1, vector.previousSetBit(2));
+        assertFalse(vector.clearBit(250).testBit(250));
+        assertEquals(300, BitVector.zero(300).numberOfLeadingZeros());
+    }
+    
+    @Test
+    public void testLargeRadixConversionRoundTrips() {
+        Random random = new Random(7);
+        for (int bits : new int[] {1, 63, 64, 65, 1000, 8192}) {
+            BigInteger value = new BigInteger(bits, random);
+            BitVector vector = BitVector.valueOf(value, bits);
+            for (int radix : new int[] {2, 3, 8, 10, 16, 32, 36}) {
+                String digits = vector.toString(radix);
+                assertEquals(value.toString(radix), digits);
+                assertEquals(vector, BitVector.parse(digits, radix, bits));
+            }
+        }
+    }
+    
+    @Test
+    public void testParsingRejectsInvalidInput() {
+        assertThrows(NumberFormatException.class, () -> BitVector.parse("", 10));
+        assertThrows(NumberFormatException.class, () -> BitVector.parse("12a", 10));
+        assertThrows(NumberFormatException.class, () -> BitVector.parse("100", 16, 8));
+        assertEquals(1, BitVector.parse("0", 10).width());
+    }
+}
@@ -0,0 +1,54 @@
+package com.calculator.programmer;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ProgrammerCalculator class.
+ */
+public class ProgrammerCalculatorTest {
+    
+    @Test
+    public void testSignedWrapAround() {
+        ProgrammerCalculator signedByte = new ProgrammerCalculator(WordSize.BYTE, true);
+        
+        assertEquals(-128, signedByte.add(127, 1));
+        assertEquals(0, signedByte.multiply(16, 16));
+        assertEquals(-1, signedByte.parse("ff", 16));
+        assertEquals(-128, signedByte.parse("-128", 10));
+        assertEquals("80", signedByte.format(-128, 16));
+        assertEquals("-128", signedByte.format(-128, 10));
+        assertThrows(NumberFormatException.class, () -> signedByte.parse("-129", 10));
+        assertThrows(NumberFormatException.class, () -> signedByte.parse("100", 16));
+    }
+    
+    @Test
+    public void testUnsignedWrapAround() {
+        ProgrammerCalculator unsignedWord = new ProgrammerCalculator(WordSize.WORD, false);
+        ProgrammerCalculator unsignedQword = new ProgrammerCalculator(WordSize.QWORD, false);
+        
+        assertEquals(0xffff, unsignedWord.subtract(0, 1));
+        assertEquals(0x7fff, unsignedWord.shiftRight(0xffff, 1));
+        assertEquals("65535", unsignedWord.format(-1, 10));
+        assertEquals(Long.MAX_VALUE, unsignedQword.divide(-1, 2));
+        assertEquals("18446744073709551615", unsignedQword.format(-1, 10));
+        assertThrows(ArithmeticException.class, () -> unsignedWord.divide(1, 0));
+    }
+    
+    @Test
+    public void testShiftsAndRotatesStayInTheWord() {
+        ProgrammerCalculator signedDword = new ProgrammerCalculator(WordSize.DWORD, true);
+        ProgrammerCalculator unsignedByte = new ProgrammerCalculator(WordSize.BYTE, false);
+        
+        assertEquals(-4, signedDword.shiftRight(-16, 2));
+        assertEquals(-1, signedDword.shiftRight(-16, 40));
+        assertEquals(0, signedDword.shiftLeft(1, 32));
+        assertEquals(Integer.MIN_VALUE, signedDword.shiftLeft(1, 31));
+        assertEquals(0x03, unsignedByte.rotateLeft(0x81, 1));
+        assertEquals(0xc0, unsignedByte.rotateRight(0x81, 1));
+        assertEquals(0x81, unsignedByte.rotateLeft(0x81, 8));
+        assertEquals(2, unsignedByte.bitCount(0x81));
+        assertEquals(0, unsignedByte.numberOfLeadingZeros(0x81));
+        assertEquals(8, unsignedByte.numberOfTrailingZeros(0));
+    }
+}
@@ -0,0 +1,92 @@
+package com.calculator.server;
+
+import com.calculator.core.CalculatorEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the EvaluationServer class.
+ */
+public class EvaluationServerTest {
+    
+    private EvaluationServer server;
+    private Socket socket;
+    private OutputStream output;
+    private BufferedReader input;
+    
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = new EvaluationServer(new CalculatorEngine(),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2);
+        server.start();
+        socket = new Socket();
+        socket.connect(server.getLocalAddress());
+        socket.setSoTimeout(5000);
+        output = socket.getOutputStream();
+        input = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    }
+    
+    @AfterEach
+    public void tearDown() throws IOException {
+        socket.close();
+        server.close();
+    }
+    
+    @Test
+    public void testPipelinedRequestsAreAnsweredInOrder() throws IOException {
+        StringBuilder requests = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            requests.append(i).append("×2\n");
+        }
+        output.write(requests.toString().getBytes(StandardCharsets.UTF_8));
+        output.flush();
+        
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i * 2.0, Double.parseDouble(input.readLine()), 0.0);
+        }
+    }
+    
+    @Test
+    public void testErrorsAreReportedInline() throws IOException {
+        output.write("1+1\r\n2+\n1/0\n√16\n".getBytes(StandardCharsets.UTF_8));
+        output.flush();
+        
+        assertEquals("2", input.readLine());
+        assertTrue(input.readLine().startsWith("ERR "));
+        assertEquals("ERR Invalid expression: 1/0: Division by zero!", input.readLine());
+        assertEquals("4", input.readLine());
+    }
+    
+    @Test
+    public void testDeeplyNestedRequestIsAnError() throws IOException {
+        String nested = "(".repeat(5000) + "1" + ")".repeat(5000);
+        output.write((nested + "\n" + "-".repeat(20000) + "2\n3+4\n").getBytes(StandardCharsets.UTF_8));
+        output.flush();
+        
+        assertTrue(input.readLine().startsWith("ERR Invalid expression: " + nested.substring(0, 10)));
+        assertEquals("2", input.readLine());
+        assertEquals("7", input.readLine());
+    }
+    
+    @Test
+    public void testOversizedRequestIsRejected() throws IOException {
+        byte[] request = new byte[EvaluationServer.MAX_LINE_LENGTH + 10];
+        java.util.Arrays.fill(request, (byte) '1');
+        output.write(request);
+        output.write("\n3+4\n".getBytes(StandardCharsets.UTF_8));
+        output.flush();
+        
+        assertTrue(input.readLine().startsWith("ERR "));
+        assertEquals("7", input.readLine());
+    }
+}
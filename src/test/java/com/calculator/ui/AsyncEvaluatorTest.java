@@ -0,0 +1,144 @@
+package com.calculator.ui;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the AsyncEvaluator class, with a single-threaded executor standing in for the UI thread.
+ */
+public class AsyncEvaluatorTest {
+    
+    private final ExecutorService uiThread = Executors.newSingleThreadExecutor();
+    private final List<String> events = new CopyOnWriteArrayList<>();
+    private final AsyncEvaluator evaluator = new AsyncEvaluator(uiThread, 500, busy -> events.add("busy " + busy));
+    
+    @AfterEach
+    public void tearDown() {
+        evaluator.close();
+        uiThread.shutdownNow();
+    }
+    
+    private void onUiThread(Runnable action) throws Exception {
+        uiThread.submit(action).get(5, TimeUnit.SECONDS);
+    }
+    
+    private void awaitIdle() throws Exception {
+        for (int i = 0; i < 500; i++) {
+            AtomicBoolean busy = new AtomicBoolean();
+            onUiThread(() -> busy.set(evaluator.isBusy()));
+            if (!busy.get()) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail("Evaluation did not finish");
+    }
+    
+    @Test
+    public void testResultIsDeliveredOnCallbackThread() throws Exception {
+        onUiThread(() -> evaluator.submit("a", () -> 6 * 7, result -> events.add("result " + result),
+                error -> events.add("error")));
+        awaitIdle();
+        
+        assertEquals(List.of("busy true", "busy false", "result 42"), events);
+    }
+    
+    @Test
+    public void testSameKeyIsCoalescedAndNewKeySupersedes() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean coalesced = new AtomicBoolean();
+        onUiThread(() -> {
+            evaluator.submit("slow", () -> {
+                release.await();
+                return 1;
+            }, result -> events.add("slow " + result), error -> events.add("slow error"));
+            coalesced.set(!evaluator.submit("slow", () -> 2, result -> events.add("duplicate"), error -> { }));
+            evaluator.submit("fast", () -> 3, result -> events.add("fast " + result), error -> { });
+        });
+        release.countDown();
+        awaitIdle();
+        
+        assertTrue(coalesced.get());
+        assertEquals(List.of("busy true", "busy false", "fast 3"), events);
+    }
+    
+    @Test
+    public void testCancelDiscardsResult() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        onUiThread(() -> evaluator.submit("a", () -> {
+            started.countDown();
+            Thread.sleep(10_000);
+            return 1;
+        }, result -> events.add("result"), error -> events.add("error")));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        onUiThread(evaluator::cancel);
+        Thread.sleep(50);
+        onUiThread(() -> { });
+        
+        assertEquals(List.of("busy true", "busy false"), events);
+    }
+    
+    @Test
+    public void testAbandonedWorkDoesNotGrowThePool() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger mostRunning = new AtomicInteger();
+        for (int i = 0; i < 5; i++) {
+            String key = "stubborn " + i;
+            onUiThread(() -> evaluator.submit(key, () -> {
+                mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                // Ignores interruption, like the numeric kernels
+                while (true) {
+                    try {
+                        release.await();
+                        break;
+                    } catch (InterruptedException e) {
+                        // keep waiting
+                    }
+                }
+                running.decrementAndGet();
+                return 1;
+            }, result -> events.add("result"), error -> { }));
+            Thread.sleep(20);
+        }
+        release.countDown();
+        awaitIdle();
+        
+        assertEquals(AsyncEvaluator.WORKERS, mostRunning.get());
+        assertEquals(List.of("busy true", "busy false", "result"), events);
+    }
+    
+    @Test
+    public void testTimeoutAndFailuresAreReported() throws Exception {
+        List<Exception> failures = new CopyOnWriteArrayList<>();
+        onUiThread(() -> evaluator.submit("stuck", () -> {
+            Thread.sleep(10_000);
+            return 1;
+        }, result -> { }, failures::add));
+        awaitIdle();
+        onUiThread(() -> evaluator.submit("bad", () -> {
+            throw new IllegalArgumentException("Invalid expression");
+        }, result -> { }, failures::add));
+        awaitIdle();
+        
+        onUiThread(() -> evaluator.submit("deep", () -> {
+            throw new StackOverflowError();
+        }, result -> { }, failures::add));
+        awaitIdle();
+        
+        assertEquals(3, failures.size());
+        assertTrue(failures.get(0) instanceof TimeoutException);
+        assertTrue(failures.get(1) instanceof IllegalArgumentException);
+        assertTrue(failures.get(2).getCause() instanceof StackOverflowError);
+    }
+}
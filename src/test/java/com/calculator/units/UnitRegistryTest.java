@@ -0,0 +1,101 @@
+package com.calculator.units;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the UnitRegistry class.
+ */
+public class UnitRegistryTest {
+    
+    private final UnitRegistry registry = UnitRegistry.standard();
+    
+    @Test
+    public void testConversionsAcrossDimensions() {
+        assertEquals(1609.344, registry.convert(1, "mi", "m"), 1e-9);
+        assertEquals(16, registry.convert(1, "lb", "oz"), 1e-12);
+        assertEquals(90, registry.convert(1.5, "h", "min"), 1e-12);
+        assertEquals(1024, registry.convert(1, "MiB", "KiB"), 1e-12);
+        assertEquals(1e-3, registry.convert(1, "mL", "L"), 1e-15);
+        assertEquals(1e4, registry.convert(1, "ha", "m²"), 1e-9);
+        assertEquals(1e4, registry.convert(1, "ha", "m2"), 1e-9);
+        assertEquals(3.6, registry.convert(1, "m/s", "kph"), 1e-12);
+    }
+    
+    @Test
+    public void testAffineTemperatureConversions() {
+        assertEquals(212, registry.convert(100, "C", "F"), 1e-9);
+        assertEquals(-40, registry.convert(-40, "F", "°C"), 1e-9);
+        assertEquals(0, registry.convert(-273.15, "C", "K"), 1e-9);
+        assertEquals(491.67, registry.convert(0, "C", "R"), 1e-9);
+    }
+    
+    @Test
+    public void testTemperaturePairsAreExact() {
+        assertEquals(212.0, registry.convert(100, "C", "F"));
+        assertEquals(32.0, registry.convert(0, "C", "F"));
+        assertEquals(68.0, registry.convert(20, "C", "F"));
+        assertEquals(100.0, registry.convert(212, "F", "C"));
+        assertEquals(0.0, registry.convert(32, "F", "C"));
+        assertEquals(273.15, registry.convert(0, "C", "K"));
+        assertEquals(0.0, registry.convert(273.15, "K", "C"));
+        assertEquals(-459.67, registry.convert(0, "K", "F"));
+        assertEquals(491.67, registry.convert(0, "C", "R"));
+        assertEquals(1.8, registry.scale(registry.idOf("C"), registry.idOf("F")));
+        assertEquals(32.0, registry.offset(registry.idOf("C"), registry.idOf("F")));
+        assertEquals(2.54, registry.convert(1, "in", "cm"));
+    }
+    
+    @Test
+    public void testIdsAreDenseAndStable() {
+        int metre = registry.idOf("m");
+        assertSame(registry.get("meter"), registry.get(metre));
+        assertEquals(metre, registry.get("m").getId());
+        assertTrue(registry.size() > metre);
+        assertTrue(registry.isConvertible(metre, registry.idOf("ft")));
+        assertFalse(registry.isConvertible(metre, registry.idOf("kg")));
+        assertEquals(Dimension.LENGTH, registry.get("nmi").getDimension());
+    }
+    
+    @Test
+    public void testBatchConversionInPlace() {
+        double[] temperatures = {0, 37, 100};
+        registry.convert(temperatures, registry.idOf("C"), registry.idOf("F"), temperatures);
+        
+        assertArrayEquals(new double[] {32, 98.60000000000001, 212}, temperatures);
+        assertThrows(IllegalArgumentException.class,
+                () -> registry.convert(temperatures, registry.idOf("C"), registry.idOf("m"), temperatures));
+        assertThrows(IllegalArgumentException.class,
+                () -> registry.convert(temperatures, registry.idOf("C"), registry.idOf("F"), new double[2]));
+    }
+    
+    @Test
+    public void testErrors() {
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> registry.convert(1, "m", "s"));
+        assertEquals("Conversion from m to s is not supported", exception.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> registry.convert(1, "furlong", "m"));
+        assertThrows(IllegalStateException.class, () -> registry.register("x", "x", Dimension.NONE, 1));
+    }
+    
+    @Test
+    public void testCustomRegistry() {
+        UnitRegistry custom = new UnitRegistry();
+        custom.register("m", "metre", Dimension.LENGTH, 1);
+        assertThrows(IllegalArgumentException.class, () -> custom.convert(1, "m", "fur"));
+        
+        // Registering invalidates the conversion matrix
+        custom.register("fur", "furlong", Dimension.LENGTH, 201.168);
+        assertEquals(201.168, custom.convert(1, "fur", "m"), 1e-12);
+        assertThrows(IllegalArgumentException.class, () -> custom.register("m", "again", Dimension.LENGTH, 1));
+        assertThrows(IllegalArgumentException.class, () -> custom.register("z", "zero", Dimension.LENGTH, 0));
+    }
+    
+    @Test
+    public void testDimensionAlgebra() {
+        assertEquals(Dimension.FORCE, Dimension.MASS.multiply(Dimension.LENGTH).divide(Dimension.TIME.power(2)));
+        assertEquals("L·M·T^-2", Dimension.FORCE.toString());
+        assertTrue(Dimension.SPEED.divide(Dimension.SPEED).isDimensionless());
+        assertEquals(-2, Dimension.PRESSURE.getExponent(BaseDimension.TIME));
+        assertEquals(-1, Dimension.PRESSURE.getExponent(BaseDimension.LENGTH));
+    }
+}